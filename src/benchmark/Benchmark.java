@@ -0,0 +1,50 @@
+package benchmark;
+
+import java.util.function.IntFunction;
+
+/**
+ * Benchmark
+ *
+ * A named operation to be timed. The operation is given the number of the
+ * invocation, so that it can pick different inputs each time (for example a
+ * different pair of stations), and returns its result so that the work cannot
+ * be optimised away.
+ */
+public class Benchmark {
+    private String group;
+    private String name;
+    private IntFunction<Object> operation;
+
+    /**
+     * @param group     what is being measured, for example "search".
+     * @param name      the case within the group, for example the engine and map.
+     * @param operation the work to be timed.
+     */
+    public Benchmark(String group, String name, IntFunction<Object> operation) {
+        this.group = group;
+        this.name = name;
+        this.operation = operation;
+    }
+
+    /**
+     * Returns the group the benchmark belongs to.
+     *
+     * @return the group the benchmark belongs to.
+     */
+    public String getGroup() { return group; }
+
+    /**
+     * Returns the name of the benchmark within its group.
+     *
+     * @return the name of the benchmark.
+     */
+    public String getName() { return name; }
+
+    /**
+     * Runs the operation once.
+     *
+     * @param invocation the number of this invocation.
+     * @return the result of the operation.
+     */
+    Object run(int invocation) { return operation.apply(invocation); }
+}
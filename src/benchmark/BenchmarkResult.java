@@ -0,0 +1,145 @@
+package benchmark;
+
+/**
+ * BenchmarkResult
+ *
+ * The measurements taken for one benchmark: throughput, latency percentiles
+ * and the number of bytes allocated per operation.
+ */
+public class BenchmarkResult {
+    private String group;
+    private String name;
+    private long operations;
+    private double opsPerSecond;
+    private long p50;
+    private long p90;
+    private long p99;
+    private long max;
+    private double bytesPerOp;
+
+    BenchmarkResult(Benchmark benchmark, long operations, double opsPerSecond,
+                    long[] sortedNanos, double bytesPerOp) {
+        this.group = benchmark.getGroup();
+        this.name = benchmark.getName();
+        this.operations = operations;
+        this.opsPerSecond = opsPerSecond;
+        this.p50 = percentile(sortedNanos, 0.50);
+        this.p90 = percentile(sortedNanos, 0.90);
+        this.p99 = percentile(sortedNanos, 0.99);
+        this.max = sortedNanos.length == 0 ? 0 : sortedNanos[sortedNanos.length - 1];
+        this.bytesPerOp = bytesPerOp;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(p * sorted.length))];
+    }
+
+    /**
+     * Returns the group the benchmark belongs to.
+     *
+     * @return the group of the benchmark.
+     */
+    public String getGroup() { return group; }
+
+    /**
+     * Returns the name of the benchmark.
+     *
+     * @return the name of the benchmark.
+     */
+    public String getName() { return name; }
+
+    /**
+     * Returns the number of measured invocations.
+     *
+     * @return the number of measured invocations.
+     */
+    public long getOperations() { return operations; }
+
+    /**
+     * Returns the throughput over the measurement time.
+     *
+     * @return the number of operations per second.
+     */
+    public double getOpsPerSecond() { return opsPerSecond; }
+
+    /**
+     * Returns the median latency in nanoseconds.
+     *
+     * @return the median latency in nanoseconds.
+     */
+    public long getP50() { return p50; }
+
+    /**
+     * Returns the 90th percentile latency in nanoseconds.
+     *
+     * @return the 90th percentile latency in nanoseconds.
+     */
+    public long getP90() { return p90; }
+
+    /**
+     * Returns the 99th percentile latency in nanoseconds.
+     *
+     * @return the 99th percentile latency in nanoseconds.
+     */
+    public long getP99() { return p99; }
+
+    /**
+     * Returns the slowest invocation in nanoseconds.
+     *
+     * @return the maximum latency in nanoseconds.
+     */
+    public long getMax() { return max; }
+
+    /**
+     * Returns the bytes allocated per operation, or NaN if the JVM cannot measure it.
+     *
+     * @return the bytes allocated per operation.
+     */
+    public double getBytesPerOp() { return bytesPerOp; }
+
+    /**
+     * Returns the result as a row for the console table.
+     *
+     * @return the formatted row.
+     */
+    String toRow() {
+        return String.format("%-10s %-44s %10d %14.1f %12s %12s %12s %12s %14.0f",
+                group, name, operations, opsPerSecond, micros(p50), micros(p90), micros(p99), micros(max), bytesPerOp);
+    }
+
+    /**
+     * Returns the header matching toRow().
+     *
+     * @return the table header.
+     */
+    static String header() {
+        return String.format("%-10s %-44s %10s %14s %12s %12s %12s %12s %14s",
+                "group", "benchmark", "ops", "ops/s", "p50 us", "p90 us", "p99 us", "max us", "alloc B/op");
+    }
+
+    /**
+     * Returns the result as a line of comma separated values.
+     *
+     * @return the CSV line.
+     */
+    String toCsv() {
+        return group + "," + name + "," + operations + "," + opsPerSecond + "," + p50 + "," + p90 + ","
+                + p99 + "," + max + "," + bytesPerOp;
+    }
+
+    /**
+     * Returns the header matching toCsv().
+     *
+     * @return the CSV header.
+     */
+    static String csvHeader() {
+        return "group,benchmark,ops,ops_per_s,p50_ns,p90_ns,p99_ns,max_ns,alloc_bytes_per_op";
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1f", nanos / 1000.0);
+    }
+}
@@ -0,0 +1,87 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * BenchmarkRunner
+ *
+ * Times benchmarks in the current thread. Each benchmark is first run for the
+ * warm-up time so the JIT has compiled it, then every invocation during the
+ * measurement time is timed individually to give latency percentiles. The
+ * bytes allocated by the thread over the measurement are divided by the number
+ * of invocations to give the allocation rate.
+ */
+public class BenchmarkRunner {
+    private long warmupNanos;
+    private long measureNanos;
+    private int sink;
+
+    /**
+     * @param warmupMillis  how long each benchmark runs before it is measured.
+     * @param measureMillis how long each benchmark is measured for.
+     */
+    public BenchmarkRunner(long warmupMillis, long measureMillis) {
+        this.warmupNanos = warmupMillis * 1_000_000L;
+        this.measureNanos = measureMillis * 1_000_000L;
+    }
+
+    /**
+     * run
+     *
+     * Warms up and measures a benchmark. At least one invocation is always
+     * measured, however long it takes.
+     *
+     * @param benchmark the benchmark to be run.
+     * @return the measurements.
+     */
+    public BenchmarkResult run(Benchmark benchmark) {
+        int invocation = 0;
+        long end = System.nanoTime() + warmupNanos;
+        while (System.nanoTime() < end) {
+            consume(benchmark.run(invocation++));
+        }
+
+        long[] nanos = new long[1024];
+        int count = 0;
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        end = start + measureNanos;
+        long now = start;
+        while (count == 0 || now < end) {
+            long before = System.nanoTime();
+            consume(benchmark.run(invocation++));
+            now = System.nanoTime();
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = now - before;
+        }
+        long elapsed = now - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        return new BenchmarkResult(benchmark, count, count * 1e9 / elapsed, sorted,
+                allocated < 0 ? Double.NaN : (double) allocated / count);
+    }
+
+    /**
+     * Returns a value depending on every result consumed, so the results are never dead code.
+     *
+     * @return a hash of the consumed results.
+     */
+    int getSink() { return sink; }
+
+    private void consume(Object result) {
+        sink += System.identityHashCode(result);
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
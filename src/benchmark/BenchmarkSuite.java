@@ -0,0 +1,444 @@
+package benchmark;
+
+import driver.ConsoleBenchmarks;
+import exception.BadFileException;
+import graph.CompactGraph;
+import graph.GraphADT;
+import graph.GraphSnapshot;
+import graph.LiveNetwork;
+import graph.NodeADT;
+import metrics.SearchMetrics;
+import parser.MetroMapParser;
+import parser.ParallelMapParser;
+import parser.TimetableParser;
+import timetable.ConnectionScan;
+import timetable.Timetable;
+import traversal.AltSearch;
+import traversal.BatchSearch;
+import traversal.BidirectionalDijkstraSearch;
+import traversal.CachingSearch;
+import traversal.ContractionHierarchy;
+import traversal.CustomizedOverlay;
+import traversal.DijkstraSearch;
+import traversal.Instrumented;
+import traversal.KShortestPaths;
+import traversal.LifelongPlanningSearch;
+import traversal.OverlayPartition;
+import traversal.Reachability;
+import traversal.RouteTable;
+import traversal.Search;
+import traversal.SearchContext;
+import traversal.SearchEngine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BenchmarkSuite
+ *
+ * Runs the benchmarks headless against the Boston map (if bostonmetro.txt is
+ * present) and against generated maps of increasing size, and prints a table
+ * of the results. Generated maps up to TIMETABLE_LIMIT stations are also
+ * given a generated timetable, to measure earliest arrival queries. The
+ * parsers' median times are also given as MB/s of map file.
+ *
+ * Options:
+ *   --map file           add a map file to measure (may be repeated)
+ *   --sizes 1000,10000   the sizes of the generated maps
+ *   --warmup ms          warm-up time for each benchmark
+ *   --time ms            measurement time for each benchmark
+ *   --out file           write the results as CSV
+ *   --baseline file      compare with earlier CSV results, exiting with 1 if any
+ *                        median latency is worse by more than the tolerance
+ *   --tolerance 0.25     the allowed slow-down against the baseline
+ */
+public class BenchmarkSuite {
+    private static final long SEED = 308;
+    private static final int PAIRS = 1024;
+    private static final int TIMETABLE_LIMIT = 10000;
+    private static final int HEADWAY = 15;
+    private static final int ISOCHRONE_BUDGET = 200;
+
+    public static void main(String[] args) throws IOException {
+        List<File> maps = new ArrayList<>();
+        String sizes = "1000,10000,100000";
+        long warmup = 1000;
+        long time = 2000;
+        File out = null;
+        File baseline = null;
+        double tolerance = 0.25;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--map": maps.add(new File(args[++i])); break;
+                case "--sizes": sizes = args[++i]; break;
+                case "--warmup": warmup = Long.parseLong(args[++i]); break;
+                case "--time": time = Long.parseLong(args[++i]); break;
+                case "--out": out = new File(args[++i]); break;
+                case "--baseline": baseline = new File(args[++i]); break;
+                case "--tolerance": tolerance = Double.parseDouble(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (maps.isEmpty() && new File("bostonmetro.txt").exists()) {
+            maps.add(new File("bostonmetro.txt"));
+        }
+        List<File> timetabled = new ArrayList<>();
+        for (String size : sizes.split(",")) {
+            if (!size.isBlank()) {
+                int stations = Integer.parseInt(size.trim());
+                File map = MapGenerator.temporaryMap(stations);
+                maps.add(map);
+                if (stations <= TIMETABLE_LIMIT) {
+                    timetabled.add(map);
+                }
+            }
+        }
+
+        BenchmarkRunner runner = new BenchmarkRunner(warmup, time);
+        List<BenchmarkResult> results = new ArrayList<>();
+        System.out.println(BenchmarkResult.header());
+        for (File map : maps) {
+            List<Benchmark> benchmarks = benchmarksFor(map);
+            if (timetabled.contains(map)) {
+                benchmarks.addAll(timetableBenchmarksFor(map));
+            }
+            for (Benchmark benchmark : benchmarks) {
+                BenchmarkResult result = runner.run(benchmark);
+                System.out.println(result.toRow());
+                if (result.getGroup().equals("parse") && !result.getName().startsWith("snapshot")) {
+                    System.out.printf("%s: %.0f MB/s%n", result.getName(), map.length() / 1e6 / (result.getP50() / 1e9));
+                }
+                results.add(result);
+            }
+        }
+
+        if (out != null) {
+            writeCsv(results, out);
+        }
+        if (baseline != null && !compare(results, baseline, tolerance)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * benchmarksFor
+     *
+     * Creates every benchmark for one map file.
+     *
+     * @param map the map file.
+     * @return the benchmarks for the map.
+     */
+    static List<Benchmark> benchmarksFor(File map) {
+        MetroMapParser parser = new MetroMapParser();
+        GraphADT graph = parser.parse(map);
+        List<NodeADT> nodes = graph.getNodes();
+        String mapName = nodes.size() + " stations";
+        List<Benchmark> benchmarks = new ArrayList<>();
+
+        benchmarks.add(new Benchmark("parse", "parse " + mapName, i -> parser.parse(map)));
+        benchmarks.add(new Benchmark("parse", "parseCompact " + mapName, i -> parser.parseCompact(map)));
+        ParallelMapParser parallelParser = new ParallelMapParser();
+        benchmarks.add(new Benchmark("parse", "parseParallel " + mapName, i -> parseParallel(parallelParser, map)));
+        File snapshot = snapshotOf(map, parser);
+        if (snapshot != null) {
+            benchmarks.add(new Benchmark("parse", "snapshot read " + mapName, i -> readSnapshot(snapshot)));
+        }
+
+        Random random = new Random(SEED);
+        NodeADT[] sources = new NodeADT[PAIRS];
+        NodeADT[] goals = new NodeADT[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            sources[i] = nodes.get(random.nextInt(nodes.size()));
+            goals[i] = nodes.get(random.nextInt(nodes.size()));
+        }
+        for (SearchEngine engine : SearchEngine.values()) {
+            if (!engine.isPractical(nodes.size())) {
+                continue;
+            }
+            Search search = engine.create(graph);
+            if (search instanceof Instrumented) {
+                reportMetrics((Instrumented) search, search, sources, goals, engine.name().toLowerCase() + " " + mapName);
+            }
+            benchmarks.add(new Benchmark("search", engine.name().toLowerCase() + " " + mapName,
+                    i -> search.findPath(sources[i & (PAIRS - 1)], goals[i & (PAIRS - 1)])));
+        }
+
+        // Repeated traffic: 64 distinct pairs asked for over and over, through a cache.
+        CachingSearch cached = new CachingSearch(DijkstraSearch::new, graph, 1024);
+        benchmarks.add(new Benchmark("search", "cached dijkstra " + mapName,
+                i -> cached.findPath(sources[i & 63], goals[i & 63])));
+
+        // A batch of every pair, asked from 32 distinct sources, against the same pairs one at a time.
+        DijkstraSearch dijkstra = new DijkstraSearch(graph);
+        int[] batchSources = new int[PAIRS];
+        int[] batchGoals = new int[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            batchSources[i] = dijkstra.getGraph().indexOf(sources[i & 31].getId());
+            batchGoals[i] = dijkstra.getGraph().indexOf(goals[i].getId());
+        }
+        reportSettled(dijkstra, new BidirectionalDijkstraSearch(dijkstra.getGraph(), nodes),
+                new AltSearch(dijkstra.getGraph(), nodes, AltSearch.DEFAULT_LANDMARKS), batchSources, batchGoals, mapName);
+        reportRepair(dijkstra.getGraph(), nodes, batchSources, batchGoals, mapName);
+
+        // Alternative routes: the k cheapest loopless paths, for k from 1 to 10.
+        KShortestPaths yen = new KShortestPaths(dijkstra.getGraph(), nodes);
+        for (int k : new int[]{1, 2, 5, 10}) {
+            benchmarks.add(new Benchmark("alternatives", "k-shortest k=" + k + " " + mapName,
+                    i -> yen.shortestPaths(batchSources[i & (PAIRS - 1)], batchGoals[i & (PAIRS - 1)], k, Integer.MAX_VALUE)));
+        }
+
+        // Everything within a budget of about twenty stops, from one source and from every batch source at once.
+        Reachability reachability = new Reachability(dijkstra);
+        benchmarks.add(new Benchmark("reachability", "within " + ISOCHRONE_BUDGET + " " + mapName,
+                i -> reachability.within(batchSources[i & (PAIRS - 1)], ISOCHRONE_BUDGET)));
+        benchmarks.add(new Benchmark("reachability", "within " + ISOCHRONE_BUDGET + " from " + PAIRS + " sources " + mapName,
+                i -> reachability.within(batchSources, ISOCHRONE_BUDGET)));
+
+        BatchSearch batch = new BatchSearch(dijkstra);
+        benchmarks.add(new Benchmark("batch", "BatchSearch " + PAIRS + " pairs " + mapName, i -> {
+            LongAdder cost = new LongAdder();
+            batch.findPaths(batchSources, batchGoals, result -> cost.add(result.getCost()));
+            return cost;
+        }));
+        benchmarks.add(new Benchmark("batch", "single queries " + PAIRS + " pairs " + mapName, i -> {
+            int length = 0;
+            for (int p = 0; p < PAIRS; p++) {
+                length += dijkstra.shortestPath(batchSources[p], batchGoals[p]).length;
+            }
+            return length;
+        }));
+
+        if (SearchEngine.ROUTE_TABLE.isPractical(nodes.size())) {
+            CompactGraph compact = CompactGraph.from(graph);
+            RouteTable table = RouteTable.build(compact);
+            System.out.printf("route table for %s: %.1f MB, built in %d ms%n",
+                    mapName, table.sizeInBytes() / 1e6, table.getBuildMillis());
+            benchmarks.add(new Benchmark("precompute", "RouteTable.build " + mapName, i -> RouteTable.build(compact)));
+        }
+        if (SearchEngine.CONTRACTION_HIERARCHY.isPractical(nodes.size())) {
+            ContractionHierarchy hierarchy = ContractionHierarchy.build(CompactGraph.from(graph));
+            System.out.printf("contraction hierarchy for %s: %d shortcuts, built in %d ms%n",
+                    mapName, hierarchy.shortcutCount(), hierarchy.getBuildMillis());
+        }
+
+        if (SearchEngine.OVERLAY.isPractical(nodes.size())) {
+            CompactGraph compact = CompactGraph.from(graph);
+            OverlayPartition partition = OverlayPartition.build(compact);
+            CustomizedOverlay overlay = CustomizedOverlay.customize(partition, compact);
+            System.out.printf("overlay for %s: %d levels, %d matrix entries, partitioned in %d ms, customized in %d ms%n",
+                    mapName, partition.levelCount(), overlay.entryCount(), partition.getBuildMillis(),
+                    overlay.getCustomizeMillis());
+            benchmarks.add(new Benchmark("precompute", "CustomizedOverlay.customize " + mapName,
+                    i -> CustomizedOverlay.customize(partition, compact)));
+        }
+
+        benchmarks.addAll(ConsoleBenchmarks.create(graph, mapName, SEED));
+        return benchmarks;
+    }
+
+    /**
+     * timetableBenchmarksFor
+     *
+     * Creates the timetable benchmarks for a generated map: earliest arrival
+     * queries between random stations, leaving at random times between 06:00
+     * and 20:00, over a generated day of trips.
+     *
+     * @param map the generated map file.
+     * @return the timetable benchmarks for the map.
+     * @throws IOException if the timetable cannot be written or read.
+     */
+    static List<Benchmark> timetableBenchmarksFor(File map) throws IOException {
+        CompactGraph stations = new MetroMapParser().parseCompact(map);
+        String mapName = stations.nodeCount() + " stations";
+        File file = MapGenerator.temporaryTimetable(stations.nodeCount(), HEADWAY);
+        long start = System.nanoTime();
+        Timetable timetable = new TimetableParser().parse(file, stations);
+        System.out.printf("timetable for %s: %d connections on %d trips, parsed in %d ms%n", mapName,
+                timetable.connectionCount(), timetable.tripCount(), (System.nanoTime() - start) / 1000000);
+
+        Random random = new Random(SEED);
+        int[] sources = new int[PAIRS];
+        int[] goals = new int[PAIRS];
+        int[] departures = new int[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            sources[i] = random.nextInt(stations.nodeCount());
+            goals[i] = random.nextInt(stations.nodeCount());
+            departures[i] = 6 * 3600 + random.nextInt(14 * 3600);
+        }
+        ConnectionScan scan = new ConnectionScan(timetable);
+        List<Benchmark> benchmarks = new ArrayList<>();
+        benchmarks.add(new Benchmark("timetable", "earliestArrival " + mapName,
+                i -> scan.earliestArrival(sources[i & (PAIRS - 1)], goals[i & (PAIRS - 1)], departures[i & (PAIRS - 1)])));
+        benchmarks.add(new Benchmark("timetable", "findJourney " + mapName,
+                i -> scan.findJourney(sources[i & (PAIRS - 1)], goals[i & (PAIRS - 1)], departures[i & (PAIRS - 1)])));
+        return benchmarks;
+    }
+
+    /**
+     * Runs every pair once through a search with metrics attached and prints
+     * them, then detaches the metrics so the timed runs measure the search alone.
+     */
+    private static void reportMetrics(Instrumented instrumented, Search search, NodeADT[] sources, NodeADT[] goals,
+                                      String name) {
+        SearchMetrics metrics = new SearchMetrics(name);
+        instrumented.setMetrics(metrics);
+        for (int i = 0; i < sources.length; i++) {
+            search.findPath(sources[i], goals[i]);
+        }
+        instrumented.setMetrics(null);
+        System.out.println("metrics for " + metrics);
+    }
+
+    /**
+     * Prints the average number of nodes settled per query by Dijkstra, by each
+     * direction of the bidirectional search and by ALT over the same pairs, along
+     * with the ALT precompute time.
+     */
+    private static void reportSettled(DijkstraSearch dijkstra, BidirectionalDijkstraSearch bidirectional,
+                                      AltSearch alt, int[] sources, int[] goals, String mapName) {
+        SearchContext context = new SearchContext(dijkstra.getGraph().nodeCount());
+        SearchContext backward = new SearchContext(dijkstra.getGraph().nodeCount());
+        long dijkstraSettled = 0;
+        long forwardSettled = 0;
+        long backwardSettled = 0;
+        long altSettled = 0;
+        for (int i = 0; i < sources.length; i++) {
+            context.reset();
+            dijkstra.shortestPath(sources[i], goals[i], context);
+            dijkstraSettled += context.settledCount();
+            context.reset();
+            backward.reset();
+            bidirectional.shortestPath(sources[i], goals[i], context, backward);
+            forwardSettled += context.settledCount();
+            backwardSettled += backward.settledCount();
+            context.reset();
+            alt.shortestPath(sources[i], goals[i], context);
+            altSettled += context.settledCount();
+        }
+        double queries = sources.length;
+        System.out.printf("settled per query for %s: dijkstra %.0f, bidirectional %.0f forward + %.0f backward,"
+                        + " alt %.0f (%d landmarks, precomputed in %d ms)%n",
+                mapName, dijkstraSettled / queries, forwardSettled / queries, backwardSettled / queries,
+                altSettled / queries, alt.getLandmarks().length, alt.getPrecomputeMillis());
+    }
+
+    /**
+     * Prints the average number of stations LPA* expands to repair a route
+     * after a station in the middle of it closes, against the number a new
+     * Dijkstra search over the open graph settles, and the time each closure
+     * took to publish.
+     */
+    private static void reportRepair(CompactGraph graph, List<NodeADT> nodes, int[] sources, int[] goals,
+                                     String mapName) {
+        LiveNetwork network = new LiveNetwork(graph);
+        LifelongPlanningSearch search = new LifelongPlanningSearch(network, nodes);
+        SearchContext context = new SearchContext(graph.nodeCount());
+        long expanded = 0;
+        long settled = 0;
+        long publishNanos = 0;
+        int closures = 0;
+        for (int i = 0; i < 64; i++) {
+            int[] path = search.shortestPath(sources[i], goals[i]);
+            if (path.length < 3) {
+                continue;
+            }
+            String middle = graph.getId(path[path.length / 2]);
+            long start = System.nanoTime();
+            network.closeStation(middle);
+            publishNanos += System.nanoTime() - start;
+            search.shortestPath(sources[i], goals[i]);
+            expanded += search.getExpandedCount();
+            context.reset();
+            new DijkstraSearch(network.current().getGraph(), nodes).shortestPath(sources[i], goals[i], context);
+            settled += context.settledCount();
+            network.reopenStation(middle);
+            closures++;
+        }
+        if (closures > 0) {
+            System.out.printf("repair per closure for %s: lpa* expanded %.0f, new dijkstra settled %.0f,"
+                            + " closure published in %d us%n",
+                    mapName, expanded / (double) closures, settled / (double) closures,
+                    publishNanos / closures / 1000);
+        }
+    }
+
+    private static File snapshotOf(File map, MetroMapParser parser) {
+        try {
+            File snapshot = File.createTempFile("metro-", ".snapshot");
+            snapshot.deleteOnExit();
+            GraphSnapshot.write(parser.parseCompact(map), map, snapshot);
+            return snapshot;
+        } catch (IOException e) {
+            System.out.println("Could not write a snapshot of " + map + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static CompactGraph parseParallel(ParallelMapParser parser, File map) {
+        try {
+            return parser.parse(map);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (BadFileException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static CompactGraph readSnapshot(File snapshot) {
+        try {
+            return GraphSnapshot.read(snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeCsv(List<BenchmarkResult> results, File out) throws IOException {
+        try (PrintWriter writer = new PrintWriter(out)) {
+            writer.println(BenchmarkResult.csvHeader());
+            for (BenchmarkResult result : results) {
+                writer.println(result.toCsv());
+            }
+        }
+    }
+
+    /**
+     * compare
+     *
+     * Compares the median latency of each result with the same benchmark in a
+     * baseline CSV file, printing any that have slowed down by more than the tolerance.
+     *
+     * @param results   the new results.
+     * @param baseline  the CSV file of earlier results.
+     * @param tolerance the allowed slow-down, as a fraction.
+     * @return true if nothing regressed.
+     * @throws IOException if the baseline cannot be read.
+     */
+    private static boolean compare(List<BenchmarkResult> results, File baseline, double tolerance) throws IOException {
+        HashMap<String, Long> medians = new HashMap<>();
+        List<String> lines = Files.readAllLines(baseline.toPath());
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(",");
+            medians.put(fields[0] + "," + fields[1], Long.parseLong(fields[4]));
+        }
+
+        boolean passed = true;
+        for (BenchmarkResult result : results) {
+            Long median = medians.get(result.getGroup() + "," + result.getName());
+            if (median != null && result.getP50() > median * (1 + tolerance)) {
+                System.out.printf("REGRESSION %s %s: p50 %d ns, baseline %d ns%n",
+                        result.getGroup(), result.getName(), result.getP50(), median);
+                passed = false;
+            }
+        }
+        return passed;
+    }
+}
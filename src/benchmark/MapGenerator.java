@@ -0,0 +1,161 @@
+package benchmark;
+
+import timetable.Timetable;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * MapGenerator
+ *
+ * Writes synthetic metro maps in the MetroMapParser grammar, so that the
+ * program can be measured on networks much larger than Boston.
+ *
+ * Stations are laid out on a square grid. Each row is one line and each column
+ * is another, so every station is served by two lines and can change between
+ * them. Station names are made of syllables spelling out the station ID, so
+ * they are unique but similar enough to each other to exercise the name
+ * suggestions.
+ *
+ * A timetable for a generated map runs trips along every row and column in
+ * both directions through the service day, in the TimetableParser grammar.
+ */
+public class MapGenerator {
+    private static final int FIRST_DEPARTURE = 5 * 3600;
+    private static final int LAST_DEPARTURE = 24 * 3600;
+    private static final int ROW_HOP = 120;
+    private static final int COLUMN_HOP = 180;
+    private static final String[] SYLLABLES = {
+            "Ka", "Lo", "Mi", "Ne", "Ru", "Sa", "To", "Vi", "Be", "Da", "Fo", "Gu", "Ha", "Je", "Po", "Wy"
+    };
+
+    /**
+     * generate
+     *
+     * Writes a grid map with the given number of stations.
+     *
+     * @param f        the file to be written.
+     * @param stations the number of stations.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void generate(File f, int stations) throws IOException {
+        int width = (int) Math.ceil(Math.sqrt(stations));
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(f))) {
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < stations; i++) {
+                int row = i / width;
+                int column = i % width;
+                line.setLength(0);
+                line.append(i + 1).append(' ').append(stationName(i + 1));
+                line.append(" Row").append(row).append(' ')
+                        .append(column > 0 ? i : 0).append(' ')
+                        .append(column < width - 1 && i + 1 < stations ? i + 2 : 0);
+                line.append(" Column").append(column).append(' ')
+                        .append(row > 0 ? i + 1 - width : 0).append(' ')
+                        .append(i + width < stations ? i + 1 + width : 0);
+                out.write(line.toString());
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Returns the generated name of a station.
+     *
+     * @param id the station ID.
+     * @return the name of the station.
+     */
+    public static String stationName(int id) {
+        StringBuilder name = new StringBuilder();
+        do {
+            name.append(SYLLABLES[id & 15]);
+            id >>>= 4;
+        } while (id > 0);
+        return name.toString();
+    }
+
+    /**
+     * Writes a generated map to a temporary file that is deleted when the program exits.
+     *
+     * @param stations the number of stations.
+     * @return the generated file.
+     * @throws IOException if the file cannot be written.
+     */
+    public static File temporaryMap(int stations) throws IOException {
+        File f = File.createTempFile("metro-" + stations + "-", ".txt");
+        f.deleteOnExit();
+        generate(f, stations);
+        return f;
+    }
+
+    /**
+     * generateTimetable
+     *
+     * Writes a timetable for the grid map with the given number of stations.
+     * Trips leave each end of every line from 05:00 until 24:00, each line's
+     * first trip a few minutes after the last line's so that they do not all
+     * run together, and call at every station. A hop takes two minutes along a
+     * row and three along a column.
+     *
+     * @param f        the file to be written.
+     * @param stations the number of stations in the map.
+     * @param headway  the minutes between trips on a line.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void generateTimetable(File f, int stations, int headway) throws IOException {
+        int width = (int) Math.ceil(Math.sqrt(stations));
+        int rows = (stations + width - 1) / width;
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(f))) {
+            StringBuilder line = new StringBuilder();
+            int[] stops = new int[Math.max(width, rows)];
+            for (int l = 0; l < rows + width; l++) {
+                // Lines 0 to rows - 1 are the rows, the rest are the columns.
+                boolean row = l < rows;
+                String name = row ? "Row" + l : "Column" + (l - rows);
+                int length = 0;
+                for (int i = row ? l * width : l - rows; i < stations; i += row ? 1 : width) {
+                    if (row && i / width != l) {
+                        break;
+                    }
+                    stops[length++] = i + 1;
+                }
+                int hop = row ? ROW_HOP : COLUMN_HOP;
+                int trip = 0;
+                for (int start = FIRST_DEPARTURE + (l * 7 % headway) * 60; start < LAST_DEPARTURE; start += headway * 60) {
+                    for (int direction = 0; direction < 2; direction++) {
+                        String tripName = name + (direction == 0 ? "+" : "-") + trip;
+                        for (int s = 0; s + 1 < length; s++) {
+                            int from = direction == 0 ? stops[s] : stops[length - 1 - s];
+                            int to = direction == 0 ? stops[s + 1] : stops[length - 2 - s];
+                            line.setLength(0);
+                            line.append(from).append(' ').append(to).append(' ')
+                                    .append(Timetable.formatTime(start + s * hop)).append(' ')
+                                    .append(Timetable.formatTime(start + (s + 1) * hop)).append(' ')
+                                    .append(tripName);
+                            out.write(line.toString());
+                            out.newLine();
+                        }
+                    }
+                    trip++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a generated timetable to a temporary file that is deleted when the program exits.
+     *
+     * @param stations the number of stations in the map.
+     * @param headway  the minutes between trips on a line.
+     * @return the generated file.
+     * @throws IOException if the file cannot be written.
+     */
+    public static File temporaryTimetable(int stations, int headway) throws IOException {
+        File f = File.createTempFile("timetable-" + stations + "-", ".txt");
+        f.deleteOnExit();
+        generateTimetable(f, stations, headway);
+        return f;
+    }
+}
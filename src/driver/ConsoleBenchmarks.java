@@ -0,0 +1,130 @@
+package driver;
+
+import benchmark.Benchmark;
+import graph.GraphADT;
+import graph.NodeADT;
+import render.BinaryRenderer;
+import render.ConsoleRenderer;
+import render.JsonRenderer;
+import render.RouteRenderer;
+import traversal.DijkstraSearch;
+import traversal.Route;
+import traversal.SearchEngine;
+import traversal.TransferSearch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ConsoleBenchmarks
+ *
+ * Benchmarks for the parts of ConsoleInterface that run for every query:
+ * checking a station name, completing and suggesting station names, and
+ * formatting a route from its stations or from its legs. They live in this
+ * package because those methods are not visible outside it. The renderers
+ * are also measured on their own, on routes found before timing starts.
+ */
+public class ConsoleBenchmarks {
+    private static final int SAMPLES = 1024;
+
+    /**
+     * create
+     *
+     * Creates the console benchmarks for a graph. Station names and routes are
+     * chosen up front from a seeded random generator, so each run uses the same inputs.
+     *
+     * @param graph   the graph of the subway system.
+     * @param mapName the name of the map, used in the benchmark names.
+     * @param seed    the seed for choosing stations.
+     * @return the benchmarks.
+     */
+    public static List<Benchmark> create(GraphADT graph, String mapName, long seed) {
+        ConsoleInterface console = new ConsoleInterface(graph, SearchEngine.DIJKSTRA);
+        List<NodeADT> stations = graph.getNodes();
+        Random random = new Random(seed);
+        String[] names = new String[SAMPLES];
+        String[] typos = new String[SAMPLES];
+        List<List<NodeADT>> routes = new ArrayList<>();
+        List<Route> transferRoutes = new ArrayList<>();
+        Route[] found = new Route[SAMPLES];
+        DijkstraSearch search = new DijkstraSearch(graph);
+        TransferSearch transfers = new TransferSearch(graph);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            String name = stations.get(random.nextInt(stations.size())).getName();
+            names[i] = i % 2 == 0 ? name.toLowerCase() : name;
+            typos[i] = mistype(name, random);
+        }
+        while (routes.size() < SAMPLES) {
+            List<NodeADT> route = search.findPath(stations.get(random.nextInt(stations.size())),
+                    stations.get(random.nextInt(stations.size())));
+            if (route.size() > 1) {
+                found[routes.size()] = search.findRoute(route.get(0), route.get(route.size() - 1));
+                routes.add(route);
+                transferRoutes.add(transfers.findRoute(route.get(0), route.get(route.size() - 1)));
+            }
+        }
+
+        List<Benchmark> benchmarks = new ArrayList<>();
+        benchmarks.add(new Benchmark("lookup", "validInput " + mapName,
+                i -> console.validInput(names[i & (SAMPLES - 1)])));
+        benchmarks.add(new Benchmark("lookup", "getMostLikeStation " + mapName,
+                i -> console.getMostLikeStation(typos[i & (SAMPLES - 1)])));
+        benchmarks.add(new Benchmark("lookup", "complete " + mapName,
+                i -> console.completeStation(names[i & (SAMPLES - 1)].substring(0, 2))));
+        benchmarks.add(new Benchmark("format", "formatOutput " + mapName,
+                i -> console.formatOutput(routes.get(i & (SAMPLES - 1)))));
+        benchmarks.add(new Benchmark("format", "formatRoute " + mapName,
+                i -> console.formatRoute(transferRoutes.get(i & (SAMPLES - 1)))));
+
+        // The routes are found up front, so these measure the renderers alone, each into a reused buffer.
+        StringBuilder text = new StringBuilder();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(bytes);
+        ConsoleRenderer consoleRenderer = new ConsoleRenderer();
+        JsonRenderer jsonRenderer = new JsonRenderer();
+        BinaryRenderer binaryRenderer = new BinaryRenderer();
+        benchmarks.add(new Benchmark("render", "console " + mapName, i -> {
+            text.setLength(0);
+            render(consoleRenderer, found[i & (SAMPLES - 1)], text);
+            return text.length();
+        }));
+        benchmarks.add(new Benchmark("render", "json " + mapName, i -> {
+            text.setLength(0);
+            render(jsonRenderer, found[i & (SAMPLES - 1)], text);
+            return text.length();
+        }));
+        benchmarks.add(new Benchmark("render", "binary " + mapName, i -> {
+            bytes.reset();
+            render(binaryRenderer, found[i & (SAMPLES - 1)], data);
+            return bytes.size();
+        }));
+        return benchmarks;
+    }
+
+    private static <O> void render(RouteRenderer<O> renderer, Route route, O out) {
+        try {
+            renderer.render(route, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Changes one character of a name, as if it had been mistyped.
+     *
+     * @param name   the correct name.
+     * @param random the random generator.
+     * @return the mistyped name.
+     */
+    private static String mistype(String name, Random random) {
+        char[] chars = name.toCharArray();
+        chars[random.nextInt(chars.length)] = (char) ('a' + random.nextInt(26));
+        return new String(chars);
+    }
+}
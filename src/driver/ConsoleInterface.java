@@ -1,16 +1,19 @@
 package driver;
 
 import exception.BadFileException;
-import graph.EdgeADT;
 import graph.GraphADT;
 import graph.Node;
 import graph.NodeADT;
+import lookup.StationIndex;
 import parser.MetroMapParser;
-import traversal.UniformCostSearch;
+import render.ConsoleRenderer;
+import traversal.Route;
 import traversal.Search;
+import traversal.SearchEngine;
 
 import java.io.File;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Scanner;
 
@@ -18,16 +21,33 @@ import java.util.Scanner;
  * This class works as the user interface and as the main running class for the program
  */
 class ConsoleInterface {
+    private final ConsoleRenderer renderer = new ConsoleRenderer();
     private GraphADT graph;
+    private SearchEngine engine;
+    private StationIndex stationIndex;
 
     /**
-     * Creates a new parser and uses it to generate a graph of the subway system
+     * Creates a new parser and uses it to generate a graph of the subway system.
+     * The parsed graph is kept in a binary snapshot next to the file, so later runs
+     * can load it without parsing the text again.
      *
      * @param filename The name of the file which contains the information to be parsed into a graph
+     * @param engine   The search implementation used to find routes
      */
-    ConsoleInterface(String filename) {
-        MetroMapParser parse = new MetroMapParser();
-        graph = parse.parse(new File(filename));
+    ConsoleInterface(String filename, SearchEngine engine) {
+        this(new MetroMapParser().parseCompact(new File(filename), new File(filename + ".snapshot")).toGraph(), engine);
+    }
+
+    /**
+     * Creates the interface for a graph that has already been built
+     *
+     * @param graph  The graph of the subway system
+     * @param engine The search implementation used to find routes
+     */
+    ConsoleInterface(GraphADT graph, SearchEngine engine) {
+        this.graph = graph;
+        this.engine = engine;
+        this.stationIndex = new StationIndex(graph);
     }
 
     /**
@@ -41,8 +61,8 @@ class ConsoleInterface {
         String input;
         NodeADT nodeFrom;
         NodeADT nodeTo;
-        Search search = new UniformCostSearch(graph);
-        List<NodeADT> output;
+        Search search = engine.create(graph);
+        Route route;
 
         System.out.println("For a list of stations, simply enter 'stations'");
         System.out.println("Please enter the station at the start of the route, enter 'end' if you want to stop");
@@ -53,8 +73,12 @@ class ConsoleInterface {
             System.out.println("Please enter the destination station for this route.");
             input = scan.nextLine().trim();
             nodeTo = inputCheck(input, scan, nodeFrom.getId());
-            output = search.findPath(nodeFrom, nodeTo);
-            System.out.println(formatOutput(output));
+            route = search.findRoute(nodeFrom, nodeTo);
+            if (route.isEmpty()) {
+                System.out.println("There is no route between those stations");
+            } else {
+                System.out.println(formatRoute(route));
+            }
             System.out.println("Please enter the station at the start of the route, enter 'end' if you want to stop");
             input = scan.nextLine().trim();
         }
@@ -94,6 +118,10 @@ class ConsoleInterface {
             } else {
                 System.out.println("That station does not exist, please enter a valid station");
                 System.out.println("Did you mean '" + getMostLikeStation(input) + "'?");
+                List<String> completions = completeStation(input);
+                if (!completions.isEmpty()) {
+                    System.out.println("Stations starting with '" + input + "': " + String.join(", ", completions));
+                }
                 input = scan.nextLine().trim();
             }
         }
@@ -106,16 +134,9 @@ class ConsoleInterface {
     }
 
     private NodeADT checkDuplicateNodeName(String nodeName, Scanner scan) {
-        ArrayList<NodeADT> dups = new ArrayList<>();
-        List<NodeADT> stations = graph.getNodes();
+        List<NodeADT> dups = stationIndex.find(nodeName);
         String input;
 
-        for(int i = 0; i < stations.size(); i++){
-            if(stations.get(i).getName().toUpperCase().equals(nodeName.toUpperCase())){
-                dups.add(stations.get(i));
-            }
-        }
-
         if(dups.size() == 1){
             return dups.get(0);
         }else{
@@ -157,14 +178,8 @@ class ConsoleInterface {
      * @return true if the input is the name of a station in the graph
      * false if not
      */
-    private boolean validInput(String input) {
-        List<NodeADT> stations = graph.getNodes();
-        for (NodeADT station : stations) {
-            if (station.getName().toUpperCase().equals(input.toUpperCase().trim())) {
-                return true;
-            }
-        }
-        return false;
+    boolean validInput(String input) {
+        return stationIndex.contains(input);
     }
 
     /**
@@ -173,58 +188,26 @@ class ConsoleInterface {
      * @param route A list of Node objects which contains the route to be displayed to the user
      * @return a StringBuilder object which contains the formatted route information to be shown to the user
      */
-    private StringBuilder formatOutput(List<NodeADT> route) {
-        String BASIC_FONT_COLOR = "\u001B[0m";
-        String HIGHLIGHT_FONT_COLOR = "\u001B[32m";
-        String currentline = findLine(route.get(0).getEdges(), route.get(1), "");
-        StringBuilder output = new StringBuilder(HIGHLIGHT_FONT_COLOR + "start on line: " + currentline + " | ");
-        output.append(BASIC_FONT_COLOR + route.get(0).getName());
-        int charCount = 0;
-        output.append(" -> ");
-
-        for (int i = 1; i < route.size(); i++) {
-            if (i == route.size() - 1) {
-                output.append(route.get(i).getName());
-            } else if (!findLine(route.get(i).getEdges(), route.get(i + 1), currentline).equals(currentline)) {
-                currentline = findLine(route.get(i).getEdges(), route.get(i + 1), currentline);
-                output.append(route.get(i).getName());
-                output.append(" -> ");
-                output.append(HIGHLIGHT_FONT_COLOR + "Change to line: ");
-                output.append(currentline);
-                output.append(BASIC_FONT_COLOR + " -> ");
-            } else {
-                output.append(route.get(i).getName());
-                output.append(" -> ");
-            }
-            if (output.length() > (charCount + 40)) {
-                output.append('\n');
-                charCount = output.length();
-            }
-        }
-        return output;
+    StringBuilder formatOutput(List<NodeADT> route) {
+        return formatRoute(Route.fromPath(route));
     }
 
     /**
-     * Used by the formatOutput() method to check if a line change is made between stations
+     * Builds the output string for a route that is already split into legs,
+     * without looking up the line of any edge
      *
-     * @param edges       The list of edges for the current node
-     * @param stationTo   The next node in the list to be used to check the list of edges and they line they are on
-     * @param currentLine The line the current node is one. Used to ensure that if an edge between the current node and the next exists that is on the current line
-     *                    then it is chosen to prevent the appearance of unnecessarily changing lines
-     * @return a string containing the line that the edge between the current station and the next lies on
+     * @param route The route, made of the legs ridden on each line
+     * @return a StringBuilder object which contains the formatted route information to be shown to the user
      */
-    private String findLine(List<EdgeADT> edges, NodeADT stationTo, String currentLine) {
-        List<String> lines = new ArrayList<>();
-        for (EdgeADT edge : edges) {
-            if (edge.getNode().equals(stationTo)) {
-                lines.add(edge.getLine());
-            }
-        }
-        if (lines.contains(currentLine)) {
-            return currentLine;
-        } else {
-            return lines.get(0);
+    StringBuilder formatRoute(Route route) {
+        StringBuilder output = new StringBuilder();
+        try {
+            renderer.render(route, output);
+        } catch (IOException e) {
+            // A StringBuilder is never closed and cannot fail to be appended to.
+            throw new UncheckedIOException(e);
         }
+        return output;
     }
 
     /**
@@ -233,48 +216,18 @@ class ConsoleInterface {
      * @param input the station name the user has entered
      * @return the station that is most similar to the entered string
      */
-    private String getMostLikeStation(String input) {
-        input = input.toUpperCase(); // Cleaning the string of capitalisation
-        NodeADT bestStation = null;
-        float bestLikeness = Integer.MAX_VALUE;
-        List<NodeADT> stations = graph.getNodes();
-        for (NodeADT station : stations) {
-            String stationName = station.getName().toUpperCase();
-            int stationLikeness = stringLikeness(stationName, input);
-            if (stationLikeness < bestLikeness) {
-                bestStation = station;
-                bestLikeness = stationLikeness;
-            }
-        }
-        return bestStation.getName();
+    String getMostLikeStation(String input) {
+        return stationIndex.closest(input);
     }
 
     /**
-     * Calculates the likeness of two strings using Levenshtein distance.
-     * Code based off "https://rosettacode.org/wiki/Levenshtein_distance"
+     * Returns the names of up to five stations which start with the input.
      *
-     * @param s1 - String 1
-     * @param s2 - String 2
-     * @return the levenshtein distance between the two strings
+     * @param input the start of a station name the user has entered
+     * @return the station names starting with the input, in alphabetical order
      */
-    private int stringLikeness(String s1, String s2) {
-        s1 = s1.toLowerCase();
-        s2 = s2.toLowerCase();
-        // i == 0
-        int[] costs = new int[s2.length() + 1];
-        for (int j = 0; j < costs.length; j++)
-            costs[j] = j;
-        for (int i = 1; i <= s1.length(); i++) {
-            // j == 0; nw = lev(i - 1, j)
-            costs[0] = i;
-            int nw = i - 1;
-            for (int j = 1; j <= s2.length(); j++) {
-                int cj = Math.min(1 + Math.min(costs[j], costs[j - 1]), s1.charAt(i - 1) == s2.charAt(j - 1) ? nw : nw + 1);
-                nw = costs[j];
-                costs[j] = cj;
-            }
-        }
-        return costs[s2.length()];
+    List<String> completeStation(String input) {
+        return stationIndex.complete(input, 5);
     }
 
 }
\ No newline at end of file
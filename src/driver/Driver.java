@@ -1,8 +1,29 @@
 package driver;
 
+import parser.MetroMapParser;
+import traversal.SearchEngine;
+
+import java.io.File;
+import java.io.IOException;
+
 public class Driver {
-    public static void main(String[] args) {
-        ConsoleInterface console = new ConsoleInterface("bostonmetro.txt");
+    /**
+     * Runs the console interface, or with --serve [port] [engine] the HTTP route server.
+     * Otherwise the first argument names the search engine.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--serve")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : RouteServer.DEFAULT_PORT;
+            SearchEngine engine = args.length > 2 ? SearchEngine.fromName(args[2]) : SearchEngine.DIJKSTRA;
+            File map = new File("bostonmetro.txt");
+            RouteServer server = new RouteServer(
+                    new MetroMapParser().parseCompact(map, new File(map.getPath() + ".snapshot")).toGraph(),
+                    engine, 2 * Runtime.getRuntime().availableProcessors());
+            System.out.println("Serving routes on port " + server.start(port) + " with " + engine.name().toLowerCase());
+            return;
+        }
+        SearchEngine engine = args.length > 0 ? SearchEngine.fromName(args[0]) : SearchEngine.UNIFORM_COST;
+        ConsoleInterface console = new ConsoleInterface("bostonmetro.txt", engine);
         console.run();
     }
 }
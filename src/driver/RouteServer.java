@@ -0,0 +1,305 @@
+package driver;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import graph.GraphADT;
+import graph.NodeADT;
+import lookup.StationIndex;
+import metrics.MetricsRegistry;
+import render.JsonRenderer;
+import traversal.Instrumented;
+import traversal.Route;
+import traversal.Search;
+import traversal.SearchEngine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RouteServer
+ *
+ * Serves routes over HTTP with the JDK's built-in server, as an alternative to
+ * the one-user ConsoleInterface. Every request is handled on its own virtual
+ * thread where the JDK has them (21 and later), and on a fixed pool of
+ * platform threads otherwise. All requests share one graph and one Search,
+ * which must be safe to call from several threads at once.
+ *
+ * Endpoints, all answering JSON:
+ *   GET /health                         the state of the server
+ *   GET /stations?q=prefix&amp;limit=10     station names starting with the prefix,
+ *                                       or the closest names if there are none
+ *   GET /route?from=station&amp;to=station  the route between two stations, each
+ *                                       given by ID or by name in any case, with
+ *                                       its cost, stations and legs
+ *   GET /metrics                        the search metrics, in the Prometheus
+ *                                       text format rather than JSON
+ *
+ * The search metrics are also registered with JMX.
+ *
+ * Searches are CPU bound, so at most maxInFlight run at once, however many
+ * requests are waiting. A request that cannot start its search within
+ * QUEUE_TIMEOUT_MILLIS is answered 503, so a flood of requests is turned away
+ * rather than queued without end.
+ */
+class RouteServer {
+    static final int DEFAULT_PORT = 8080;
+    static final long QUEUE_TIMEOUT_MILLIS = 2000;
+    private static final int BACKLOG = 1024;
+    private static final int DEFAULT_LIMIT = 10;
+
+    private final GraphADT graph;
+    private final SearchEngine engine;
+    private final Search search;
+    private final StationIndex stationIndex;
+    private final Map<String, NodeADT> stationsById;
+    private final Semaphore searches;
+    private final int maxInFlight;
+    private final MetricsRegistry metrics;
+    private final JsonRenderer jsonRenderer = new JsonRenderer();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param graph       the graph of the subway system.
+     * @param engine      the search implementation used to find routes.
+     * @param maxInFlight the most searches that may run at once.
+     */
+    RouteServer(GraphADT graph, SearchEngine engine, int maxInFlight) {
+        this.graph = graph;
+        this.engine = engine;
+        this.search = engine.create(graph);
+        this.stationIndex = new StationIndex(graph);
+        this.stationsById = new HashMap<>();
+        for (NodeADT node : graph.getNodes()) {
+            stationsById.put(node.getId(), node);
+        }
+        this.maxInFlight = maxInFlight;
+        this.searches = new Semaphore(maxInFlight);
+        this.metrics = new MetricsRegistry();
+        if (search instanceof Instrumented) {
+            ((Instrumented) search).setMetrics(metrics.search(engine.name().toLowerCase()));
+        }
+    }
+
+    /**
+     * start
+     *
+     * Starts serving on the given port.
+     *
+     * @param port the port to listen on, or 0 for any free port.
+     * @return the port the server is listening on.
+     * @throws IOException if the port cannot be bound.
+     */
+    int start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        executor = requestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/health", this::health);
+        server.createContext("/stations", this::stations);
+        server.createContext("/route", this::route);
+        server.createContext("/metrics", exchange -> send(exchange, 200, "text/plain; version=0.0.4", metrics.format()));
+        metrics.registerWithJmx();
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server, waiting up to a second for requests being answered.
+     */
+    void stop() {
+        if (server != null) {
+            server.stop(1);
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * requestExecutor
+     *
+     * Returns an executor starting a virtual thread for each request. The
+     * program is built for JDKs without them as well, so the factory method is
+     * looked up by name, and a fixed pool of platform threads is used if it is
+     * not there.
+     *
+     * @return the executor requests are handled on.
+     */
+    static ExecutorService requestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Math.max(16, 4 * Runtime.getRuntime().availableProcessors()));
+        }
+    }
+
+    /**
+     * Returns true if requests are handled on virtual threads.
+     *
+     * @return true if the JDK has virtual threads.
+     */
+    static boolean hasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private void health(HttpExchange exchange) throws IOException {
+        StringBuilder json = new StringBuilder("{");
+        field(json, "status", "ok").append(',');
+        json.append("\"stations\":").append(graph.getNodes().size()).append(',');
+        field(json, "engine", engine.name().toLowerCase()).append(',');
+        json.append("\"virtualThreads\":").append(hasVirtualThreads()).append(',');
+        json.append("\"inFlight\":").append(maxInFlight - searches.availablePermits()).append(',');
+        json.append("\"maxInFlight\":").append(maxInFlight).append('}');
+        send(exchange, 200, json);
+    }
+
+    private void stations(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange);
+        String prefix = query.getOrDefault("q", "");
+        int limit;
+        try {
+            limit = Integer.parseInt(query.getOrDefault("limit", String.valueOf(DEFAULT_LIMIT)));
+        } catch (NumberFormatException e) {
+            send(exchange, 400, error("limit must be a number"));
+            return;
+        }
+        List<String> names = stationIndex.complete(prefix, limit);
+        boolean suggested = names.isEmpty() && !prefix.isEmpty();
+        if (suggested) {
+            names = stationIndex.suggest(prefix, limit, Math.max(2, prefix.length() / 3));
+        }
+        StringBuilder json = new StringBuilder("{");
+        field(json, "query", prefix).append(',');
+        json.append("\"suggested\":").append(suggested).append(',');
+        json.append("\"stations\":[");
+        for (int i = 0; i < names.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            JsonRenderer.string(json, names.get(i));
+        }
+        json.append("]}");
+        send(exchange, 200, json);
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange);
+        String fromName = query.get("from");
+        String toName = query.get("to");
+        if (fromName == null || toName == null) {
+            send(exchange, 400, error("from and to are both needed"));
+            return;
+        }
+        NodeADT from = station(fromName);
+        NodeADT to = station(toName);
+        if (from == null || to == null) {
+            String unknown = from == null ? fromName : toName;
+            send(exchange, 404, error("No station " + unknown + ", did you mean " + stationIndex.closest(unknown) + "?"));
+            return;
+        }
+
+        boolean acquired;
+        try {
+            acquired = searches.tryAcquire(QUEUE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            send(exchange, 503, error("Too many routes are being searched, try again shortly"));
+            return;
+        }
+        Route route;
+        try {
+            route = search.findRoute(from, to);
+        } finally {
+            searches.release();
+        }
+
+        // A station is reached from itself without riding anything, so its route has no legs.
+        StringBuilder json = new StringBuilder("{");
+        field(json, "from", from.getName()).append(',');
+        field(json, "to", to.getName()).append(',');
+        json.append("\"found\":").append(!route.isEmpty() || from == to).append(',');
+        jsonRenderer.renderFields(route, json);
+        json.append('}');
+        send(exchange, 200, json);
+    }
+
+    /**
+     * Returns the metrics of the server's searches.
+     *
+     * @return the metrics registry.
+     */
+    MetricsRegistry getMetrics() { return metrics; }
+
+    /**
+     * Finds a station by ID, or else by name.
+     *
+     * @param key the station ID or name.
+     * @return the station, or null if there is none.
+     */
+    private NodeADT station(String key) {
+        NodeADT node = stationsById.get(key.trim());
+        if (node == null) {
+            List<NodeADT> named = stationIndex.find(key);
+            node = named.isEmpty() ? null : named.get(0);
+        }
+        return node;
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) {
+            return parameters;
+        }
+        for (String pair : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                parameters.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    private static StringBuilder error(String message) throws IOException {
+        StringBuilder json = new StringBuilder("{");
+        field(json, "error", message);
+        return json.append('}');
+    }
+
+    private static StringBuilder field(StringBuilder json, String name, String value) throws IOException {
+        JsonRenderer.string(json, name).append(':');
+        JsonRenderer.string(json, value);
+        return json;
+    }
+
+    private static void send(HttpExchange exchange, int status, CharSequence json) throws IOException {
+        send(exchange, status, "application/json; charset=utf-8", json);
+    }
+
+    private static void send(HttpExchange exchange, int status, String type, CharSequence text) throws IOException {
+        byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", type);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
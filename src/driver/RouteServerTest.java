@@ -0,0 +1,65 @@
+package driver;
+
+import graph.GraphADT;
+import org.junit.Test;
+import parser.MetroMapParser;
+import traversal.SearchEngine;
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class RouteServerTest {
+
+    GraphADT graph = new MetroMapParser().parse(new File("testfile"));
+    HttpClient client = HttpClient.newHttpClient();
+
+    private HttpResponse<String> get(int port, String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * The route endpoint should answer the same route as the search, by station ID or by name,
+     * and the health endpoint should report the graph.
+     * */
+    @Test
+    public void testRouteAndHealth() throws Exception {
+        RouteServer server = new RouteServer(graph, SearchEngine.DIJKSTRA, 2);
+        int port = server.start(0);
+        try {
+            HttpResponse<String> route = get(port, "/route?from=1&to=6");
+            assertEquals(200, route.statusCode());
+            assertTrue(route.body().contains("\"found\":true"));
+            assertTrue(route.body().contains("\"stations\":[{\"id\":\"1\",\"name\":\"Node1\"},{\"id\":\"2\""));
+            assertEquals(route.body(), get(port, "/route?from=node1&to=Node6").body());
+
+            assertTrue(get(port, "/health").body().contains("\"stations\":6"));
+            assertEquals(404, get(port, "/route?from=1&to=Nowhere").statusCode());
+            assertEquals(400, get(port, "/route?from=1").statusCode());
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Station lookup should complete a prefix, and suggest close names when nothing starts with it.
+     * */
+    @Test
+    public void testStationLookup() throws Exception {
+        RouteServer server = new RouteServer(graph, SearchEngine.TRANSFER, 2);
+        int port = server.start(0);
+        try {
+            String body = get(port, "/stations?q=node&limit=2").body();
+            assertTrue(body.contains("\"suggested\":false"));
+            assertTrue(body.contains("\"stations\":[\"Node1\",\"Node2\"]"));
+            assertTrue(get(port, "/stations?q=Nod3").body().contains("\"suggested\":true"));
+            assertTrue(get(port, "/route?from=1&to=6").body().contains("\"legs\":[{\"line\":\"Orange\""));
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package driver;
+
+import benchmark.MapGenerator;
+import graph.GraphADT;
+import graph.NodeADT;
+import parser.MetroMapParser;
+import traversal.SearchEngine;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ServerBenchmark
+ *
+ * Load tests the RouteServer locally: starts it on a generated map, keeps a
+ * fixed number of route requests open against it at all times until every
+ * request has been sent, and prints the throughput, the latency percentiles
+ * and how many requests were turned away.
+ *
+ * Options:
+ *   --stations 10000     the size of the generated map
+ *   --concurrency 2000   the number of requests kept open at once
+ *   --requests 20000     the number of requests sent
+ *   --engine dijkstra    the search engine
+ *   --in-flight n        the most searches the server runs at once
+ */
+public class ServerBenchmark {
+    private static final long SEED = 308;
+
+    public static void main(String[] args) throws Exception {
+        int stations = 10000;
+        int concurrency = 2000;
+        int requests = 20000;
+        SearchEngine engine = SearchEngine.DIJKSTRA;
+        int inFlight = 2 * Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--stations": stations = Integer.parseInt(args[++i]); break;
+                case "--concurrency": concurrency = Integer.parseInt(args[++i]); break;
+                case "--requests": requests = Integer.parseInt(args[++i]); break;
+                case "--engine": engine = SearchEngine.fromName(args[++i]); break;
+                case "--in-flight": inFlight = Integer.parseInt(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        GraphADT graph = new MetroMapParser().parse(MapGenerator.temporaryMap(stations));
+        RouteServer server = new RouteServer(graph, engine, inFlight);
+        int port = server.start(0);
+        System.out.printf("%d stations, %s, %d searches at once, virtual threads %b%n",
+                stations, engine.name().toLowerCase(), inFlight, RouteServer.hasVirtualThreads());
+
+        List<NodeADT> nodes = graph.getNodes();
+        Random random = new Random(SEED);
+        URI[] uris = new URI[1024];
+        for (int i = 0; i < uris.length; i++) {
+            uris[i] = URI.create("http://localhost:" + port + "/route?from="
+                    + URLEncoder.encode(nodes.get(random.nextInt(nodes.size())).getId(), StandardCharsets.UTF_8)
+                    + "&to=" + URLEncoder.encode(nodes.get(random.nextInt(nodes.size())).getId(), StandardCharsets.UTF_8));
+        }
+
+        HttpClient client = HttpClient.newBuilder().executor(RouteServer.requestExecutor()).build();
+        Semaphore open = new Semaphore(concurrency);
+        long[] latencies = new long[requests];
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            open.acquire();
+            int request = i;
+            long sent = System.nanoTime();
+            futures[i] = client.sendAsync(HttpRequest.newBuilder(uris[i & (uris.length - 1)]).build(),
+                    HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+                latencies[request] = System.nanoTime() - sent;
+                if (error != null || response.statusCode() >= 500 && response.statusCode() != 503) {
+                    failed.incrementAndGet();
+                } else if (response.statusCode() == 503) {
+                    rejected.incrementAndGet();
+                }
+                open.release();
+            });
+        }
+        CompletableFuture.allOf(futures).handle((result, error) -> null).join();
+        long elapsed = System.nanoTime() - start;
+        server.stop();
+
+        Arrays.sort(latencies);
+        System.out.printf("%d requests in %d ms: %.0f requests/s, p50 %.1f ms, p99 %.1f ms, max %.1f ms,"
+                        + " %d turned away, %d failed%n",
+                requests, elapsed / 1000000, requests / (elapsed / 1e9),
+                latencies[requests / 2] / 1e6, latencies[(int) (requests * 0.99)] / 1e6,
+                latencies[requests - 1] / 1e6, rejected.get(), failed.get());
+        System.exit(0);
+    }
+}
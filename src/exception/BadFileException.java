@@ -1,14 +1,31 @@
 package exception;
 
 public class BadFileException extends Exception {
+    private static final long serialVersionUID = 1L;
+    private final int lineNumber;
+    private final String problem;
 
     /**
-     * A simple exception class which displays a message and exits.
-     * @param s - Message to be displayed
+     * An exception for a badly formatted line, which is left to the caller to
+     * report rather than ending the program.
+     * @param s - Message describing the problem
+     * @param lineNumber - The line of the file the problem is on, counting from 1
      */
-
-    public BadFileException(String s) {
-        System.out.println(s);
-        System.exit(0);
+    public BadFileException(String s, int lineNumber) {
+        super("line " + lineNumber + ": " + s);
+        this.lineNumber = lineNumber;
+        this.problem = s;
     }
+
+    /**
+     * Returns the line of the file the problem is on, counting from 1, or 0 if it is not known.
+     * @return the line number
+     */
+    public int getLineNumber() { return lineNumber; }
+
+    /**
+     * Returns the problem with the line, without its line number.
+     * @return the problem
+     */
+    public String getProblem() { return problem; }
 }
@@ -0,0 +1,605 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+public final class CompactGraph {
+
+    /**
+     * CompactGraph
+     *
+     * An immutable graph held in compressed-sparse-row layout. Nodes are dense
+     * integer indices, and the outbound edges of node i are the edge indices
+     * from edgeStart(i) up to (but not including) edgeEnd(i). Each edge stores
+     * its target, weight and line as ints in parallel arrays, so no objects are
+     * touched while a search relaxes edges.
+     *
+     * Lines are numbered in the order they are first seen. An edge that has no
+     * weight of its own is given the weight of its line from a WeightProfile,
+     * by default 10 going up in 2s for each new line. A graph with other weights
+     * can be made with withWeights() or withLineWeight(), which share every
+     * array except the weights with this graph.
+     */
+
+    private final String[] ids;
+    private final String[] names;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int[] lineIds;
+    private final String[] lineNames;
+    private final HashMap<String, Integer> idIndex;
+    // The edges of each line, grouped by line, built the first time a line's weight is changed.
+    private volatile int[][] lineEdges;
+
+    CompactGraph(String[] ids, String[] names, int[] offsets, int[] targets,
+                         int[] weights, int[] lineIds, String[] lineNames) {
+        this.ids = ids;
+        this.names = names;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.lineIds = lineIds;
+        this.lineNames = lineNames;
+        this.idIndex = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            idIndex.put(ids[i], i);
+        }
+    }
+
+    private CompactGraph(CompactGraph graph, int[] weights) {
+        this.ids = graph.ids;
+        this.names = graph.names;
+        this.offsets = graph.offsets;
+        this.targets = graph.targets;
+        this.weights = weights;
+        this.lineIds = graph.lineIds;
+        this.lineNames = graph.lineNames;
+        this.idIndex = graph.idIndex;
+        this.lineEdges = graph.lineEdges;
+    }
+
+    private CompactGraph(CompactGraph graph, int[] offsets, int[] targets, int[] weights, int[] lineIds) {
+        this.ids = graph.ids;
+        this.names = graph.names;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.lineIds = lineIds;
+        this.lineNames = graph.lineNames;
+        this.idIndex = graph.idIndex;
+    }
+
+    /**
+     * from
+     *
+     * Builds a CompactGraph from any GraphADT. Node i of the result is the i-th
+     * node of graph.getNodes(), and each node's edges keep their order. Lines
+     * keep the IDs the graph's LineRegistry gave them.
+     *
+     * @param graph the graph to be copied.
+     * @return the compact form of the graph.
+     */
+    public static CompactGraph from(GraphADT graph) {
+        List<NodeADT> nodes = graph.getNodes();
+        IdentityHashMap<NodeADT, Integer> indices = new IdentityHashMap<>(nodes.size() * 2);
+        for (int i = 0; i < nodes.size(); i++) {
+            indices.put(nodes.get(i), i);
+        }
+
+        Builder builder = new Builder();
+        for (String line : graph.getLineRegistry().names()) {
+            builder.line(line);
+        }
+        for (NodeADT node : nodes) {
+            builder.station(node.getId(), node.getName());
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            for (EdgeADT edge : nodes.get(i).getEdges()) {
+                Integer target = indices.get(edge.getNode());
+                if (target == null) {
+                    throw new IllegalArgumentException("Edge leads to node " + edge.getNode().getId()
+                            + " which is not in the graph");
+                }
+                Integer weight = edge.getWeight();
+                int line = edge.getLineId() < 0 ? builder.line(edge.getLine()) : edge.getLineId();
+                builder.link(i, line, target, weight == null ? -1 : weight);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the number of nodes in the graph.
+     *
+     * @return the number of nodes in the graph.
+     */
+    public int nodeCount() { return ids.length; }
+
+    /**
+     * Returns the number of edges in the graph.
+     *
+     * @return the number of edges in the graph.
+     */
+    public int edgeCount() { return targets.length; }
+
+    /**
+     * Returns the number of distinct lines in the graph.
+     *
+     * @return the number of distinct lines in the graph.
+     */
+    public int lineCount() { return lineNames.length; }
+
+    /**
+     * Returns the index of the node with the given ID, or -1 if there is none.
+     *
+     * @param id the station ID.
+     * @return the index of the node, or -1.
+     */
+    public int indexOf(String id) {
+        Integer index = idIndex.get(id);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the station ID of a node.
+     *
+     * @param node the node index.
+     * @return the station ID of the node.
+     */
+    public String getId(int node) { return ids[node]; }
+
+    /**
+     * Returns the station name of a node.
+     *
+     * @param node the node index.
+     * @return the station name of the node, or null if it was referenced but never defined.
+     */
+    public String getName(int node) { return names[node]; }
+
+    /**
+     * Returns the index of the first outbound edge of a node.
+     *
+     * @param node the node index.
+     * @return the index of the node's first edge.
+     */
+    public int edgeStart(int node) { return offsets[node]; }
+
+    /**
+     * Returns the index one past the last outbound edge of a node.
+     *
+     * @param node the node index.
+     * @return the index after the node's last edge.
+     */
+    public int edgeEnd(int node) { return offsets[node + 1]; }
+
+    /**
+     * Returns the node an edge leads to.
+     *
+     * @param edge the edge index.
+     * @return the index of the target node.
+     */
+    public int target(int edge) { return targets[edge]; }
+
+    /**
+     * Returns the weight associated with traversing an edge.
+     *
+     * @param edge the edge index.
+     * @return the weight of the edge.
+     */
+    public int weight(int edge) { return weights[edge]; }
+
+    /**
+     * Returns the line an edge lays on.
+     *
+     * @param edge the edge index.
+     * @return the line ID of the edge.
+     */
+    public int line(int edge) { return lineIds[edge]; }
+
+    /**
+     * Returns the name of a line.
+     *
+     * @param line the line ID.
+     * @return the name of the line.
+     */
+    public String getLineName(int line) { return lineNames[line]; }
+
+    /**
+     * Returns the ID of the line with the given name, or -1 if there is none.
+     *
+     * @param name the line name.
+     * @return the line ID, or -1.
+     */
+    public int lineIndexOf(String name) {
+        for (int i = 0; i < lineNames.length; i++) {
+            if (lineNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * withWeights
+     *
+     * Returns the same graph with every edge given the weight of its line from
+     * the profile.
+     *
+     * @param profile the profile giving the weight of each line.
+     * @return the reweighted graph.
+     */
+    public CompactGraph withWeights(WeightProfile profile) {
+        int[] lineWeights = new int[lineNames.length];
+        for (int line = 0; line < lineNames.length; line++) {
+            lineWeights[line] = profile.weight(lineNames[line], line);
+        }
+        int[] newWeights = new int[weights.length];
+        for (int e = 0; e < newWeights.length; e++) {
+            newWeights[e] = lineWeights[lineIds[e]];
+        }
+        return new CompactGraph(this, newWeights);
+    }
+
+    /**
+     * withLineWeight
+     *
+     * Returns the same graph with the edges of one line given a new weight. Only
+     * that line's edges are visited, found from an index of the edges by line.
+     *
+     * @param line   the line ID.
+     * @param weight the new weight of the line's edges.
+     * @return the reweighted graph.
+     */
+    public CompactGraph withLineWeight(int line, int weight) {
+        int[] newWeights = weights.clone();
+        for (int e : lineEdges()[line]) {
+            newWeights[e] = weight;
+        }
+        return new CompactGraph(this, newWeights);
+    }
+
+    /**
+     * withOpenEdges
+     *
+     * Returns the same stations with the given edge weights, leaving out every
+     * edge whose weight is negative. Node indices are unchanged, but edge
+     * indices are not, as the remaining edges are packed together.
+     *
+     * @param edgeWeights the weight of each edge of this graph, or a negative weight for a closed edge.
+     * @return the graph of the open edges.
+     */
+    CompactGraph withOpenEdges(int[] edgeWeights) {
+        int n = ids.length;
+        int open = 0;
+        for (int weight : edgeWeights) {
+            if (weight >= 0) {
+                open++;
+            }
+        }
+        int[] newOffsets = new int[n + 1];
+        int[] newTargets = new int[open];
+        int[] newWeights = new int[open];
+        int[] newLines = new int[open];
+        int slot = 0;
+        for (int i = 0; i < n; i++) {
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                if (edgeWeights[e] >= 0) {
+                    newTargets[slot] = targets[e];
+                    newWeights[slot] = edgeWeights[e];
+                    newLines[slot] = lineIds[e];
+                    slot++;
+                }
+            }
+            newOffsets[i + 1] = slot;
+        }
+        return new CompactGraph(this, newOffsets, newTargets, newWeights, newLines);
+    }
+
+    private int[][] lineEdges() {
+        int[][] index = lineEdges;
+        if (index == null) {
+            int[] counts = new int[lineNames.length];
+            for (int line : lineIds) {
+                counts[line]++;
+            }
+            index = new int[lineNames.length][];
+            for (int line = 0; line < index.length; line++) {
+                index[line] = new int[counts[line]];
+                counts[line] = 0;
+            }
+            for (int e = 0; e < lineIds.length; e++) {
+                index[lineIds[e]][counts[lineIds[e]]++] = e;
+            }
+            lineEdges = index;
+        }
+        return index;
+    }
+
+    /**
+     * reverse
+     *
+     * Returns the graph with every edge turned around, keeping its weight and
+     * line, so that searching it from a node finds the cheapest paths to that node.
+     *
+     * @return the reversed graph.
+     */
+    public CompactGraph reverse() {
+        int n = ids.length;
+        int[] reverseOffsets = new int[n + 1];
+        for (int target : targets) {
+            reverseOffsets[target + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            reverseOffsets[i + 1] += reverseOffsets[i];
+        }
+        int[] next = Arrays.copyOf(reverseOffsets, n);
+        int[] reverseTargets = new int[targets.length];
+        int[] reverseWeights = new int[targets.length];
+        int[] reverseLines = new int[targets.length];
+        for (int i = 0; i < n; i++) {
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                int slot = next[targets[e]]++;
+                reverseTargets[slot] = i;
+                reverseWeights[slot] = weights[e];
+                reverseLines[slot] = lineIds[e];
+            }
+        }
+        return new CompactGraph(ids, names, reverseOffsets, reverseTargets, reverseWeights, reverseLines, lineNames);
+    }
+
+    /**
+     * Returns an estimate of the memory held by the adjacency arrays, in bytes.
+     *
+     * @return the size of the offset, target, weight and line arrays in bytes.
+     */
+    public long adjacencyBytes() {
+        return 4L * (offsets.length + targets.length + weights.length + lineIds.length);
+    }
+
+    /**
+     * toGraph
+     *
+     * Creates a Graph of Node and Edge objects with the same nodes, in the same
+     * order, and the same edges, each with its weight set.
+     *
+     * @return the object form of the graph.
+     */
+    public GraphADT toGraph() {
+        GraphADT graph = new Graph();
+        NodeADT[] nodes = new NodeADT[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            nodes[i] = names[i] == null ? new Node(ids[i]) : new Node(ids[i], names[i]);
+            graph.addNode(nodes[i]);
+        }
+        for (int i = 0; i < ids.length; i++) {
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                EdgeADT edge = new Edge(nodes[targets[e]], lineNames[lineIds[e]]);
+                edge.setWeight(weights[e]);
+                graph.addEdge(edge);
+                nodes[i].addEdge(edge);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * fingerprint
+     *
+     * Returns a hash of the station IDs and every edge's target, weight and line,
+     * so that data computed from this graph and saved to a file can be checked
+     * against the graph it is loaded for.
+     *
+     * @return the fingerprint of the graph.
+     */
+    public long fingerprint() {
+        long hash = 0xcbf29ce484222325L;
+        for (String id : ids) {
+            hash = (hash ^ id.hashCode()) * 0x100000001b3L;
+        }
+        for (int[] array : new int[][]{offsets, targets, weights, lineIds}) {
+            for (int value : array) {
+                hash = (hash ^ value) * 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    // The raw arrays, for writing a snapshot of the graph.
+    String[] ids() { return ids; }
+
+    String[] names() { return names; }
+
+    String[] lineNames() { return lineNames; }
+
+    int[] offsets() { return offsets; }
+
+    int[] targets() { return targets; }
+
+    int[] weights() { return weights; }
+
+    int[] lineIds() { return lineIds; }
+
+    /**
+     * Returns the default weight for a line: 10 for the first line seen, going up in 2s.
+     * This is the weight WeightProfile.DEFAULT gives.
+     *
+     * @param line the line ID.
+     * @return the default weight of the line.
+     */
+    public static int defaultLineWeight(int line) { return 10 + 2 * line; }
+
+    /**
+     * Builder
+     *
+     * Collects stations and the links between them, then lays them out into a
+     * CompactGraph. Stations may be linked to before they are defined; they are
+     * given an index when first mentioned and a name when defined. Edges added
+     * without a weight are given the weight of their line from the builder's profile.
+     */
+    public static final class Builder {
+        private final HashMap<String, Integer> idIndex = new HashMap<>();
+        private final LineRegistry lineRegistry = new LineRegistry();
+        private final ArrayList<String> ids = new ArrayList<>();
+        private final ArrayList<String> names = new ArrayList<>();
+        private int[] from = new int[16];
+        private int[] to = new int[16];
+        private int[] lines = new int[16];
+        private int[] edgeWeights = new int[16];
+        private int edgeCount;
+        private final WeightProfile profile;
+
+        public Builder() {
+            this(WeightProfile.DEFAULT);
+        }
+
+        /**
+         * @param profile the profile giving the weight of edges added without one.
+         */
+        public Builder(WeightProfile profile) {
+            this.profile = profile;
+        }
+
+        /**
+         * Returns the index of the station with the given ID, adding it without a
+         * name if it has not been mentioned before.
+         *
+         * @param id the station ID.
+         * @return the index of the station.
+         */
+        public int reference(String id) {
+            Integer index = idIndex.get(id);
+            if (index == null) {
+                index = ids.size();
+                idIndex.put(id, index);
+                ids.add(id);
+                names.add(null);
+            }
+            return index;
+        }
+
+        /**
+         * Defines a station, giving it a name.
+         *
+         * @param id   the station ID.
+         * @param name the station name.
+         * @return the index of the station.
+         */
+        public int station(String id, String name) {
+            int index = reference(id);
+            names.set(index, name);
+            return index;
+        }
+
+        /**
+         * Returns the station ID of an index.
+         *
+         * @param index the index of the station.
+         * @return the station ID.
+         */
+        public String getId(int index) { return ids.get(index); }
+
+        /**
+         * Returns true if the station has been given a name.
+         *
+         * @param index the index of the station.
+         * @return true if the station has been defined.
+         */
+        public boolean isDefined(int index) { return names.get(index) != null; }
+
+        /**
+         * Returns the number of stations mentioned so far.
+         *
+         * @return the number of stations mentioned so far.
+         */
+        public int size() { return ids.size(); }
+
+        /**
+         * Returns the ID of a line, numbering it if it has not been seen before.
+         *
+         * @param name the name of the line.
+         * @return the ID of the line.
+         */
+        public int line(String name) { return lineRegistry.intern(name); }
+
+        /**
+         * Adds an edge with the weight of its line.
+         *
+         * @param fromId the ID of the station the edge leaves.
+         * @param line   the line the edge lays on.
+         * @param toId   the ID of the station the edge leads to.
+         */
+        public void link(String fromId, String line, String toId) {
+            link(reference(fromId), line, reference(toId), -1);
+        }
+
+        /**
+         * Adds an edge between two station indices.
+         *
+         * @param fromIndex the index of the station the edge leaves.
+         * @param line      the line the edge lays on.
+         * @param toIndex   the index of the station the edge leads to.
+         * @param weight    the weight of the edge, or -1 for the weight of its line.
+         */
+        public void link(int fromIndex, String line, int toIndex, int weight) {
+            link(fromIndex, lineRegistry.intern(line), toIndex, weight);
+        }
+
+        /**
+         * Adds an edge between two station indices on a line the builder has already numbered.
+         *
+         * @param fromIndex the index of the station the edge leaves.
+         * @param lineId    the ID of the line the edge lays on, from line().
+         * @param toIndex   the index of the station the edge leads to.
+         * @param weight    the weight of the edge, or -1 for the weight of its line.
+         */
+        public void link(int fromIndex, int lineId, int toIndex, int weight) {
+            if (edgeCount == from.length) {
+                int capacity = edgeCount * 2;
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                lines = Arrays.copyOf(lines, capacity);
+                edgeWeights = Arrays.copyOf(edgeWeights, capacity);
+            }
+            from[edgeCount] = fromIndex;
+            to[edgeCount] = toIndex;
+            lines[edgeCount] = lineId;
+            edgeWeights[edgeCount] = weight < 0 ? profile.weight(lineRegistry.name(lineId), lineId) : weight;
+            edgeCount++;
+        }
+
+        /**
+         * build
+         *
+         * Sorts the collected edges by the station they leave, keeping the order
+         * they were added in for each station, and creates the CompactGraph.
+         *
+         * @return the built graph.
+         */
+        public CompactGraph build() {
+            int n = ids.size();
+            int[] offsets = new int[n + 1];
+            for (int e = 0; e < edgeCount; e++) {
+                offsets[from[e] + 1]++;
+            }
+            for (int i = 0; i < n; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            int[] next = Arrays.copyOf(offsets, n);
+            int[] targets = new int[edgeCount];
+            int[] weights = new int[edgeCount];
+            int[] lineIds = new int[edgeCount];
+            for (int e = 0; e < edgeCount; e++) {
+                int slot = next[from[e]]++;
+                targets[slot] = to[e];
+                weights[slot] = edgeWeights[e];
+                lineIds[slot] = lines[e];
+            }
+            return new CompactGraph(ids.toArray(new String[0]), names.toArray(new String[0]), offsets,
+                    targets, weights, lineIds, lineRegistry.names().toArray(new String[0]));
+        }
+    }
+}
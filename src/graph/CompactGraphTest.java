@@ -0,0 +1,101 @@
+package graph;
+
+import org.junit.Test;
+import parser.MetroMapParser;
+import java.io.File;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactGraphTest {
+
+    MetroMapParser mp = new MetroMapParser();
+    GraphADT graph = mp.parse(new File("testfile"));
+    CompactGraph compact = CompactGraph.from(graph);
+    CompactGraph parsed = mp.parseCompact(new File("testfile"));
+
+    /**
+     * The compact graph should hold the same nodes, in the same order, as the graph it was built from.
+     * */
+    @Test
+    public void testNodesMatchGraph(){
+        assertEquals(graph.getNodes().size(), compact.nodeCount());
+        assertEquals(graph.getEdges().size(), compact.edgeCount());
+
+        for(int i = 0; i < compact.nodeCount(); i++){
+            NodeADT node = graph.getNodes().get(i);
+            assertEquals(node.getId(), compact.getId(i));
+            assertEquals(node.getName(), compact.getName(i));
+            assertEquals(i, compact.indexOf(node.getId()));
+            assertEquals(node.getEdges().size(), compact.edgeEnd(i) - compact.edgeStart(i));
+        }
+    }
+
+    /**
+     * Each edge should lead to the same node on the same line, with the default line weight.
+     * */
+    @Test
+    public void testEdgesMatchGraph(){
+        for(int i = 0; i < compact.nodeCount(); i++){
+            int e = compact.edgeStart(i);
+            for(EdgeADT edge : graph.getNodes().get(i).getEdges()){
+                assertEquals(edge.getNode().getId(), compact.getId(compact.target(e)));
+                assertEquals(edge.getLine(), compact.getLineName(compact.line(e)));
+                assertEquals(CompactGraph.defaultLineWeight(compact.line(e)), compact.weight(e));
+                e++;
+            }
+        }
+        assertEquals(2, compact.lineCount());
+        assertEquals(10, CompactGraph.defaultLineWeight(compact.lineIndexOf("Orange")));
+        assertEquals(12, CompactGraph.defaultLineWeight(compact.lineIndexOf("Blue")));
+    }
+
+    /**
+     * Parsing straight into a compact graph should give the same layout as converting the parsed graph.
+     * */
+    @Test
+    public void testParseCompactMatchesFrom(){
+        assertEquals(compact.nodeCount(), parsed.nodeCount());
+        assertEquals(compact.edgeCount(), parsed.edgeCount());
+
+        for(int i = 0; i < compact.nodeCount(); i++){
+            assertEquals(compact.getId(i), parsed.getId(i));
+            assertEquals(compact.getName(i), parsed.getName(i));
+            assertEquals(compact.edgeStart(i), parsed.edgeStart(i));
+        }
+        for(int e = 0; e < compact.edgeCount(); e++){
+            assertEquals(compact.target(e), parsed.target(e));
+            assertEquals(compact.weight(e), parsed.weight(e));
+            assertEquals(compact.line(e), parsed.line(e));
+        }
+    }
+
+    /**
+     * Changing one line's weight should change only that line's edges, and leave the original graph as it was.
+     * */
+    @Test
+    public void testWithLineWeight(){
+        int blue = compact.lineIndexOf("Blue");
+        CompactGraph changed = compact.withLineWeight(blue, 50);
+
+        for(int e = 0; e < compact.edgeCount(); e++){
+            assertEquals(compact.line(e) == blue ? 50 : 10, changed.weight(e));
+            assertEquals(CompactGraph.defaultLineWeight(compact.line(e)), compact.weight(e));
+            assertEquals(compact.target(e), changed.target(e));
+        }
+        assertTrue(changed.fingerprint() != compact.fingerprint());
+    }
+
+    /**
+     * A weight profile should give the same weights whether the graph is parsed with it or reweighted after.
+     * */
+    @Test
+    public void testWithWeights(){
+        WeightProfile profile = (line, index) -> line.length();
+        CompactGraph reweighted = compact.withWeights(profile);
+        CompactGraph parsedWithProfile = new MetroMapParser(profile).parseCompact(new File("testfile"));
+
+        for(int e = 0; e < compact.edgeCount(); e++){
+            assertEquals(compact.getLineName(compact.line(e)).length(), reweighted.weight(e));
+            assertEquals(reweighted.weight(e), parsedWithProfile.weight(e));
+        }
+    }
+}
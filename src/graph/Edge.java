@@ -11,12 +11,15 @@ public class Edge implements EdgeADT{
      * a weight and a line on which it lays.
      *
      * Since the weight is added after the edge is constructed, it contains a setter,
-     * along with getter methods for each of its values.
+     * along with getter methods for each of its values. The line is given its ID
+     * the same way, when the edge is added to a graph.
      */
 
     private NodeADT node;
     private Integer weight;
     private String line;
+    private int lineId = -1;
+    private GraphADT graph;
 
     public Edge(NodeADT n, String line) {
         this.node = n;
@@ -37,6 +40,24 @@ public class Edge implements EdgeADT{
      */
     public String getLine(){ return line; }
 
+    /**
+     * Returns the ID of the Edge's line, or -1 if the Edge has not been added to a graph.
+     *
+     * @return the line ID of the Edge.
+     */
+    public int getLineId(){ return lineId; }
+
+    /**
+     * Gives the Edge the ID of its line in a registry, and the registry's copy
+     * of the line name in place of its own.
+     *
+     * @param lines the registry of the graph the Edge is added to.
+     */
+    public void internLine(LineRegistry lines) {
+        lineId = lines.intern(line);
+        line = lines.name(lineId);
+    }
+
     /**
      * Returns the weight associated with traversing the edge.
      *
@@ -45,10 +66,23 @@ public class Edge implements EdgeADT{
     public Integer getWeight() { return weight; }
 
     /**
-     * Sets the weight associated with traversing the edge.
+     * Sets the weight associated with traversing the edge, and marks the graph
+     * the edge belongs to as modified.
      *
      * @param weight the weight the edge is to be set to.
      */
-    public void setWeight(Integer weight) { this.weight = weight; }
+    public void setWeight(Integer weight) {
+        this.weight = weight;
+        if (graph != null) {
+            graph.markModified();
+        }
+    }
+
+    /**
+     * Sets the graph the Edge belongs to, whose version changes whenever the Edge's weight does.
+     *
+     * @param graph the graph the Edge has been added to.
+     */
+    public void setGraph(GraphADT graph) { this.graph = graph; }
 
 }
\ No newline at end of file
@@ -5,5 +5,8 @@ public interface EdgeADT {
     NodeADT getNode();
     Integer getWeight();
     String getLine();
+    int getLineId();
+    void internLine(LineRegistry lines);
     void setWeight(Integer w);
+    void setGraph(GraphADT graph);
 }
@@ -10,15 +10,31 @@ public class Graph extends GraphADT{
      *
      * A graph is a simple class containing a list of nodes and edges,
      * along with methods to retrieve them.
+     *
+     * The edges are also indexed by line. Each line is interned in the graph's
+     * LineRegistry when its first edge is added, and every edge is given the
+     * ID of its line. An edge added without a weight is given the weight of
+     * its line from the graph's WeightProfile, and changing the weight of one
+     * line only touches that line's edges.
      */
 
     List<NodeADT> nodes;
     List<EdgeADT> edges;
+    private List<List<EdgeADT>> edgesByLine;
+    private LineRegistry lines;
+    private WeightProfile profile;
 
     public Graph(){
+        this(WeightProfile.DEFAULT);
+    }
+
+    public Graph(WeightProfile profile){
 
         this.nodes = new ArrayList<>();
         this.edges = new ArrayList<>();
+        this.edgesByLine = new ArrayList<>();
+        this.lines = new LineRegistry();
+        this.profile = profile;
     }
 
     /**
@@ -43,15 +59,111 @@ public class Graph extends GraphADT{
      * @param n Node to be added to the Graph.
      */
     @Override
-    public void addNode(NodeADT n) { nodes.add(n); }
+    public void addNode(NodeADT n) {
+        nodes.add(n);
+        markModified();
+    }
 
     /**
-     * Adds an edge to the Graph.
+     * Adds an edge to the Graph, giving it the ID of its line, and the weight
+     * of its line if it has none.
      *
      * @param e Edge to be added to the Graph.
      */
     @Override
-    public void addEdge(EdgeADT e) { edges.add(e); }
+    public void addEdge(EdgeADT e) {
+        edges.add(e);
+        e.internLine(lines);
+        e.setGraph(this);
+        int line = e.getLineId();
+        if (line == edgesByLine.size()) {
+            edgesByLine.add(new ArrayList<>());
+        }
+        edgesByLine.get(line).add(e);
+        if (e.getWeight() == null) {
+            e.setWeight(profile.weight(e.getLine(), line));
+        }
+        markModified();
+    }
+
+    /**
+     * Returns the names of the lines in the Graph, in the order they were first added.
+     *
+     * @return the names of the lines.
+     */
+    @Override
+    public List<String> getLines() { return new ArrayList<>(lines.names()); }
+
+    /**
+     * Returns the registry giving each line of the Graph its ID.
+     *
+     * @return the line registry.
+     */
+    @Override
+    public LineRegistry getLineRegistry() { return lines; }
+
+    /**
+     * Returns the profile the weights of the Graph's lines were last set from.
+     *
+     * @return the weight profile.
+     */
+    @Override
+    public WeightProfile getWeightProfile() { return profile; }
+
+    /**
+     * applyWeights
+     *
+     * Sets the weight of every edge from a new profile, which is kept for edges
+     * added later.
+     *
+     * @param profile the profile giving the weight of each line.
+     */
+    @Override
+    public void applyWeights(WeightProfile profile) {
+        this.profile = profile;
+        for (int line = 0; line < edgesByLine.size(); line++) {
+            int weight = profile.weight(lines.name(line), line);
+            for (EdgeADT edge : edgesByLine.get(line)) {
+                edge.setWeight(weight);
+            }
+        }
+        markModified();
+    }
+
+    /**
+     * setLineWeight
+     *
+     * Changes the weight of one line, updating only the edges on that line.
+     *
+     * @param line   the name of the line.
+     * @param weight the new weight of the line's edges.
+     */
+    @Override
+    public void setLineWeight(String line, int weight) {
+        int id = lines.idOf(line);
+        if (id < 0) {
+            throw new IllegalArgumentException("There is no line called " + line);
+        }
+        setLineWeight(id, weight);
+    }
+
+    /**
+     * setLineWeight
+     *
+     * Changes the weight of one line, given by its ID, updating only the edges on that line.
+     *
+     * @param line   the ID of the line.
+     * @param weight the new weight of the line's edges.
+     */
+    public void setLineWeight(int line, int weight) {
+        if (line < 0 || line >= edgesByLine.size()) {
+            throw new IllegalArgumentException("There is no line with ID " + line);
+        }
+        for (EdgeADT edge : edgesByLine.get(line)) {
+            edge.setWeight(weight);
+        }
+        markModified();
+    }
 
 
 }
@@ -3,8 +3,29 @@ package graph;
 import java.util.List;
 
 public abstract class GraphADT {
+    private volatile long version;
+
     public abstract List<NodeADT> getNodes();
     public abstract List<EdgeADT> getEdges();
     public abstract void addNode(NodeADT n);
     public abstract void addEdge(EdgeADT e);
+    public abstract List<String> getLines();
+    public abstract LineRegistry getLineRegistry();
+    public abstract WeightProfile getWeightProfile();
+    public abstract void applyWeights(WeightProfile profile);
+    public abstract void setLineWeight(String line, int weight);
+
+    /**
+     * Returns a number that changes whenever the graph is changed, so that
+     * anything computed from the graph can tell when it is out of date.
+     *
+     * @return the version of the graph.
+     */
+    public long getVersion() { return version; }
+
+    /**
+     * Records that the graph has changed. Called when nodes or edges are added,
+     * and should be called by anything that changes the weight of an edge.
+     */
+    public synchronized void markModified() { version++; }
 }
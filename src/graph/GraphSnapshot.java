@@ -0,0 +1,226 @@
+package graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+public final class GraphSnapshot {
+
+    /**
+     * GraphSnapshot
+     *
+     * Saves a CompactGraph to a binary file that can be loaded again by memory
+     * mapping it and copying its arrays out in bulk, with nothing to tokenize.
+     *
+     * The file is a fixed header followed by the payload:
+     *
+     *   magic, version                          int, int
+     *   source length, source last modified     long, long
+     *   payload CRC32                           int
+     *   node count, edge count, line count      int, int, int
+     *   string byte count                       int
+     *
+     *   offsets                                 int[nodes + 1]
+     *   targets, weights, line IDs              int[edges] each
+     *   string starts, string lengths           int[2 * nodes + lines] each
+     *   string bytes                            UTF-8
+     *
+     * The strings are every station ID, then every station name, then every line
+     * name. A station name that was never defined has a length of -1.
+     *
+     * The length and modification time of the text map it was made from are
+     * kept in the header, so a snapshot of an older map is known to be stale,
+     * and the CRC32 of the payload catches a damaged file.
+     */
+
+    private static final int MAGIC = 0x53524653; // "SRFS"
+    public static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 4 + 4 + 4 + 4;
+
+    private GraphSnapshot() {
+    }
+
+    /**
+     * write
+     *
+     * Writes a snapshot of a graph, recording the text map it was parsed from.
+     *
+     * @param graph  the graph to be saved.
+     * @param source the map file the graph was parsed from.
+     * @param f      the snapshot file to be written.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(CompactGraph graph, File source, File f) throws IOException {
+        String[] strings = strings(graph);
+        int[] starts = new int[strings.length];
+        int[] lengths = new int[strings.length];
+        byte[][] encoded = new byte[strings.length][];
+        int stringBytes = 0;
+        for (int i = 0; i < strings.length; i++) {
+            starts[i] = stringBytes;
+            if (strings[i] == null) {
+                lengths[i] = -1;
+            } else {
+                encoded[i] = strings[i].getBytes(StandardCharsets.UTF_8);
+                lengths[i] = encoded[i].length;
+                stringBytes += encoded[i].length;
+            }
+        }
+
+        int n = graph.nodeCount();
+        int m = graph.edgeCount();
+        long payloadBytes = 4L * (n + 1 + 3L * m + 2L * strings.length) + stringBytes;
+        if (HEADER_BYTES + payloadBytes > Integer.MAX_VALUE) {
+            throw new IOException("The graph is too large for a snapshot");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) (HEADER_BYTES + payloadBytes)).order(ByteOrder.nativeOrder());
+        buffer.position(HEADER_BYTES);
+        putInts(buffer, graph.offsets());
+        putInts(buffer, graph.targets());
+        putInts(buffer, graph.weights());
+        putInts(buffer, graph.lineIds());
+        putInts(buffer, starts);
+        putInts(buffer, lengths);
+        for (byte[] bytes : encoded) {
+            if (bytes != null) {
+                buffer.put(bytes);
+            }
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_BYTES, (int) payloadBytes);
+        buffer.position(0);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(source.length()).putLong(source.lastModified())
+                .putInt((int) crc.getValue()).putInt(n).putInt(m).putInt(graph.lineCount()).putInt(stringBytes);
+        buffer.position(0);
+
+        try (RandomAccessFile file = new RandomAccessFile(f, "rw"); FileChannel channel = file.getChannel()) {
+            file.setLength(0);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * isCurrent
+     *
+     * Checks the header of a snapshot against the map file it should have been
+     * made from, without reading the payload.
+     *
+     * @param f      the snapshot file.
+     * @param source the map file.
+     * @return true if the snapshot exists, is this version, and matches the map file.
+     */
+    public static boolean isCurrent(File f, File source) {
+        if (!f.exists()) {
+            return false;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(f, "r"); FileChannel channel = file.getChannel()) {
+            if (channel.size() < HEADER_BYTES) {
+                return false;
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.nativeOrder());
+            return header.getInt() == MAGIC && header.getInt() == VERSION
+                    && header.getLong() == source.length() && header.getLong() == source.lastModified();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * read
+     *
+     * Loads a snapshot by memory mapping the file. The arrays are copied out of
+     * the mapping in bulk, so the time taken depends on the size of the file
+     * rather than the number of records in it.
+     *
+     * @param f the snapshot file.
+     * @return the graph held in the snapshot.
+     * @throws IOException if the file cannot be read, is another version, or is damaged.
+     */
+    public static CompactGraph read(File f) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(f, "r"); FileChannel channel = file.getChannel()) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(f + " is not a graph snapshot");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            ByteBuffer buffer = mapped.order(ByteOrder.nativeOrder());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException(f + " is not a graph snapshot this version can read");
+            }
+            buffer.getLong();
+            buffer.getLong();
+            int expectedCrc = buffer.getInt();
+            int n = buffer.getInt();
+            int m = buffer.getInt();
+            int lineCount = buffer.getInt();
+            int stringBytes = buffer.getInt();
+            int stringCount = 2 * n + lineCount;
+            long payloadBytes = 4L * (n + 1 + 3L * m + 2L * stringCount) + stringBytes;
+            if (channel.size() != HEADER_BYTES + payloadBytes) {
+                throw new IOException(f + " is not the length its header says");
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().position(HEADER_BYTES));
+            if ((int) crc.getValue() != expectedCrc) {
+                throw new IOException(f + " is damaged");
+            }
+
+            IntBuffer ints = buffer.position(HEADER_BYTES).slice().order(ByteOrder.nativeOrder()).asIntBuffer();
+            int[] offsets = getInts(ints, n + 1);
+            int[] targets = getInts(ints, m);
+            int[] weights = getInts(ints, m);
+            int[] lineIds = getInts(ints, m);
+            int[] starts = getInts(ints, stringCount);
+            int[] lengths = getInts(ints, stringCount);
+
+            byte[] bytes = new byte[stringBytes];
+            buffer.position(HEADER_BYTES + (int) (payloadBytes - stringBytes));
+            buffer.get(bytes);
+            String[] ids = new String[n];
+            String[] names = new String[n];
+            String[] lineNames = new String[lineCount];
+            for (int i = 0; i < stringCount; i++) {
+                String s = lengths[i] < 0 ? null : new String(bytes, starts[i], lengths[i], StandardCharsets.UTF_8);
+                if (i < n) {
+                    ids[i] = s;
+                } else if (i < 2 * n) {
+                    names[i - n] = s;
+                } else {
+                    lineNames[i - 2 * n] = s;
+                }
+            }
+            return new CompactGraph(ids, names, offsets, targets, weights, lineIds, lineNames);
+        }
+    }
+
+    private static String[] strings(CompactGraph graph) {
+        int n = graph.nodeCount();
+        String[] strings = new String[2 * n + graph.lineCount()];
+        System.arraycopy(graph.ids(), 0, strings, 0, n);
+        System.arraycopy(graph.names(), 0, strings, n, n);
+        System.arraycopy(graph.lineNames(), 0, strings, 2 * n, graph.lineCount());
+        return strings;
+    }
+
+    private static void putInts(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + 4 * values.length);
+    }
+
+    private static int[] getInts(IntBuffer ints, int count) {
+        int[] values = new int[count];
+        ints.get(values);
+        return values;
+    }
+}
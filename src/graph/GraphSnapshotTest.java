@@ -0,0 +1,92 @@
+package graph;
+
+import org.junit.Test;
+import parser.MetroMapParser;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GraphSnapshotTest {
+
+    MetroMapParser mp = new MetroMapParser();
+    File source = new File("testfile");
+    CompactGraph graph = mp.parseCompact(source);
+
+    private File snapshotFile() throws IOException {
+        File f = File.createTempFile("graph", ".snapshot");
+        f.deleteOnExit();
+        GraphSnapshot.write(graph, source, f);
+        return f;
+    }
+
+    /**
+     * A snapshot should load back into an identical graph.
+     * */
+    @Test
+    public void testWriteAndRead() throws IOException {
+        CompactGraph loaded = GraphSnapshot.read(snapshotFile());
+
+        assertEquals(graph.fingerprint(), loaded.fingerprint());
+        assertEquals(graph.lineCount(), loaded.lineCount());
+        for(int i = 0; i < graph.nodeCount(); i++){
+            assertEquals(graph.getName(i), loaded.getName(i));
+        }
+        for(int l = 0; l < graph.lineCount(); l++){
+            assertEquals(graph.getLineName(l), loaded.getLineName(l));
+        }
+    }
+
+    /**
+     * A snapshot is only current for the map file it was made from.
+     * */
+    @Test
+    public void testStaleSnapshotIsDetected() throws IOException {
+        File f = snapshotFile();
+        assertTrue(GraphSnapshot.isCurrent(f, source));
+
+        File other = File.createTempFile("other", ".txt");
+        other.deleteOnExit();
+        assertFalse(GraphSnapshot.isCurrent(f, other));
+        assertFalse(GraphSnapshot.isCurrent(new File(f.getPath() + ".missing"), source));
+    }
+
+    /**
+     * A damaged payload should fail the checksum.
+     * */
+    @Test
+    public void testDamagedSnapshotIsRejected() throws IOException {
+        File f = snapshotFile();
+        try (RandomAccessFile file = new RandomAccessFile(f, "rw")) {
+            file.seek(file.length() - 1);
+            int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 0xff);
+        }
+        boolean rejected = false;
+        try {
+            GraphSnapshot.read(f);
+        } catch (IOException e) {
+            rejected = true;
+        }
+        assertTrue(rejected);
+    }
+
+    /**
+     * Converting back to objects should give the nodes and edges of the parsed graph.
+     * */
+    @Test
+    public void testToGraph() {
+        GraphADT parsed = mp.parse(source);
+        GraphADT converted = graph.toGraph();
+
+        assertEquals(parsed.getNodes().size(), converted.getNodes().size());
+        assertEquals(parsed.getEdges().size(), converted.getEdges().size());
+        for(int i = 0; i < parsed.getNodes().size(); i++){
+            NodeADT node = parsed.getNodes().get(i);
+            assertEquals(node.getId(), converted.getNodes().get(i).getId());
+            assertEquals(node.getEdges().size(), converted.getNodes().get(i).getEdges().size());
+        }
+        assertEquals(graph.fingerprint(), CompactGraph.from(converted).fingerprint());
+    }
+}
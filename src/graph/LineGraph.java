@@ -0,0 +1,227 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * LineGraph
+ *
+ * The line-expanded form of a CompactGraph, where each state is a station
+ * together with one of the lines serving it, so that a search knows which line
+ * it is riding. Riding edges join the states of two stations on the same line,
+ * with the weight of the edge between the stations, and transfer edges join
+ * every pair of states of the same station, with the transfer penalty. A route
+ * that changes line therefore pays for the change during the search.
+ *
+ * States are dense ints, grouped by station: the states of station s are
+ * stateStart(s) up to (but not including) stateEnd(s), in line order. The
+ * edges of each state are held in compressed-sparse-row layout like
+ * CompactGraph, so no objects are touched while a search relaxes edges.
+ */
+public final class LineGraph {
+    private final CompactGraph graph;
+    private final int transferPenalty;
+    private final int[] stationOffsets;
+    private final int[] stateStations;
+    private final int[] stateLines;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+
+    private LineGraph(CompactGraph graph, int transferPenalty, int[] stationOffsets, int[] stateStations,
+                      int[] stateLines, int[] offsets, int[] targets, int[] weights) {
+        this.graph = graph;
+        this.transferPenalty = transferPenalty;
+        this.stationOffsets = stationOffsets;
+        this.stateStations = stateStations;
+        this.stateLines = stateLines;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * from
+     *
+     * Builds the line-expanded graph. A station has one state for each line of
+     * the edges leaving or arriving at it.
+     *
+     * @param graph           the graph to be expanded.
+     * @param transferPenalty the cost of changing line at a station.
+     * @return the line-expanded graph.
+     */
+    public static LineGraph from(CompactGraph graph, int transferPenalty) {
+        if (transferPenalty < 0) {
+            throw new IllegalArgumentException("The transfer penalty cannot be negative");
+        }
+        int n = graph.nodeCount();
+
+        // Every (station, line) pair an edge touches, packed into a long and sorted by station then line.
+        long[] pairs = new long[2 * graph.edgeCount()];
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                pairs[count++] = (long) v << 32 | graph.line(e);
+                pairs[count++] = (long) graph.target(e) << 32 | graph.line(e);
+            }
+        }
+        Arrays.sort(pairs, 0, count);
+        int states = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || pairs[i] != pairs[i - 1]) {
+                pairs[states++] = pairs[i];
+            }
+        }
+        int[] stationOffsets = new int[n + 1];
+        int[] stateStations = new int[states];
+        int[] stateLines = new int[states];
+        for (int s = 0; s < states; s++) {
+            stateStations[s] = (int) (pairs[s] >>> 32);
+            stateLines[s] = (int) pairs[s];
+            stationOffsets[stateStations[s] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            stationOffsets[v + 1] += stationOffsets[v];
+        }
+
+        int[] offsets = new int[states + 1];
+        for (int v = 0; v < n; v++) {
+            for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                offsets[find(stationOffsets, stateLines, v, graph.line(e)) + 1]++;
+            }
+            int served = stationOffsets[v + 1] - stationOffsets[v];
+            for (int s = stationOffsets[v]; s < stationOffsets[v + 1]; s++) {
+                offsets[s + 1] += served - 1;
+            }
+        }
+        for (int s = 0; s < states; s++) {
+            offsets[s + 1] += offsets[s];
+        }
+        int[] next = Arrays.copyOf(offsets, states);
+        int[] targets = new int[offsets[states]];
+        int[] weights = new int[offsets[states]];
+        for (int v = 0; v < n; v++) {
+            for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                int line = graph.line(e);
+                int slot = next[find(stationOffsets, stateLines, v, line)]++;
+                targets[slot] = find(stationOffsets, stateLines, graph.target(e), line);
+                weights[slot] = graph.weight(e);
+            }
+            for (int s = stationOffsets[v]; s < stationOffsets[v + 1]; s++) {
+                for (int t = stationOffsets[v]; t < stationOffsets[v + 1]; t++) {
+                    if (s != t) {
+                        int slot = next[s]++;
+                        targets[slot] = t;
+                        weights[slot] = transferPenalty;
+                    }
+                }
+            }
+        }
+        return new LineGraph(graph, transferPenalty, stationOffsets, stateStations, stateLines, offsets, targets, weights);
+    }
+
+    private static int find(int[] stationOffsets, int[] stateLines, int station, int line) {
+        int index = Arrays.binarySearch(stateLines, stationOffsets[station], stationOffsets[station + 1], line);
+        return index < 0 ? -1 : index;
+    }
+
+    /**
+     * Returns the graph the states were expanded from.
+     *
+     * @return the compact graph.
+     */
+    public CompactGraph getGraph() { return graph; }
+
+    /**
+     * Returns the cost of changing line at a station.
+     *
+     * @return the transfer penalty.
+     */
+    public int getTransferPenalty() { return transferPenalty; }
+
+    /**
+     * Returns the number of (station, line) states.
+     *
+     * @return the number of states.
+     */
+    public int stateCount() { return stateStations.length; }
+
+    /**
+     * Returns the number of riding and transfer edges.
+     *
+     * @return the number of edges.
+     */
+    public int edgeCount() { return targets.length; }
+
+    /**
+     * Returns the first state of a station.
+     *
+     * @param station the index of the station in the compact graph.
+     * @return the index of the station's first state.
+     */
+    public int stateStart(int station) { return stationOffsets[station]; }
+
+    /**
+     * Returns the index one past the last state of a station.
+     *
+     * @param station the index of the station in the compact graph.
+     * @return the index after the station's last state.
+     */
+    public int stateEnd(int station) { return stationOffsets[station + 1]; }
+
+    /**
+     * Returns the state of a station on a line.
+     *
+     * @param station the index of the station in the compact graph.
+     * @param line    the index of the line in the compact graph.
+     * @return the index of the state, or -1 if the line does not serve the station.
+     */
+    public int stateOf(int station, int line) { return find(stationOffsets, stateLines, station, line); }
+
+    /**
+     * Returns the station of a state.
+     *
+     * @param state the index of the state.
+     * @return the index of the station in the compact graph.
+     */
+    public int station(int state) { return stateStations[state]; }
+
+    /**
+     * Returns the line of a state.
+     *
+     * @param state the index of the state.
+     * @return the index of the line in the compact graph.
+     */
+    public int line(int state) { return stateLines[state]; }
+
+    /**
+     * Returns the index of the first edge leaving a state.
+     *
+     * @param state the index of the state.
+     * @return the index of the state's first edge.
+     */
+    public int edgeStart(int state) { return offsets[state]; }
+
+    /**
+     * Returns the index one past the last edge leaving a state.
+     *
+     * @param state the index of the state.
+     * @return the index after the state's last edge.
+     */
+    public int edgeEnd(int state) { return offsets[state + 1]; }
+
+    /**
+     * Returns the state an edge leads to.
+     *
+     * @param edge the index of the edge.
+     * @return the index of the target state.
+     */
+    public int target(int edge) { return targets[edge]; }
+
+    /**
+     * Returns the cost of an edge, the transfer penalty for a transfer edge.
+     *
+     * @param edge the index of the edge.
+     * @return the weight of the edge.
+     */
+    public int weight(int edge) { return weights[edge]; }
+}
@@ -0,0 +1,73 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * LineRegistry
+ *
+ * Gives each line name a dense integer ID, in the order the lines are first
+ * seen, and keeps one copy of each name. Lines are interned once, when a graph
+ * is built, so that everything after that can refer to a line by its ID rather
+ * than comparing or hashing its name.
+ *
+ * Like the graph that owns it, a registry is only changed while the graph is
+ * built, and is not safe to change from several threads at once.
+ */
+public final class LineRegistry {
+    private final HashMap<String, Integer> ids = new HashMap<>();
+    private final ArrayList<String> names = new ArrayList<>();
+
+    /**
+     * intern
+     *
+     * Returns the ID of a line, giving it the next ID if it has not been seen before.
+     *
+     * @param name the name of the line.
+     * @return the ID of the line.
+     */
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the ID of the line with the given name, or -1 if there is none.
+     *
+     * @param name the name of the line.
+     * @return the ID of the line, or -1.
+     */
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the name of a line. Every edge on the line shares this copy of it.
+     *
+     * @param id the ID of the line.
+     * @return the name of the line.
+     */
+    public String name(int id) { return names.get(id); }
+
+    /**
+     * Returns the number of lines seen so far, one more than the highest ID.
+     *
+     * @return the number of lines.
+     */
+    public int size() { return names.size(); }
+
+    /**
+     * Returns the names of the lines, where the name of the line with ID i is at index i.
+     *
+     * @return an unmodifiable view of the line names.
+     */
+    public List<String> names() { return Collections.unmodifiableList(names); }
+}
@@ -0,0 +1,81 @@
+package graph;
+
+import org.junit.Test;
+import parser.MetroMapParser;
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LineRegistryTest {
+
+    MetroMapParser mp = new MetroMapParser();
+    GraphADT graph = mp.parse(new File("testfile"));
+    CompactGraph compact = CompactGraph.from(graph);
+    List<NodeADT> nodes = graph.getNodes();
+
+    private NodeADT node(String id) {
+        return nodes.get(compact.indexOf(id));
+    }
+
+    /**
+     * Lines should be numbered in the order they are first seen, and every edge should share its line's name.
+     * */
+    @Test
+    public void testInterning(){
+        LineRegistry lines = graph.getLineRegistry();
+
+        assertEquals(Arrays.asList("Orange", "Blue"), lines.names());
+        assertEquals(1, lines.idOf("Blue"));
+        assertEquals(-1, lines.idOf("Green"));
+        for(EdgeADT edge : graph.getEdges()){
+            assertSame(lines.name(edge.getLineId()), edge.getLine());
+            assertEquals(compact.lineIndexOf(edge.getLine()), edge.getLineId());
+        }
+    }
+
+    /**
+     * Each node should know its lines by ID, and which other nodes it shares one with.
+     * */
+    @Test
+    public void testLineSets(){
+        int orange = graph.getLineRegistry().idOf("Orange");
+        int blue = graph.getLineRegistry().idOf("Blue");
+
+        assertTrue(node("2").isOnLine(orange));
+        assertTrue(node("2").isOnLine(blue));
+        assertFalse(node("1").isOnLine(blue));
+        assertFalse(node("1").isOnLine(-1));
+        assertEquals(Arrays.asList("Orange", "Blue"), node("5").getLines());
+
+        assertTrue(node("1").sharesLine(node("4")));
+        assertTrue(node("6").sharesLine(node("2")));
+        assertFalse(node("1").sharesLine(node("6")));
+    }
+
+    /**
+     * A node given its edges before they were added to a graph should see their lines once they are.
+     * */
+    @Test
+    public void testEdgesAddedBeforeGraph(){
+        Graph manual = new Graph();
+        Node a = new Node("a", "A");
+        Node b = new Node("b", "B");
+        Edge ab = new Edge(b, "Green");
+        Edge ba = new Edge(a, "Green");
+        a.addEdge(ab);
+        b.addEdge(ba);
+
+        assertFalse(a.sharesLine(b));
+        manual.addNode(a);
+        manual.addNode(b);
+        manual.addEdge(ab);
+        manual.addEdge(ba);
+        assertTrue(a.isOnLine(0));
+        assertTrue(a.sharesLine(b));
+
+        manual.setLineWeight(0, 7);
+        assertEquals(Integer.valueOf(7), ab.getWeight());
+        assertThrows(IllegalArgumentException.class, () -> manual.setLineWeight(1, 7));
+    }
+}
@@ -0,0 +1,396 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * LiveNetwork
+ *
+ * A CompactGraph whose stations and edges can be closed and reopened, and
+ * whose edge weights can be changed, while the program runs, so that a
+ * disruption does not need the map file to be edited and everything rebuilt.
+ *
+ * Every change publishes a new immutable Snapshot, copy-on-write, through an
+ * AtomicReference. Queries read whichever snapshot is current when they start
+ * and keep using it, so they are never blocked by a change and never see half
+ * of one. Changes are serialised with each other.
+ *
+ * A change only costs the edges it touches. The weights of a snapshot are
+ * kept in pages of PAGE_SIZE edges, and a new snapshot copies just the pages
+ * holding a changed edge, sharing every other page with the snapshot before.
+ * The graph of open edges, which a search like DijkstraSearch needs, is only
+ * built when a snapshot is first asked for it, so a run of changes with no
+ * such query in between never builds it. Several changes can also be made
+ * together with batch(), which publishes one snapshot for all of them.
+ *
+ * Edges are numbered as in the base graph the network was created from. Each
+ * snapshot records which base edges the last few changes touched, so that a
+ * search holding on to an earlier route can repair it rather than start over.
+ */
+public final class LiveNetwork {
+    /** The weight of an edge that is closed, or that leaves or arrives at a closed station. */
+    public static final int CLOSED = -1;
+    /** The number of changes each snapshot remembers the edges of. */
+    public static final int CHANGE_LOG_LENGTH = 64;
+    /** The number of edge weights in each page a snapshot copies on write. */
+    public static final int PAGE_SIZE = 1 << 10;
+    private static final int PAGE_SHIFT = 10;
+
+    private final CompactGraph base;
+    private final int[] edgeSources;
+    private final int[] inOffsets;
+    private final int[] inEdges;
+    private final AtomicReference<Snapshot> current;
+    // Only read and written by changes, while holding the lock on this network.
+    private final int[] weights;
+    private final boolean[] closedEdges;
+    private final boolean[] closedStations;
+    // The edges changed so far by the batch being made, while batchDepth is above 0.
+    private int batchDepth;
+    private int[] pending = new int[16];
+    private int pendingCount;
+
+    /**
+     * @param base the network with every station and edge open.
+     */
+    public LiveNetwork(CompactGraph base) {
+        int n = base.nodeCount();
+        int m = base.edgeCount();
+        this.base = base;
+        this.edgeSources = new int[m];
+        this.inOffsets = new int[n + 1];
+        this.inEdges = new int[m];
+        this.weights = new int[m];
+        this.closedEdges = new boolean[m];
+        this.closedStations = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            for (int e = base.edgeStart(v); e < base.edgeEnd(v); e++) {
+                edgeSources[e] = v;
+                weights[e] = base.weight(e);
+                inOffsets[base.target(e) + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        int[] next = Arrays.copyOf(inOffsets, n);
+        for (int e = 0; e < m; e++) {
+            inEdges[next[base.target(e)]++] = e;
+        }
+        int[][] pages = new int[(m + PAGE_SIZE - 1) >>> PAGE_SHIFT][];
+        for (int p = 0; p < pages.length; p++) {
+            pages[p] = Arrays.copyOfRange(weights, p << PAGE_SHIFT, Math.min(m, (p + 1) << PAGE_SHIFT));
+        }
+        this.current = new AtomicReference<>(new Snapshot(0, pages, base, base, new int[0][]));
+    }
+
+    /**
+     * Returns the snapshot of the network as it is now. It does not change when
+     * the network does.
+     *
+     * @return the current snapshot.
+     */
+    public Snapshot current() { return current.get(); }
+
+    /**
+     * Returns the network with every station and edge open, with its original weights.
+     *
+     * @return the base graph.
+     */
+    public CompactGraph getBase() { return base; }
+
+    /**
+     * Returns the station a base edge leaves.
+     *
+     * @param edge the index of the edge in the base graph.
+     * @return the index of the station.
+     */
+    public int edgeSource(int edge) { return edgeSources[edge]; }
+
+    /**
+     * Returns the index of the first edge arriving at a station, for inEdge().
+     *
+     * @param node the index of the station.
+     * @return the index of the station's first incoming edge.
+     */
+    public int inStart(int node) { return inOffsets[node]; }
+
+    /**
+     * Returns the index one past the last edge arriving at a station.
+     *
+     * @param node the index of the station.
+     * @return the index after the station's last incoming edge.
+     */
+    public int inEnd(int node) { return inOffsets[node + 1]; }
+
+    /**
+     * Returns a base edge arriving at a station.
+     *
+     * @param index an index from inStart(node) up to inEnd(node).
+     * @return the index of the edge in the base graph.
+     */
+    public int inEdge(int index) { return inEdges[index]; }
+
+    /**
+     * batch
+     *
+     * Makes several changes as one, publishing a single snapshot once they are
+     * all made, so that queries never see only some of them. Batches may be
+     * nested; the snapshot is published when the outermost one ends, even if a
+     * change in it throws.
+     *
+     * @param changes makes the changes, by calling the methods of this network.
+     */
+    public synchronized void batch(Runnable changes) {
+        batchDepth++;
+        try {
+            changes.run();
+        } finally {
+            batchDepth--;
+            if (batchDepth == 0 && pendingCount > 0) {
+                int[] changed = Arrays.copyOf(pending, pendingCount);
+                pendingCount = 0;
+                publish(changed);
+            }
+        }
+    }
+
+    /**
+     * closeStation
+     *
+     * Closes a station, so that no route may start, end or pass through it.
+     *
+     * @param id the station ID.
+     */
+    public void closeStation(String id) { setStationClosed(id, true); }
+
+    /**
+     * Reopens a closed station.
+     *
+     * @param id the station ID.
+     */
+    public void reopenStation(String id) { setStationClosed(id, false); }
+
+    /**
+     * closeEdge
+     *
+     * Closes the edges from one station to another, on every line joining them.
+     *
+     * @param fromId the ID of the station the edges leave.
+     * @param toId   the ID of the station the edges lead to.
+     */
+    public void closeEdge(String fromId, String toId) { setEdgeClosed(fromId, toId, true); }
+
+    /**
+     * Reopens the edges from one station to another.
+     *
+     * @param fromId the ID of the station the edges leave.
+     * @param toId   the ID of the station the edges lead to.
+     */
+    public void reopenEdge(String fromId, String toId) { setEdgeClosed(fromId, toId, false); }
+
+    /**
+     * setEdgeWeight
+     *
+     * Changes the weight of the edges from one station to another, on every
+     * line joining them. A closed edge keeps the new weight for when it reopens.
+     *
+     * @param fromId the ID of the station the edges leave.
+     * @param toId   the ID of the station the edges lead to.
+     * @param weight the new weight, which must be positive.
+     */
+    public synchronized void setEdgeWeight(String fromId, String toId, int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("The weight of an edge must be positive");
+        }
+        int[] changed = edgesBetween(fromId, toId);
+        for (int e : changed) {
+            weights[e] = weight;
+        }
+        changed(changed);
+    }
+
+    private synchronized void setStationClosed(String id, boolean closed) {
+        int node = station(id);
+        if (closedStations[node] == closed) {
+            return;
+        }
+        closedStations[node] = closed;
+        int outgoing = base.edgeEnd(node) - base.edgeStart(node);
+        int[] changed = new int[outgoing + inEnd(node) - inStart(node)];
+        for (int i = 0; i < outgoing; i++) {
+            changed[i] = base.edgeStart(node) + i;
+        }
+        for (int i = inStart(node); i < inEnd(node); i++) {
+            changed[outgoing + i - inStart(node)] = inEdges[i];
+        }
+        changed(changed);
+    }
+
+    private synchronized void setEdgeClosed(String fromId, String toId, boolean closed) {
+        int[] changed = edgesBetween(fromId, toId);
+        for (int e : changed) {
+            closedEdges[e] = closed;
+        }
+        changed(changed);
+    }
+
+    private int[] edgesBetween(String fromId, String toId) {
+        int from = station(fromId);
+        int to = station(toId);
+        int count = 0;
+        int[] edges = new int[base.edgeEnd(from) - base.edgeStart(from)];
+        for (int e = base.edgeStart(from); e < base.edgeEnd(from); e++) {
+            if (base.target(e) == to) {
+                edges[count++] = e;
+            }
+        }
+        if (count == 0) {
+            throw new IllegalArgumentException("No edge from " + fromId + " to " + toId);
+        }
+        return Arrays.copyOf(edges, count);
+    }
+
+    private int station(String id) {
+        int node = base.indexOf(id);
+        if (node < 0) {
+            throw new IllegalArgumentException("No station with ID " + id);
+        }
+        return node;
+    }
+
+    /**
+     * Publishes a change at once, or adds its edges to the batch being made.
+     */
+    private void changed(int[] edges) {
+        if (batchDepth == 0) {
+            publish(edges);
+            return;
+        }
+        if (pendingCount + edges.length > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pendingCount + edges.length, pending.length * 2));
+        }
+        System.arraycopy(edges, 0, pending, pendingCount, edges.length);
+        pendingCount += edges.length;
+    }
+
+    /**
+     * publish
+     *
+     * Makes the next snapshot and swaps it in. Only the pages of weights holding
+     * a changed edge are copied, and only the changed edges are worked out
+     * again from the weights and closures; every other page is shared with the
+     * previous snapshot.
+     *
+     * @param changed the base edges whose weight may have changed.
+     */
+    private void publish(int[] changed) {
+        Snapshot previous = current.get();
+        int[][] pages = previous.pages.clone();
+        for (int e : changed) {
+            int p = e >>> PAGE_SHIFT;
+            if (pages[p] == previous.pages[p]) {
+                pages[p] = pages[p].clone();
+            }
+            boolean closed = closedEdges[e] || closedStations[edgeSources[e]] || closedStations[base.target(e)];
+            pages[p][e & (PAGE_SIZE - 1)] = closed ? CLOSED : weights[e];
+        }
+        int[][] log = previous.changes;
+        int kept = Math.min(log.length, CHANGE_LOG_LENGTH - 1);
+        int[][] changes = new int[kept + 1][];
+        System.arraycopy(log, log.length - kept, changes, 0, kept);
+        changes[kept] = changed;
+        current.set(new Snapshot(previous.version + 1, pages, base, null, changes));
+    }
+
+    /**
+     * Snapshot
+     *
+     * The network as it was after one change. The graph of open edges can be
+     * given to any search, and keeps the node indices of the base graph. It is
+     * built the first time it is asked for.
+     */
+    public static final class Snapshot {
+        private final long version;
+        // The weight of base edge e is pages[e / PAGE_SIZE][e % PAGE_SIZE]; pages are shared between snapshots.
+        private final int[][] pages;
+        private final CompactGraph base;
+        private volatile CompactGraph graph;
+        // The edges touched by the last changes, oldest first, ending with the one that made this snapshot.
+        private final int[][] changes;
+
+        private Snapshot(long version, int[][] pages, CompactGraph base, CompactGraph graph, int[][] changes) {
+            this.version = version;
+            this.pages = pages;
+            this.base = base;
+            this.graph = graph;
+            this.changes = changes;
+        }
+
+        /**
+         * Returns the number of changes made to the network before this snapshot.
+         *
+         * @return the version of the snapshot.
+         */
+        public long getVersion() { return version; }
+
+        /**
+         * Returns the graph of the open stations and edges, building it if this
+         * is the first time it has been asked for.
+         *
+         * @return the open graph.
+         */
+        public CompactGraph getGraph() {
+            CompactGraph open = graph;
+            if (open == null) {
+                synchronized (this) {
+                    open = graph;
+                    if (open == null) {
+                        int[] weights = new int[base.edgeCount()];
+                        for (int p = 0; p < pages.length; p++) {
+                            System.arraycopy(pages[p], 0, weights, p << PAGE_SHIFT, pages[p].length);
+                        }
+                        open = base.withOpenEdges(weights);
+                        graph = open;
+                    }
+                }
+            }
+            return open;
+        }
+
+        /**
+         * Returns the weight of a base edge in this snapshot.
+         *
+         * @param edge the index of the edge in the base graph.
+         * @return the weight of the edge, or CLOSED.
+         */
+        public int weight(int edge) { return pages[edge >>> PAGE_SHIFT][edge & (PAGE_SIZE - 1)]; }
+
+        /**
+         * changesSince
+         *
+         * Returns the base edges whose weight may have changed between an earlier
+         * snapshot and this one. An edge may be listed more than once.
+         *
+         * @param earlier the version of the earlier snapshot.
+         * @return the changed edges, or null if the changes are too old to be remembered.
+         */
+        public int[] changesSince(long earlier) {
+            long count = version - earlier;
+            if (count < 0 || count > changes.length) {
+                return null;
+            }
+            int length = 0;
+            for (int i = changes.length - (int) count; i < changes.length; i++) {
+                length += changes[i].length;
+            }
+            int[] edges = new int[length];
+            int next = 0;
+            for (int i = changes.length - (int) count; i < changes.length; i++) {
+                System.arraycopy(changes[i], 0, edges, next, changes[i].length);
+                next += changes[i].length;
+            }
+            return edges;
+        }
+    }
+}
@@ -2,13 +2,14 @@ package graph;
 
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 public class Node implements NodeADT{
 
@@ -24,22 +25,31 @@ public class Node implements NodeADT{
      *
      * Nodes also contain methods for retrieving the name, id, cost the list of
      * edges that is it connected to, and the lines that it is a part of.
+     *
+     * The lines are kept as edges are added, both by name and as a set of line
+     * IDs, so asking which lines serve a station, or whether two stations share
+     * a line, allocates nothing. An edge added before it has a line ID is given
+     * its bit the next time the set is read.
      */
 
     private String id;
     private String name;
     private List<EdgeADT> edges;
     private Integer cost;
+    private final List<String> lines;
+    private volatile BitSet lineSet;
+    private volatile boolean linesPending;
 
     public Node(String id) {
         this.setId(id);
         this.edges = new ArrayList<>();
+        this.lines = new ArrayList<>();
+        this.lineSet = new BitSet();
     }
 
     public Node(String id, String name) {
-        this.setId(id);
+        this(id);
         this.setName(name);
-        this.edges = new ArrayList<>();
     }
 
     /**
@@ -71,19 +81,66 @@ public class Node implements NodeADT{
     public List<EdgeADT> getEdges() { return edges; }
 
     /**
-     * getLines
+     * Returns the distinct lines the node is on, in the order they were first added.
+     *
+     * @return unmodifiable list of distinct lines a node is on.
+     */
+    public List<String> getLines(){ return Collections.unmodifiableList(lines); }
+
+    /**
+     * Returns true if one of the node's edges lays on the line.
+     *
+     * @param line the line ID.
+     * @return true if the line serves the node.
+     */
+    public boolean isOnLine(int line){ return line >= 0 && lineSet().get(line); }
+
+    /**
+     * sharesLine
      *
-     * Loops through the list of edges, and adds the line that the edge lays on to a list
-     * then returns that list, reduced to only containing distinct elements.
+     * Returns true if a line serves both this node and the other one, by
+     * intersecting their sets of line IDs.
      *
-     * @return list of distinct lines a node is on.
+     * @param other the other node.
+     * @return true if the two nodes are on a common line.
      */
-    public List<String> getLines(){
-        List<String> lines = new ArrayList<>();
-        for (EdgeADT x : edges) {
-            lines.add(x.getLine());
+    public boolean sharesLine(NodeADT other){
+        if (other instanceof Node) {
+            return lineSet().intersects(((Node) other).lineSet());
         }
-        return lines.stream().distinct().collect(Collectors.toList());
+        for (EdgeADT edge : other.getEdges()) {
+            if (isOnLine(edge.getLineId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * lineSet
+     *
+     * Returns the IDs of the node's lines. If edges were added before their
+     * lines had IDs, the set is built again from the edges, and replaced
+     * rather than changed, so that a search reading it on another thread never
+     * sees it half built.
+     *
+     * @return the set of line IDs.
+     */
+    private BitSet lineSet(){
+        if (linesPending) {
+            BitSet rebuilt = new BitSet();
+            boolean pending = false;
+            for (EdgeADT edge : edges) {
+                if (edge.getLineId() < 0) {
+                    pending = true;
+                } else {
+                    rebuilt.set(edge.getLineId());
+                }
+            }
+            lineSet = rebuilt;
+            linesPending = pending;
+        }
+        return lineSet;
     }
 
     /**
@@ -105,7 +162,17 @@ public class Node implements NodeADT{
      *
      * @param e the edge to be added.
      */
-    public void addEdge(EdgeADT e) { edges.add(e); }
+    public void addEdge(EdgeADT e) {
+        edges.add(e);
+        if (!lines.contains(e.getLine())) {
+            lines.add(e.getLine());
+        }
+        if (e.getLineId() < 0) {
+            linesPending = true;
+        } else {
+            lineSet.set(e.getLineId());
+        }
+    }
 
     /**
      * Sets the cost of travel of the Node.
@@ -8,6 +8,8 @@ public interface NodeADT {
     String getName();
     List<EdgeADT> getEdges();
     List<String> getLines();
+    boolean isOnLine(int line);
+    boolean sharesLine(NodeADT other);
     Integer getCost();
     void setId(String id);
     void setName(String name);
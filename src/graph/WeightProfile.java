@@ -0,0 +1,46 @@
+package graph;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WeightProfile
+ *
+ * Decides the weight of travelling one stop on each line. The weights are
+ * given to the edges once, when a graph is built, rather than by each search.
+ *
+ * Lines are numbered in the order they are first seen, so a profile can give
+ * weights by position as well as by name.
+ */
+@FunctionalInterface
+public interface WeightProfile {
+    /** 10 for the first line seen, going up in 2s, as the program has always used. */
+    WeightProfile DEFAULT = (line, index) -> CompactGraph.defaultLineWeight(index);
+
+    /**
+     * Returns the weight of one stop on a line.
+     *
+     * @param line  the name of the line.
+     * @param index the position the line was first seen in, from 0.
+     * @return the weight of the line's edges.
+     */
+    int weight(String line, int index);
+
+    /**
+     * of
+     *
+     * Returns a profile that gives the listed lines their own weight and every
+     * other line the weight from the fallback profile.
+     *
+     * @param weights  the weight of each listed line, by name.
+     * @param fallback the profile for the lines not listed.
+     * @return the profile.
+     */
+    static WeightProfile of(Map<String, Integer> weights, WeightProfile fallback) {
+        Map<String, Integer> copy = new HashMap<>(weights);
+        return (line, index) -> {
+            Integer weight = copy.get(line);
+            return weight == null ? fallback.weight(line, index) : weight;
+        };
+    }
+}
@@ -0,0 +1,141 @@
+package lookup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * BKTree
+ *
+ * A Burkhard-Keller tree of strings under Levenshtein distance. Each child of a
+ * node is filed under its distance from that node, so by the triangle
+ * inequality a search for strings within distance d of a query only has to
+ * visit children filed between (distance to node - d) and (distance to node + d).
+ *
+ * Each string carries a rank, used to order matches that are equally close.
+ */
+class BKTree {
+    private final ArrayList<String> words = new ArrayList<>();
+    private final ArrayList<Integer> ranks = new ArrayList<>();
+    private final ArrayList<int[]> children = new ArrayList<>();
+
+    /**
+     * Match
+     *
+     * A string found by a search, with its distance from the query.
+     */
+    static final class Match {
+        final String word;
+        final int distance;
+        final int rank;
+
+        Match(String word, int distance, int rank) {
+            this.word = word;
+            this.distance = distance;
+            this.rank = rank;
+        }
+    }
+
+    /**
+     * Returns the number of strings in the tree.
+     *
+     * @return the number of strings in the tree.
+     */
+    int size() { return words.size(); }
+
+    /**
+     * add
+     *
+     * Adds a string to the tree. The string must not already be in it.
+     *
+     * @param word the string to be added.
+     * @param rank where the string comes when matches are equally close.
+     */
+    void add(String word, int rank) {
+        int index = words.size();
+        words.add(word);
+        ranks.add(rank);
+        children.add(null);
+        if (index == 0) {
+            return;
+        }
+        int node = 0;
+        while (true) {
+            int d = Levenshtein.distance(word, words.get(node));
+            int[] slots = children.get(node);
+            if (slots == null || slots.length <= d) {
+                slots = slots == null ? new int[Math.max(8, d + 1)] : Arrays.copyOf(slots, Math.max(slots.length * 2, d + 1));
+                children.set(node, slots);
+            }
+            if (slots[d] == 0) {
+                slots[d] = index;
+                return;
+            }
+            node = slots[d];
+        }
+    }
+
+    /**
+     * nearest
+     *
+     * Finds the k strings closest to the query that are within the maximum
+     * distance, closest first. While searching, the bound shrinks to the
+     * distance of the k-th best match found so far, so only part of the tree is visited.
+     *
+     * @param query       the string to be matched.
+     * @param k           the most matches to return.
+     * @param maxDistance the largest distance a match may be.
+     * @return the matches, closest first, then by rank.
+     */
+    List<Match> nearest(String query, int k, int maxDistance) {
+        // The worst of the best matches so far is at the head.
+        PriorityQueue<Match> best = new PriorityQueue<>(
+                (a, b) -> a.distance != b.distance ? b.distance - a.distance : b.rank - a.rank);
+        if (words.isEmpty() || k < 1) {
+            return new ArrayList<>();
+        }
+        int bound = maxDistance;
+        ArrayList<Integer> stack = new ArrayList<>();
+        stack.add(0);
+        while (!stack.isEmpty()) {
+            int node = stack.remove(stack.size() - 1);
+            String word = words.get(node);
+            int[] slots = children.get(node);
+            // The exact distance is needed to choose which children to visit, so it
+            // is only cut short at leaves.
+            int d = Levenshtein.distance(query, word, slots == null ? bound : Integer.MAX_VALUE);
+            if (d <= bound) {
+                Match match = new Match(word, d, ranks.get(node));
+                if (best.size() < k) {
+                    best.add(match);
+                } else if (isBetter(match, best.peek())) {
+                    best.poll();
+                    best.add(match);
+                }
+                if (best.size() == k) {
+                    bound = Math.min(bound, best.peek().distance);
+                }
+            }
+            if (slots == null) {
+                continue;
+            }
+            // Children further than d + bound or nearer than d - bound cannot be within bound.
+            int low = Math.max(0, d - bound);
+            int high = (int) Math.min(slots.length - 1L, (long) d + bound);
+            for (int i = low; i <= high; i++) {
+                if (slots[i] != 0) {
+                    stack.add(slots[i]);
+                }
+            }
+        }
+
+        ArrayList<Match> matches = new ArrayList<>(best);
+        matches.sort((a, b) -> a.distance != b.distance ? a.distance - b.distance : a.rank - b.rank);
+        return matches;
+    }
+
+    private static boolean isBetter(Match a, Match b) {
+        return a.distance < b.distance || (a.distance == b.distance && a.rank < b.rank);
+    }
+}
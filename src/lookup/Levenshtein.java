@@ -0,0 +1,59 @@
+package lookup;
+
+/**
+ * Levenshtein distance between two strings: the number of single character
+ * insertions, deletions and substitutions needed to turn one into the other.
+ *
+ * Code based off "https://rosettacode.org/wiki/Levenshtein_distance"
+ */
+public final class Levenshtein {
+
+    private Levenshtein() {
+    }
+
+    /**
+     * Calculates the Levenshtein distance between two strings.
+     *
+     * @param s1 - String 1
+     * @param s2 - String 2
+     * @return the levenshtein distance between the two strings
+     */
+    public static int distance(String s1, String s2) {
+        return distance(s1, s2, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Calculates the Levenshtein distance between two strings, giving up as soon
+     * as it is certain to be more than the limit.
+     *
+     * @param s1    - String 1
+     * @param s2    - String 2
+     * @param limit - the largest distance of interest
+     * @return the levenshtein distance, or some value greater than limit if it is over the limit
+     */
+    public static int distance(String s1, String s2, int limit) {
+        if (Math.abs(s1.length() - s2.length()) > limit) {
+            return limit + 1;
+        }
+        // i == 0
+        int[] costs = new int[s2.length() + 1];
+        for (int j = 0; j < costs.length; j++)
+            costs[j] = j;
+        for (int i = 1; i <= s1.length(); i++) {
+            // j == 0; nw = lev(i - 1, j)
+            costs[0] = i;
+            int nw = i - 1;
+            int rowMinimum = i;
+            for (int j = 1; j <= s2.length(); j++) {
+                int cj = Math.min(1 + Math.min(costs[j], costs[j - 1]), s1.charAt(i - 1) == s2.charAt(j - 1) ? nw : nw + 1);
+                nw = costs[j];
+                costs[j] = cj;
+                rowMinimum = Math.min(rowMinimum, cj);
+            }
+            if (rowMinimum > limit) {
+                return limit + 1;
+            }
+        }
+        return costs[s2.length()];
+    }
+}
@@ -0,0 +1,153 @@
+package lookup;
+
+import graph.GraphADT;
+import graph.NodeADT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * StationIndex
+ *
+ * An index of station names, built once from a graph, so that names typed by a
+ * user can be checked, completed and corrected without comparing them with
+ * every station.
+ *
+ * Names are matched ignoring case and surrounding spaces. Several stations may
+ * share a name, so an exact lookup gives all of them. Where matches are equally
+ * good, the station that comes first in the graph comes first.
+ */
+public class StationIndex {
+    private final HashMap<String, List<NodeADT>> byName;
+    private final String[] sortedNames;
+    private final BKTree tree;
+
+    public StationIndex(GraphADT graph) {
+        this(graph.getNodes());
+    }
+
+    /**
+     * @param stations the stations to be indexed. Stations without a name are left out.
+     */
+    public StationIndex(List<NodeADT> stations) {
+        this.byName = new HashMap<>();
+        this.tree = new BKTree();
+        for (NodeADT station : stations) {
+            if (station.getName() == null) {
+                continue;
+            }
+            String key = normalise(station.getName());
+            List<NodeADT> named = byName.get(key);
+            if (named == null) {
+                named = new ArrayList<>(1);
+                byName.put(key, named);
+                tree.add(key, tree.size());
+            }
+            named.add(station);
+        }
+        this.sortedNames = byName.keySet().toArray(new String[0]);
+        Arrays.sort(sortedNames);
+    }
+
+    /**
+     * Puts a name into the form it is indexed under.
+     *
+     * @param name the name as typed.
+     * @return the name without surrounding spaces, in upper case.
+     */
+    static String normalise(String name) {
+        return name.trim().toUpperCase();
+    }
+
+    /**
+     * Returns the number of distinct station names.
+     *
+     * @return the number of distinct station names.
+     */
+    public int size() { return sortedNames.length; }
+
+    /**
+     * Returns true if there is a station with the given name.
+     *
+     * @param name the station name, in any case.
+     * @return true if a station has the name.
+     */
+    public boolean contains(String name) {
+        return byName.containsKey(normalise(name));
+    }
+
+    /**
+     * find
+     *
+     * Returns every station with the given name, in graph order.
+     *
+     * @param name the station name, in any case.
+     * @return the stations with the name, or an empty list if there are none.
+     */
+    public List<NodeADT> find(String name) {
+        List<NodeADT> named = byName.get(normalise(name));
+        return named == null ? Collections.emptyList() : Collections.unmodifiableList(named);
+    }
+
+    /**
+     * complete
+     *
+     * Returns the names of stations starting with the given prefix, in
+     * alphabetical order. The names are binary searched, so only the matches are visited.
+     *
+     * @param prefix the start of a station name, in any case.
+     * @param limit  the most names to return.
+     * @return the station names starting with the prefix.
+     */
+    public List<String> complete(String prefix, int limit) {
+        String key = normalise(prefix);
+        int start = Arrays.binarySearch(sortedNames, key);
+        if (start < 0) {
+            start = -start - 1;
+        }
+        List<String> names = new ArrayList<>();
+        for (int i = start; i < sortedNames.length && names.size() < limit && sortedNames[i].startsWith(key); i++) {
+            names.add(displayName(sortedNames[i]));
+        }
+        return names;
+    }
+
+    /**
+     * suggest
+     *
+     * Returns the names of the stations closest to the input by Levenshtein
+     * distance, closest first.
+     *
+     * @param input       the name as typed.
+     * @param k           the most names to return.
+     * @param maxDistance the largest number of edits a suggestion may be from the input.
+     * @return the suggested station names.
+     */
+    public List<String> suggest(String input, int k, int maxDistance) {
+        List<String> names = new ArrayList<>();
+        for (BKTree.Match match : tree.nearest(normalise(input), k, maxDistance)) {
+            names.add(displayName(match.word));
+        }
+        return names;
+    }
+
+    /**
+     * closest
+     *
+     * Returns the name of the station closest to the input, however far away it is.
+     *
+     * @param input the name as typed.
+     * @return the closest station name, or null if the index is empty.
+     */
+    public String closest(String input) {
+        List<String> names = suggest(input, 1, Integer.MAX_VALUE);
+        return names.isEmpty() ? null : names.get(0);
+    }
+
+    private String displayName(String key) {
+        return byName.get(key).get(0).getName();
+    }
+}
@@ -0,0 +1,80 @@
+package lookup;
+
+import graph.*;
+import org.junit.Test;
+import parser.MetroMapParser;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StationIndexTest {
+
+    MetroMapParser mp = new MetroMapParser();
+    GraphADT graph = mp.parse(new File("testfile"));
+    StationIndex index = new StationIndex(graph);
+
+    private StationIndex indexOf(String... names) {
+        List<NodeADT> stations = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            stations.add(new Node(String.valueOf(i + 1), names[i]));
+        }
+        return new StationIndex(stations);
+    }
+
+    @Test
+    public void testExactLookupIgnoresCase(){
+        assertTrue(index.contains("node3"));
+        assertTrue(index.contains("  NODE3 "));
+        assertFalse(index.contains("Node7"));
+        assertEquals("3", index.find("nOdE3").get(0).getId());
+        assertEquals(0, index.find("Node7").size());
+    }
+
+    @Test
+    public void testDuplicateNamesAreAllFound(){
+        StationIndex duplicates = indexOf("Park", "Central", "park");
+
+        assertEquals(2, duplicates.size());
+        assertEquals(2, duplicates.find("PARK").size());
+        assertEquals("1", duplicates.find("PARK").get(0).getId());
+        assertEquals("3", duplicates.find("PARK").get(1).getId());
+    }
+
+    @Test
+    public void testPrefixCompletion(){
+        StationIndex stations = indexOf("Park Street", "Parkway", "Central", "Porter", "Park");
+
+        List<String> expected = new ArrayList<>();
+        expected.add("Park");
+        expected.add("Park Street");
+        expected.add("Parkway");
+        assertEquals(expected, stations.complete("par", 10));
+        assertEquals(2, stations.complete("par", 2).size());
+        assertEquals(0, stations.complete("Q", 10).size());
+    }
+
+    /**
+     * Suggestions should be ordered by edit distance, and should match a full scan.
+     * */
+    @Test
+    public void testSuggestions(){
+        StationIndex stations = indexOf("Harvard", "Haymarket", "Hanover", "Kendall", "Central", "Charles");
+
+        assertEquals("Harvard", stations.closest("harverd"));
+        assertEquals("Charles", stations.closest("charls"));
+        List<String> suggestions = stations.suggest("Hanvard", 2, Integer.MAX_VALUE);
+        assertEquals("Harvard", suggestions.get(0));
+        assertEquals("Hanover", suggestions.get(1));
+        assertEquals(0, stations.suggest("xyz", 3, 1).size());
+    }
+
+    /**
+     * Ties should go to the station that comes first, as the old linear scan did.
+     * */
+    @Test
+    public void testTiesGoToFirstStation(){
+        assertEquals("Node1", index.closest("Node9"));
+        assertEquals(Levenshtein.distance("KITTEN", "SITTING"), 3);
+    }
+}
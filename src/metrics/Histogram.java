@@ -0,0 +1,131 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram
+ *
+ * A lock-free histogram of non-negative long values, such as latencies in
+ * nanoseconds, that any number of threads can record into at once.
+ *
+ * Values below 16 have a bucket each. Above that, each power of two is split
+ * into 8 buckets of equal width, so a bucket is never wider than an eighth of
+ * its values and a percentile read from it is within 12.5% of the true value.
+ * Recording a value is one increment of an AtomicLongArray slot, with no
+ * allocation, whatever the range of the values.
+ */
+public class Histogram {
+    private static final int LINEAR = 16;
+    private static final int SUB_BUCKETS = 8;
+    private static final int BUCKETS = LINEAR + (63 - 4) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * record
+     *
+     * Adds a value to the histogram. Negative values are recorded as 0.
+     *
+     * @param value the value.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+        return LINEAR + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR) / SUB_BUCKETS + 4;
+        int sub = (bucket - LINEAR) % SUB_BUCKETS;
+        long lower = (long) (SUB_BUCKETS + sub) << (exponent - 3);
+        return lower + (1L << (exponent - 3)) - 1;
+    }
+
+    /**
+     * Returns the number of values recorded.
+     *
+     * @return the number of values.
+     */
+    public long count() { return count.sum(); }
+
+    /**
+     * Returns the largest value recorded, or 0 if there are none.
+     *
+     * @return the largest value.
+     */
+    public long max() { return max.get(); }
+
+    /**
+     * Returns the mean of the values recorded, or 0 if there are none.
+     *
+     * @return the mean value.
+     */
+    public double mean() {
+        long n = count.sum();
+        return n == 0 ? 0 : sum.sum() / (double) n;
+    }
+
+    /**
+     * percentile
+     *
+     * Returns the value below which the given fraction of the values fall, as
+     * the top of the bucket it is in, or the largest value if that is smaller.
+     * Values being recorded at the same time may or may not be counted.
+     *
+     * @param fraction the fraction, from 0 to 1, for example 0.99 for the 99th percentile.
+     * @return the percentile, or 0 if there are no values.
+     */
+    public long percentile(double fraction) {
+        long total = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            total += counts.get(b);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts.get(b);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(b), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Forgets every value recorded. Values recorded at the same time may be kept.
+     */
+    public void reset() {
+        for (int b = 0; b < BUCKETS; b++) {
+            counts.set(b, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+}
@@ -0,0 +1,106 @@
+package metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MetricsRegistry
+ *
+ * Holds the SearchMetrics of each search engine by name, registers them with
+ * JMX, and writes them out in the Prometheus text format for anything that
+ * scrapes metrics over HTTP.
+ */
+public class MetricsRegistry {
+    /** The JMX domain the metrics are registered under. */
+    public static final String DOMAIN = "subway";
+
+    private final Map<String, SearchMetrics> searches = new ConcurrentHashMap<>();
+    private MBeanServer mbeanServer;
+
+    /**
+     * search
+     *
+     * Returns the metrics with the given name, creating them the first time,
+     * and registering them with JMX if the registry has been.
+     *
+     * @param name the name of the search engine.
+     * @return the metrics for the engine.
+     */
+    public SearchMetrics search(String name) {
+        return searches.computeIfAbsent(name, key -> {
+            SearchMetrics metrics = new SearchMetrics(key);
+            if (mbeanServer != null) {
+                register(metrics);
+            }
+            return metrics;
+        });
+    }
+
+    /**
+     * Returns every metrics in the registry, in no particular order.
+     *
+     * @return the metrics.
+     */
+    public List<SearchMetrics> getSearches() { return new ArrayList<>(searches.values()); }
+
+    /**
+     * registerWithJmx
+     *
+     * Registers every metrics, now and later, with the platform MBean server,
+     * as subway:type=Search,name=engine.
+     */
+    public synchronized void registerWithJmx() {
+        if (mbeanServer == null) {
+            mbeanServer = ManagementFactory.getPlatformMBeanServer();
+            for (SearchMetrics metrics : searches.values()) {
+                register(metrics);
+            }
+        }
+    }
+
+    private void register(SearchMetrics metrics) {
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=Search,name=" + ObjectName.quote(metrics.getName()));
+            if (!mbeanServer.isRegistered(name)) {
+                mbeanServer.registerMBean(metrics, name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metrics " + metrics.getName(), e);
+        }
+    }
+
+    /**
+     * format
+     *
+     * Writes every metrics in the Prometheus text format, with the engine name
+     * as a label and latencies in seconds.
+     *
+     * @return the metrics as text.
+     */
+    public String format() {
+        StringBuilder out = new StringBuilder();
+        for (SearchMetrics metrics : searches.values()) {
+            String label = "{engine=\"" + metrics.getName() + "\"}";
+            Histogram latency = metrics.getLatency();
+            out.append("search_queries_total").append(label).append(' ').append(metrics.getQueries()).append('\n');
+            out.append("search_empty_results_total").append(label).append(' ').append(metrics.getEmptyResults()).append('\n');
+            out.append("search_settled_mean").append(label).append(' ').append(metrics.getMeanSettled()).append('\n');
+            out.append("search_relaxed_mean").append(label).append(' ').append(metrics.getMeanRelaxed()).append('\n');
+            out.append("search_peak_frontier_max").append(label).append(' ').append(metrics.getMaxPeakFrontier()).append('\n');
+            out.append("search_path_length_mean").append(label).append(' ').append(metrics.getMeanPathLength()).append('\n');
+            for (double quantile : new double[]{0.5, 0.9, 0.99}) {
+                out.append("search_latency_seconds{engine=\"").append(metrics.getName())
+                        .append("\",quantile=\"").append(quantile).append("\"} ")
+                        .append(latency.percentile(quantile) / 1e9).append('\n');
+            }
+            out.append("search_latency_seconds_max").append(label).append(' ').append(latency.max() / 1e9).append('\n');
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,140 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SearchMetrics
+ *
+ * Counters and histograms for the queries of one search engine. Each query
+ * records the nodes it settled, the edges it relaxed, the largest its frontier
+ * grew, the length of the path it found and the time it took. Recording takes
+ * no lock and allocates nothing, so it can be left on for every query.
+ */
+public class SearchMetrics implements SearchMetricsMXBean {
+    private final String name;
+    private final LongAdder emptyResults = new LongAdder();
+    private final LongAdder relaxed = new LongAdder();
+    private final LongAdder pathLength = new LongAdder();
+    private final Histogram settled = new Histogram();
+    private final Histogram peakFrontier = new Histogram();
+    private final Histogram latency = new Histogram();
+
+    /**
+     * @param name the name the metrics are registered under.
+     */
+    public SearchMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * record
+     *
+     * Records one query.
+     *
+     * @param settledNodes the number of nodes the query settled.
+     * @param relaxedEdges the number of edges the query relaxed.
+     * @param frontier     the largest number of nodes on the query's agenda at once.
+     * @param length       the number of nodes on the path found, or 0 if there was none.
+     * @param nanos        the time the query took, in nanoseconds.
+     */
+    public void record(int settledNodes, long relaxedEdges, int frontier, int length, long nanos) {
+        settled.record(settledNodes);
+        relaxed.add(relaxedEdges);
+        peakFrontier.record(frontier);
+        pathLength.add(length);
+        if (length == 0) {
+            emptyResults.increment();
+        }
+        latency.record(nanos);
+    }
+
+    /**
+     * Returns the name the metrics are registered under.
+     *
+     * @return the name.
+     */
+    public String getName() { return name; }
+
+    /**
+     * Returns the histogram of query times, in nanoseconds.
+     *
+     * @return the latency histogram.
+     */
+    public Histogram getLatency() { return latency; }
+
+    /**
+     * Returns the histogram of the number of nodes settled by each query.
+     *
+     * @return the settled histogram.
+     */
+    public Histogram getSettled() { return settled; }
+
+    /**
+     * Returns the histogram of the largest frontier of each query.
+     *
+     * @return the frontier histogram.
+     */
+    public Histogram getPeakFrontier() { return peakFrontier; }
+
+    @Override
+    public long getQueries() { return latency.count(); }
+
+    @Override
+    public long getEmptyResults() { return emptyResults.sum(); }
+
+    @Override
+    public double getMeanSettled() { return settled.mean(); }
+
+    @Override
+    public double getMeanRelaxed() {
+        long queries = getQueries();
+        return queries == 0 ? 0 : relaxed.sum() / (double) queries;
+    }
+
+    @Override
+    public long getMaxPeakFrontier() { return peakFrontier.max(); }
+
+    @Override
+    public double getMeanPathLength() {
+        long queries = getQueries();
+        return queries == 0 ? 0 : pathLength.sum() / (double) queries;
+    }
+
+    @Override
+    public double getMeanLatencyMicros() { return latency.mean() / 1000; }
+
+    @Override
+    public long getLatencyP50Micros() { return latency.percentile(0.5) / 1000; }
+
+    @Override
+    public long getLatencyP90Micros() { return latency.percentile(0.9) / 1000; }
+
+    @Override
+    public long getLatencyP99Micros() { return latency.percentile(0.99) / 1000; }
+
+    @Override
+    public long getLatencyMaxMicros() { return latency.max() / 1000; }
+
+    @Override
+    public void reset() {
+        emptyResults.reset();
+        relaxed.reset();
+        pathLength.reset();
+        settled.reset();
+        peakFrontier.reset();
+        latency.reset();
+    }
+
+    /**
+     * Returns a one-line summary of the metrics.
+     *
+     * @return the summary.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s: %d queries, settled %.0f, relaxed %.0f, peak frontier %d, path length %.1f,"
+                        + " latency p50 %d us, p99 %d us, max %d us",
+                name, getQueries(), getMeanSettled(), getMeanRelaxed(), getMaxPeakFrontier(), getMeanPathLength(),
+                getLatencyP50Micros(), getLatencyP99Micros(), getLatencyMaxMicros());
+    }
+}
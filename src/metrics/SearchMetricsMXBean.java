@@ -0,0 +1,34 @@
+package metrics;
+
+/**
+ * SearchMetricsMXBean
+ *
+ * The view of a SearchMetrics given to JMX, so that the metrics of a running
+ * program can be read from JConsole or any other JMX client. Latencies are in
+ * microseconds.
+ */
+public interface SearchMetricsMXBean {
+    long getQueries();
+
+    long getEmptyResults();
+
+    double getMeanSettled();
+
+    double getMeanRelaxed();
+
+    long getMaxPeakFrontier();
+
+    double getMeanPathLength();
+
+    double getMeanLatencyMicros();
+
+    long getLatencyP50Micros();
+
+    long getLatencyP90Micros();
+
+    long getLatencyP99Micros();
+
+    long getLatencyMaxMicros();
+
+    void reset();
+}
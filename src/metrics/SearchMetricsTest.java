@@ -0,0 +1,70 @@
+package metrics;
+
+import graph.GraphADT;
+import graph.NodeADT;
+import org.junit.Test;
+import parser.MetroMapParser;
+import traversal.DijkstraSearch;
+import traversal.UniformCostSearch;
+import java.io.File;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class SearchMetricsTest {
+
+    GraphADT graph = new MetroMapParser().parse(new File("testfile"));
+    List<NodeADT> nodes = graph.getNodes();
+
+    /**
+     * Percentiles should be within an eighth of the true value, and never above the largest value.
+     * */
+    @Test
+    public void testHistogramPercentiles(){
+        Histogram histogram = new Histogram();
+        for(int i = 1; i <= 1000; i++){
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000, histogram.count());
+        assertEquals(1000000, histogram.max());
+        assertEquals(500500.0, histogram.mean());
+        long p50 = histogram.percentile(0.5);
+        assertTrue(p50 >= 500000 && p50 <= 500000 * 1.125, "p50 was " + p50);
+        assertEquals(1000000, histogram.percentile(1.0));
+        for(long value = 1; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3){
+            assertTrue(Histogram.upperBoundOf(Histogram.bucketOf(value)) >= value);
+        }
+
+        histogram.reset();
+        assertEquals(0, histogram.percentile(0.5));
+    }
+
+    /**
+     * An instrumented search should record each query, with its settled nodes, relaxed edges and path length.
+     * */
+    @Test
+    public void testSearchesRecordQueries(){
+        MetricsRegistry registry = new MetricsRegistry();
+        DijkstraSearch dijkstra = new DijkstraSearch(graph);
+        dijkstra.setMetrics(registry.search("dijkstra"));
+        UniformCostSearch ucs = new UniformCostSearch(graph);
+        ucs.setMetrics(registry.search("uniform_cost"));
+
+        dijkstra.findPath(nodes.get(0), nodes.get(nodes.size() - 1));
+        dijkstra.findPath(nodes.get(0), nodes.get(0));
+        ucs.findPath(nodes.get(0), nodes.get(1));
+
+        SearchMetrics metrics = registry.search("dijkstra");
+        assertEquals(2, metrics.getQueries());
+        assertTrue(metrics.getMeanSettled() >= 1);
+        assertTrue(metrics.getMeanRelaxed() > 0);
+        assertTrue(metrics.getMaxPeakFrontier() >= 1);
+        assertEquals(1, registry.search("uniform_cost").getQueries());
+        assertTrue(registry.format().contains("search_queries_total{engine=\"dijkstra\"} 2"));
+
+        dijkstra.setMetrics(null);
+        dijkstra.findPath(nodes.get(0), nodes.get(1));
+        assertEquals(2, metrics.getQueries());
+    }
+}
@@ -0,0 +1,26 @@
+package parser;
+
+/**
+ * Receives the stations and links read from a metro map file, so that the same
+ * reading code can build different graph representations.
+ */
+interface MapSink {
+
+    /**
+     * Called once for each station line in the file.
+     *
+     * @param id   the station ID.
+     * @param name the station name.
+     */
+    void station(String id, String name);
+
+    /**
+     * Called for each adjacent station given on a station line. Links to "0",
+     * the end of a line, are not passed on.
+     *
+     * @param fromId   the ID of the station the line was read for.
+     * @param lineName the name of the line.
+     * @param toId     the ID of the adjacent station.
+     */
+    void link(String fromId, String lineName, String toId);
+}
@@ -35,8 +35,19 @@ import java.util.*;
 
 public class MetroMapParser implements GraphParser {
 
+    private List<String> undefinedIds;
+    private WeightProfile profile;
+
     public MetroMapParser(){
+        this(WeightProfile.DEFAULT);
+    }
 
+    /**
+     * @param profile the profile giving the weight of each line in the graphs this parser builds.
+     */
+    public MetroMapParser(WeightProfile profile){
+        this.undefinedIds = new ArrayList<>();
+        this.profile = profile;
     }
     /**
      * parser.MetroMap
@@ -46,27 +57,192 @@ public class MetroMapParser implements GraphParser {
      */
 
     /**
-     * nodeIfExists
+     * getUndefinedReferenceCount
      * <p>
-     * Used by the constructor to test if a node already exists or not.
+     * Returns how many station IDs were linked to by the last parsed file
+     * but never given a station line of their own.
      *
-     * @param stations
-     * @param id
-     * @return Node wrapped in optional if a node with the given id already exists.
-     * An empty optional if no node with that id has been created.
+     * @return the number of undefined station IDs.
      */
-    private Optional<NodeADT> nodeIfExists(List<NodeADT> stations, final String id) {
-        return stations.stream().filter(s -> s.getId().equals(id)).findFirst();
-    }
+    public int getUndefinedReferenceCount() { return undefinedIds.size(); }
+
+    /**
+     * getUndefinedIds
+     * <p>
+     * Returns the station IDs that were linked to by the last parsed file
+     * but never given a station line of their own, in the order they were first linked to.
+     *
+     * @return the undefined station IDs.
+     */
+    public List<String> getUndefinedIds() { return undefinedIds; }
 
+    /**
+     * Returns the profile giving the weight of each line in the graphs this parser builds.
+     *
+     * @return the weight profile.
+     */
+    public WeightProfile getWeightProfile() { return profile; }
+
+    /**
+     * Sets the profile giving the weight of each line in the graphs this parser builds.
+     *
+     * @param profile the weight profile.
+     */
+    public void setWeightProfile(WeightProfile profile) { this.profile = profile; }
+
+    /**
+     * parse
+     *
+     * Builds the graph while keeping an index from station ID to node, so each
+     * station and link is found in constant time and parsing is linear in the
+     * size of the file. Once the whole file is read, a final pass checks that
+     * every station that was linked to before it was defined was defined later.
+     * Each edge is given the weight of its line from the weight profile as it is added.
+     *
+     * @param f the file to be parsed.
+     * @return the graph of the metro.
+     * @throws UncheckedIOException     if the file cannot be read.
+     * @throws IllegalArgumentException if a line does not follow the grammar.
+     */
     @Override
     public GraphADT parse(File f) {
-        GraphADT graph = new Graph();
+        GraphADT graph = new Graph(profile);
+        HashMap<String, NodeADT> index = new HashMap<>();
+        read(f, new MapSink() {
+            private NodeADT originalNode;
+
+            /*
+              If the node has not already been created, it is created.
+              If a node ha been created, the extra information provided
+              is added to it.
+             */
+            @Override
+            public void station(String id, String name) {
+                originalNode = index.get(id);
+                if (originalNode == null) {
+                    originalNode = new Node(id, name);
+                    index.put(id, originalNode);
+                    graph.addNode(originalNode);
+                } else {
+                    originalNode.setName(name);
+                }
+            }
+
+            @Override
+            public void link(String fromId, String lineName, String toId) {
+                addEdge(graph, index, lineName, toId, originalNode);
+            }
+        });
+
+        undefinedIds = new ArrayList<>();
+        for (NodeADT node : graph.getNodes()) {
+            if (node.getName() == null) {
+                undefinedIds.add(node.getId());
+            }
+        }
+        reportUndefined(f);
+        return graph;
+    }
+
+    /**
+     * parseCompact
+     *
+     * Parses the file straight into a CompactGraph, without creating a Node or
+     * Edge object for each station and link.
+     *
+     * @param f the file to be parsed.
+     * @return the compact graph of the metro.
+     * @throws UncheckedIOException     if the file cannot be read.
+     * @throws IllegalArgumentException if a line does not follow the grammar.
+     */
+    public CompactGraph parseCompact(File f) {
+        CompactGraph.Builder builder = new CompactGraph.Builder(profile);
+        read(f, new MapSink() {
+            private int originalIndex;
+
+            @Override
+            public void station(String id, String name) {
+                originalIndex = builder.station(id, name);
+            }
+
+            @Override
+            public void link(String fromId, String lineName, String toId) {
+                builder.link(originalIndex, lineName, builder.reference(toId), -1);
+            }
+        });
 
-        BufferedReader fileInput;
+        undefinedIds = new ArrayList<>();
+        for (int i = 0; i < builder.size(); i++) {
+            if (!builder.isDefined(i)) {
+                undefinedIds.add(builder.getId(i));
+            }
+        }
+        reportUndefined(f);
+        return builder.build();
+    }
 
+    /**
+     * parseCompact
+     *
+     * Loads the graph from a binary snapshot if there is one that was made from
+     * this version of the file. Otherwise the file is parsed and a new snapshot
+     * is written for next time. If the snapshot cannot be written the parsed
+     * graph is still returned. A snapshot keeps the weights it was written with,
+     * so a loaded graph is given the weights of this parser's profile. A snapshot
+     * keeps the stations that were linked to but never defined, so they are
+     * reported the same way whichever way the graph is loaded.
+     *
+     * @param f        the map file.
+     * @param snapshot the snapshot file kept alongside it.
+     * @return the compact graph of the metro.
+     */
+    public CompactGraph parseCompact(File f, File snapshot) {
+        if (GraphSnapshot.isCurrent(snapshot, f)) {
+            try {
+                CompactGraph graph = GraphSnapshot.read(snapshot);
+                undefinedIds = new ArrayList<>();
+                for (int i = 0; i < graph.nodeCount(); i++) {
+                    if (graph.getName(i) == null) {
+                        undefinedIds.add(graph.getId(i));
+                    }
+                }
+                reportUndefined(f);
+                return graph.withWeights(profile);
+            } catch (IOException e) {
+                // A damaged snapshot is rebuilt from the map file below.
+            }
+        }
+        CompactGraph graph = parseCompact(f);
         try {
-            fileInput = new BufferedReader(new FileReader(f));
+            GraphSnapshot.write(graph, f, snapshot);
+        } catch (IOException e) {
+            System.out.println("Warning: could not write snapshot " + snapshot + ": " + e.getMessage());
+        }
+        return graph;
+    }
+
+    private void reportUndefined(File f) {
+        if (!undefinedIds.isEmpty()) {
+            System.out.println("Warning: " + undefinedIds.size() + " station IDs in " + f.getName()
+                    + " are linked to but never defined");
+        }
+    }
+
+    /**
+     * read
+     *
+     * Reads the file line by line following the grammar above, passing each
+     * station and each link to the sink. The file is closed however reading ends.
+     *
+     * @param f    the file to be read.
+     * @param sink the receiver of the stations and links.
+     * @throws UncheckedIOException     if the file cannot be read.
+     * @throws IllegalArgumentException if a line does not follow the grammar, giving its line number.
+     */
+    private void read(File f, MapSink sink) {
+        int lineNumber = 1;
+
+        try (BufferedReader fileInput = new BufferedReader(new FileReader(f))) {
             String line = fileInput.readLine();
             StringTokenizer st;
             String stationID;
@@ -82,6 +258,7 @@ public class MetroMapParser implements GraphParser {
                 //We want to handle empty lines effectively, we just ignore them!
                 if (!st.hasMoreTokens()) {
                     line = fileInput.readLine();
+                    lineNumber++;
                     continue;
                 }
 
@@ -89,89 +266,80 @@ public class MetroMapParser implements GraphParser {
                 stationID = st.nextToken();
 
                 if (!st.hasMoreTokens()) {
-                    throw new BadFileException("no station name");
+                    throw new BadFileException("no station name", lineNumber);
                 }
 
                 //from the grammar, we know that the Station Name is the second token on the line.
                 stationName = st.nextToken();
 
                 if (!st.hasMoreTokens()) {
-                    throw new BadFileException("station is on no lines");
+                    throw new BadFileException("station is on no lines", lineNumber);
                 }
 
-                /*
-                  If the node has not already been created, it is created.
-                  If a node ha been created, the extra information provided
-                  is added to it.
-                 */
-
-                Optional<NodeADT> originalMaybe = nodeIfExists(graph.getNodes(), stationID);
-                NodeADT originalNode;
-                if (originalMaybe.isEmpty()) {
-                    originalNode = new Node(stationID, stationName);
-                    graph.addNode(originalNode);
-                } else {
-                    originalNode = originalMaybe.get();
-                    originalNode.setName(stationName);
-                }
+                sink.station(stationID, stationName);
 
                 while (st.hasMoreTokens()) {
                     lineName = st.nextToken();
 
                     if (!st.hasMoreTokens()) {
-                        throw new BadFileException("poorly formatted line info");
+                        throw new BadFileException("poorly formatted line info", lineNumber);
                     }
 
                     outboundID = st.nextToken();
-                    addEdge(graph, lineName, outboundID, originalNode);
+                    if (!outboundID.equals("0")) {
+                        sink.link(stationID, lineName, outboundID);
+                    }
 
                     if (!st.hasMoreTokens()) {
-                        throw new BadFileException("poorly formatted adjacent stations");
+                        throw new BadFileException("poorly formatted adjacent stations", lineNumber);
                     }
 
                     inboundID = st.nextToken();
-                    addEdge(graph, lineName, inboundID, originalNode);
+                    if (!inboundID.equals("0")) {
+                        sink.link(stationID, lineName, inboundID);
+                    }
 
                 }
 
                 line = fileInput.readLine();
+                lineNumber++;
             }
-        } catch (BadFileException | IOException e) {
-            e.printStackTrace();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + f, e);
+        } catch (BadFileException e) {
+            throw new IllegalArgumentException(f.getName() + " line " + e.getLineNumber() + ": " + e.getProblem(), e);
         }
-        return graph;
     }
 
     /**
      * addEdge
      *
      * Takes in a graph and a node, along with the information required to construct a new node.
-     * First checks if the node has already been created, if it has then it is passed into the edge.
+     * First checks the index to see if the node has already been created, if it has then it is passed into the edge.
      * If not it is created with limited information to construct the edge, and will have extra
      * values added to it when that node is reached in the file.
      *
-     * Potential for danger if the node does not exist later in the file.
+     * If the node does not exist later in the file, it is reported by the final pass in parse().
      *
      * @param graph the graph being generated.
+     * @param index the nodes created so far, by station ID.
      * @param lineName the name of the line to add.
      * @param newID the ID of the node the egde leads to.
      * @param originalNode the original node from which the line exends from.
      */
 
-    private void addEdge(GraphADT graph, String lineName, String newID, NodeADT originalNode) {
+    private void addEdge(GraphADT graph, Map<String, NodeADT> index, String lineName, String newID, NodeADT originalNode) {
         NodeADT newNode;
         EdgeADT e;
-        if (!newID.equals("0")) {
-            Optional<NodeADT> newMaybe = nodeIfExists(graph.getNodes(), newID);
-            if (newMaybe.isEmpty()){
-                newNode = new Node(newID);
-                graph.addNode(newNode);
-            }
-            else
-                newNode = newMaybe.get();
-            e = new Edge(newNode, lineName);
-            originalNode.addEdge(e);
-            graph.addEdge(e);
+        newNode = index.get(newID);
+        if (newNode == null){
+            newNode = new Node(newID);
+            index.put(newID, newNode);
+            graph.addNode(newNode);
         }
+        e = new Edge(newNode, lineName);
+        // The graph gives the edge its line ID, which the node then records.
+        graph.addEdge(e);
+        originalNode.addEdge(e);
     }
 }
\ No newline at end of file
@@ -3,7 +3,12 @@ package parser;
 import graph.*;
 import org.junit.Test;
 import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -130,5 +135,99 @@ public class MetroMapParserTest {
         assertEquals(nodesManual.size(), nodesParsed.size());
     }
 
+    @Test
+    public void testNoUndefinedReferences(){
+        assertEquals(0, mp.getUndefinedReferenceCount());
+    }
+
+    /**
+     * Stations that are linked to but never given their own line should be counted,
+     * while stations that are linked to before they are defined should not.
+     * */
+    @Test
+    public void testUndefinedReferencesAreReported() throws IOException {
+        File f = File.createTempFile("undefined", ".txt");
+        f.deleteOnExit();
+        try (FileWriter w = new FileWriter(f)) {
+            w.write("1 Node1 Orange 0 2\n");
+            w.write("2 Node2 Orange 1 3 Blue 0 7\n");
+        }
+        MetroMapParser parser = new MetroMapParser();
+        GraphADT graph = parser.parse(f);
+
+        assertEquals(4, graph.getNodes().size());
+        assertEquals(2, parser.getUndefinedReferenceCount());
+        assertEquals("3", parser.getUndefinedIds().get(0));
+        assertEquals("7", parser.getUndefinedIds().get(1));
+
+        parser.parseCompact(f);
+        assertEquals(2, parser.getUndefinedReferenceCount());
+    }
+
+    /**
+     * Undefined stations should still be reported when the graph is loaded from a snapshot rather than parsed.
+     * */
+    @Test
+    public void testUndefinedReferencesThroughSnapshot() throws IOException {
+        File f = File.createTempFile("undefined", ".txt");
+        File snapshot = new File(f.getPath() + ".snapshot");
+        f.deleteOnExit();
+        snapshot.deleteOnExit();
+        try (FileWriter w = new FileWriter(f)) {
+            w.write("1 Node1 Orange 0 2\n");
+            w.write("2 Node2 Orange 1 3 Blue 0 7\n");
+        }
+        MetroMapParser parser = new MetroMapParser();
+
+        parser.parseCompact(f, snapshot);
+        assertTrue(GraphSnapshot.isCurrent(snapshot, f));
+        assertEquals(Arrays.asList("3", "7"), parser.getUndefinedIds());
 
-}
\ No newline at end of file
+        MetroMapParser reloaded = new MetroMapParser();
+        CompactGraph graph = reloaded.parseCompact(f, snapshot);
+        assertEquals(4, graph.nodeCount());
+        assertEquals(Arrays.asList("3", "7"), reloaded.getUndefinedIds());
+    }
+
+    /**
+     * A badly formatted line should stop the parse with its line number, and a missing file should not give an empty graph.
+     * */
+    @Test
+    public void testBadLineIsReported() throws IOException {
+        File f = File.createTempFile("bad", ".txt");
+        f.deleteOnExit();
+        try (FileWriter w = new FileWriter(f)) {
+            w.write("1 Node1 Orange 0 2\n\n");
+            w.write("2 Node2 Orange 1\n");
+        }
+        MetroMapParser parser = new MetroMapParser();
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> parser.parse(f));
+        assertEquals(f.getName() + " line 3: poorly formatted adjacent stations", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> parser.parseCompact(f));
+        assertThrows(UncheckedIOException.class, () -> parser.parse(new File(f.getPath() + ".missing")));
+    }
+
+    /**
+     * Every edge should be given the weight of its line from the profile when the graph is parsed,
+     * and changing one line afterwards should only change that line's edges.
+     * */
+    @Test
+    public void testWeightProfile(){
+        HashMap<String, Integer> weights = new HashMap<>();
+        weights.put("Blue", 30);
+        GraphADT graph = new MetroMapParser(WeightProfile.of(weights, WeightProfile.DEFAULT)).parse(new File("testfile"));
+        long version = graph.getVersion();
+
+        for(EdgeADT edge : graph.getEdges()){
+            assertEquals(edge.getLine().equals("Blue") ? 30 : 10, (int) edge.getWeight());
+        }
+
+        graph.setLineWeight("Orange", 15);
+        for(EdgeADT edge : graph.getEdges()){
+            assertEquals(edge.getLine().equals("Blue") ? 30 : 15, (int) edge.getWeight());
+        }
+        assertTrue(graph.getVersion() > version);
+        assertEquals(Arrays.asList("Orange", "Blue"), graph.getLines());
+    }
+}
@@ -0,0 +1,434 @@
+package parser;
+
+import exception.BadFileException;
+import graph.CompactGraph;
+import graph.WeightProfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class reads the same grammar as MetroMapParser into a CompactGraph,
+ * but is built for generated map files of gigabytes.
+ *
+ * The file is cut into chunks of about CHUNK_BYTES, each ending at the end of
+ * a line, so no line is split between two chunks. Each chunk is memory-mapped
+ * and tokenized straight from the mapped bytes, read one at a time by
+ * position, without copying them: each chunk keeps its own table of the IDs
+ * and line names it has seen, so a String is only created the first time a
+ * token appears in the chunk, however often it is repeated. The chunks are
+ * then replayed into a CompactGraph.Builder one after another, in file order,
+ * so the graph is the same as MetroMapParser's, with the same node indices.
+ *
+ * Merging is slower than tokenizing, so only as many chunks as there are
+ * threads are tokenized or waiting at once, and the next chunk is started as
+ * each one is merged. However large the file, only that many tokenized chunks
+ * are held in memory.
+ *
+ * Like MetroMapParser, a badly formatted line stops the parse and gives the
+ * line number, but here as a checked BadFileException.
+ */
+public class ParallelMapParser {
+    /** The size the file is cut into chunks of. */
+    static final int CHUNK_BYTES = 16 << 20;
+
+    private final WeightProfile profile;
+    private final int threads;
+    private final int chunkBytes;
+    private List<String> undefinedIds = new ArrayList<>();
+
+    public ParallelMapParser() {
+        this(WeightProfile.DEFAULT, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param profile the profile giving the weight of each line in the graphs this parser builds.
+     * @param threads the number of chunks tokenized at once.
+     */
+    public ParallelMapParser(WeightProfile profile, int threads) {
+        this(profile, threads, CHUNK_BYTES);
+    }
+
+    /**
+     * @param profile    the profile giving the weight of each line in the graphs this parser builds.
+     * @param threads    the number of chunks tokenized at once.
+     * @param chunkBytes the size the file is cut into chunks of.
+     */
+    ParallelMapParser(WeightProfile profile, int threads, int chunkBytes) {
+        this.profile = profile;
+        this.threads = Math.max(1, threads);
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * getUndefinedIds
+     * <p>
+     * Returns the station IDs that were linked to by the last parsed file
+     * but never given a station line of their own, in the order they were first linked to.
+     *
+     * @return the undefined station IDs.
+     */
+    public List<String> getUndefinedIds() { return undefinedIds; }
+
+    /**
+     * parse
+     *
+     * Maps, tokenizes and merges the file into a compact graph.
+     *
+     * @param f the file to be parsed.
+     * @return the compact graph of the metro.
+     * @throws IOException      if the file cannot be read.
+     * @throws BadFileException if a line does not follow the grammar.
+     */
+    public CompactGraph parse(File f) throws IOException, BadFileException {
+        CompactGraph.Builder builder = new CompactGraph.Builder(profile);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (RandomAccessFile file = new RandomAccessFile(f, "r"); FileChannel channel = file.getChannel()) {
+            Iterator<long[]> ranges = split(channel, chunkBytes).iterator();
+            ArrayDeque<Future<Chunk>> pending = new ArrayDeque<>();
+            while (pending.size() < threads && ranges.hasNext()) {
+                pending.add(submit(executor, channel, ranges.next()));
+            }
+            // Chunks are merged in file order as each finishes, while the next ones are still being tokenized.
+            int linesBefore = 0;
+            while (!pending.isEmpty()) {
+                Chunk chunk = pending.poll().get();
+                if (chunk.error != null) {
+                    throw new BadFileException(chunk.error, linesBefore + chunk.errorLine);
+                }
+                if (ranges.hasNext()) {
+                    pending.add(submit(executor, channel, ranges.next()));
+                }
+                chunk.mergeInto(builder);
+                linesBefore += chunk.lines;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing " + f, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not parse " + f, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        undefinedIds = new ArrayList<>();
+        for (int i = 0; i < builder.size(); i++) {
+            if (!builder.isDefined(i)) {
+                undefinedIds.add(builder.getId(i));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Maps a range of the file and starts tokenizing it.
+     */
+    private static Future<Chunk> submit(ExecutorService executor, FileChannel channel, long[] range) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, range[0], range[1] - range[0]);
+        return executor.submit(() -> Chunk.tokenize(buffer));
+    }
+
+    /**
+     * split
+     *
+     * Cuts the file into ranges of about chunkBytes, moving each cut forward
+     * to just after the next newline.
+     *
+     * @param channel    the open file.
+     * @param chunkBytes the size of a range before its cut is moved.
+     * @return the start and end of each range.
+     * @throws IOException if the file cannot be read.
+     */
+    private static List<long[]> split(FileChannel channel, int chunkBytes) throws IOException {
+        long size = channel.size();
+        List<long[]> ranges = new ArrayList<>();
+        long start = 0;
+        ByteBuffer one = ByteBuffer.allocate(256);
+        while (start < size) {
+            long end = Math.min(size, start + chunkBytes);
+            // Read forward from the cut until the end of the line it falls in.
+            while (end < size) {
+                one.clear();
+                int read = channel.read(one, end);
+                int newline = -1;
+                for (int i = 0; i < read && newline < 0; i++) {
+                    if (one.get(i) == '\n') {
+                        newline = i;
+                    }
+                }
+                if (newline >= 0) {
+                    end += newline + 1;
+                    break;
+                }
+                end += Math.max(read, 1);
+            }
+            ranges.add(new long[]{start, Math.min(end, size)});
+            start = end;
+        }
+        return ranges;
+    }
+
+    /**
+     * Chunk
+     *
+     * The stations and links of one chunk of the file, with the IDs and line
+     * names as indices into the chunk's own symbol tables.
+     */
+    private static final class Chunk {
+        private final SymbolTable ids = new SymbolTable();
+        private final SymbolTable lineNames = new SymbolTable();
+        private int[] stationIds = new int[256];
+        private String[] stationNames = new String[256];
+        private int[] linkStarts = new int[257];
+        private int[] linkLines = new int[1024];
+        private int[] linkTargets = new int[1024];
+        private int stations;
+        private int links;
+        private int lines;
+        private String error;
+        private int errorLine;
+
+        /**
+         * tokenize
+         *
+         * Reads every line of the chunk, splitting on the same whitespace as
+         * StringTokenizer, and stops at the first badly formatted line.
+         *
+         * @param bytes the mapped bytes of the chunk.
+         * @return the tokenized chunk.
+         */
+        static Chunk tokenize(ByteBuffer bytes) {
+            Chunk chunk = new Chunk();
+            int[] tokens = new int[64];
+            int length = bytes.limit();
+            int position = 0;
+            while (position < length) {
+                int lineEnd = position;
+                while (lineEnd < length && bytes.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                chunk.lines++;
+                // Token i runs from tokens[2i] up to tokens[2i + 1].
+                int count = 0;
+                int i = position;
+                while (i < lineEnd) {
+                    while (i < lineEnd && isSpace(bytes.get(i))) {
+                        i++;
+                    }
+                    if (i == lineEnd) {
+                        break;
+                    }
+                    if (2 * count + 2 > tokens.length) {
+                        tokens = Arrays.copyOf(tokens, tokens.length * 2);
+                    }
+                    tokens[2 * count] = i;
+                    while (i < lineEnd && !isSpace(bytes.get(i))) {
+                        i++;
+                    }
+                    tokens[2 * count + 1] = i;
+                    count++;
+                }
+                if (count > 0 && !chunk.line(bytes, tokens, count)) {
+                    return chunk;
+                }
+                position = lineEnd + 1;
+            }
+            return chunk;
+        }
+
+        private static boolean isSpace(byte b) {
+            return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f';
+        }
+
+        /**
+         * Adds one station line from its tokens, following the grammar in
+         * MetroMapParser and giving the same messages for badly formatted lines.
+         *
+         * @return false if the line is badly formatted.
+         */
+        private boolean line(ByteBuffer bytes, int[] tokens, int count) {
+            if (count < 2) {
+                return fail("no station name");
+            }
+            if (count < 3) {
+                return fail("station is on no lines");
+            }
+            if ((count - 2) % 3 == 1) {
+                return fail("poorly formatted line info");
+            }
+            if ((count - 2) % 3 == 2) {
+                return fail("poorly formatted adjacent stations");
+            }
+            if (stations == stationIds.length) {
+                stationIds = Arrays.copyOf(stationIds, stations * 2);
+                stationNames = Arrays.copyOf(stationNames, stations * 2);
+                linkStarts = Arrays.copyOf(linkStarts, stations * 2 + 1);
+            }
+            stationIds[stations] = ids.intern(bytes, tokens[0], tokens[1]);
+            stationNames[stations] = new String(copy(bytes, tokens[2], tokens[3]), StandardCharsets.UTF_8);
+            for (int t = 2; t < count; t += 3) {
+                int line = lineNames.intern(bytes, tokens[2 * t], tokens[2 * t + 1]);
+                for (int side = 1; side <= 2; side++) {
+                    int start = tokens[2 * (t + side)];
+                    int end = tokens[2 * (t + side) + 1];
+                    // "0" marks the end of a line and is not a link.
+                    if (end - start == 1 && bytes.get(start) == '0') {
+                        continue;
+                    }
+                    if (links == linkLines.length) {
+                        linkLines = Arrays.copyOf(linkLines, links * 2);
+                        linkTargets = Arrays.copyOf(linkTargets, links * 2);
+                    }
+                    linkLines[links] = line;
+                    linkTargets[links] = ids.intern(bytes, start, end);
+                    links++;
+                }
+            }
+            stations++;
+            linkStarts[stations] = links;
+            return true;
+        }
+
+        /**
+         * Returns a copy of the bytes from start up to end.
+         */
+        static byte[] copy(ByteBuffer bytes, int start, int end) {
+            byte[] copy = new byte[end - start];
+            for (int i = start; i < end; i++) {
+                copy[i - start] = bytes.get(i);
+            }
+            return copy;
+        }
+
+        private boolean fail(String message) {
+            error = message;
+            errorLine = lines;
+            return false;
+        }
+
+        /**
+         * Replays the chunk's stations and links into the builder, turning its
+         * symbols into the builder's station indices once per symbol.
+         *
+         * @param builder the builder of the whole file.
+         */
+        void mergeInto(CompactGraph.Builder builder) {
+            int[] indices = new int[ids.size()];
+            Arrays.fill(indices, -1);
+            for (int s = 0; s < stations; s++) {
+                int from = builder.station(ids.get(stationIds[s]), stationNames[s]);
+                indices[stationIds[s]] = from;
+                for (int l = linkStarts[s]; l < linkStarts[s + 1]; l++) {
+                    int target = linkTargets[l];
+                    if (indices[target] < 0) {
+                        indices[target] = builder.reference(ids.get(target));
+                    }
+                    builder.link(from, lineNames.get(linkLines[l]), indices[target], -1);
+                }
+            }
+        }
+    }
+
+    /**
+     * SymbolTable
+     *
+     * An open-addressing hash table from byte ranges of a chunk to dense symbol
+     * numbers, so that each distinct token is copied and becomes a String once.
+     */
+    private static final class SymbolTable {
+        private int[] slots = new int[1024];
+        private int[] hashes = new int[1024];
+        private String[] symbols = new String[512];
+        private byte[][] keys = new byte[512][];
+        private int size;
+
+        SymbolTable() {
+            Arrays.fill(slots, -1);
+        }
+
+        int size() { return size; }
+
+        String get(int symbol) { return symbols[symbol]; }
+
+        /**
+         * Returns the symbol of the bytes from start up to end, adding it if it is new.
+         */
+        int intern(ByteBuffer bytes, int start, int end) {
+            int hash = 1;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + bytes.get(i);
+            }
+            int mask = slots.length - 1;
+            for (int slot = (hash ^ hash >>> 16) & mask; ; slot = (slot + 1) & mask) {
+                int symbol = slots[slot];
+                if (symbol < 0) {
+                    return add(bytes, start, end, hash, slot);
+                }
+                if (hashes[slot] == hash && matches(keys[symbol], bytes, start, end)) {
+                    return symbol;
+                }
+            }
+        }
+
+        private static boolean matches(byte[] key, ByteBuffer bytes, int start, int end) {
+            if (key.length != end - start) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != bytes.get(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int add(ByteBuffer bytes, int start, int end, int hash, int slot) {
+            if (size == symbols.length) {
+                symbols = Arrays.copyOf(symbols, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            keys[size] = Chunk.copy(bytes, start, end);
+            symbols[size] = new String(keys[size], StandardCharsets.UTF_8);
+            slots[slot] = size;
+            hashes[slot] = hash;
+            size++;
+            if (2 * size > slots.length) {
+                grow();
+            }
+            return size - 1;
+        }
+
+        private void grow() {
+            int[] oldSlots = slots;
+            int[] oldHashes = hashes;
+            slots = new int[oldSlots.length * 2];
+            hashes = new int[oldSlots.length * 2];
+            Arrays.fill(slots, -1);
+            int mask = slots.length - 1;
+            for (int i = 0; i < oldSlots.length; i++) {
+                if (oldSlots[i] >= 0) {
+                    int slot = (oldHashes[i] ^ oldHashes[i] >>> 16) & mask;
+                    while (slots[slot] >= 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    slots[slot] = oldSlots[i];
+                    hashes[slot] = oldHashes[i];
+                }
+            }
+        }
+    }
+}
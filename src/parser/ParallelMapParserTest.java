@@ -0,0 +1,50 @@
+package parser;
+
+import benchmark.MapGenerator;
+import exception.BadFileException;
+import graph.CompactGraph;
+import graph.WeightProfile;
+import org.junit.Test;
+import java.io.File;
+import java.io.FileWriter;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class ParallelMapParserTest {
+
+    /**
+     * The parallel parser should build the same graph as parseCompact, however small the chunks it cuts the file into.
+     * */
+    @Test
+    public void testSameGraphAsParseCompact() throws Exception {
+        File testfile = new File("testfile");
+        CompactGraph expected = new MetroMapParser().parseCompact(testfile);
+        assertEquals(expected.fingerprint(), new ParallelMapParser().parse(testfile).fingerprint());
+
+        File map = MapGenerator.temporaryMap(2000);
+        expected = new MetroMapParser().parseCompact(map);
+        for (int chunkBytes : new int[]{1, 4096, 1 << 20}) {
+            CompactGraph parsed = new ParallelMapParser(WeightProfile.DEFAULT, 3, chunkBytes).parse(map);
+            assertEquals(expected.nodeCount(), parsed.nodeCount());
+            assertEquals(expected.edgeCount(), parsed.edgeCount());
+            assertEquals(expected.fingerprint(), parsed.fingerprint());
+        }
+    }
+
+    /**
+     * A badly formatted line should be reported with its line number, counted across chunks.
+     * */
+    @Test
+    public void testBadLineNumber() throws Exception {
+        File f = File.createTempFile("badline", ".txt");
+        f.deleteOnExit();
+        try (FileWriter w = new FileWriter(f)) {
+            w.write("1 Node1 Orange 0 2\n\n2 Node2 Orange 1 3\n3 Node3 Orange 2\n4 Node4\n");
+        }
+        BadFileException e = assertThrows(BadFileException.class,
+                () -> new ParallelMapParser(WeightProfile.DEFAULT, 2, 8).parse(f));
+        assertEquals(4, e.getLineNumber());
+        assertEquals("line 4: poorly formatted adjacent stations", e.getMessage());
+        assertEquals("poorly formatted adjacent stations", e.getProblem());
+    }
+}
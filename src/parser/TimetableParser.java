@@ -0,0 +1,84 @@
+package parser;
+
+import graph.CompactGraph;
+import timetable.Timetable;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.StringTokenizer;
+
+/**
+ * This class reads the timetabled connections of a day and lays them out into
+ * a Timetable over the stations of a map read by MetroMapParser.
+ *
+ * Each line of the file is one connection, a trip running from one station to
+ * the next without stopping. A typical line looks like :
+ *
+ * 20 22 07:41 07:43 Orange-0741
+ *
+ * where :
+ * 20 is the StationID the connection leaves
+ * 22 is the StationID the connection arrives at
+ * 07:41 is the departure time, as HH:MM or HH:MM:SS
+ * 07:43 is the arrival time
+ * Orange-0741 is the name of the trip the connection is part of
+ *
+ * Times may pass 24:00 for services running after midnight. Blank lines, and
+ * lines starting with #, are ignored.
+ */
+public class TimetableParser {
+
+    /**
+     * parse
+     *
+     * Reads every connection in the file. Unlike the map parser, a badly
+     * formatted line stops the parse, as a timetable missing connections would
+     * give wrong arrival times without any other sign of a problem.
+     *
+     * @param f        the timetable file.
+     * @param stations the stations of the map, which every StationID must be one of.
+     * @return the timetable.
+     * @throws IOException if the file cannot be read, or a line is badly formatted.
+     */
+    public Timetable parse(File f, CompactGraph stations) throws IOException {
+        Timetable.Builder builder = new Timetable.Builder(stations);
+        try (BufferedReader fileInput = new BufferedReader(new FileReader(f))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = fileInput.readLine()) != null) {
+                lineNumber++;
+                StringTokenizer st = new StringTokenizer(line);
+                if (!st.hasMoreTokens() || line.trim().startsWith("#")) {
+                    continue;
+                }
+                if (st.countTokens() != 5) {
+                    throw badLine(f, lineNumber, "expected 5 fields but found " + st.countTokens());
+                }
+                int departureStop = station(stations, st.nextToken(), f, lineNumber);
+                int arrivalStop = station(stations, st.nextToken(), f, lineNumber);
+                try {
+                    int departureTime = Timetable.parseTime(st.nextToken());
+                    int arrivalTime = Timetable.parseTime(st.nextToken());
+                    builder.connection(departureStop, arrivalStop, departureTime, arrivalTime, st.nextToken());
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    throw badLine(f, lineNumber, e.getMessage());
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static int station(CompactGraph stations, String id, File f, int lineNumber) throws IOException {
+        int index = stations.indexOf(id);
+        if (index < 0) {
+            throw badLine(f, lineNumber, "no station with ID " + id);
+        }
+        return index;
+    }
+
+    private static IOException badLine(File f, int lineNumber, String message) {
+        return new IOException(f.getName() + " line " + lineNumber + ": " + message);
+    }
+}
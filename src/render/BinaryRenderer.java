@@ -0,0 +1,120 @@
+package render;
+
+import graph.NodeADT;
+import traversal.Leg;
+import traversal.Route;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * BinaryRenderer
+ *
+ * Writes a route in a compact binary form for other programs:
+ *
+ *   byte    VERSION
+ *   varint  cost
+ *   varint  number of legs
+ *   for each leg:
+ *     varint  line, as an index into the lines written so far, or their count
+ *             for a new line, whose name follows as modified UTF-8
+ *     varint  cost
+ *     varint  number of stations after the first
+ *     UTF     the ID of each station, the first only for the first leg
+ *
+ * Numbers are unsigned varints, seven bits to a byte with the high bit set on
+ * every byte but the last. A route with no legs is the version, 0 and 0.
+ */
+public class BinaryRenderer implements RouteRenderer<DataOutput> {
+    public static final int VERSION = 1;
+
+    @Override
+    public void render(Route route, DataOutput out) throws IOException {
+        List<Leg> legs = route.getLegs();
+        out.writeByte(VERSION);
+        writeVarInt(out, route.getCost());
+        writeVarInt(out, legs.size());
+        List<String> lines = new ArrayList<>(2);
+        for (int l = 0; l < legs.size(); l++) {
+            Leg leg = legs.get(l);
+            int line = lines.indexOf(leg.getLine());
+            if (line < 0) {
+                writeVarInt(out, lines.size());
+                out.writeUTF(leg.getLine());
+                lines.add(leg.getLine());
+            } else {
+                writeVarInt(out, line);
+            }
+            writeVarInt(out, leg.getCost());
+            List<NodeADT> stops = leg.getStops();
+            writeVarInt(out, stops.size() - 1);
+            for (int i = l == 0 ? 0 : 1; i < stops.size(); i++) {
+                out.writeUTF(stops.get(i).getId());
+            }
+        }
+    }
+
+    /**
+     * read
+     *
+     * Reads a route written by render.
+     *
+     * @param in       the input to read from.
+     * @param stations finds the station with an ID.
+     * @return the route.
+     * @throws IOException if the input cannot be read or is not a route of this version.
+     */
+    public static Route read(DataInput in, Function<String, NodeADT> stations) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unknown route version " + version);
+        }
+        readVarInt(in);
+        int legCount = readVarInt(in);
+        List<Leg> legs = new ArrayList<>(legCount);
+        Map<Integer, String> lines = new HashMap<>();
+        NodeADT last = null;
+        for (int l = 0; l < legCount; l++) {
+            int line = readVarInt(in);
+            if (!lines.containsKey(line)) {
+                lines.put(line, in.readUTF());
+            }
+            int cost = readVarInt(in);
+            int count = readVarInt(in);
+            List<NodeADT> stops = new ArrayList<>(count + 1);
+            stops.add(l == 0 ? stations.apply(in.readUTF()) : last);
+            for (int i = 0; i < count; i++) {
+                stops.add(stations.apply(in.readUTF()));
+            }
+            last = stops.get(stops.size() - 1);
+            legs.add(new Leg(lines.get(line), stops, cost));
+        }
+        return new Route(legs);
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
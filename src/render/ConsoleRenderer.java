@@ -0,0 +1,73 @@
+package render;
+
+import graph.NodeADT;
+import traversal.Leg;
+import traversal.Route;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * ConsoleRenderer
+ *
+ * Writes a route for the console, highlighting the line boarded at the start
+ * and each change of line, and starting a new line of text once more than
+ * WRAP characters have been written since the last one. An empty route writes
+ * nothing.
+ */
+public class ConsoleRenderer implements RouteRenderer<Appendable> {
+    public static final String BASIC_FONT_COLOR = "\u001B[0m";
+    public static final String HIGHLIGHT_FONT_COLOR = "\u001B[32m";
+    private static final int WRAP = 40;
+    private static final String ARROW = " -> ";
+
+    @Override
+    public void render(Route route, Appendable out) throws IOException {
+        List<Leg> legs = route.getLegs();
+        if (legs.isEmpty()) {
+            return;
+        }
+        Counter counter = new Counter(out);
+        counter.append(HIGHLIGHT_FONT_COLOR).append("start on line: ").append(legs.get(0).getLine()).append(" | ");
+        counter.append(BASIC_FONT_COLOR).append(legs.get(0).getFrom().getName()).append(ARROW);
+        long wrappedAt = 0;
+
+        for (int l = 0; l < legs.size(); l++) {
+            List<NodeADT> stops = legs.get(l).getStops();
+            for (int i = 1; i < stops.size(); i++) {
+                counter.append(stops.get(i).getName());
+                if (i < stops.size() - 1) {
+                    counter.append(ARROW);
+                } else if (l < legs.size() - 1) {
+                    counter.append(ARROW).append(HIGHLIGHT_FONT_COLOR).append("Change to line: ")
+                            .append(legs.get(l + 1).getLine()).append(BASIC_FONT_COLOR).append(ARROW);
+                }
+                if (counter.written > wrappedAt + WRAP) {
+                    counter.append("\n");
+                    wrappedAt = counter.written;
+                }
+            }
+        }
+    }
+
+    /**
+     * Counter
+     *
+     * Passes text on to the output, counting the characters written so that
+     * the text can be wrapped without reading it back.
+     */
+    private static final class Counter {
+        private final Appendable out;
+        private long written;
+
+        Counter(Appendable out) {
+            this.out = out;
+        }
+
+        Counter append(String text) throws IOException {
+            out.append(text);
+            written += text.length();
+            return this;
+        }
+    }
+}
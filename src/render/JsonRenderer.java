@@ -0,0 +1,96 @@
+package render;
+
+import graph.NodeADT;
+import traversal.Leg;
+import traversal.Route;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * JsonRenderer
+ *
+ * Writes a route as a JSON object of its cost, its stations by ID and name,
+ * and its legs:
+ *
+ *   {"cost":34,"stations":[{"id":"1","name":"Node1"},...],
+ *    "legs":[{"line":"Orange","from":"Node1","to":"Node2","stops":1,"cost":10},...]}
+ */
+public class JsonRenderer implements RouteRenderer<Appendable> {
+
+    @Override
+    public void render(Route route, Appendable out) throws IOException {
+        out.append('{');
+        renderFields(route, out);
+        out.append('}');
+    }
+
+    /**
+     * renderFields
+     *
+     * Writes the fields of the route without the braces around them, so that
+     * they can be part of a larger object.
+     *
+     * @param route the route to be written.
+     * @param out   the output to write to.
+     * @throws IOException if the output cannot be written.
+     */
+    public void renderFields(Route route, Appendable out) throws IOException {
+        List<Leg> legs = route.getLegs();
+        out.append("\"cost\":").append(Integer.toString(route.getCost())).append(",\"stations\":[");
+        boolean first = true;
+        for (Leg leg : legs) {
+            List<NodeADT> stops = leg.getStops();
+            for (int i = first ? 0 : 1; i < stops.size(); i++) {
+                if (!first || i > 0) {
+                    out.append(',');
+                }
+                out.append("{\"id\":");
+                string(out, stops.get(i).getId()).append(",\"name\":");
+                string(out, stops.get(i).getName()).append('}');
+            }
+            first = false;
+        }
+        out.append("],\"legs\":[");
+        for (int l = 0; l < legs.size(); l++) {
+            Leg leg = legs.get(l);
+            if (l > 0) {
+                out.append(',');
+            }
+            out.append("{\"line\":");
+            string(out, leg.getLine()).append(",\"from\":");
+            string(out, leg.getFrom().getName()).append(",\"to\":");
+            string(out, leg.getTo().getName()).append(",\"stops\":")
+                    .append(Integer.toString(leg.getStops().size() - 1))
+                    .append(",\"cost\":").append(Integer.toString(leg.getCost())).append('}');
+        }
+        out.append(']');
+    }
+
+    /**
+     * Appends a string as a JSON string literal, escaping quotes, backslashes
+     * and control characters, or JSON null if there is no string.
+     *
+     * @param out   the output to write to.
+     * @param value the string, or null.
+     * @return the output.
+     * @throws IOException if the output cannot be written.
+     */
+    public static Appendable string(Appendable out, String value) throws IOException {
+        if (value == null) {
+            return out.append("null");
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 15, 16));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.append('"');
+    }
+}
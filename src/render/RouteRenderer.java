@@ -0,0 +1,28 @@
+package render;
+
+import traversal.Route;
+
+import java.io.IOException;
+
+/**
+ * RouteRenderer
+ *
+ * Writes a route to an output as it goes, from the legs of the route alone,
+ * without building the whole text first or looking at the graph again.
+ *
+ * @param <O> the kind of output written to.
+ */
+@FunctionalInterface
+public interface RouteRenderer<O> {
+
+    /**
+     * render
+     *
+     * Writes the route to the output.
+     *
+     * @param route the route to be written.
+     * @param out   the output to write to.
+     * @throws IOException if the output cannot be written.
+     */
+    void render(Route route, O out) throws IOException;
+}
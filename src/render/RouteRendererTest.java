@@ -0,0 +1,115 @@
+package render;
+
+import graph.*;
+import org.junit.Test;
+import parser.MetroMapParser;
+import traversal.DijkstraSearch;
+import traversal.Leg;
+import traversal.Route;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class RouteRendererTest {
+
+    MetroMapParser mp = new MetroMapParser();
+    GraphADT graph = mp.parse(new File("testfile"));
+    CompactGraph compact = CompactGraph.from(graph);
+    List<NodeADT> nodes = graph.getNodes();
+
+    private NodeADT node(String id) {
+        return nodes.get(compact.indexOf(id));
+    }
+
+    private Route route() {
+        return new DijkstraSearch(graph).findRoute(node("1"), node("6"));
+    }
+
+    /**
+     * A route should be split into a leg for each line, and give the same legs from a list of nodes.
+     * */
+    @Test
+    public void testLegs(){
+        Route route = route();
+
+        assertEquals(2, route.getLegs().size());
+        assertEquals("Orange", route.getLegs().get(0).getLine());
+        assertEquals(10, route.getLegs().get(0).getCost());
+        assertEquals("Blue", route.getLegs().get(1).getLine());
+        assertEquals(24, route.getLegs().get(1).getCost());
+        assertEquals(34, route.getCost());
+        assertEquals(4, route.stationCount());
+
+        Route fromPath = Route.fromPath(route.getStations());
+        assertEquals(route.getCost(), fromPath.getCost());
+        assertEquals("Blue", fromPath.getLegs().get(1).getLine());
+    }
+
+    /**
+     * The console should highlight the first line and each change of line.
+     * */
+    @Test
+    public void testConsole() throws IOException {
+        StringBuilder out = new StringBuilder();
+        new ConsoleRenderer().render(route(), out);
+
+        assertTrue(out.toString().startsWith(ConsoleRenderer.HIGHLIGHT_FONT_COLOR + "start on line: Orange | "));
+        assertTrue(out.toString().contains("Node2 -> " + ConsoleRenderer.HIGHLIGHT_FONT_COLOR + "Change to line: Blue"));
+        assertTrue(out.toString().endsWith("Node6"));
+
+        StringBuilder empty = new StringBuilder();
+        new ConsoleRenderer().render(Route.empty(), empty);
+        assertEquals(0, empty.length());
+    }
+
+    /**
+     * JSON should hold the cost, every station once and each leg.
+     * */
+    @Test
+    public void testJson() throws IOException {
+        StringBuilder out = new StringBuilder();
+        new JsonRenderer().render(route(), out);
+
+        assertTrue(out.toString().startsWith("{\"cost\":34,\"stations\":[{\"id\":\"1\",\"name\":\"Node1\"},{\"id\":\"2\""));
+        assertTrue(out.toString().contains("\"legs\":[{\"line\":\"Orange\",\"from\":\"Node1\",\"to\":\"Node2\",\"stops\":1,\"cost\":10}"));
+        assertTrue(out.toString().endsWith("]}"));
+    }
+
+    /**
+     * A station that was never given a name should be written as JSON null.
+     * */
+    @Test
+    public void testJsonNullName() throws IOException {
+        Route route = new Route(List.of(new Leg("Orange", List.of(new Node("x"), new Node("y", "Y")), 3)));
+        StringBuilder out = new StringBuilder();
+        new JsonRenderer().render(route, out);
+
+        assertTrue(out.toString().contains("{\"id\":\"x\",\"name\":null}"));
+        assertTrue(out.toString().contains("\"from\":null,\"to\":\"Y\""));
+    }
+
+    /**
+     * A route written in binary should read back with the same lines, stations and cost.
+     * */
+    @Test
+    public void testBinaryRoundTrip() throws IOException {
+        Route route = route();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new BinaryRenderer().render(route, new DataOutputStream(bytes));
+
+        Route read = BinaryRenderer.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), this::node);
+        assertEquals(route.getCost(), read.getCost());
+        assertEquals(route.getStations(), read.getStations());
+        assertEquals(route.getLegs().size(), read.getLegs().size());
+        for (int i = 0; i < route.getLegs().size(); i++) {
+            assertEquals(route.getLegs().get(i).getLine(), read.getLegs().get(i).getLine());
+        }
+    }
+}
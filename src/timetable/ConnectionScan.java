@@ -0,0 +1,188 @@
+package timetable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * ConnectionScan
+ *
+ * Answers earliest arrival queries over a Timetable with the Connection Scan
+ * Algorithm. The connections are already sorted by departure time, so a query
+ * finds the first one leaving at or after the asked-for time and reads forwards
+ * through the arrays, taking each connection that can be caught: one whose trip
+ * is already being ridden, or that leaves a stop at or after the earliest time
+ * that stop has been reached. The scan stops at the first connection leaving no
+ * earlier than the goal has been reached, as nothing after it can arrive sooner.
+ *
+ * There is no priority queue and no object is touched per connection, so the
+ * scan runs at the speed the arrays can be read. Changing between trips at a
+ * stop takes no time.
+ */
+public class ConnectionScan {
+    private final Timetable timetable;
+    private final ArrayBlockingQueue<ScanState> states;
+
+    /**
+     * @param timetable the timetable to be searched.
+     */
+    public ConnectionScan(Timetable timetable) {
+        this.timetable = timetable;
+        this.states = new ArrayBlockingQueue<>(Math.max(1, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * earliestArrival
+     *
+     * Finds the earliest time the goal can be reached, leaving the source at or
+     * after the given time.
+     *
+     * @param source    the index of the source stop.
+     * @param goal      the index of the destination stop.
+     * @param departure the earliest time to leave, in seconds after the start of the day.
+     * @return the arrival time, or Integer.MAX_VALUE if the goal cannot be reached that day.
+     */
+    public int earliestArrival(int source, int goal, int departure) {
+        ScanState state = acquire();
+        try {
+            return scan(source, goal, departure, state);
+        } finally {
+            states.offer(state);
+        }
+    }
+
+    /**
+     * findJourney
+     *
+     * Finds an earliest arrival journey between two stops, as the trips ridden.
+     * Each trip is boarded at the first stop the scan caught it at.
+     *
+     * @param source    the index of the source stop.
+     * @param goal      the index of the destination stop.
+     * @param departure the earliest time to leave, in seconds after the start of the day.
+     * @return the journey, or null if the goal cannot be reached that day.
+     */
+    public Journey findJourney(int source, int goal, int departure) {
+        ScanState state = acquire();
+        try {
+            int arrival = scan(source, goal, departure, state);
+            if (arrival == Integer.MAX_VALUE) {
+                return null;
+            }
+            // Walk back from the goal one trip at a time, to where each was boarded.
+            List<Journey.Ride> rides = new ArrayList<>();
+            int stop = goal;
+            while (stop != source) {
+                int last = state.connectionTo(stop);
+                int trip = timetable.trip(last);
+                int first = state.boarded(trip);
+                rides.add(new Journey.Ride(trip, timetable.departureStop(first), stop,
+                        timetable.departureTime(first), timetable.arrivalTime(last)));
+                stop = timetable.departureStop(first);
+            }
+            Collections.reverse(rides);
+            return new Journey(departure, arrival, rides);
+        } finally {
+            states.offer(state);
+        }
+    }
+
+    /**
+     * scan
+     *
+     * Runs the scan, leaving the state holding the earliest arrival at each stop
+     * reached and the connection that reached it, and the first connection
+     * caught on each trip ridden.
+     */
+    private int scan(int source, int goal, int departure, ScanState state) {
+        state.reach(source, departure, -1);
+        int count = timetable.connectionCount();
+        for (int c = timetable.firstDepartingAt(departure); c < count; c++) {
+            int departureTime = timetable.departureTime(c);
+            if (departureTime >= state.arrival(goal)) {
+                break;
+            }
+            int trip = timetable.trip(c);
+            if (!state.isRiding(trip)) {
+                if (state.arrival(timetable.departureStop(c)) > departureTime) {
+                    continue;
+                }
+                state.board(trip, c);
+            }
+            int arrivalStop = timetable.arrivalStop(c);
+            int arrivalTime = timetable.arrivalTime(c);
+            if (arrivalTime < state.arrival(arrivalStop)) {
+                state.reach(arrivalStop, arrivalTime, c);
+            }
+        }
+        return state.arrival(goal);
+    }
+
+    private ScanState acquire() {
+        ScanState state = states.poll();
+        if (state == null) {
+            state = new ScanState(timetable.stopCount(), timetable.tripCount());
+        }
+        state.reset();
+        return state;
+    }
+
+    /**
+     * Returns the timetable being searched.
+     *
+     * @return the timetable.
+     */
+    public Timetable getTimetable() { return timetable; }
+
+    /**
+     * ScanState
+     *
+     * Everything one query writes to, stamped with the number of the query like
+     * SearchContext so that starting a new query does not clear the arrays.
+     */
+    private static final class ScanState {
+        private final int[] arrival;
+        private final int[] connectionTo;
+        private final int[] stopStamp;
+        private final int[] boarded;
+        private final int[] tripStamp;
+        private int stamp;
+
+        ScanState(int stops, int trips) {
+            this.arrival = new int[stops];
+            this.connectionTo = new int[stops];
+            this.stopStamp = new int[stops];
+            this.boarded = new int[trips];
+            this.tripStamp = new int[trips];
+        }
+
+        void reset() {
+            stamp++;
+            if (stamp == 0) {
+                java.util.Arrays.fill(stopStamp, 0);
+                java.util.Arrays.fill(tripStamp, 0);
+                stamp = 1;
+            }
+        }
+
+        int arrival(int stop) { return stopStamp[stop] == stamp ? arrival[stop] : Integer.MAX_VALUE; }
+
+        int connectionTo(int stop) { return connectionTo[stop]; }
+
+        void reach(int stop, int time, int connection) {
+            stopStamp[stop] = stamp;
+            arrival[stop] = time;
+            connectionTo[stop] = connection;
+        }
+
+        boolean isRiding(int trip) { return tripStamp[trip] == stamp; }
+
+        int boarded(int trip) { return boarded[trip]; }
+
+        void board(int trip, int connection) {
+            tripStamp[trip] = stamp;
+            boarded[trip] = connection;
+        }
+    }
+}
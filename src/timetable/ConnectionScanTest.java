@@ -0,0 +1,128 @@
+package timetable;
+
+import graph.CompactGraph;
+import org.junit.Test;
+import parser.MetroMapParser;
+import parser.TimetableParser;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class ConnectionScanTest {
+
+    CompactGraph compact = new MetroMapParser().parseCompact(new File("testfile"));
+
+    private int stop(String id) {
+        return compact.indexOf(id);
+    }
+
+    private Timetable timetable(String text) throws IOException {
+        File f = File.createTempFile("timetable", ".txt");
+        f.deleteOnExit();
+        try (FileWriter w = new FileWriter(f)) {
+            w.write(text);
+        }
+        return new TimetableParser().parse(f, compact);
+    }
+
+    private ConnectionScan scan() throws IOException {
+        return new ConnectionScan(timetable(
+                "# Orange from 1 to 5, Blue from 2 to 6\n" +
+                "4 5 08:15 08:20 O1\n" +
+                "1 2 08:00 08:05 O1\n" +
+                "2 3 08:05 08:10 O1\n" +
+                "3 4 08:10 08:15 O1\n" +
+                "\n" +
+                "2 5 08:10 08:14 B1\n" +
+                "5 6 08:14 08:20 B1\n" +
+                "5 6 08:30 08:36 B2\n"));
+    }
+
+    /**
+     * The connections should be sorted by departure time whatever order they are written in.
+     * */
+    @Test
+    public void testConnectionsAreSorted() throws IOException {
+        Timetable timetable = scan().getTimetable();
+
+        assertEquals(7, timetable.connectionCount());
+        assertEquals(3, timetable.tripCount());
+        for(int c = 1; c < timetable.connectionCount(); c++){
+            assertTrue(timetable.departureTime(c - 1) <= timetable.departureTime(c));
+        }
+        assertEquals(Timetable.parseTime("08:10"), timetable.departureTime(timetable.firstDepartingAt(Timetable.parseTime("08:06"))));
+        assertEquals(timetable.connectionCount(), timetable.firstDepartingAt(Timetable.parseTime("09:00")));
+    }
+
+    /**
+     * The earliest journey should change from Orange to Blue at 2 rather than ride Orange on to 5.
+     * */
+    @Test
+    public void testEarliestJourneyChangesTrip() throws IOException {
+        Journey journey = scan().findJourney(stop("1"), stop("6"), Timetable.parseTime("07:50"));
+
+        assertEquals("08:20", Timetable.formatTime(journey.getArrival()));
+        List<Journey.Ride> rides = journey.getRides();
+        assertEquals(2, rides.size());
+        assertEquals(stop("1"), rides.get(0).getFrom());
+        assertEquals(stop("2"), rides.get(0).getTo());
+        assertEquals(stop("2"), rides.get(1).getFrom());
+        assertEquals(stop("6"), rides.get(1).getTo());
+        assertEquals("08:10", Timetable.formatTime(rides.get(1).getDeparture()));
+    }
+
+    /**
+     * A journey should wait at a stop for a later trip when no earlier one goes on.
+     * */
+    @Test
+    public void testJourneyWaitsForLaterTrip() throws IOException {
+        ConnectionScan scan = scan();
+        Journey journey = scan.findJourney(stop("3"), stop("6"), Timetable.parseTime("08:00"));
+
+        assertEquals("08:36", Timetable.formatTime(journey.getArrival()));
+        assertEquals(2, journey.getRides().size());
+        assertEquals("O1", scan.getTimetable().getTripName(journey.getRides().get(0).getTrip()));
+        assertEquals(stop("5"), journey.getRides().get(0).getTo());
+        assertEquals("B2", scan.getTimetable().getTripName(journey.getRides().get(1).getTrip()));
+    }
+
+    /**
+     * Leaving after the last trip should find no journey, and leaving from the goal should need no trips.
+     * */
+    @Test
+    public void testUnreachableAndSameStop() throws IOException {
+        ConnectionScan scan = scan();
+
+        assertNull(scan.findJourney(stop("1"), stop("6"), Timetable.parseTime("08:01")));
+        assertEquals(Integer.MAX_VALUE, scan.earliestArrival(stop("1"), stop("6"), Timetable.parseTime("08:01")));
+        Journey journey = scan.findJourney(stop("4"), stop("4"), Timetable.parseTime("12:00"));
+        assertEquals(Timetable.parseTime("12:00"), journey.getArrival());
+        assertTrue(journey.getRides().isEmpty());
+    }
+
+    /**
+     * A connection to a station that is not on the map should be reported with its line number.
+     * */
+    @Test
+    public void testBadLineIsReported() {
+        IOException e = assertThrows(IOException.class,
+                () -> timetable("1 2 08:00 08:05 O1\n1 99 08:05 08:10 O1\n"));
+        assertTrue(e.getMessage().contains("line 2"));
+        assertThrows(IOException.class, () -> timetable("1 2 08:05 08:00 O1\n"));
+    }
+
+    /**
+     * The latest time that can be held should parse, and a second later should be refused with the real limit.
+     * */
+    @Test
+    public void testLatestTime() {
+        assertEquals(Timetable.MAX_TIME, Timetable.parseTime("72:49:03"));
+        assertEquals("72:49:03", Timetable.formatTime(Timetable.MAX_TIME));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Timetable.parseTime("72:49:04"));
+        assertTrue(e.getMessage().contains("72:49:03"));
+        assertThrows(IllegalArgumentException.class, () -> Timetable.parseTime("72:59:59"));
+    }
+}
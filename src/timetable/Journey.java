@@ -0,0 +1,111 @@
+package timetable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Journey
+ *
+ * An earliest arrival journey through a Timetable: the trips ridden, in order,
+ * each from the stop it is boarded at to the stop it is left at.
+ */
+public final class Journey {
+    private final int departure;
+    private final int arrival;
+    private final List<Ride> rides;
+
+    /**
+     * @param departure the time the journey was asked for from the source.
+     * @param arrival   the time the journey arrives at the goal.
+     * @param rides     the trips ridden, in order.
+     */
+    public Journey(int departure, int arrival, List<Ride> rides) {
+        this.departure = departure;
+        this.arrival = arrival;
+        this.rides = Collections.unmodifiableList(rides);
+    }
+
+    /**
+     * Returns the time the journey was asked for from the source.
+     *
+     * @return the departure time, in seconds after the start of the day.
+     */
+    public int getDeparture() { return departure; }
+
+    /**
+     * Returns the time the journey arrives at the goal.
+     *
+     * @return the arrival time, in seconds after the start of the day.
+     */
+    public int getArrival() { return arrival; }
+
+    /**
+     * Returns the trips ridden, in order. A journey from a stop to itself has none.
+     *
+     * @return the rides of the journey.
+     */
+    public List<Ride> getRides() { return rides; }
+
+    /**
+     * Ride
+     *
+     * One trip ridden from the stop it is boarded at to the stop it is left at.
+     */
+    public static final class Ride {
+        private final int trip;
+        private final int from;
+        private final int to;
+        private final int departure;
+        private final int arrival;
+
+        /**
+         * @param trip      the index of the trip in the timetable.
+         * @param from      the index of the stop the trip is boarded at.
+         * @param to        the index of the stop the trip is left at.
+         * @param departure the time the trip leaves the boarding stop.
+         * @param arrival   the time the trip arrives at the stop it is left at.
+         */
+        public Ride(int trip, int from, int to, int departure, int arrival) {
+            this.trip = trip;
+            this.from = from;
+            this.to = to;
+            this.departure = departure;
+            this.arrival = arrival;
+        }
+
+        /**
+         * Returns the trip ridden.
+         *
+         * @return the index of the trip in the timetable.
+         */
+        public int getTrip() { return trip; }
+
+        /**
+         * Returns the stop the trip is boarded at.
+         *
+         * @return the index of the stop.
+         */
+        public int getFrom() { return from; }
+
+        /**
+         * Returns the stop the trip is left at.
+         *
+         * @return the index of the stop.
+         */
+        public int getTo() { return to; }
+
+        /**
+         * Returns the time the trip leaves the boarding stop.
+         *
+         * @return the departure time, in seconds after the start of the day.
+         */
+        public int getDeparture() { return departure; }
+
+        /**
+         * Returns the time the trip arrives at the stop it is left at.
+         *
+         * @return the arrival time, in seconds after the start of the day.
+         */
+        public int getArrival() { return arrival; }
+    }
+}
@@ -0,0 +1,312 @@
+package timetable;
+
+import graph.CompactGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Timetable
+ *
+ * Every timetabled connection of a day, where a connection is one trip
+ * running from one stop to the next without stopping. Stops are the station
+ * indices of the CompactGraph the timetable was loaded against, and times are
+ * seconds after the start of the service day, so they may pass 24:00.
+ *
+ * The connections are held in parallel int arrays sorted by departure time,
+ * then arrival time, which is the order the Connection Scan Algorithm reads
+ * them in. Times can be at most MAX_TIME, which is 72:49:03.
+ */
+public class Timetable {
+    /** Times are packed into 18 bits when the connections are sorted. */
+    public static final int MAX_TIME = (1 << 18) - 1;
+    private static final int MAX_CONNECTIONS = 1 << 27;
+
+    private final CompactGraph stations;
+    private final int[] departureStops;
+    private final int[] arrivalStops;
+    private final int[] departureTimes;
+    private final int[] arrivalTimes;
+    private final int[] trips;
+    private final String[] tripNames;
+
+    private Timetable(CompactGraph stations, int[] departureStops, int[] arrivalStops, int[] departureTimes,
+              int[] arrivalTimes, int[] trips, String[] tripNames) {
+        this.stations = stations;
+        this.departureStops = departureStops;
+        this.arrivalStops = arrivalStops;
+        this.departureTimes = departureTimes;
+        this.arrivalTimes = arrivalTimes;
+        this.trips = trips;
+        this.tripNames = tripNames;
+    }
+
+    /**
+     * Returns the stations the stops belong to.
+     *
+     * @return the station graph.
+     */
+    public CompactGraph getStations() { return stations; }
+
+    /**
+     * Returns the number of stops, which is the number of stations.
+     *
+     * @return the number of stops.
+     */
+    public int stopCount() { return stations.nodeCount(); }
+
+    /**
+     * Returns the number of connections.
+     *
+     * @return the number of connections.
+     */
+    public int connectionCount() { return trips.length; }
+
+    /**
+     * Returns the number of trips.
+     *
+     * @return the number of trips.
+     */
+    public int tripCount() { return tripNames.length; }
+
+    /**
+     * Returns the stop a connection leaves from.
+     *
+     * @param connection the index of the connection.
+     * @return the index of the departure stop.
+     */
+    public int departureStop(int connection) { return departureStops[connection]; }
+
+    /**
+     * Returns the stop a connection arrives at.
+     *
+     * @param connection the index of the connection.
+     * @return the index of the arrival stop.
+     */
+    public int arrivalStop(int connection) { return arrivalStops[connection]; }
+
+    /**
+     * Returns the time a connection leaves.
+     *
+     * @param connection the index of the connection.
+     * @return the departure time, in seconds after the start of the day.
+     */
+    public int departureTime(int connection) { return departureTimes[connection]; }
+
+    /**
+     * Returns the time a connection arrives.
+     *
+     * @param connection the index of the connection.
+     * @return the arrival time, in seconds after the start of the day.
+     */
+    public int arrivalTime(int connection) { return arrivalTimes[connection]; }
+
+    /**
+     * Returns the trip a connection is part of.
+     *
+     * @param connection the index of the connection.
+     * @return the index of the trip.
+     */
+    public int trip(int connection) { return trips[connection]; }
+
+    /**
+     * Returns the name of a trip, as given in the timetable file.
+     *
+     * @param trip the index of the trip.
+     * @return the name of the trip.
+     */
+    public String getTripName(int trip) { return tripNames[trip]; }
+
+    /**
+     * firstDepartingAt
+     *
+     * Finds the first connection that leaves at or after the given time, by a
+     * binary search of the departure times.
+     *
+     * @param time the time, in seconds after the start of the day.
+     * @return the index of the first such connection, or connectionCount() if there is none.
+     */
+    public int firstDepartingAt(int time) {
+        int low = 0;
+        int high = departureTimes.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (departureTimes[middle] < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * parseTime
+     *
+     * Reads a time written as HH:MM or HH:MM:SS, where the hours may pass 24
+     * for services running after midnight, up to MAX_TIME.
+     *
+     * @param text the time.
+     * @return the time, in seconds after the start of the day.
+     * @throws IllegalArgumentException if the text is not a time, or is later than MAX_TIME.
+     */
+    public static int parseTime(String text) {
+        String[] fields = text.split(":");
+        if (fields.length < 2 || fields.length > 3) {
+            throw new IllegalArgumentException("Not a time: " + text);
+        }
+        try {
+            int hours = Integer.parseInt(fields[0]);
+            int minutes = Integer.parseInt(fields[1]);
+            int seconds = fields.length == 3 ? Integer.parseInt(fields[2]) : 0;
+            if (hours < 0 || hours > 72 || minutes < 0 || minutes > 59 || seconds < 0 || seconds > 59) {
+                throw new IllegalArgumentException("Not a time: " + text);
+            }
+            int time = hours * 3600 + minutes * 60 + seconds;
+            if (time > MAX_TIME) {
+                throw new IllegalArgumentException(outOfRange(text));
+            }
+            return time;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a time: " + text);
+        }
+    }
+
+    private static String outOfRange(String time) {
+        return "Times must be between 00:00 and " + formatTime(MAX_TIME) + ", not " + time;
+    }
+
+    /**
+     * Returns a time as hours and minutes, adding seconds if there are any.
+     *
+     * @param time the time, in seconds after the start of the day.
+     * @return the time written as HH:MM or HH:MM:SS.
+     */
+    public static String formatTime(int time) {
+        if (time % 60 == 0) {
+            return String.format("%02d:%02d", time / 3600, time / 60 % 60);
+        }
+        return String.format("%02d:%02d:%02d", time / 3600, time / 60 % 60, time % 60);
+    }
+
+    /**
+     * Builder
+     *
+     * Collects the connections of a timetable against the stations of a
+     * CompactGraph, then sorts them into a Timetable. Trips are given an index
+     * when first mentioned.
+     */
+    public static final class Builder {
+        private final CompactGraph stations;
+        private final HashMap<String, Integer> tripIndex = new HashMap<>();
+        private final ArrayList<String> tripNames = new ArrayList<>();
+        private int[] departureStops = new int[16];
+        private int[] arrivalStops = new int[16];
+        private int[] departureTimes = new int[16];
+        private int[] arrivalTimes = new int[16];
+        private int[] trips = new int[16];
+        private int count;
+
+        /**
+         * @param stations the stations the connections run between.
+         */
+        public Builder(CompactGraph stations) {
+            this.stations = stations;
+        }
+
+        /**
+         * Returns the stations the connections run between.
+         *
+         * @return the station graph.
+         */
+        public CompactGraph getStations() { return stations; }
+
+        /**
+         * Returns the number of connections added so far.
+         *
+         * @return the number of connections added so far.
+         */
+        public int size() { return count; }
+
+        /**
+         * connection
+         *
+         * Adds a connection between two stations.
+         *
+         * @param departureStop the index of the station the connection leaves.
+         * @param arrivalStop   the index of the station the connection arrives at.
+         * @param departureTime the time the connection leaves, in seconds after the start of the day.
+         * @param arrivalTime   the time the connection arrives, in seconds after the start of the day.
+         * @param trip          the name of the trip the connection is part of.
+         */
+        public void connection(int departureStop, int arrivalStop, int departureTime, int arrivalTime, String trip) {
+            if (departureStop < 0 || departureStop >= stations.nodeCount()
+                    || arrivalStop < 0 || arrivalStop >= stations.nodeCount()) {
+                throw new IllegalArgumentException("No such station");
+            }
+            if (departureTime < 0 || arrivalTime > MAX_TIME) {
+                throw new IllegalArgumentException(outOfRange(departureTime < 0 ? String.valueOf(departureTime) : formatTime(arrivalTime)));
+            }
+            if (arrivalTime < departureTime) {
+                throw new IllegalArgumentException("A connection cannot arrive before it leaves");
+            }
+            if (count == MAX_CONNECTIONS) {
+                throw new IllegalStateException("Too many connections");
+            }
+            Integer tripId = tripIndex.get(trip);
+            if (tripId == null) {
+                tripId = tripNames.size();
+                tripIndex.put(trip, tripId);
+                tripNames.add(trip);
+            }
+            if (count == trips.length) {
+                int capacity = count * 2;
+                departureStops = Arrays.copyOf(departureStops, capacity);
+                arrivalStops = Arrays.copyOf(arrivalStops, capacity);
+                departureTimes = Arrays.copyOf(departureTimes, capacity);
+                arrivalTimes = Arrays.copyOf(arrivalTimes, capacity);
+                trips = Arrays.copyOf(trips, capacity);
+            }
+            departureStops[count] = departureStop;
+            arrivalStops[count] = arrivalStop;
+            departureTimes[count] = departureTime;
+            arrivalTimes[count] = arrivalTime;
+            trips[count] = tripId;
+            count++;
+        }
+
+        /**
+         * build
+         *
+         * Sorts the connections by departure time, then arrival time, keeping
+         * the order they were added in otherwise, and creates the Timetable.
+         * The sort is of one long per connection, with the two times and the
+         * connection's index packed into it.
+         *
+         * @return the built timetable.
+         */
+        public Timetable build() {
+            long[] keys = new long[count];
+            for (int c = 0; c < count; c++) {
+                keys[c] = (long) departureTimes[c] << 45 | (long) arrivalTimes[c] << 27 | c;
+            }
+            Arrays.sort(keys);
+            int[] sortedDepartureStops = new int[count];
+            int[] sortedArrivalStops = new int[count];
+            int[] sortedDepartureTimes = new int[count];
+            int[] sortedArrivalTimes = new int[count];
+            int[] sortedTrips = new int[count];
+            for (int i = 0; i < count; i++) {
+                int c = (int) (keys[i] & (MAX_CONNECTIONS - 1));
+                sortedDepartureStops[i] = departureStops[c];
+                sortedArrivalStops[i] = arrivalStops[c];
+                sortedDepartureTimes[i] = departureTimes[c];
+                sortedArrivalTimes[i] = arrivalTimes[c];
+                sortedTrips[i] = trips[c];
+            }
+            return new Timetable(stations, sortedDepartureStops, sortedArrivalStops, sortedDepartureTimes,
+                    sortedArrivalTimes, sortedTrips, tripNames.toArray(new String[0]));
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package traversal;
+
+import graph.CompactGraph;
+import graph.GraphADT;
+import graph.NodeADT;
+import metrics.SearchMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * This class implements A* search using landmarks and the triangle inequality
+ * (ALT) to estimate the remaining cost to the goal.
+ *
+ * When the search is created, a handful of landmark stations are chosen, each
+ * as far as possible from those already chosen, and the cost from and to every
+ * landmark is found for every station. For any landmark L, the cost from v to
+ * the goal t is at least d(L, t) - d(L, v) and at least d(v, L) - d(t, L), so the
+ * largest of these bounds is used to steer the search towards the goal. No
+ * station coordinates are needed.
+ *
+ * Like DijkstraSearch, the graph is only read and each query borrows a context,
+ * so one AltSearch can be shared by several threads.
+ */
+
+public class AltSearch implements Search, Instrumented {
+    /** The number of landmarks chosen when none is given. */
+    public static final int DEFAULT_LANDMARKS = 8;
+
+    private CompactGraph graph;
+    private List<NodeADT> nodes;
+    private SearchContextPool contexts;
+    private volatile SearchMetrics metrics;
+    private int[] landmarks;
+    private int[] fromLandmark;
+    private int[] toLandmark;
+    private long precomputeMillis;
+
+    public AltSearch(GraphADT graph) {
+        this(CompactGraph.from(graph), graph.getNodes(), DEFAULT_LANDMARKS);
+    }
+
+    /**
+     * @param graph         the compact graph to be searched.
+     * @param nodes         the nodes the compact graph was built from, where the i-th node has index i.
+     * @param landmarkCount the number of landmarks to choose.
+     */
+    public AltSearch(CompactGraph graph, List<NodeADT> nodes, int landmarkCount) {
+        this.graph = graph;
+        this.nodes = nodes;
+        this.contexts = new SearchContextPool(graph.nodeCount());
+        long start = System.nanoTime();
+        chooseLandmarks(Math.min(landmarkCount, graph.nodeCount()));
+        this.precomputeMillis = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * chooseLandmarks
+     *
+     * Picks landmarks one at a time, each being the station furthest from its
+     * nearest landmark so far, starting with the station furthest from station 0.
+     * The costs from and to each landmark are stored node by node, so that the
+     * bounds for one station are next to each other in memory.
+     *
+     * @param count the number of landmarks to choose.
+     */
+    private void chooseLandmarks(int count) {
+        int n = graph.nodeCount();
+        CompactGraph reverse = graph.reverse();
+        DijkstraSearch forwardSearch = new DijkstraSearch(graph, null);
+        DijkstraSearch backwardSearch = new DijkstraSearch(reverse, null);
+        SearchContext context = new SearchContext(n);
+        landmarks = new int[count];
+        fromLandmark = new int[n * count];
+        toLandmark = new int[n * count];
+
+        // Distance from each station to its nearest landmark, measured outwards from the landmarks.
+        int[] nearest = new int[n];
+        int candidate = n == 0 ? -1 : furthest(forwardSearch, context, 0);
+        Arrays.fill(nearest, Integer.MAX_VALUE);
+
+        for (int i = 0; i < count; i++) {
+            landmarks[i] = candidate;
+            context.reset();
+            forwardSearch.shortestPathTree(candidate, context);
+            for (int v = 0; v < n; v++) {
+                int d = context.cost(v);
+                fromLandmark[v * count + i] = d;
+                nearest[v] = Math.min(nearest[v], d);
+            }
+            context.reset();
+            backwardSearch.shortestPathTree(candidate, context);
+            for (int v = 0; v < n; v++) {
+                toLandmark[v * count + i] = context.cost(v);
+            }
+
+            candidate = -1;
+            for (int v = 0; v < n; v++) {
+                if (nearest[v] != Integer.MAX_VALUE && nearest[v] > 0
+                        && (candidate == -1 || nearest[v] > nearest[candidate])) {
+                    candidate = v;
+                }
+            }
+            if (candidate == -1) {
+                landmarks = Arrays.copyOf(landmarks, i + 1);
+                fromLandmark = compact(fromLandmark, count, i + 1);
+                toLandmark = compact(toLandmark, count, i + 1);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the last station settled by a search from the source, which is the
+     * furthest station it can reach.
+     */
+    private int furthest(DijkstraSearch search, SearchContext context, int source) {
+        context.reset();
+        search.shortestPathTree(source, context);
+        return context.settledNode(context.settledCount() - 1);
+    }
+
+    /**
+     * Keeps the first few landmarks of each node when fewer landmarks were found than asked for.
+     */
+    private static int[] compact(int[] costs, int stride, int kept) {
+        int n = costs.length / stride;
+        int[] result = new int[n * kept];
+        for (int v = 0; v < n; v++) {
+            System.arraycopy(costs, v * stride, result, v * kept, kept);
+        }
+        return result;
+    }
+
+    /**
+     * findPath
+     *
+     * Finds the cheapest path between two nodes. An empty list is returned if
+     * the goal cannot be reached from the source.
+     *
+     * @param source the source Node.
+     * @param goal   the Destination node.
+     * @return A path between the two nodes.
+     */
+    public ArrayList<NodeADT> findPath(NodeADT source, NodeADT goal) {
+        int[] indices = shortestPath(indexOf(source), indexOf(goal));
+        ArrayList<NodeADT> path = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            path.add(nodes.get(index));
+        }
+        return path;
+    }
+
+    /**
+     * shortestPath
+     *
+     * Finds the cheapest path between two node indices of the compact graph.
+     *
+     * @param source the index of the source node.
+     * @param goal   the index of the destination node.
+     * @return the node indices along the path, or an empty array if there is no path.
+     */
+    public int[] shortestPath(int source, int goal) {
+        SearchMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        SearchContext context = contexts.acquire();
+        try {
+            int[] path = shortestPath(source, goal, context);
+            if (metrics != null) {
+                metrics.record(context.settledCount(), context.relaxedCount(), context.peakAgendaSize(),
+                        path.length, System.nanoTime() - start);
+            }
+            return path;
+        } finally {
+            contexts.release(context);
+        }
+    }
+
+    /**
+     * shortestPath
+     *
+     * Finds the cheapest path between two node indices using the given context,
+     * which is left holding the state of the search afterwards, including the
+     * number of nodes settled.
+     *
+     * @param source  the index of the source node.
+     * @param goal    the index of the destination node.
+     * @param context a reset context for the graph.
+     * @return the node indices along the path, or an empty array if there is no path.
+     */
+    public int[] shortestPath(int source, int goal, SearchContext context) {
+        context.reach(source, 0, -1, estimate(source, goal));
+
+        while (!context.agendaIsEmpty()) {
+            int selected = context.settleNext();
+            if (selected == goal) {
+                return context.pathTo(goal);
+            }
+            int selectedCost = context.cost(selected);
+            context.countRelaxed(graph.edgeEnd(selected) - graph.edgeStart(selected));
+            for (int e = graph.edgeStart(selected); e < graph.edgeEnd(selected); e++) {
+                int next = graph.target(e);
+                int nextCost = selectedCost + graph.weight(e);
+                if (!context.isSettled(next) && nextCost < context.cost(next)) {
+                    context.reach(next, nextCost, selected, nextCost + estimate(next, goal));
+                }
+            }
+        }
+        return new int[0];
+    }
+
+    /**
+     * estimate
+     *
+     * Returns the largest lower bound on the cost from a node to the goal given
+     * by any landmark. Landmarks that cannot reach, or be reached from, either
+     * node give no bound.
+     *
+     * @param node the node index.
+     * @param goal the index of the goal node.
+     * @return a lower bound on the remaining cost.
+     */
+    int estimate(int node, int goal) {
+        int count = landmarks.length;
+        int nodeBase = node * count;
+        int goalBase = goal * count;
+        int best = 0;
+        for (int i = 0; i < count; i++) {
+            int fromNode = fromLandmark[nodeBase + i];
+            int fromGoal = fromLandmark[goalBase + i];
+            if (fromNode != Integer.MAX_VALUE && fromGoal != Integer.MAX_VALUE) {
+                best = Math.max(best, fromGoal - fromNode);
+            }
+            int toNode = toLandmark[nodeBase + i];
+            int toGoal = toLandmark[goalBase + i];
+            if (toNode != Integer.MAX_VALUE && toGoal != Integer.MAX_VALUE) {
+                best = Math.max(best, toNode - toGoal);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the indices of the landmark stations.
+     *
+     * @return the landmark node indices.
+     */
+    public int[] getLandmarks() { return landmarks.clone(); }
+
+    /**
+     * Returns how long choosing the landmarks and finding their costs took.
+     *
+     * @return the precompute time in milliseconds.
+     */
+    public long getPrecomputeMillis() { return precomputeMillis; }
+
+    /**
+     * Returns the pool this search borrows contexts from.
+     *
+     * @return the pool of search contexts.
+     */
+    public SearchContextPool getContexts() { return contexts; }
+
+    /**
+     * Sets where the queries of this search are recorded from now on.
+     *
+     * @param metrics the metrics to record into, or null to stop recording.
+     */
+    @Override
+    public void setMetrics(SearchMetrics metrics) { this.metrics = metrics; }
+
+    private int indexOf(NodeADT node) {
+        int index = graph.indexOf(node.getId());
+        if (index < 0) {
+            throw new IllegalArgumentException("Node " + node.getId() + " is not in the graph");
+        }
+        return index;
+    }
+}
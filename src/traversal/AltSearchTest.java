@@ -0,0 +1,56 @@
+package traversal;
+
+import graph.*;
+import org.junit.Test;
+import parser.MetroMapParser;
+import java.io.File;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class AltSearchTest {
+
+    MetroMapParser mp = new MetroMapParser();
+    GraphADT graph = mp.parse(new File("testfile"));
+    CompactGraph compact = CompactGraph.from(graph);
+    RouteTable table = RouteTable.build(compact);
+
+    /**
+     * Every route should cost the same as the cheapest route, for any number of landmarks.
+     * */
+    @Test
+    public void testFindsCheapestRoutes(){
+        for(int landmarks = 1; landmarks <= 4; landmarks++){
+            AltSearch search = new AltSearch(compact, graph.getNodes(), landmarks);
+            PathCosts.assertCheapestRoutes(compact, table, search::shortestPath);
+        }
+    }
+
+    /**
+     * The estimate should never be more than the real remaining cost.
+     * */
+    @Test
+    public void testEstimateIsLowerBound(){
+        AltSearch search = new AltSearch(compact, graph.getNodes(), 3);
+        for(int v = 0; v < compact.nodeCount(); v++){
+            for(int g = 0; g < compact.nodeCount(); g++){
+                assertTrue(search.estimate(v, g) <= table.distance(v, g));
+            }
+            assertEquals(0, search.estimate(v, v));
+        }
+    }
+
+    /**
+     * Landmarks should be distinct, and no more than were asked for.
+     * */
+    @Test
+    public void testLandmarks(){
+        int[] landmarks = new AltSearch(compact, graph.getNodes(), 10).getLandmarks();
+
+        assertTrue(landmarks.length <= compact.nodeCount());
+        for(int i = 0; i < landmarks.length; i++){
+            for(int j = i + 1; j < landmarks.length; j++){
+                assertTrue(landmarks[i] != landmarks[j]);
+            }
+        }
+    }
+}
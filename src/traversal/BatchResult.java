@@ -0,0 +1,58 @@
+package traversal;
+
+/**
+ * BatchResult
+ *
+ * The answer to one request in a batch: the cheapest route between the
+ * request's source and goal, or no route if the goal cannot be reached.
+ */
+public class BatchResult {
+    private final int request;
+    private final int source;
+    private final int goal;
+    private final int cost;
+    private final int[] path;
+
+    BatchResult(int request, int source, int goal, int cost, int[] path) {
+        this.request = request;
+        this.source = source;
+        this.goal = goal;
+        this.cost = cost;
+        this.path = path;
+    }
+
+    /**
+     * Returns the position of the request in the batch.
+     *
+     * @return the index of the request.
+     */
+    public int getRequest() { return request; }
+
+    /**
+     * Returns the index of the source node.
+     *
+     * @return the index of the source node.
+     */
+    public int getSource() { return source; }
+
+    /**
+     * Returns the index of the goal node.
+     *
+     * @return the index of the goal node.
+     */
+    public int getGoal() { return goal; }
+
+    /**
+     * Returns the cost of the route, or RouteTable.UNREACHABLE if there is none.
+     *
+     * @return the cost of the route.
+     */
+    public int getCost() { return cost; }
+
+    /**
+     * Returns the node indices along the route, or an empty array if there is none.
+     *
+     * @return the route.
+     */
+    public int[] getPath() { return path; }
+}
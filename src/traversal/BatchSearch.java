@@ -0,0 +1,234 @@
+package traversal;
+
+import graph.CompactGraph;
+import graph.NodeADT;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * BatchSearch
+ *
+ * Answers many (source, goal) requests at once. Requests are grouped by source,
+ * and each group is answered by a single Dijkstra search from its source which
+ * stops as soon as every goal in the group has been settled. Groups are
+ * searched in parallel on a fork-join pool.
+ *
+ * Each result is passed to the sink as soon as its goal is settled, from
+ * whichever thread is searching that group, so the sink must be safe to call
+ * from several threads. Nothing is kept once it has been passed on. If the
+ * sink throws, the batch stops and findPaths throws the same exception.
+ */
+public class BatchSearch {
+    private static final int GROUPS_PER_TASK = 4;
+
+    private final DijkstraSearch search;
+    private final CompactGraph graph;
+    private final ForkJoinPool pool;
+    private final ConcurrentLinkedQueue<int[]> goalHeads = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param search the search whose graph and contexts are used.
+     */
+    public BatchSearch(DijkstraSearch search) {
+        this(search, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param search the search whose graph and contexts are used.
+     * @param pool   the pool the groups are searched on.
+     */
+    public BatchSearch(DijkstraSearch search, ForkJoinPool pool) {
+        this.search = search;
+        this.graph = search.getGraph();
+        this.pool = pool;
+    }
+
+    /**
+     * findPaths
+     *
+     * Answers the i-th request, from sources.get(i) to goals.get(i), for every i.
+     * Returns once every result has been passed to the sink.
+     *
+     * @param sources the source node of each request.
+     * @param goals   the goal node of each request.
+     * @param sink    receives each result as it is found.
+     */
+    public void findPaths(List<NodeADT> sources, List<NodeADT> goals, Consumer<BatchResult> sink) {
+        int[] sourceIndices = new int[sources.size()];
+        int[] goalIndices = new int[goals.size()];
+        for (int i = 0; i < sourceIndices.length; i++) {
+            sourceIndices[i] = indexOf(sources.get(i));
+        }
+        for (int i = 0; i < goalIndices.length; i++) {
+            goalIndices[i] = indexOf(goals.get(i));
+        }
+        findPaths(sourceIndices, goalIndices, sink);
+    }
+
+    /**
+     * findPaths
+     *
+     * Answers the i-th request, from sources[i] to goals[i], for every i.
+     * Returns once every result has been passed to the sink.
+     *
+     * @param sources the source node index of each request.
+     * @param goals   the goal node index of each request.
+     * @param sink    receives each result as it is found.
+     */
+    public void findPaths(int[] sources, int[] goals, Consumer<BatchResult> sink) {
+        if (sources.length != goals.length) {
+            throw new IllegalArgumentException("Every request needs one source and one goal");
+        }
+        // Sorting source and request number together lines each source's requests up.
+        long[] order = new long[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            order[i] = ((long) sources[i] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        int[] requests = new int[order.length];
+        int groupCount = 0;
+        int[] groupStarts = new int[order.length + 1];
+        for (int i = 0; i < order.length; i++) {
+            requests[i] = (int) order[i];
+            if (i == 0 || (order[i] >>> 32) != (order[i - 1] >>> 32)) {
+                groupStarts[groupCount++] = i;
+            }
+        }
+        groupStarts[groupCount] = order.length;
+
+        pool.invoke(new GroupTask(sources, goals, requests, new int[requests.length], groupStarts, 0, groupCount, sink));
+    }
+
+    /**
+     * GroupTask
+     *
+     * Searches a range of groups, splitting the range in half until it is small
+     * enough to search directly.
+     *
+     * While a group is searched, the requests for each goal are chained together:
+     * heads[goal] is the position of the last such request in the sorted requests,
+     * and next[position] the one before it, ending in -1.
+     */
+    private class GroupTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] sources;
+        private final int[] goals;
+        private final int[] requests;
+        private final int[] next;
+        private final int[] groupStarts;
+        private final int from;
+        private final int to;
+        private final Consumer<BatchResult> sink;
+
+        GroupTask(int[] sources, int[] goals, int[] requests, int[] next, int[] groupStarts, int from, int to,
+                  Consumer<BatchResult> sink) {
+            this.sources = sources;
+            this.goals = goals;
+            this.requests = requests;
+            this.next = next;
+            this.groupStarts = groupStarts;
+            this.from = from;
+            this.to = to;
+            this.sink = sink;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > GROUPS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new GroupTask(sources, goals, requests, next, groupStarts, from, middle, sink),
+                        new GroupTask(sources, goals, requests, next, groupStarts, middle, to, sink));
+                return;
+            }
+            SearchContext context = search.getContexts().acquire();
+            int[] heads = goalHeads.poll();
+            if (heads == null) {
+                heads = new int[graph.nodeCount()];
+                Arrays.fill(heads, -1);
+            }
+            boolean finished = false;
+            try {
+                for (int group = from; group < to; group++) {
+                    context.reset();
+                    searchGroup(groupStarts[group], groupStarts[group + 1], context, heads);
+                }
+                finished = true;
+            } finally {
+                search.getContexts().release(context);
+                // If the sink threw, chains of this batch are still in heads, so it is not reused.
+                if (finished) {
+                    goalHeads.offer(heads);
+                }
+            }
+        }
+
+        /**
+         * searchGroup
+         *
+         * Runs one search from the group's source, passing on the results for a
+         * goal when it is settled, and stopping once no goals are left.
+         */
+        private void searchGroup(int start, int end, SearchContext context, int[] heads) {
+            int source = sources[requests[start]];
+            int remaining = 0;
+            for (int r = start; r < end; r++) {
+                int goal = goals[requests[r]];
+                if (heads[goal] == -1) {
+                    remaining++;
+                }
+                next[r] = heads[goal];
+                heads[goal] = r;
+            }
+
+            context.reach(source, 0, -1);
+            while (remaining > 0 && !context.agendaIsEmpty()) {
+                int selected = context.settleNext();
+                if (heads[selected] != -1) {
+                    sendResults(selected, context, heads);
+                    remaining--;
+                }
+                if (remaining > 0) {
+                    search.relax(selected, context);
+                }
+            }
+
+            // Goals still waiting could not be reached.
+            for (int r = start; r < end && remaining > 0; r++) {
+                int goal = goals[requests[r]];
+                if (heads[goal] != -1) {
+                    sendResults(goal, context, heads);
+                    remaining--;
+                }
+            }
+        }
+
+        /**
+         * Passes on the result of every request for a goal, and clears its chain.
+         */
+        private void sendResults(int goal, SearchContext context, int[] heads) {
+            boolean reached = context.isSettled(goal);
+            int[] path = reached ? context.pathTo(goal) : new int[0];
+            int cost = reached ? context.cost(goal) : RouteTable.UNREACHABLE;
+            for (int r = heads[goal]; r != -1; r = next[r]) {
+                int request = requests[r];
+                sink.accept(new BatchResult(request, sources[request], goal, cost, path));
+            }
+            heads[goal] = -1;
+        }
+    }
+
+    private int indexOf(NodeADT node) {
+        int index = graph.indexOf(node.getId());
+        if (index < 0) {
+            throw new IllegalArgumentException("Node " + node.getId() + " is not in the graph");
+        }
+        return index;
+    }
+}
@@ -0,0 +1,87 @@
+package traversal;
+
+import graph.*;
+import org.junit.Test;
+import parser.MetroMapParser;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class BatchSearchTest {
+
+    MetroMapParser mp = new MetroMapParser();
+    GraphADT graph = mp.parse(new File("testfile"));
+    DijkstraSearch search = new DijkstraSearch(graph);
+    BatchSearch batch = new BatchSearch(search);
+
+    /**
+     * Every pair, including repeated pairs, should get the same route as a single query.
+     * */
+    @Test
+    public void testMatchesSingleQueries(){
+        int n = search.getGraph().nodeCount();
+        List<Integer> sources = new ArrayList<>();
+        List<Integer> goals = new ArrayList<>();
+        for(int s = 0; s < n; s++){
+            for(int g = 0; g < n; g++){
+                sources.add(s);
+                goals.add(g);
+            }
+        }
+        sources.add(0);
+        goals.add(5);
+
+        int[] sourceArray = sources.stream().mapToInt(Integer::intValue).toArray();
+        int[] goalArray = goals.stream().mapToInt(Integer::intValue).toArray();
+        ConcurrentHashMap<Integer, BatchResult> results = new ConcurrentHashMap<>();
+        batch.findPaths(sourceArray, goalArray, result -> results.put(result.getRequest(), result));
+
+        assertEquals(sourceArray.length, results.size());
+        for(int r = 0; r < sourceArray.length; r++){
+            BatchResult result = results.get(r);
+            assertEquals(sourceArray[r], result.getSource());
+            assertEquals(goalArray[r], result.getGoal());
+            assertArrayEquals(search.shortestPath(sourceArray[r], goalArray[r]), result.getPath());
+        }
+        assertEquals(34, results.get(sourceArray.length - 1).getCost());
+    }
+
+    /**
+     * Nodes can be given instead of indices.
+     * */
+    @Test
+    public void testNodeRequests(){
+        List<NodeADT> nodes = graph.getNodes();
+        List<NodeADT> sources = List.of(nodes.get(0), nodes.get(5));
+        List<NodeADT> goals = List.of(nodes.get(5), nodes.get(0));
+        ConcurrentHashMap<Integer, BatchResult> results = new ConcurrentHashMap<>();
+        batch.findPaths(sources, goals, result -> results.put(result.getRequest(), result));
+
+        assertEquals(4, results.get(0).getPath().length);
+        assertEquals(4, results.get(1).getPath().length);
+    }
+
+    /**
+     * A batch whose sink throws should not leave anything behind for the next batch.
+     * */
+    @Test
+    public void testSinkFailureDoesNotLeak(){
+        BatchSearch single = new BatchSearch(search, new ForkJoinPool(1));
+        int[] sources = {0, 0};
+        int[] goals = {5, 3};
+
+        assertThrows(IllegalStateException.class, () -> single.findPaths(sources, goals, result -> {
+            throw new IllegalStateException("sink failed");
+        }));
+
+        ConcurrentHashMap<Integer, BatchResult> results = new ConcurrentHashMap<>();
+        single.findPaths(sources, goals, result -> results.put(result.getRequest(), result));
+        assertEquals(2, results.size());
+        assertEquals(5, results.get(0).getGoal());
+        assertArrayEquals(search.shortestPath(0, 3), results.get(1).getPath());
+    }
+}
@@ -0,0 +1,183 @@
+package traversal;
+
+import graph.CompactGraph;
+import graph.GraphADT;
+import graph.NodeADT;
+import metrics.SearchMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class implements a bidirectional Dijkstra search. One search runs
+ * forwards from the source over the graph, and another runs backwards from the
+ * goal over the reversed graph, which is built once when the search is created.
+ * Each search settles the stations within about half the route's cost of its
+ * end, rather than the forward search alone settling everything within the
+ * whole cost.
+ *
+ * Whenever either search reaches a station the other has already reached, the
+ * two costs together give a route. The searches stop once the cheapest open
+ * costs on both sides add up to at least the best route found, as any route
+ * still to be found would have to cost more.
+ */
+public class BidirectionalDijkstraSearch implements Search, Instrumented {
+    private CompactGraph graph;
+    private CompactGraph reverse;
+    private List<NodeADT> nodes;
+    private SearchContextPool contexts;
+    private volatile SearchMetrics metrics;
+
+    public BidirectionalDijkstraSearch(GraphADT graph) {
+        this(CompactGraph.from(graph), graph.getNodes());
+    }
+
+    /**
+     * @param graph the compact graph to be searched.
+     * @param nodes the nodes the compact graph was built from, where the i-th node has index i.
+     */
+    public BidirectionalDijkstraSearch(CompactGraph graph, List<NodeADT> nodes) {
+        this.graph = graph;
+        this.reverse = graph.reverse();
+        this.nodes = nodes;
+        // Each query borrows two contexts, one for each direction.
+        this.contexts = new SearchContextPool(graph.nodeCount(), 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * findPath
+     *
+     * Finds the cheapest path between two nodes. An empty list is returned if
+     * the goal cannot be reached from the source.
+     *
+     * @param source the source Node.
+     * @param goal   the Destination node.
+     * @return A path between the two nodes.
+     */
+    public ArrayList<NodeADT> findPath(NodeADT source, NodeADT goal) {
+        int[] indices = shortestPath(indexOf(source), indexOf(goal));
+        ArrayList<NodeADT> path = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            path.add(nodes.get(index));
+        }
+        return path;
+    }
+
+    /**
+     * shortestPath
+     *
+     * Finds the cheapest path between two node indices of the compact graph.
+     *
+     * @param source the index of the source node.
+     * @param goal   the index of the destination node.
+     * @return the node indices along the path, or an empty array if there is no path.
+     */
+    public int[] shortestPath(int source, int goal) {
+        SearchMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        SearchContext forward = contexts.acquire();
+        SearchContext backward = contexts.acquire();
+        try {
+            int[] path = shortestPath(source, goal, forward, backward);
+            if (metrics != null) {
+                metrics.record(forward.settledCount() + backward.settledCount(),
+                        forward.relaxedCount() + backward.relaxedCount(),
+                        forward.peakAgendaSize() + backward.peakAgendaSize(), path.length, System.nanoTime() - start);
+            }
+            return path;
+        } finally {
+            contexts.release(forward);
+            contexts.release(backward);
+        }
+    }
+
+    /**
+     * shortestPath
+     *
+     * Finds the cheapest path between two node indices using the given contexts,
+     * which are left holding the state of the two searches afterwards, including
+     * the number of nodes each settled. The side with the cheaper open node is
+     * searched next.
+     *
+     * @param source   the index of the source node.
+     * @param goal     the index of the destination node.
+     * @param forward  a reset context for the search from the source.
+     * @param backward a reset context for the search back from the goal.
+     * @return the node indices along the path, or an empty array if there is no path.
+     */
+    public int[] shortestPath(int source, int goal, SearchContext forward, SearchContext backward) {
+        forward.reach(source, 0, -1);
+        backward.reach(goal, 0, -1);
+        int best = source == goal ? 0 : Integer.MAX_VALUE;
+        int meeting = source == goal ? source : -1;
+
+        while (!forward.agendaIsEmpty() && !backward.agendaIsEmpty()) {
+            int forwardMinimum = forward.agendaMinimum();
+            int backwardMinimum = backward.agendaMinimum();
+            if ((long) forwardMinimum + backwardMinimum >= best) {
+                break;
+            }
+            boolean forwards = forwardMinimum <= backwardMinimum;
+            SearchContext context = forwards ? forward : backward;
+            SearchContext other = forwards ? backward : forward;
+            CompactGraph edges = forwards ? graph : reverse;
+
+            int selected = context.settleNext();
+            int selectedCost = context.cost(selected);
+            context.countRelaxed(edges.edgeEnd(selected) - edges.edgeStart(selected));
+            for (int e = edges.edgeStart(selected); e < edges.edgeEnd(selected); e++) {
+                int next = edges.target(e);
+                int nextCost = selectedCost + edges.weight(e);
+                if (!context.isSettled(next) && nextCost < context.cost(next)) {
+                    context.reach(next, nextCost, selected);
+                    if (other.isReached(next) && nextCost + other.cost(next) < best) {
+                        best = nextCost + other.cost(next);
+                        meeting = next;
+                    }
+                }
+            }
+        }
+
+        if (meeting == -1) {
+            return new int[0];
+        }
+        int[] head = forward.pathTo(meeting);
+        int[] tail = backward.pathTo(meeting);
+        int[] path = new int[head.length + tail.length - 1];
+        System.arraycopy(head, 0, path, 0, head.length);
+        for (int i = 0; i < tail.length - 1; i++) {
+            path[head.length + i] = tail[tail.length - 2 - i];
+        }
+        return path;
+    }
+
+    /**
+     * Returns the graph being searched.
+     *
+     * @return the compact graph.
+     */
+    public CompactGraph getGraph() { return graph; }
+
+    /**
+     * Returns the pool this search borrows contexts from.
+     *
+     * @return the pool of search contexts.
+     */
+    public SearchContextPool getContexts() { return contexts; }
+
+    /**
+     * Sets where the queries of this search are recorded from now on.
+     *
+     * @param metrics the metrics to record into, or null to stop recording.
+     */
+    @Override
+    public void setMetrics(SearchMetrics metrics) { this.metrics = metrics; }
+
+    private int indexOf(NodeADT node) {
+        int index = graph.indexOf(node.getId());
+        if (index < 0) {
+            throw new IllegalArgumentException("Node " + node.getId() + " is not in the graph");
+        }
+        return index;
+    }
+}
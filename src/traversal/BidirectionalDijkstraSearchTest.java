@@ -0,0 +1,59 @@
+package traversal;
+
+import graph.*;
+import org.junit.Test;
+import parser.MetroMapParser;
+import java.io.File;
+import java.util.ArrayList;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class BidirectionalDijkstraSearchTest {
+
+    MetroMapParser mp = new MetroMapParser();
+    GraphADT graph = mp.parse(new File("testfile"));
+    BidirectionalDijkstraSearch search = new BidirectionalDijkstraSearch(graph);
+    CompactGraph compact = search.getGraph();
+    RouteTable table = RouteTable.build(compact);
+
+    /**
+     * Routes should join up in the middle and cost the same as the cheapest route.
+     * */
+    @Test
+    public void testFindsCheapestRoutes(){
+        PathCosts.assertCheapestRoutes(compact, table, search::shortestPath);
+    }
+
+    /**
+     * Both directions should have done some of the work on every route of more
+     * than two stops.
+     * */
+    @Test
+    public void testSettledPerDirection(){
+        SearchContext forward = new SearchContext(compact.nodeCount());
+        SearchContext backward = new SearchContext(compact.nodeCount());
+        for(int s = 0; s < compact.nodeCount(); s++){
+            for(int g = 0; g < compact.nodeCount(); g++){
+                forward.reset();
+                backward.reset();
+                int[] path = search.shortestPath(s, g, forward, backward);
+                if(path.length > 3){
+                    assertTrue(forward.settledCount() > 0);
+                    assertTrue(backward.settledCount() > 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * The route from a station to itself is just that station.
+     * */
+    @Test
+    public void testSameStation(){
+        NodeADT node = graph.getNodes().get(0);
+        ArrayList<NodeADT> path = search.findPath(node, node);
+
+        assertEquals(1, path.size());
+        assertSame(node, path.get(0));
+    }
+}
@@ -0,0 +1,199 @@
+package traversal;
+
+import graph.GraphADT;
+import graph.NodeADT;
+import graph.WeightProfile;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * This class remembers the routes found by another Search, so that a route asked
+ * for again is answered without searching.
+ *
+ * Routes are kept by source ID, goal ID and the graph's WeightProfile, up to a
+ * maximum number, with the least recently used route dropped first. The version
+ * of the graph changes whenever a node or edge is added or an edge's weight is
+ * set. When it does, the whole cache is cleared and the underlying search is
+ * built again from the graph, since most engines copy the graph when they are
+ * built and would otherwise keep finding routes by the old weights.
+ *
+ * Lookups are safe from any number of threads; the underlying search runs
+ * outside the lock, so it must be safe to call concurrently as well.
+ */
+public class CachingSearch implements Search {
+    private final Function<GraphADT, ? extends Search> engine;
+    private final GraphADT graph;
+    private final int maxSize;
+    private final LinkedHashMap<Key, List<NodeADT>> routes;
+    private Search search;
+    private long version;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * @param engine  builds the search that finds routes which are not cached, such as SearchEngine::create.
+     * @param graph   the graph the search runs on, whose version is watched.
+     * @param maxSize the most routes kept.
+     */
+    public CachingSearch(Function<GraphADT, ? extends Search> engine, GraphADT graph, int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The cache must hold at least one route");
+        }
+        this.engine = engine;
+        this.graph = graph;
+        this.maxSize = maxSize;
+        this.version = graph.getVersion();
+        this.search = engine.apply(graph);
+        this.routes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<NodeADT>> eldest) {
+                if (size() > CachingSearch.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Key
+     *
+     * What a cached route is stored under.
+     */
+    private static final class Key {
+        private final String source;
+        private final String goal;
+        private final WeightProfile profile;
+
+        Key(String source, String goal, WeightProfile profile) {
+            this.source = source;
+            this.goal = goal;
+            this.profile = profile;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return source.equals(other.source) && goal.equals(other.goal) && profile.equals(other.profile);
+        }
+
+        @Override
+        public int hashCode() { return Objects.hash(source, goal, profile); }
+    }
+
+    /**
+     * findPath
+     *
+     * Returns the cached route between two nodes, or finds it with the underlying
+     * search and caches it. A route found while the graph changed is returned but
+     * not cached.
+     *
+     * @param source the source Node.
+     * @param goal   the Destination node.
+     * @return A path between the two nodes.
+     */
+    public ArrayList<NodeADT> findPath(NodeADT source, NodeADT goal) {
+        long searchedVersion;
+        Search current;
+        Key key;
+        synchronized (routes) {
+            checkVersion();
+            key = new Key(source.getId(), goal.getId(), graph.getWeightProfile());
+            List<NodeADT> route = routes.get(key);
+            if (route != null) {
+                hits.incrementAndGet();
+                return new ArrayList<>(route);
+            }
+            searchedVersion = version;
+            current = search;
+        }
+        misses.incrementAndGet();
+
+        ArrayList<NodeADT> route = current.findPath(source, goal);
+        synchronized (routes) {
+            checkVersion();
+            if (version == searchedVersion) {
+                routes.put(key, List.copyOf(route));
+            }
+        }
+        return route;
+    }
+
+    /**
+     * Clears the cache and builds the underlying search again if the graph has
+     * changed since it was filled. Must be called while holding the lock on
+     * routes, so lookups wait while the search is rebuilt rather than use the
+     * old one.
+     */
+    private void checkVersion() {
+        long current = graph.getVersion();
+        if (current != version) {
+            routes.clear();
+            search = engine.apply(graph);
+            version = current;
+            invalidations.incrementAndGet();
+        }
+    }
+
+    /**
+     * Removes every cached route.
+     */
+    public void invalidateAll() {
+        synchronized (routes) {
+            routes.clear();
+            invalidations.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of routes cached.
+     *
+     * @return the number of routes cached.
+     */
+    public int size() {
+        synchronized (routes) {
+            return routes.size();
+        }
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return the number of cache hits.
+     */
+    public long getHits() { return hits.get(); }
+
+    /**
+     * Returns the number of lookups that had to search.
+     *
+     * @return the number of cache misses.
+     */
+    public long getMisses() { return misses.get(); }
+
+    /**
+     * Returns the number of routes dropped to keep the cache within its maximum size.
+     *
+     * @return the number of evictions.
+     */
+    public long getEvictions() { return evictions.get(); }
+
+    /**
+     * Returns the number of times the whole cache was cleared.
+     *
+     * @return the number of invalidations.
+     */
+    public long getInvalidations() { return invalidations.get(); }
+}
@@ -0,0 +1,94 @@
+package traversal;
+
+import graph.*;
+import org.junit.Test;
+import parser.MetroMapParser;
+import java.io.File;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class CachingSearchTest {
+
+    MetroMapParser mp = new MetroMapParser();
+    GraphADT graph = mp.parse(new File("testfile"));
+    CachingSearch search = new CachingSearch(DijkstraSearch::new, graph, 2);
+    List<NodeADT> nodes = graph.getNodes();
+
+    /**
+     * The second lookup of a route should be a hit and give the same route.
+     * */
+    @Test
+    public void testHitAfterMiss(){
+        List<NodeADT> first = search.findPath(nodes.get(0), nodes.get(5));
+        List<NodeADT> second = search.findPath(nodes.get(0), nodes.get(5));
+
+        assertEquals(first, second);
+        assertEquals(1, search.getMisses());
+        assertEquals(1, search.getHits());
+    }
+
+    /**
+     * The least recently used route should be dropped when the cache is full.
+     * */
+    @Test
+    public void testLeastRecentlyUsedIsEvicted(){
+        search.findPath(nodes.get(0), nodes.get(1));
+        search.findPath(nodes.get(0), nodes.get(2));
+        search.findPath(nodes.get(0), nodes.get(1));
+        search.findPath(nodes.get(0), nodes.get(3));
+
+        assertEquals(2, search.size());
+        assertEquals(1, search.getEvictions());
+
+        search.findPath(nodes.get(0), nodes.get(1));
+        assertEquals(2, search.getHits());
+        search.findPath(nodes.get(0), nodes.get(2));
+        assertEquals(4, search.getMisses());
+    }
+
+    /**
+     * Changing the graph should clear the cache.
+     * */
+    @Test
+    public void testGraphChangeInvalidates(){
+        search.findPath(nodes.get(0), nodes.get(5));
+        graph.addNode(new Node("7", "Node7"));
+        search.findPath(nodes.get(0), nodes.get(5));
+
+        assertEquals(2, search.getMisses());
+        assertEquals(1, search.getInvalidations());
+    }
+
+    /**
+     * Changing the weight of a line should give the new route, not the cached one.
+     * */
+    @Test
+    public void testWeightChangeChangesRoute(){
+        List<NodeADT> before = search.findPath(nodes.get(0), nodes.get(5));
+        assertEquals(4, before.size());
+
+        graph.setLineWeight("Blue", 100);
+        List<NodeADT> after = search.findPath(nodes.get(0), nodes.get(5));
+
+        assertNotEquals(before, after);
+        assertEquals(6, after.size());
+        assertEquals(2, search.getMisses());
+        assertEquals(1, search.getInvalidations());
+    }
+
+    /**
+     * Routes should be keyed by the weight profile the graph was last given.
+     * */
+    @Test
+    public void testProfileChangeInvalidates(){
+        search.findPath(nodes.get(0), nodes.get(5));
+        graph.applyWeights((line, index) -> line.equals("Blue") ? 100 : 10);
+        List<NodeADT> route = search.findPath(nodes.get(0), nodes.get(5));
+        search.findPath(nodes.get(0), nodes.get(5));
+
+        assertEquals(6, route.size());
+        assertEquals(2, search.getMisses());
+        assertEquals(1, search.getHits());
+    }
+}
@@ -0,0 +1,569 @@
+package traversal;
+
+import graph.CompactGraph;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * ContractionHierarchy
+ *
+ * A contraction hierarchy over a compact graph. Stations are removed
+ * (contracted) one at a time, least important first, and whenever removing a
+ * station would lengthen a cheapest route between two of its neighbours, a
+ * shortcut edge is added between them that stands for the two edges through
+ * the removed station. The order a station was removed in is its rank.
+ *
+ * Every edge, original or shortcut, is kept by the lower ranked of its two
+ * stations: edges leading up to higher ranks form the upward graph, and edges
+ * arriving from higher ranks form the downward graph. A cheapest route always
+ * climbs and then descends the ranks, so it can be found by searching upwards
+ * from both ends, see ContractionHierarchySearch. Each shortcut remembers the
+ * station it skips, so routes can be unpacked back into every station.
+ *
+ * Parallel edges are merged into the cheapest one before contraction, so there
+ * is at most one edge for each ordered pair of stations.
+ */
+public class ContractionHierarchy {
+
+    private static final int MAGIC = 0x43484231; // "CHB1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4 + 4 + 8;
+    /** The most stations a witness search may settle before a shortcut is added anyway. */
+    private static final int WITNESS_SETTLE_LIMIT = 128;
+    /** The same limit when only counting shortcuts to order the stations, where a guess will do. */
+    private static final int ORDERING_SETTLE_LIMIT = 16;
+
+    private final int size;
+    private final long fingerprint;
+    private final int[] ranks;
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final int[] upWeights;
+    private final int[] upMiddles;
+    private final int[] downOffsets;
+    private final int[] downSources;
+    private final int[] downWeights;
+    private final int[] downMiddles;
+    private long buildMillis;
+
+    private ContractionHierarchy(int size, long fingerprint, int[] ranks,
+                                 int[] upOffsets, int[] upTargets, int[] upWeights, int[] upMiddles,
+                                 int[] downOffsets, int[] downSources, int[] downWeights, int[] downMiddles) {
+        this.size = size;
+        this.fingerprint = fingerprint;
+        this.ranks = ranks;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.upMiddles = upMiddles;
+        this.downOffsets = downOffsets;
+        this.downSources = downSources;
+        this.downWeights = downWeights;
+        this.downMiddles = downMiddles;
+    }
+
+    /**
+     * build
+     *
+     * Orders and contracts every station of the graph.
+     *
+     * @param graph the graph to be contracted.
+     * @return the contraction hierarchy.
+     */
+    public static ContractionHierarchy build(CompactGraph graph) {
+        long start = System.nanoTime();
+        ContractionHierarchy hierarchy = new Contraction(graph).run();
+        hierarchy.buildMillis = (System.nanoTime() - start) / 1_000_000;
+        return hierarchy;
+    }
+
+    /**
+     * Contraction
+     *
+     * The working state of a build: the remaining graph as growable adjacency
+     * lists in both directions, which gain shortcuts and lose contracted
+     * stations as the build goes on, and the edges each contracted station kept.
+     */
+    private static class Contraction {
+        private final CompactGraph graph;
+        private final int n;
+        private final EdgeList[] out;
+        private final EdgeList[] in;
+        private final EdgeList[] up;
+        private final EdgeList[] down;
+        private final int[] ranks;
+        private final int[] contractedNeighbours;
+        private final int[] levels;
+        private final SearchContext witness;
+        private final int[] targetMarks;
+        private int targetMark;
+
+        Contraction(CompactGraph graph) {
+            this.graph = graph;
+            this.n = graph.nodeCount();
+            this.out = new EdgeList[n];
+            this.in = new EdgeList[n];
+            this.up = new EdgeList[n];
+            this.down = new EdgeList[n];
+            this.ranks = new int[n];
+            this.contractedNeighbours = new int[n];
+            this.levels = new int[n];
+            this.witness = new SearchContext(n);
+            this.targetMarks = new int[n];
+            for (int v = 0; v < n; v++) {
+                out[v] = new EdgeList();
+                in[v] = new EdgeList();
+            }
+            for (int v = 0; v < n; v++) {
+                for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                    int target = graph.target(e);
+                    if (target != v) {
+                        addEdge(v, target, graph.weight(e), -1);
+                    }
+                }
+            }
+        }
+
+        /**
+         * run
+         *
+         * Contracts the station with the lowest priority until none are left.
+         * Priorities only grow as neighbours are contracted, so a popped station
+         * is checked again and put back if it is no longer the lowest.
+         */
+        ContractionHierarchy run() {
+            IndexedMinHeap queue = new IndexedMinHeap(Math.max(n, 1));
+            for (int v = 0; v < n; v++) {
+                queue.push(v, priority(v));
+            }
+            int rank = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.pop();
+                int current = priority(v);
+                if (!queue.isEmpty() && current > queue.peekKey()) {
+                    queue.push(v, current);
+                    continue;
+                }
+                contract(v);
+                ranks[v] = rank++;
+            }
+            return freeze();
+        }
+
+        /**
+         * priority
+         *
+         * Stations that add few shortcuts for the edges they remove go first. The
+         * number of contracted neighbours and the level spread contraction evenly
+         * over the graph, which keeps the hierarchy shallow.
+         */
+        private int priority(int v) {
+            int shortcuts = shortcutsFor(v, false);
+            return 2 * (shortcuts - out[v].size - in[v].size) + contractedNeighbours[v] + levels[v];
+        }
+
+        /**
+         * contract
+         *
+         * Adds the shortcuts needed to remove the station, keeps its remaining
+         * edges as its upward and downward edges, and removes it from the graph.
+         */
+        private void contract(int v) {
+            shortcutsFor(v, true);
+            up[v] = out[v];
+            down[v] = in[v];
+            for (int i = 0; i < out[v].size; i++) {
+                int x = out[v].nodes[i];
+                in[x].remove(v);
+                contractedNeighbours[x]++;
+                levels[x] = Math.max(levels[x], levels[v] + 1);
+            }
+            for (int i = 0; i < in[v].size; i++) {
+                int u = in[v].nodes[i];
+                out[u].remove(v);
+                contractedNeighbours[u]++;
+                levels[u] = Math.max(levels[u], levels[v] + 1);
+            }
+            out[v] = null;
+            in[v] = null;
+        }
+
+        /**
+         * shortcutsFor
+         *
+         * Looks, for each station u leading into v, for a witness route from u
+         * to each station x that v leads to which avoids v and costs no more than
+         * going through v. Each pair without a witness needs a shortcut.
+         *
+         * @param v   the station being contracted.
+         * @param add true to add the shortcuts, false to only count them.
+         * @return the number of shortcuts needed.
+         */
+        private int shortcutsFor(int v, boolean add) {
+            EdgeList incoming = in[v];
+            EdgeList outgoing = out[v];
+            int count = 0;
+            for (int i = 0; i < incoming.size; i++) {
+                int u = incoming.nodes[i];
+                int toV = incoming.weights[i];
+                int limit = -1;
+                int targets = 0;
+                targetMark++;
+                for (int j = 0; j < outgoing.size; j++) {
+                    if (outgoing.nodes[j] != u) {
+                        limit = Math.max(limit, toV + outgoing.weights[j]);
+                        targetMarks[outgoing.nodes[j]] = targetMark;
+                        targets++;
+                    }
+                }
+                if (targets == 0) {
+                    continue;
+                }
+                witnessSearch(u, v, limit, targets, add ? WITNESS_SETTLE_LIMIT : ORDERING_SETTLE_LIMIT);
+                for (int j = 0; j < outgoing.size; j++) {
+                    int x = outgoing.nodes[j];
+                    int through = toV + outgoing.weights[j];
+                    if (x != u && witness.cost(x) > through) {
+                        count++;
+                        if (add) {
+                            addEdge(u, x, through, v);
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Runs a Dijkstra search from the source over the remaining graph without
+         * passing through the ignored station, stopping once every marked target
+         * has been settled, the cheapest open cost is above the limit or enough
+         * stations have been settled.
+         */
+        private void witnessSearch(int source, int ignored, int limit, int targets, int settleLimit) {
+            witness.reset();
+            witness.reach(source, 0, -1);
+            int settled = 0;
+            while (targets > 0 && !witness.agendaIsEmpty() && witness.agendaMinimum() <= limit
+                    && settled < settleLimit) {
+                int selected = witness.settleNext();
+                settled++;
+                if (targetMarks[selected] == targetMark) {
+                    targets--;
+                }
+                int selectedCost = witness.cost(selected);
+                EdgeList edges = out[selected];
+                for (int i = 0; i < edges.size; i++) {
+                    int next = edges.nodes[i];
+                    int nextCost = selectedCost + edges.weights[i];
+                    if (next != ignored && nextCost <= limit && !witness.isSettled(next) && nextCost < witness.cost(next)) {
+                        witness.reach(next, nextCost, selected);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Adds an edge in both directions of the remaining graph, or lowers the
+         * weight of the existing edge between the same stations.
+         */
+        private void addEdge(int from, int to, int weight, int middle) {
+            int i = out[from].indexOf(to);
+            if (i < 0) {
+                out[from].add(to, weight, middle);
+                in[to].add(from, weight, middle);
+            } else if (weight < out[from].weights[i]) {
+                out[from].set(i, weight, middle);
+                in[to].set(in[to].indexOf(from), weight, middle);
+            }
+        }
+
+        /**
+         * Packs the kept edges of every station into the flat arrays of the hierarchy.
+         */
+        private ContractionHierarchy freeze() {
+            int[] upOffsets = new int[n + 1];
+            int[] downOffsets = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                upOffsets[v + 1] = upOffsets[v] + up[v].size;
+                downOffsets[v + 1] = downOffsets[v] + down[v].size;
+            }
+            int[] upTargets = new int[upOffsets[n]];
+            int[] upWeights = new int[upOffsets[n]];
+            int[] upMiddles = new int[upOffsets[n]];
+            int[] downSources = new int[downOffsets[n]];
+            int[] downWeights = new int[downOffsets[n]];
+            int[] downMiddles = new int[downOffsets[n]];
+            for (int v = 0; v < n; v++) {
+                up[v].copyTo(upTargets, upWeights, upMiddles, upOffsets[v]);
+                down[v].copyTo(downSources, downWeights, downMiddles, downOffsets[v]);
+            }
+            return new ContractionHierarchy(n, graph.fingerprint(), ranks,
+                    upOffsets, upTargets, upWeights, upMiddles, downOffsets, downSources, downWeights, downMiddles);
+        }
+    }
+
+    /**
+     * EdgeList
+     *
+     * A growable list of the edges on one side of a station during a build:
+     * the station at the other end, the weight, and the station a shortcut
+     * skips, or -1 for an original edge.
+     */
+    private static class EdgeList {
+        int[] nodes = new int[4];
+        int[] weights = new int[4];
+        int[] middles = new int[4];
+        int size;
+
+        void add(int node, int weight, int middle) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                middles = Arrays.copyOf(middles, size * 2);
+            }
+            nodes[size] = node;
+            weights[size] = weight;
+            middles[size] = middle;
+            size++;
+        }
+
+        void set(int i, int weight, int middle) {
+            weights[i] = weight;
+            middles[i] = middle;
+        }
+
+        int indexOf(int node) {
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void remove(int node) {
+            int i = indexOf(node);
+            if (i >= 0) {
+                size--;
+                nodes[i] = nodes[size];
+                weights[i] = weights[size];
+                middles[i] = middles[size];
+            }
+        }
+
+        void copyTo(int[] nodes, int[] weights, int[] middles, int offset) {
+            System.arraycopy(this.nodes, 0, nodes, offset, size);
+            System.arraycopy(this.weights, 0, weights, offset, size);
+            System.arraycopy(this.middles, 0, middles, offset, size);
+        }
+    }
+
+    /**
+     * Returns the number of stations in the hierarchy.
+     *
+     * @return the number of stations in the hierarchy.
+     */
+    public int size() { return size; }
+
+    /**
+     * Returns the fingerprint of the graph the hierarchy was built for.
+     *
+     * @return the fingerprint of the graph.
+     */
+    public long getFingerprint() { return fingerprint; }
+
+    /**
+     * Returns how long the hierarchy took to build, or 0 if it was loaded from a file.
+     *
+     * @return the build time in milliseconds.
+     */
+    public long getBuildMillis() { return buildMillis; }
+
+    /**
+     * Returns the order in which a station was contracted.
+     *
+     * @param node the index of the station.
+     * @return the rank of the station, from 0 for the first contracted.
+     */
+    public int rank(int node) { return ranks[node]; }
+
+    /**
+     * Returns the number of upward and downward edges that are shortcuts.
+     *
+     * @return the number of shortcuts.
+     */
+    public int shortcutCount() {
+        int count = 0;
+        for (int middle : upMiddles) {
+            if (middle >= 0) {
+                count++;
+            }
+        }
+        for (int middle : downMiddles) {
+            if (middle >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    int upStart(int node) { return upOffsets[node]; }
+
+    int upEnd(int node) { return upOffsets[node + 1]; }
+
+    int upTarget(int edge) { return upTargets[edge]; }
+
+    int upWeight(int edge) { return upWeights[edge]; }
+
+    int downStart(int node) { return downOffsets[node]; }
+
+    int downEnd(int node) { return downOffsets[node + 1]; }
+
+    int downSource(int edge) { return downSources[edge]; }
+
+    int downWeight(int edge) { return downWeights[edge]; }
+
+    /**
+     * unpack
+     *
+     * Appends the stations along the edge from one station to another, without
+     * the first, replacing each shortcut with the two edges it stands for.
+     *
+     * @param from the station the edge leaves.
+     * @param to   the station the edge arrives at.
+     * @param path the array to append to, which must have room for the stations.
+     * @param next the position in the array to write the first station to.
+     * @return the position after the last station written.
+     */
+    int unpack(int from, int to, int[] path, int next) {
+        int middle = middleOf(from, to);
+        if (middle < 0) {
+            path[next] = to;
+            return next + 1;
+        }
+        return unpack(middle, to, path, unpack(from, middle, path, next));
+    }
+
+    /**
+     * Returns the number of stations an edge stands for, not counting the first.
+     *
+     * @param from the station the edge leaves.
+     * @param to   the station the edge arrives at.
+     * @return the number of original edges the edge stands for.
+     */
+    int unpackedLength(int from, int to) {
+        int middle = middleOf(from, to);
+        return middle < 0 ? 1 : unpackedLength(from, middle) + unpackedLength(middle, to);
+    }
+
+    private int middleOf(int from, int to) {
+        if (ranks[from] < ranks[to]) {
+            for (int e = upOffsets[from]; e < upOffsets[from + 1]; e++) {
+                if (upTargets[e] == to) {
+                    return upMiddles[e];
+                }
+            }
+        } else {
+            for (int e = downOffsets[to]; e < downOffsets[to + 1]; e++) {
+                if (downSources[e] == from) {
+                    return downMiddles[e];
+                }
+            }
+        }
+        throw new IllegalStateException("No edge from " + from + " to " + to + " in the hierarchy");
+    }
+
+    /**
+     * save
+     *
+     * Writes the hierarchy to a file: a header holding a magic number, the format
+     * version, the graph fingerprint, the number of stations, upward edges and
+     * downward edges, and the build time, followed by the ranks, the upward graph
+     * and the downward graph.
+     *
+     * @param f the file to be written.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(File f) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(f, "rw"); FileChannel channel = file.getChannel()) {
+            file.setLength(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(fingerprint).putInt(size)
+                    .putInt(upTargets.length).putInt(downSources.length).putLong(buildMillis);
+            header.flip();
+            channel.write(header);
+            for (int[] values : new int[][]{ranks, upOffsets, upTargets, upWeights, upMiddles,
+                    downOffsets, downSources, downWeights, downMiddles}) {
+                IntChannels.writeInts(channel, values);
+            }
+        }
+    }
+
+    /**
+     * load
+     *
+     * Reads a hierarchy written by save().
+     *
+     * @param f the file to be read.
+     * @return the contraction hierarchy.
+     * @throws IOException if the file cannot be read or is not a contraction hierarchy.
+     */
+    public static ContractionHierarchy load(File f) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(f, "r"); FileChannel channel = file.getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            IntChannels.readFully(channel, header);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException(f + " is not a contraction hierarchy this version can read");
+            }
+            long fingerprint = header.getLong();
+            int size = header.getInt();
+            int ups = header.getInt();
+            int downs = header.getInt();
+            long buildMillis = header.getLong();
+            if (channel.size() != HEADER_BYTES + 4L * (3L * size + 2 + 3L * ups + 3L * downs)) {
+                throw new IOException(f + " is not the length of a contraction hierarchy for " + size + " stations");
+            }
+            ContractionHierarchy hierarchy = new ContractionHierarchy(size, fingerprint,
+                    IntChannels.readInts(channel, size),
+                    IntChannels.readInts(channel, size + 1), IntChannels.readInts(channel, ups),
+                    IntChannels.readInts(channel, ups), IntChannels.readInts(channel, ups),
+                    IntChannels.readInts(channel, size + 1), IntChannels.readInts(channel, downs),
+                    IntChannels.readInts(channel, downs), IntChannels.readInts(channel, downs));
+            hierarchy.buildMillis = buildMillis;
+            return hierarchy;
+        }
+    }
+
+    /**
+     * loadOrBuild
+     *
+     * Loads the hierarchy from a file if it was built for this graph, otherwise
+     * builds it and saves it to the file.
+     *
+     * @param graph the graph the hierarchy is for.
+     * @param f     the file the hierarchy is kept in.
+     * @return the contraction hierarchy.
+     * @throws IOException if the hierarchy cannot be saved.
+     */
+    public static ContractionHierarchy loadOrBuild(CompactGraph graph, File f) throws IOException {
+        if (f.exists()) {
+            try {
+                ContractionHierarchy hierarchy = load(f);
+                if (hierarchy.fingerprint == graph.fingerprint() && hierarchy.size == graph.nodeCount()) {
+                    return hierarchy;
+                }
+            } catch (IOException e) {
+                // An unreadable hierarchy is rebuilt below.
+            }
+        }
+        ContractionHierarchy hierarchy = build(graph);
+        hierarchy.save(f);
+        return hierarchy;
+    }
+}
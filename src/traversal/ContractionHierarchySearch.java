@@ -0,0 +1,281 @@
+package traversal;
+
+import graph.CompactGraph;
+import graph.GraphADT;
+import graph.NodeADT;
+import metrics.SearchMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class answers routes from a ContractionHierarchy. A Dijkstra search
+ * climbs the upward graph from the source while a second one climbs the
+ * downward graph backwards from the goal, and the cheapest station where the
+ * two meet is the top of the cheapest route. The route is then unpacked into
+ * every station along it.
+ *
+ * Both searches only ever move to higher ranked stations, so each settles a
+ * few hundred stations at most, even on the largest maps.
+ */
+public class ContractionHierarchySearch implements Search, Instrumented {
+    private CompactGraph graph;
+    private List<NodeADT> nodes;
+    private ContractionHierarchy hierarchy;
+    private SearchContextPool contexts;
+    private volatile SearchMetrics metrics;
+
+    /**
+     * Builds a contraction hierarchy for the graph and answers routes from it.
+     *
+     * @param graph the graph to be searched.
+     */
+    public ContractionHierarchySearch(GraphADT graph) {
+        this(CompactGraph.from(graph), graph.getNodes());
+    }
+
+    /**
+     * @param graph the compact graph to be searched.
+     * @param nodes the nodes the compact graph was built from, where the i-th node has index i.
+     */
+    public ContractionHierarchySearch(CompactGraph graph, List<NodeADT> nodes) {
+        this(graph, nodes, ContractionHierarchy.build(graph));
+    }
+
+    /**
+     * @param graph     the compact graph to be searched.
+     * @param nodes     the nodes the compact graph was built from, where the i-th node has index i.
+     * @param hierarchy a hierarchy built for the graph, for example one loaded from a file.
+     */
+    public ContractionHierarchySearch(CompactGraph graph, List<NodeADT> nodes, ContractionHierarchy hierarchy) {
+        if (hierarchy.getFingerprint() != graph.fingerprint()) {
+            throw new IllegalArgumentException("The contraction hierarchy was built for a different graph");
+        }
+        this.graph = graph;
+        this.nodes = nodes;
+        this.hierarchy = hierarchy;
+        // Each query borrows two contexts, one for each direction.
+        this.contexts = new SearchContextPool(graph.nodeCount(), 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * findPath
+     *
+     * Finds the cheapest path between two nodes. An empty list is returned if
+     * the goal cannot be reached from the source.
+     *
+     * @param source the source Node.
+     * @param goal   the Destination node.
+     * @return A path between the two nodes.
+     */
+    public ArrayList<NodeADT> findPath(NodeADT source, NodeADT goal) {
+        int[] indices = shortestPath(indexOf(source), indexOf(goal));
+        ArrayList<NodeADT> path = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            path.add(nodes.get(index));
+        }
+        return path;
+    }
+
+    /**
+     * shortestPath
+     *
+     * Finds the cheapest path between two node indices of the compact graph.
+     *
+     * @param source the index of the source node.
+     * @param goal   the index of the destination node.
+     * @return the node indices along the path, or an empty array if there is no path.
+     */
+    public int[] shortestPath(int source, int goal) {
+        SearchMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        SearchContext forward = contexts.acquire();
+        SearchContext backward = contexts.acquire();
+        try {
+            int[] path = shortestPath(source, goal, forward, backward);
+            if (metrics != null) {
+                metrics.record(forward.settledCount() + backward.settledCount(),
+                        forward.relaxedCount() + backward.relaxedCount(),
+                        forward.peakAgendaSize() + backward.peakAgendaSize(), path.length, System.nanoTime() - start);
+            }
+            return path;
+        } finally {
+            contexts.release(forward);
+            contexts.release(backward);
+        }
+    }
+
+    /**
+     * shortestPath
+     *
+     * Finds the cheapest path between two node indices using the given contexts,
+     * which are left holding the state of the two searches afterwards.
+     *
+     * The searches take turns, and stop once neither has an open station
+     * cheaper than the best meeting found so far, since no station left could
+     * be the top of a cheaper route.
+     *
+     * @param source   the index of the source node.
+     * @param goal     the index of the destination node.
+     * @param forward  a reset context for the upward search from the source.
+     * @param backward a reset context for the downward search from the goal.
+     * @return the node indices along the path, or an empty array if there is no path.
+     */
+    public int[] shortestPath(int source, int goal, SearchContext forward, SearchContext backward) {
+        forward.reach(source, 0, -1);
+        backward.reach(goal, 0, -1);
+        int best = Integer.MAX_VALUE;
+        int meeting = -1;
+        boolean forwardTurn = true;
+
+        while (true) {
+            boolean forwardOpen = !forward.agendaIsEmpty() && forward.agendaMinimum() < best;
+            boolean backwardOpen = !backward.agendaIsEmpty() && backward.agendaMinimum() < best;
+            if (!forwardOpen && !backwardOpen) {
+                break;
+            }
+            if (forwardOpen && (forwardTurn || !backwardOpen)) {
+                int selected = forward.settleNext();
+                if (backward.isReached(selected) && forward.cost(selected) + backward.cost(selected) < best) {
+                    best = forward.cost(selected) + backward.cost(selected);
+                    meeting = selected;
+                }
+                int selectedCost = forward.cost(selected);
+                if (stalledForward(selected, selectedCost, forward)) {
+                    forwardTurn = !forwardTurn;
+                    continue;
+                }
+                forward.countRelaxed(hierarchy.upEnd(selected) - hierarchy.upStart(selected));
+                for (int e = hierarchy.upStart(selected); e < hierarchy.upEnd(selected); e++) {
+                    int next = hierarchy.upTarget(e);
+                    int nextCost = selectedCost + hierarchy.upWeight(e);
+                    if (!forward.isSettled(next) && nextCost < forward.cost(next)) {
+                        forward.reach(next, nextCost, selected);
+                    }
+                }
+            } else {
+                int selected = backward.settleNext();
+                if (forward.isReached(selected) && forward.cost(selected) + backward.cost(selected) < best) {
+                    best = forward.cost(selected) + backward.cost(selected);
+                    meeting = selected;
+                }
+                int selectedCost = backward.cost(selected);
+                if (stalledBackward(selected, selectedCost, backward)) {
+                    forwardTurn = !forwardTurn;
+                    continue;
+                }
+                backward.countRelaxed(hierarchy.downEnd(selected) - hierarchy.downStart(selected));
+                for (int e = hierarchy.downStart(selected); e < hierarchy.downEnd(selected); e++) {
+                    int next = hierarchy.downSource(e);
+                    int nextCost = selectedCost + hierarchy.downWeight(e);
+                    if (!backward.isSettled(next) && nextCost < backward.cost(next)) {
+                        backward.reach(next, nextCost, selected);
+                    }
+                }
+            }
+            forwardTurn = !forwardTurn;
+        }
+
+        if (meeting == -1) {
+            return new int[0];
+        }
+        return unpack(forward.pathTo(meeting), backward.pathTo(meeting));
+    }
+
+    /**
+     * stalledForward
+     *
+     * Returns true if a higher ranked station the upward search has already
+     * reached leads down to this one more cheaply. The cost found for the
+     * station is then not its real cost, so there is no point searching on
+     * from it (stall-on-demand).
+     *
+     * @param node    the station just settled.
+     * @param cost    the cost the search settled it at.
+     * @param forward the context of the upward search.
+     * @return true if the station should not be searched on from.
+     */
+    private boolean stalledForward(int node, int cost, SearchContext forward) {
+        for (int e = hierarchy.downStart(node); e < hierarchy.downEnd(node); e++) {
+            int higher = hierarchy.downSource(e);
+            if (forward.isReached(higher) && forward.cost(higher) + hierarchy.downWeight(e) < cost) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the backward search has already reached a higher ranked
+     * station that this one leads to more cheaply, as stalledForward.
+     */
+    private boolean stalledBackward(int node, int cost, SearchContext backward) {
+        for (int e = hierarchy.upStart(node); e < hierarchy.upEnd(node); e++) {
+            int higher = hierarchy.upTarget(e);
+            if (backward.isReached(higher) && backward.cost(higher) + hierarchy.upWeight(e) < cost) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * unpack
+     *
+     * Joins the upward path from the source to the meeting station with the
+     * downward path from the goal back to it, expanding every shortcut on the way.
+     *
+     * @param up   the stations from the source to the meeting station.
+     * @param down the stations from the goal to the meeting station.
+     * @return every station from the source to the goal.
+     */
+    private int[] unpack(int[] up, int[] down) {
+        int length = 1;
+        for (int i = 0; i + 1 < up.length; i++) {
+            length += hierarchy.unpackedLength(up[i], up[i + 1]);
+        }
+        for (int i = down.length - 1; i > 0; i--) {
+            length += hierarchy.unpackedLength(down[i], down[i - 1]);
+        }
+        int[] path = new int[length];
+        path[0] = up[0];
+        int next = 1;
+        for (int i = 0; i + 1 < up.length; i++) {
+            next = hierarchy.unpack(up[i], up[i + 1], path, next);
+        }
+        for (int i = down.length - 1; i > 0; i--) {
+            next = hierarchy.unpack(down[i], down[i - 1], path, next);
+        }
+        return path;
+    }
+
+    /**
+     * Returns the hierarchy routes are answered from.
+     *
+     * @return the contraction hierarchy.
+     */
+    public ContractionHierarchy getHierarchy() { return hierarchy; }
+
+    /**
+     * Returns the pool this search borrows contexts from.
+     *
+     * @return the pool of search contexts.
+     */
+    public SearchContextPool getContexts() { return contexts; }
+
+    /**
+     * Sets where the queries of this search are recorded from now on.
+     *
+     * @param metrics the metrics to record into, or null to stop recording.
+     */
+    @Override
+    public void setMetrics(SearchMetrics metrics) { this.metrics = metrics; }
+
+    private int indexOf(NodeADT node) {
+        int index = graph.indexOf(node.getId());
+        if (index < 0) {
+            throw new IllegalArgumentException("Node " + node.getId() + " is not in the graph");
+        }
+        return index;
+    }
+}
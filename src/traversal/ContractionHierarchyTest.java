@@ -0,0 +1,63 @@
+package traversal;
+
+import graph.*;
+import org.junit.Test;
+import parser.MetroMapParser;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class ContractionHierarchyTest {
+
+    MetroMapParser mp = new MetroMapParser();
+    GraphADT graph = mp.parse(new File("testfile"));
+    CompactGraph compact = CompactGraph.from(graph);
+    RouteTable table = RouteTable.build(compact);
+    ContractionHierarchy hierarchy = ContractionHierarchy.build(compact);
+
+    /**
+     * Unpacked routes should run between the two stations over real edges, and
+     * cost the same as the cheapest route.
+     * */
+    @Test
+    public void testFindsCheapestRoutes(){
+        ContractionHierarchySearch search = new ContractionHierarchySearch(compact, graph.getNodes(), hierarchy);
+        PathCosts.assertCheapestRoutes(compact, table, search::shortestPath);
+    }
+
+    /**
+     * Every station should have its own rank.
+     * */
+    @Test
+    public void testRanksAreAnOrder(){
+        boolean[] seen = new boolean[compact.nodeCount()];
+        for(int v = 0; v < compact.nodeCount(); v++){
+            assertFalse(seen[hierarchy.rank(v)]);
+            seen[hierarchy.rank(v)] = true;
+        }
+    }
+
+    /**
+     * A saved hierarchy should answer the same routes once loaded.
+     * */
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        File f = File.createTempFile("hierarchy", ".ch");
+        f.deleteOnExit();
+        hierarchy.save(f);
+        ContractionHierarchy loaded = ContractionHierarchy.load(f);
+
+        assertEquals(hierarchy.getFingerprint(), loaded.getFingerprint());
+        assertEquals(hierarchy.shortcutCount(), loaded.shortcutCount());
+        Search search = new ContractionHierarchySearch(compact, graph.getNodes(), loaded);
+        NodeADT first = graph.getNodes().get(0);
+        NodeADT last = graph.getNodes().get(graph.getNodes().size() - 1);
+        ArrayList<NodeADT> path = search.findPath(first, last);
+        ArrayList<NodeADT> expected = new DijkstraSearch(graph).findPath(first, last);
+        assertEquals(expected.size(), path.size());
+        assertSame(expected.get(0), path.get(0));
+        assertSame(expected.get(expected.size() - 1), path.get(path.size() - 1));
+    }
+}
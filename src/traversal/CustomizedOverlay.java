@@ -0,0 +1,268 @@
+package traversal;
+
+import graph.CompactGraph;
+import graph.WeightProfile;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * CustomizedOverlay
+ *
+ * The part of customizable route planning that depends on the weights: for
+ * every cell of an OverlayPartition, the cost of the cheapest route inside the
+ * cell from each of its boundary stations to each other one, kept as a matrix
+ * per cell. Together with the links between cells these matrices form an
+ * overlay graph on each level, which OverlaySearch searches instead of every
+ * station in between.
+ *
+ * Customizing works from the bottom level up. A cell of level 0 is customized
+ * by a Dijkstra search from each boundary station over the links inside the
+ * cell. A cell of a higher level is customized the same way, but over the
+ * matrices of its subcells and the links between them, so it never looks at a
+ * station inside a subcell. Cells of one level do not depend on each other and
+ * are customized in parallel.
+ *
+ * When the line weights change, only the matrices are made again, from the
+ * same partition; see customize(WeightProfile).
+ */
+public class CustomizedOverlay {
+    private static final int CELLS_PER_TASK = 8;
+
+    private final OverlayPartition partition;
+    private final CompactGraph graph;
+    private final int[][] cliqueStarts;
+    private final int[][] cliques;
+    private long customizeMillis;
+
+    private CustomizedOverlay(OverlayPartition partition, CompactGraph graph) {
+        this.partition = partition;
+        this.graph = graph;
+        int levels = partition.levelCount();
+        this.cliqueStarts = new int[levels][];
+        this.cliques = new int[levels][];
+        for (int l = 0; l < levels; l++) {
+            int cellCount = partition.cellCount(l);
+            int[] starts = new int[cellCount + 1];
+            for (int c = 0; c < cellCount; c++) {
+                int k = partition.boundaryEnd(l, c) - partition.boundaryStart(l, c);
+                starts[c + 1] = starts[c] + k * k;
+            }
+            cliqueStarts[l] = starts;
+            cliques[l] = new int[starts[cellCount]];
+        }
+    }
+
+    /**
+     * customize
+     *
+     * Finds the cell matrices of the partition for the weights of the graph,
+     * on the common fork-join pool.
+     *
+     * @param partition the partition of the graph's stations.
+     * @param graph     the graph, with the weights to customize for.
+     * @return the customized overlay.
+     */
+    public static CustomizedOverlay customize(OverlayPartition partition, CompactGraph graph) {
+        return customize(partition, graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * customize
+     *
+     * Finds the cell matrices of the partition for the weights of the graph.
+     *
+     * @param partition the partition of the graph's stations.
+     * @param graph     the graph, with the weights to customize for.
+     * @param pool      the pool the cells of each level are customized on.
+     * @return the customized overlay.
+     */
+    public static CustomizedOverlay customize(OverlayPartition partition, CompactGraph graph, ForkJoinPool pool) {
+        if (!partition.fits(graph)) {
+            throw new IllegalArgumentException("The partition was built for a different graph");
+        }
+        long start = System.nanoTime();
+        CustomizedOverlay overlay = new CustomizedOverlay(partition, graph);
+        SearchContextPool contexts = new SearchContextPool(graph.nodeCount());
+        for (int l = 0; l < partition.levelCount(); l++) {
+            pool.invoke(overlay.new CellTask(l, 0, partition.cellCount(l), contexts));
+        }
+        overlay.customizeMillis = (System.nanoTime() - start) / 1_000_000;
+        return overlay;
+    }
+
+    /**
+     * customize
+     *
+     * Customizes the same partition again for the graph with every edge given
+     * the weight of its line from the profile.
+     *
+     * @param profile the profile giving the weight of each line.
+     * @return the newly customized overlay.
+     */
+    public CustomizedOverlay customize(WeightProfile profile) {
+        return customize(partition, graph.withWeights(profile));
+    }
+
+    /**
+     * Returns the partition the overlay was customized over.
+     *
+     * @return the partition.
+     */
+    public OverlayPartition getPartition() { return partition; }
+
+    /**
+     * Returns the graph whose weights the overlay was customized for.
+     *
+     * @return the weighted graph.
+     */
+    public CompactGraph getGraph() { return graph; }
+
+    /**
+     * Returns how long customizing took.
+     *
+     * @return the customization time in milliseconds.
+     */
+    public long getCustomizeMillis() { return customizeMillis; }
+
+    /**
+     * Returns the number of entries in the matrices of every cell.
+     *
+     * @return the size of the overlay.
+     */
+    public long entryCount() {
+        long entries = 0;
+        for (int[] clique : cliques) {
+            entries += clique.length;
+        }
+        return entries;
+    }
+
+    // The matrices, for OverlaySearch. Row i of a cell's matrix holds the costs from its i-th boundary station.
+    int cliqueStart(int level, int cell) { return cliqueStarts[level][cell]; }
+
+    int[] clique(int level) { return cliques[level]; }
+
+    /**
+     * customizeCell
+     *
+     * Fills in the matrix of one cell with a search from each of its boundary
+     * stations, over the links inside the cell on level 0, and over the
+     * matrices of its subcells and the links between them above that.
+     *
+     * @param level   the level of the cell.
+     * @param cell    the cell.
+     * @param context a context for the graph.
+     */
+    private void customizeCell(int level, int cell, SearchContext context) {
+        int[] cells = partition.cells(level);
+        int[] lowerCells = level > 0 ? partition.cells(level - 1) : null;
+        int start = partition.boundaryStart(level, cell);
+        int k = partition.boundaryEnd(level, cell) - start;
+        int[] matrix = cliques[level];
+        int base = cliqueStarts[level][cell];
+        for (int i = 0; i < k; i++) {
+            context.reset();
+            context.reach(partition.boundaryNode(level, start + i), 0, -1);
+            int remaining = k;
+            while (remaining > 0 && !context.agendaIsEmpty()) {
+                int v = context.settleNext();
+                if (partition.boundaryIndex(level, v) >= 0) {
+                    remaining--;
+                }
+                int cost = context.cost(v);
+                if (level > 0) {
+                    relaxClique(level - 1, v, cost, context, null);
+                }
+                for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                    int w = graph.target(e);
+                    // Above level 0, links inside a subcell are already in its matrix.
+                    if (cells[w] != cell || lowerCells != null && lowerCells[w] == lowerCells[v]) {
+                        continue;
+                    }
+                    int nextCost = cost + graph.weight(e);
+                    if (!context.isSettled(w) && nextCost < context.cost(w)) {
+                        context.reach(w, nextCost, v);
+                    }
+                }
+            }
+            for (int j = 0; j < k; j++) {
+                matrix[base + i * k + j] = context.cost(partition.boundaryNode(level, start + j));
+            }
+        }
+    }
+
+    /**
+     * relaxClique
+     *
+     * Offers every boundary station of a node's cell on a level a path through
+     * the cell's matrix.
+     *
+     * @param level   the level of the matrix.
+     * @param v       a boundary station of the level.
+     * @param cost    the cost of the path to it.
+     * @param context the context of the search.
+     * @param via     where to record the level of the matrix each reached station was reached through, or null.
+     */
+    void relaxClique(int level, int v, int cost, SearchContext context, int[] via) {
+        int cell = partition.cellOf(level, v);
+        int start = partition.boundaryStart(level, cell);
+        int k = partition.boundaryEnd(level, cell) - start;
+        int row = cliqueStarts[level][cell] + partition.boundaryIndex(level, v) * k;
+        int[] matrix = cliques[level];
+        context.countRelaxed(k);
+        for (int j = 0; j < k; j++) {
+            int through = matrix[row + j];
+            if (through == Integer.MAX_VALUE) {
+                continue;
+            }
+            int w = partition.boundaryNode(level, start + j);
+            int nextCost = cost + through;
+            if (!context.isSettled(w) && nextCost < context.cost(w)) {
+                context.reach(w, nextCost, v);
+                if (via != null) {
+                    via[w] = level;
+                }
+            }
+        }
+    }
+
+    /**
+     * CellTask
+     *
+     * Customizes a range of the cells of one level, splitting the range in half
+     * until it is small enough to customize directly.
+     */
+    private class CellTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int level;
+        private final int from;
+        private final int to;
+        private final SearchContextPool contexts;
+
+        CellTask(int level, int from, int to, SearchContextPool contexts) {
+            this.level = level;
+            this.from = from;
+            this.to = to;
+            this.contexts = contexts;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CELLS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CellTask(level, from, middle, contexts), new CellTask(level, middle, to, contexts));
+                return;
+            }
+            SearchContext context = contexts.acquire();
+            try {
+                for (int cell = from; cell < to; cell++) {
+                    customizeCell(level, cell, context);
+                }
+            } finally {
+                contexts.release(context);
+            }
+        }
+    }
+}
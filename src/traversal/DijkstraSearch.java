@@ -0,0 +1,194 @@
+package traversal;
+
+import graph.CompactGraph;
+import graph.GraphADT;
+import graph.NodeADT;
+import metrics.SearchMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * This class implements Dijkstra's algorithm to find the cheapest path between
+ * two nodes in a graph.
+ *
+ * The search runs directly on a CompactGraph, so the agenda can be kept in an
+ * indexed heap, visited checks are array lookups and relaxing an edge reads
+ * only int arrays. The cost of a node is the total weight of the path to it,
+ * not the weight of the last edge.
+ *
+ * The graph is never written to. Each query borrows its own SearchContext from
+ * a pool, so one DijkstraSearch can be shared by any number of threads.
+ */
+
+public class DijkstraSearch implements Search, Instrumented {
+    private CompactGraph graph;
+    private List<NodeADT> nodes;
+    private SearchContextPool contexts;
+    private volatile SearchMetrics metrics;
+
+    public DijkstraSearch(GraphADT graph) {
+        this(CompactGraph.from(graph), graph.getNodes());
+    }
+
+    /**
+     * @param graph the compact graph to be searched.
+     * @param nodes the nodes the compact graph was built from, where the i-th node has index i.
+     */
+    public DijkstraSearch(CompactGraph graph, List<NodeADT> nodes) {
+        this.graph = graph;
+        this.nodes = nodes;
+        this.contexts = new SearchContextPool(graph.nodeCount());
+    }
+
+    /**
+     * findPath
+     *
+     * Finds the cheapest path between two nodes. An empty list is returned if
+     * the goal cannot be reached from the source.
+     *
+     * @param source the source Node.
+     * @param goal   the Destination node.
+     * @return A path between the two nodes.
+     */
+    public ArrayList<NodeADT> findPath(NodeADT source, NodeADT goal) {
+        int[] indices = shortestPath(indexOf(source), indexOf(goal));
+        ArrayList<NodeADT> path = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            path.add(nodes.get(index));
+        }
+        return path;
+    }
+
+    /**
+     * findRoute
+     *
+     * Finds the cheapest path between two nodes and splits it into legs from
+     * the lines of the compact graph's edges.
+     *
+     * @param source the source Node.
+     * @param goal   the Destination node.
+     * @return the route, empty if the goal cannot be reached.
+     */
+    @Override
+    public Route findRoute(NodeADT source, NodeADT goal) {
+        return Route.fromPath(graph, nodes, shortestPath(indexOf(source), indexOf(goal)));
+    }
+
+    /**
+     * shortestPath
+     *
+     * Finds the cheapest path between two node indices of the compact graph.
+     *
+     * @param source the index of the source node.
+     * @param goal   the index of the destination node.
+     * @return the node indices along the path, or an empty array if there is no path.
+     */
+    public int[] shortestPath(int source, int goal) {
+        SearchMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        SearchContext context = contexts.acquire();
+        try {
+            int[] path = shortestPath(source, goal, context);
+            if (metrics != null) {
+                metrics.record(context.settledCount(), context.relaxedCount(), context.peakAgendaSize(),
+                        path.length, System.nanoTime() - start);
+            }
+            return path;
+        } finally {
+            contexts.release(context);
+        }
+    }
+
+    /**
+     * shortestPath
+     *
+     * Finds the cheapest path between two node indices using the given context,
+     * which is left holding the state of the search afterwards.
+     *
+     * @param source  the index of the source node.
+     * @param goal    the index of the destination node.
+     * @param context a reset context for the graph.
+     * @return the node indices along the path, or an empty array if there is no path.
+     */
+    public int[] shortestPath(int source, int goal, SearchContext context) {
+        context.reach(source, 0, -1);
+
+        while (!context.agendaIsEmpty()) {
+            int selected = context.settleNext();
+            if (selected == goal) {
+                return context.pathTo(goal);
+            }
+            relax(selected, context);
+        }
+        return new int[0];
+    }
+
+    /**
+     * shortestPathTree
+     *
+     * Settles every node that can be reached from the source, leaving the cost
+     * of and path to each of them in the context.
+     *
+     * @param source  the index of the source node.
+     * @param context a reset context for the graph.
+     */
+    public void shortestPathTree(int source, SearchContext context) {
+        context.reach(source, 0, -1);
+
+        while (!context.agendaIsEmpty()) {
+            relax(context.settleNext(), context);
+        }
+    }
+
+    /**
+     * Returns the graph this search runs on.
+     *
+     * @return the compact graph being searched.
+     */
+    public CompactGraph getGraph() { return graph; }
+
+    /**
+     * Returns the pool this search borrows contexts from.
+     *
+     * @return the pool of search contexts.
+     */
+    public SearchContextPool getContexts() { return contexts; }
+
+    /**
+     * relax
+     *
+     * Offers each unsettled neighbour of a settled node a path through it.
+     *
+     * @param selected the node that has just been settled.
+     * @param context  the context of the query.
+     */
+    void relax(int selected, SearchContext context) {
+        int selectedCost = context.cost(selected);
+        context.countRelaxed(graph.edgeEnd(selected) - graph.edgeStart(selected));
+        for (int e = graph.edgeStart(selected); e < graph.edgeEnd(selected); e++) {
+            int next = graph.target(e);
+            int nextCost = selectedCost + graph.weight(e);
+            if (!context.isSettled(next) && nextCost < context.cost(next)) {
+                context.reach(next, nextCost, selected);
+            }
+        }
+    }
+
+    /**
+     * Sets where the queries of this search are recorded from now on.
+     *
+     * @param metrics the metrics to record into, or null to stop recording.
+     */
+    @Override
+    public void setMetrics(SearchMetrics metrics) { this.metrics = metrics; }
+
+    private int indexOf(NodeADT node) {
+        int index = graph.indexOf(node.getId());
+        if (index < 0) {
+            throw new IllegalArgumentException("Node " + node.getId() + " is not in the graph");
+        }
+        return index;
+    }
+}
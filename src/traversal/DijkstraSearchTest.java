@@ -0,0 +1,100 @@
+package traversal;
+
+import graph.*;
+import org.junit.Test;
+import parser.MetroMapParser;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class DijkstraSearchTest {
+
+    MetroMapParser mp = new MetroMapParser();
+    GraphADT graph = mp.parse(new File("testfile"));
+    DijkstraSearch search = new DijkstraSearch(graph);
+    ArrayList<NodeADT> path = new ArrayList<>();
+
+    private NodeADT getValidNode(String nodeName) {
+        List<NodeADT> stations = graph.getNodes();
+
+        for (NodeADT station : stations) {
+            if (station.getName().toUpperCase().equals(nodeName.toUpperCase())) {
+                return station;
+            }
+        }
+        return stations.get(stations.size() - 1);
+    }
+
+    /**
+     * Node1 to Node6 should change onto the Blue line at Node2 rather than
+     * staying on the Orange line to Node5.
+     * */
+    @Test
+    public void testNode1toNode6(){
+        path.add(getValidNode("Node1"));
+        path.add(getValidNode("Node2"));
+        path.add(getValidNode("Node5"));
+        path.add(getValidNode("Node6"));
+
+        assertEquals(path, search.findPath(getValidNode("Node1"), getValidNode("Node6")));
+    }
+
+    /**
+     * Node3 to Node5 is cheaper along the Orange line (10 + 10) than through
+     * Node2 (10 + 12).
+     * */
+    @Test
+    public void testNode3toNode5(){
+        path.add(getValidNode("Node3"));
+        path.add(getValidNode("Node4"));
+        path.add(getValidNode("Node5"));
+
+        assertEquals(path, search.findPath(getValidNode("Node3"), getValidNode("Node5")));
+    }
+
+    /**
+     * Searching from a node to itself should give a path of just that node.
+     * */
+    @Test
+    public void testSameNode(){
+        path.add(getValidNode("Node4"));
+
+        assertEquals(path, search.findPath(getValidNode("Node4"), getValidNode("Node4")));
+    }
+
+    /**
+     * Repeated queries on the same search should not affect each other.
+     * */
+    @Test
+    public void testRepeatedQueries(){
+        ArrayList<NodeADT> first = search.findPath(getValidNode("Node6"), getValidNode("Node1"));
+        search.findPath(getValidNode("Node3"), getValidNode("Node4"));
+
+        assertEquals(first, search.findPath(getValidNode("Node6"), getValidNode("Node1")));
+        assertEquals(4, first.size());
+    }
+
+    /**
+     * Queries run from several threads on one search should all get the same path
+     * as a query run on its own.
+     * */
+    @Test
+    public void testConcurrentQueries() throws Exception {
+        ArrayList<NodeADT> expected = search.findPath(getValidNode("Node1"), getValidNode("Node6"));
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<ArrayList<NodeADT>>> results = new ArrayList<>();
+
+        for(int i = 0; i < 200; i++){
+            results.add(pool.submit(() -> search.findPath(getValidNode("Node1"), getValidNode("Node6"))));
+        }
+        for(Future<ArrayList<NodeADT>> result : results){
+            assertEquals(expected, result.get());
+        }
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,190 @@
+package traversal;
+
+import java.util.Arrays;
+
+/**
+ * IndexedMinHeap
+ *
+ * A binary min-heap over the dense integer indices of a graph's nodes.
+ * Each node can appear at most once, and its position in the heap is tracked
+ * so that its key can be lowered in place (decrease-key) rather than the node
+ * being added a second time.
+ */
+class IndexedMinHeap {
+    private final int[] heap;
+    private final int[] keys;
+    private final int[] positions;
+    private int size;
+
+    /**
+     * @param capacity the number of distinct indices the heap can hold.
+     */
+    IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.keys = new int[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Returns true if there are no more indices in the heap.
+     *
+     * @return true if the heap is empty.
+     */
+    boolean isEmpty() { return size == 0; }
+
+    /**
+     * Returns the number of indices currently in the heap.
+     *
+     * @return the number of indices currently in the heap.
+     */
+    int size() { return size; }
+
+    /**
+     * Returns true if the given index is currently in the heap.
+     *
+     * @param index the node index.
+     * @return true if the index is in the heap.
+     */
+    boolean contains(int index) { return positions[index] >= 0; }
+
+    /**
+     * Returns the smallest key in the heap without removing it.
+     *
+     * @return the key of the index at the top of the heap.
+     */
+    int peekKey() { return keys[heap[0]]; }
+
+    /**
+     * push
+     *
+     * Adds the index with the given key, or lowers its key if it is already
+     * in the heap with a larger one. A larger key for an index already in the
+     * heap is ignored.
+     *
+     * @param index the node index.
+     * @param key   the cost associated with the index.
+     */
+    void push(int index, int key) {
+        int pos = positions[index];
+        if (pos < 0) {
+            keys[index] = key;
+            heap[size] = index;
+            positions[index] = size;
+            siftUp(size++);
+        } else if (key < keys[index]) {
+            keys[index] = key;
+            siftUp(pos);
+        }
+    }
+
+    /**
+     * pop
+     *
+     * Removes and returns the index with the smallest key.
+     *
+     * @return the index with the smallest key.
+     */
+    int pop() {
+        int top = heap[0];
+        positions[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * update
+     *
+     * Adds the index with the given key, or moves it to the given key if it is
+     * already in the heap, whether the key is smaller or larger.
+     *
+     * @param index the node index.
+     * @param key   the cost associated with the index.
+     */
+    void update(int index, int key) {
+        int pos = positions[index];
+        if (pos < 0 || key < keys[index]) {
+            push(index, key);
+        } else if (key > keys[index]) {
+            keys[index] = key;
+            siftDown(pos);
+        }
+    }
+
+    /**
+     * remove
+     *
+     * Removes an index from the heap if it is in it.
+     *
+     * @param index the node index.
+     */
+    void remove(int index) {
+        int pos = positions[index];
+        if (pos < 0) {
+            return;
+        }
+        positions[index] = -1;
+        size--;
+        if (pos < size) {
+            int last = heap[size];
+            heap[pos] = last;
+            positions[last] = pos;
+            siftDown(pos);
+            siftUp(positions[last]);
+        }
+    }
+
+    /**
+     * Empties the heap so that it can be reused for another query. Only the
+     * entries still in the heap are touched.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int pos) {
+        int index = heap[pos];
+        int key = keys[index];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            int parentIndex = heap[parent];
+            if (keys[parentIndex] <= key) {
+                break;
+            }
+            heap[pos] = parentIndex;
+            positions[parentIndex] = pos;
+            pos = parent;
+        }
+        heap[pos] = index;
+        positions[index] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int index = heap[pos];
+        int key = keys[index];
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            if (key <= keys[heap[child]]) {
+                break;
+            }
+            heap[pos] = heap[child];
+            positions[heap[pos]] = pos;
+            pos = child;
+        }
+        heap[pos] = index;
+        positions[index] = pos;
+    }
+}
@@ -0,0 +1,18 @@
+package traversal;
+
+import metrics.SearchMetrics;
+
+/**
+ * A search that can record the work done by each of its queries: the nodes
+ * settled, the edges relaxed, the peak size of the frontier, the length of the
+ * path and the time taken.
+ */
+public interface Instrumented {
+
+    /**
+     * Sets where the queries of this search are recorded from now on.
+     *
+     * @param metrics the metrics to record into, or null to stop recording.
+     */
+    void setMetrics(SearchMetrics metrics);
+}
@@ -0,0 +1,77 @@
+package traversal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * IntChannels
+ *
+ * Reads and writes int arrays through a file channel in 64 KB chunks, for the
+ * precomputed structures that are saved to disk.
+ */
+final class IntChannels {
+
+    private IntChannels() {
+    }
+
+    /**
+     * Writes every value of the array to the channel.
+     *
+     * @param channel the channel to write to.
+     * @param values  the values to be written.
+     * @throws IOException if the channel cannot be written.
+     */
+    static void writeInts(FileChannel channel, int[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+        IntBuffer ints = buffer.asIntBuffer();
+        for (int i = 0; i < values.length; i += ints.capacity()) {
+            int count = Math.min(ints.capacity(), values.length - i);
+            ints.clear();
+            ints.put(values, i, count);
+            buffer.clear().limit(count * 4);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads the given number of values from the channel.
+     *
+     * @param channel the channel to read from.
+     * @param count   the number of values to read.
+     * @return the values read.
+     * @throws IOException if the channel ends first.
+     */
+    static int[] readInts(FileChannel channel, int count) throws IOException {
+        int[] values = new int[count];
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+        IntBuffer ints = buffer.asIntBuffer();
+        for (int i = 0; i < count; i += ints.capacity()) {
+            int chunk = Math.min(ints.capacity(), count - i);
+            buffer.clear().limit(chunk * 4);
+            readFully(channel, buffer);
+            ints.clear();
+            ints.get(values, i, chunk);
+        }
+        return values;
+    }
+
+    /**
+     * Fills the buffer from the channel and flips it ready to be read.
+     *
+     * @param channel the channel to read from.
+     * @param buffer  the buffer to fill.
+     * @throws IOException if the channel ends first.
+     */
+    static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        buffer.flip();
+    }
+}
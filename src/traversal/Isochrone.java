@@ -0,0 +1,78 @@
+package traversal;
+
+import java.util.BitSet;
+
+/**
+ * Isochrone
+ *
+ * Every station that can be reached from one source within a budget: a bitset
+ * over the node indices of the graph, and the cost of reaching each of them.
+ */
+public class Isochrone {
+    private final int source;
+    private final int budget;
+    private final BitSet reachable;
+    private final int[] costs;
+
+    Isochrone(int source, int budget, BitSet reachable, int[] costs) {
+        this.source = source;
+        this.budget = budget;
+        this.reachable = reachable;
+        this.costs = costs;
+    }
+
+    /**
+     * Returns the index of the source node.
+     *
+     * @return the index of the source node.
+     */
+    public int getSource() { return source; }
+
+    /**
+     * Returns the most a route could cost to be counted.
+     *
+     * @return the budget.
+     */
+    public int getBudget() { return budget; }
+
+    /**
+     * Returns the node indices that can be reached within the budget. The
+     * bitset is shared, not copied.
+     *
+     * @return the reachable node indices.
+     */
+    public BitSet getReachable() { return reachable; }
+
+    /**
+     * Returns the cost of the cheapest route to every node index, where nodes
+     * that cannot be reached within the budget have RouteTable.UNREACHABLE.
+     * The array is shared, not copied.
+     *
+     * @return the cost of each node.
+     */
+    public int[] getCosts() { return costs; }
+
+    /**
+     * Returns true if the node can be reached within the budget.
+     *
+     * @param node the node index.
+     * @return true if the node is reachable.
+     */
+    public boolean isReachable(int node) { return reachable.get(node); }
+
+    /**
+     * Returns the cost of the cheapest route to a node, or RouteTable.UNREACHABLE
+     * if it cannot be reached within the budget.
+     *
+     * @param node the node index.
+     * @return the cost of the node.
+     */
+    public int cost(int node) { return costs[node]; }
+
+    /**
+     * Returns the number of nodes that can be reached within the budget, the source included.
+     *
+     * @return the number of reachable nodes.
+     */
+    public int size() { return reachable.cardinality(); }
+}
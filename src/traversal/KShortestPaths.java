@@ -0,0 +1,381 @@
+package traversal;
+
+import graph.CompactGraph;
+import graph.GraphADT;
+import graph.NodeADT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+
+
+/**
+ * This class finds the k cheapest loopless paths between two stations with
+ * Yen's algorithm, for offering alternative routes.
+ *
+ * Each path after the first is found by leaving an earlier path at one of its
+ * stations, the spur, and searching from there to the goal without using the
+ * stations before the spur or any edge out of the spur that an earlier path
+ * with the same beginning already took. Three things keep this cheap:
+ *
+ *   - A path is only left at or after the station where it left its own parent
+ *     (Lawler's refinement), since every spur before that was already tried
+ *     from the parent.
+ *   - The beginning shared with each earlier path is measured once per path,
+ *     not once per spur.
+ *   - Before the first spur, one backward search from the goal finds the cost
+ *     from every station to the goal. This gives the first path outright, and
+ *     serves every spur search as an exact estimate for A*, which only strays
+ *     from the cheapest remaining route where a ban forces it to.
+ *
+ * An alternative may be limited in how many stations it shares with the routes
+ * already chosen; the source and goal are not counted. Paths that share too
+ * many are still spurred from, but at most MAX_EXAMINED_PER_PATH paths are
+ * examined for each one asked for, so the time taken stays bounded when few
+ * alternatives meet the limit.
+ *
+ * Like DijkstraSearch, the graph is only read and each query borrows its own
+ * state, so one KShortestPaths can be shared by several threads.
+ */
+
+public class KShortestPaths implements Search {
+    /** The most paths examined for each one asked for, when alternatives are limited in what they share. */
+    public static final int MAX_EXAMINED_PER_PATH = 8;
+
+    private final CompactGraph graph;
+    private final List<NodeADT> nodes;
+    private final DijkstraSearch backwardSearch;
+    private final ArrayBlockingQueue<YenState> states;
+
+    public KShortestPaths(GraphADT graph) {
+        this(CompactGraph.from(graph), graph.getNodes());
+    }
+
+    /**
+     * @param graph the compact graph to be searched.
+     * @param nodes the nodes the compact graph was built from, where the i-th node has index i.
+     */
+    public KShortestPaths(CompactGraph graph, List<NodeADT> nodes) {
+        this.graph = graph;
+        this.nodes = nodes;
+        this.backwardSearch = new DijkstraSearch(graph.reverse(), null);
+        this.states = new ArrayBlockingQueue<>(Math.max(1, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * findPath
+     *
+     * Finds the cheapest path between two nodes. An empty list is returned if
+     * the goal cannot be reached from the source.
+     *
+     * @param source the source Node.
+     * @param goal   the Destination node.
+     * @return A path between the two nodes.
+     */
+    public ArrayList<NodeADT> findPath(NodeADT source, NodeADT goal) {
+        List<ArrayList<NodeADT>> paths = findPaths(source, goal, 1);
+        return paths.isEmpty() ? new ArrayList<>() : paths.get(0);
+    }
+
+    /**
+     * findPaths
+     *
+     * Finds up to k of the cheapest loopless paths between two nodes, cheapest first.
+     *
+     * @param source the source Node.
+     * @param goal   the Destination node.
+     * @param k      the number of paths wanted.
+     * @return the paths found, fewer than k if there are no more.
+     */
+    public List<ArrayList<NodeADT>> findPaths(NodeADT source, NodeADT goal, int k) {
+        return findPaths(source, goal, k, Integer.MAX_VALUE);
+    }
+
+    /**
+     * findPaths
+     *
+     * Finds up to k of the cheapest loopless paths between two nodes, cheapest
+     * first, where each path after the first shares at most maxShared stations
+     * besides the source and goal with each path before it.
+     *
+     * @param source    the source Node.
+     * @param goal      the Destination node.
+     * @param k         the number of paths wanted.
+     * @param maxShared the most stations an alternative may share with an earlier path.
+     * @return the paths found, fewer than k if there are no more.
+     */
+    public List<ArrayList<NodeADT>> findPaths(NodeADT source, NodeADT goal, int k, int maxShared) {
+        List<ArrayList<NodeADT>> paths = new ArrayList<>();
+        for (int[] indices : shortestPaths(indexOf(source), indexOf(goal), k, maxShared)) {
+            ArrayList<NodeADT> path = new ArrayList<>(indices.length);
+            for (int index : indices) {
+                path.add(nodes.get(index));
+            }
+            paths.add(path);
+        }
+        return paths;
+    }
+
+    /**
+     * shortestPaths
+     *
+     * Finds up to k of the cheapest loopless paths between two node indices of
+     * the compact graph, cheapest first.
+     *
+     * @param source    the index of the source node.
+     * @param goal      the index of the destination node.
+     * @param k         the number of paths wanted.
+     * @param maxShared the most stations an alternative may share with an earlier path.
+     * @return the node indices along each path found.
+     */
+    public List<int[]> shortestPaths(int source, int goal, int k, int maxShared) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1, not " + k);
+        }
+        if (maxShared < 0) {
+            throw new IllegalArgumentException("maxShared must not be negative, not " + maxShared);
+        }
+        YenState state = acquire();
+        try {
+            return yen(source, goal, k, maxShared, state);
+        } finally {
+            states.offer(state);
+        }
+    }
+
+    /**
+     * Returns the graph this search runs on.
+     *
+     * @return the compact graph being searched.
+     */
+    public CompactGraph getGraph() { return graph; }
+
+    private List<int[]> yen(int source, int goal, int k, int maxShared, YenState state) {
+        SearchContext toGoal = state.toGoal;
+        toGoal.reset();
+        backwardSearch.shortestPathTree(goal, toGoal);
+        List<int[]> chosen = new ArrayList<>();
+        if (!toGoal.isReached(source)) {
+            return chosen;
+        }
+
+        // In the backward tree each node's previous node is the next one on its cheapest path to the goal.
+        int length = 0;
+        for (int i = source; i != -1; i = toGoal.previous(i)) {
+            length++;
+        }
+        int[] first = new int[length];
+        int[] firstCosts = new int[length];
+        int step = 0;
+        for (int i = source; i != -1; i = toGoal.previous(i)) {
+            first[step] = i;
+            firstCosts[step++] = toGoal.cost(source) - toGoal.cost(i);
+        }
+
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>();
+        Set<Candidate> seen = new HashSet<>();
+        List<Candidate> examined = new ArrayList<>();
+        Candidate firstPath = new Candidate(first, firstCosts, 0);
+        candidates.add(firstPath);
+        seen.add(firstPath);
+        int examineLimit = maxShared == Integer.MAX_VALUE ? k : k * MAX_EXAMINED_PER_PATH;
+
+        while (!candidates.isEmpty() && chosen.size() < k && examined.size() < examineLimit) {
+            Candidate path = candidates.poll();
+            examined.add(path);
+            if (sharesAtMost(path.path, chosen, maxShared, state)) {
+                chosen.add(path.path);
+                if (chosen.size() == k) {
+                    break;
+                }
+            }
+
+            // How far each examined path begins the same way as this one, measured once for every spur.
+            int[] sharedPrefix = new int[examined.size()];
+            for (int p = 0; p < examined.size(); p++) {
+                int[] other = examined.get(p).path;
+                int common = 0;
+                while (common < other.length && common < path.path.length && other[common] == path.path[common]) {
+                    common++;
+                }
+                sharedPrefix[p] = common;
+            }
+
+            for (int spur = path.deviation; spur < path.path.length - 1; spur++) {
+                int stamp = state.nextStamp();
+                for (int i = 0; i < spur; i++) {
+                    state.banned[path.path[i]] = stamp;
+                }
+                for (int p = 0; p < examined.size(); p++) {
+                    if (sharedPrefix[p] > spur) {
+                        state.bannedNext[examined.get(p).path[spur + 1]] = stamp;
+                    }
+                }
+                Candidate next = spurSearch(path, spur, goal, stamp, state);
+                if (next != null && seen.add(next)) {
+                    candidates.add(next);
+                }
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * spurSearch
+     *
+     * Searches from a station of a path to the goal with A*, avoiding the
+     * banned stations and the banned edges out of the spur, and joins the path
+     * found to the beginning of the path.
+     *
+     * @param path  the path being left.
+     * @param spur  the position on the path of the station it is left at.
+     * @param goal  the index of the destination node.
+     * @param stamp the stamp of this spur's bans.
+     * @param state the state of the query.
+     * @return the new path, or null if the goal cannot be reached.
+     */
+    private Candidate spurSearch(Candidate path, int spur, int goal, int stamp, YenState state) {
+        SearchContext context = state.search;
+        SearchContext toGoal = state.toGoal;
+        context.reset();
+        int spurNode = path.path[spur];
+        int rootCost = path.costs[spur];
+        context.reach(spurNode, rootCost, -1, rootCost + toGoal.cost(spurNode));
+
+        while (!context.agendaIsEmpty()) {
+            int selected = context.settleNext();
+            if (selected == goal) {
+                int[] tail = context.pathTo(goal);
+                int[] joined = Arrays.copyOf(path.path, spur + tail.length);
+                int[] costs = Arrays.copyOf(path.costs, spur + tail.length);
+                for (int i = 0; i < tail.length; i++) {
+                    joined[spur + i] = tail[i];
+                    costs[spur + i] = context.cost(tail[i]);
+                }
+                return new Candidate(joined, costs, spur);
+            }
+            int selectedCost = context.cost(selected);
+            for (int e = graph.edgeStart(selected); e < graph.edgeEnd(selected); e++) {
+                int next = graph.target(e);
+                if (state.banned[next] == stamp || selected == spurNode && state.bannedNext[next] == stamp
+                        || context.isSettled(next) || !toGoal.isReached(next)) {
+                    continue;
+                }
+                int nextCost = selectedCost + graph.weight(e);
+                if (nextCost < context.cost(next)) {
+                    context.reach(next, nextCost, selected, nextCost + toGoal.cost(next));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if the path shares at most maxShared stations, besides its
+     * first and last, with each of the chosen paths.
+     */
+    private static boolean sharesAtMost(int[] path, List<int[]> chosen, int maxShared, YenState state) {
+        if (maxShared >= path.length) {
+            return true;
+        }
+        for (int[] other : chosen) {
+            int stamp = state.nextStamp();
+            for (int node : other) {
+                state.banned[node] = stamp;
+            }
+            int shared = 0;
+            for (int i = 1; i < path.length - 1; i++) {
+                if (state.banned[path[i]] == stamp) {
+                    shared++;
+                }
+            }
+            if (shared > maxShared) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private YenState acquire() {
+        YenState state = states.poll();
+        if (state == null) {
+            state = new YenState(graph.nodeCount());
+        }
+        return state;
+    }
+
+    private int indexOf(NodeADT node) {
+        int index = graph.indexOf(node.getId());
+        if (index < 0) {
+            throw new IllegalArgumentException("Node " + node.getId() + " is not in the graph");
+        }
+        return index;
+    }
+
+    /**
+     * Candidate
+     *
+     * A path with the cost of reaching each of its stations, and the position
+     * it left the path it was spurred from.
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+        private final int[] path;
+        private final int[] costs;
+        private final int deviation;
+
+        Candidate(int[] path, int[] costs, int deviation) {
+            this.path = path;
+            this.costs = costs;
+            this.deviation = deviation;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int byCost = Integer.compare(costs[costs.length - 1], other.costs[other.costs.length - 1]);
+            return byCost != 0 ? byCost : Integer.compare(path.length, other.path.length);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Candidate && Arrays.equals(path, ((Candidate) other).path);
+        }
+
+        @Override
+        public int hashCode() { return Arrays.hashCode(path); }
+    }
+
+    /**
+     * YenState
+     *
+     * Everything one query writes to: the backward tree, the context of the
+     * spur searches, and the stamped bans.
+     */
+    private static final class YenState {
+        private final SearchContext toGoal;
+        private final SearchContext search;
+        private final int[] banned;
+        private final int[] bannedNext;
+        private int stamp;
+
+        YenState(int size) {
+            this.toGoal = new SearchContext(size);
+            this.search = new SearchContext(size);
+            this.banned = new int[size];
+            this.bannedNext = new int[size];
+        }
+
+        int nextStamp() {
+            stamp++;
+            if (stamp == Integer.MAX_VALUE) {
+                Arrays.fill(banned, 0);
+                Arrays.fill(bannedNext, 0);
+                stamp = 1;
+            }
+            return stamp;
+        }
+    }
+}
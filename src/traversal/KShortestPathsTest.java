@@ -0,0 +1,90 @@
+package traversal;
+
+import benchmark.MapGenerator;
+import graph.*;
+import org.junit.Test;
+import parser.MetroMapParser;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class KShortestPathsTest {
+
+    MetroMapParser mp = new MetroMapParser();
+    GraphADT graph = mp.parse(new File("testfile"));
+    List<NodeADT> nodes = graph.getNodes();
+    KShortestPaths search = new KShortestPaths(graph);
+
+    private NodeADT node(String id) {
+        return nodes.get(search.getGraph().indexOf(id));
+    }
+
+    /**
+     * From 1 to 6 there are only the Blue shortcut and the way round Orange, and the second
+     * shares stations 2 and 5 with the first.
+     * */
+    @Test
+    public void testAlternativesOnTestfile(){
+        List<ArrayList<NodeADT>> paths = search.findPaths(node("1"), node("6"), 3);
+        assertEquals(2, paths.size());
+        assertEquals(4, paths.get(0).size());
+        assertEquals("Node5", paths.get(0).get(2).getName());
+        assertEquals(6, paths.get(1).size());
+
+        assertEquals(1, search.findPaths(node("1"), node("6"), 3, 1).size());
+        assertEquals(2, search.findPaths(node("1"), node("6"), 3, 2).size());
+        assertEquals(paths.get(0), search.findPath(node("1"), node("6")));
+        assertThrows(IllegalArgumentException.class, () -> search.findPaths(node("1"), node("6"), 0));
+    }
+
+    /**
+     * On a generated map the paths should be distinct, loopless and in order of cost, the first
+     * as cheap as Dijkstra's, and alternatives should keep to the sharing limit.
+     * */
+    @Test
+    public void testPathsOnGeneratedMap() throws Exception {
+        GraphADT generated = mp.parse(MapGenerator.temporaryMap(500));
+        CompactGraph compact = CompactGraph.from(generated);
+        KShortestPaths yen = new KShortestPaths(compact, generated.getNodes());
+        DijkstraSearch dijkstra = new DijkstraSearch(compact, generated.getNodes());
+        Random random = new Random(308);
+        for(int query = 0; query < 20; query++){
+            int source = random.nextInt(compact.nodeCount());
+            int goal = random.nextInt(compact.nodeCount());
+            List<int[]> paths = yen.shortestPaths(source, goal, 10, Integer.MAX_VALUE);
+            assertEquals(PathCosts.pathCost(compact, dijkstra.shortestPath(source, goal)), PathCosts.pathCost(compact, paths.get(0)));
+            Set<String> distinct = new HashSet<>();
+            int previous = 0;
+            for(int[] path : paths){
+                assertEquals(source, path[0]);
+                assertEquals(goal, path[path.length - 1]);
+                assertTrue(PathCosts.pathCost(compact, path) >= previous);
+                previous = PathCosts.pathCost(compact, path);
+                assertTrue(distinct.add(Arrays.toString(path)));
+                assertEquals(path.length, Arrays.stream(path).distinct().count());
+            }
+            if(source != goal){
+                assertEquals(10, paths.size());
+            }
+
+            List<int[]> apart = yen.shortestPaths(source, goal, 3, 2);
+            for(int i = 1; i < apart.size(); i++){
+                Set<Integer> first = new HashSet<>();
+                for(int node : apart.get(0)){
+                    first.add(node);
+                }
+                int shared = 0;
+                for(int j = 1; j < apart.get(i).length - 1; j++){
+                    shared += first.contains(apart.get(i)[j]) ? 1 : 0;
+                }
+                assertTrue(shared <= 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package traversal;
+
+import graph.NodeADT;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Leg
+ *
+ * One part of a route ridden on a single line, from the station where the
+ * line is boarded to the station where it is left.
+ */
+public class Leg {
+    private final String line;
+    private final List<NodeADT> stops;
+    private final int cost;
+
+    /**
+     * @param line  the name of the line ridden.
+     * @param stops the stations along the leg, including the first and last.
+     * @param cost  the total weight of the edges ridden.
+     */
+    public Leg(String line, List<NodeADT> stops, int cost) {
+        this.line = line;
+        this.stops = Collections.unmodifiableList(stops);
+        this.cost = cost;
+    }
+
+    /**
+     * Returns the name of the line ridden.
+     *
+     * @return the name of the line.
+     */
+    public String getLine() { return line; }
+
+    /**
+     * Returns the stations along the leg, including the first and last.
+     *
+     * @return the stations of the leg.
+     */
+    public List<NodeADT> getStops() { return stops; }
+
+    /**
+     * Returns the total weight of the edges ridden, not counting any change of line.
+     *
+     * @return the cost of the leg.
+     */
+    public int getCost() { return cost; }
+
+    /**
+     * Returns the station where the line is boarded.
+     *
+     * @return the first station of the leg.
+     */
+    public NodeADT getFrom() { return stops.get(0); }
+
+    /**
+     * Returns the station where the line is left.
+     *
+     * @return the last station of the leg.
+     */
+    public NodeADT getTo() { return stops.get(stops.size() - 1); }
+}
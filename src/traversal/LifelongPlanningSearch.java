@@ -0,0 +1,267 @@
+package traversal;
+
+import graph.CompactGraph;
+import graph.LiveNetwork;
+import graph.NodeADT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class implements Lifelong Planning A* (LPA*) over a LiveNetwork, so
+ * that a route that has already been found can be repaired after a disruption
+ * rather than searched for again from nothing.
+ *
+ * Each station keeps its cost g, as last worked out, and rhs, the cheapest
+ * cost offered by its incoming edges from the costs of their stations. A
+ * station where the two differ is inconsistent and waits on the queue. When
+ * edges change only the stations they arrive at are looked at again, and the
+ * search goes on from the inconsistent stations until the goal is consistent
+ * and nothing cheaper than it is left on the queue. A closure far from the
+ * route touches a handful of stations, where a new search would settle all
+ * of them within the route's cost.
+ *
+ * There are no station coordinates to give a heuristic, and landmark bounds
+ * stop being lower bounds once weights are lowered, so the heuristic is zero:
+ * a repair expands the stations whose cost changed, in order of cost.
+ *
+ * A search remembers the last source and goal it was asked for and is
+ * repaired only when asked for the same pair again; any other pair starts a
+ * new search. An instance holds the state of one route, so it must not be
+ * shared between threads; each client keeps its own, and all of them can read
+ * the same network while it changes.
+ */
+public class LifelongPlanningSearch implements Search {
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final LiveNetwork network;
+    private final CompactGraph base;
+    private final List<NodeADT> nodes;
+    private final int[] g;
+    private final int[] rhs;
+    private final IndexedMinHeap queue;
+    private LiveNetwork.Snapshot snapshot;
+    private int source = -1;
+    private int goal = -1;
+    private int expanded;
+    private boolean repaired;
+
+    /**
+     * @param network the network to be searched.
+     * @param nodes   the nodes the network's base graph was built from, where the i-th node has index i.
+     */
+    public LifelongPlanningSearch(LiveNetwork network, List<NodeADT> nodes) {
+        this.network = network;
+        this.base = network.getBase();
+        this.nodes = nodes;
+        this.g = new int[base.nodeCount()];
+        this.rhs = new int[base.nodeCount()];
+        this.queue = new IndexedMinHeap(base.nodeCount());
+    }
+
+    /**
+     * findPath
+     *
+     * Finds the cheapest open path between two nodes on the network as it is
+     * now. An empty list is returned if the goal cannot be reached.
+     *
+     * @param source the source Node.
+     * @param goal   the Destination node.
+     * @return A path between the two nodes.
+     */
+    public ArrayList<NodeADT> findPath(NodeADT source, NodeADT goal) {
+        int[] indices = shortestPath(indexOf(source), indexOf(goal));
+        ArrayList<NodeADT> path = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            path.add(nodes.get(index));
+        }
+        return path;
+    }
+
+    /**
+     * shortestPath
+     *
+     * Finds the cheapest open path between two node indices on the current
+     * snapshot of the network. If the same pair was asked for last time, the
+     * previous search is repaired from the edges changed since; otherwise, or
+     * if the network has changed too often since to remember, a new search is
+     * started.
+     *
+     * @param source the index of the source node.
+     * @param goal   the index of the destination node.
+     * @return the node indices along the path, or an empty array if there is no path.
+     */
+    public int[] shortestPath(int source, int goal) {
+        LiveNetwork.Snapshot latest = network.current();
+        int[] changed = null;
+        if (snapshot != null && source == this.source && goal == this.goal) {
+            changed = latest.changesSince(snapshot.getVersion());
+        }
+        snapshot = latest;
+        expanded = 0;
+        repaired = changed != null;
+        if (changed == null) {
+            start(source, goal);
+        } else {
+            for (int e : changed) {
+                updateStation(base.target(e));
+            }
+        }
+        computeShortestPath();
+        return pathTo(goal);
+    }
+
+    private void start(int source, int goal) {
+        this.source = source;
+        this.goal = goal;
+        Arrays.fill(g, UNREACHED);
+        Arrays.fill(rhs, UNREACHED);
+        queue.clear();
+        rhs[source] = 0;
+        queue.push(source, 0);
+    }
+
+    /**
+     * computeShortestPath
+     *
+     * Takes the cheapest inconsistent station off the queue until the goal is
+     * consistent and no cheaper station is left. A station whose cost has
+     * fallen is given its new cost and offers it on to the stations it leads
+     * to. A station whose cost has risen is reset to unreached, so that it and
+     * every station that was relying on it work their costs out again.
+     */
+    private void computeShortestPath() {
+        while (!queue.isEmpty()
+                && (queue.peekKey() < Math.min(g[goal], rhs[goal]) || g[goal] != rhs[goal])) {
+            int u = queue.pop();
+            expanded++;
+            if (g[u] > rhs[u]) {
+                g[u] = rhs[u];
+                for (int e = base.edgeStart(u); e < base.edgeEnd(u); e++) {
+                    int weight = snapshot.weight(e);
+                    int v = base.target(e);
+                    if (weight != LiveNetwork.CLOSED && v != source && g[u] + weight < rhs[v]) {
+                        rhs[v] = g[u] + weight;
+                        queueIfInconsistent(v);
+                    }
+                }
+            } else {
+                int previous = g[u];
+                g[u] = UNREACHED;
+                updateStation(u);
+                for (int e = base.edgeStart(u); e < base.edgeEnd(u); e++) {
+                    int weight = snapshot.weight(e);
+                    // Only a station whose cheapest offer came from u needs to look again.
+                    if (weight == LiveNetwork.CLOSED || rhs[base.target(e)] == previous + weight) {
+                        updateStation(base.target(e));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * updateStation
+     *
+     * Works out the rhs of a station again from its incoming open edges, and
+     * puts it on the queue if it is now inconsistent, or takes it off if not.
+     *
+     * @param v the index of the station.
+     */
+    private void updateStation(int v) {
+        if (v != source) {
+            int best = UNREACHED;
+            for (int i = network.inStart(v); i < network.inEnd(v); i++) {
+                int e = network.inEdge(i);
+                int weight = snapshot.weight(e);
+                int from = network.edgeSource(e);
+                if (weight != LiveNetwork.CLOSED && g[from] != UNREACHED && g[from] + weight < best) {
+                    best = g[from] + weight;
+                }
+            }
+            rhs[v] = best;
+        }
+        queueIfInconsistent(v);
+    }
+
+    private void queueIfInconsistent(int v) {
+        if (g[v] != rhs[v]) {
+            queue.update(v, Math.min(g[v], rhs[v]));
+        } else {
+            queue.remove(v);
+        }
+    }
+
+    /**
+     * pathTo
+     *
+     * Follows the cheapest open incoming edges back from a station to the
+     * source. Every weight is positive, so each step back is to a cheaper station.
+     *
+     * @param node the index of the station.
+     * @return the node indices from the source to the station, or an empty array if it is unreached.
+     */
+    private int[] pathTo(int node) {
+        if (g[node] == UNREACHED) {
+            return new int[0];
+        }
+        int[] reversed = new int[16];
+        int length = 0;
+        reversed[length++] = node;
+        while (node != source) {
+            int next = -1;
+            for (int i = network.inStart(node); i < network.inEnd(node) && next < 0; i++) {
+                int e = network.inEdge(i);
+                int from = network.edgeSource(e);
+                int weight = snapshot.weight(e);
+                if (weight != LiveNetwork.CLOSED && g[from] != UNREACHED && g[from] + weight == g[node]) {
+                    next = from;
+                }
+            }
+            if (next < 0 || length == base.nodeCount()) {
+                throw new IllegalStateException("The search left no path back from station " + base.getId(node));
+            }
+            node = next;
+            if (length == reversed.length) {
+                reversed = Arrays.copyOf(reversed, length * 2);
+            }
+            reversed[length++] = node;
+        }
+        int[] path = new int[length];
+        for (int i = 0; i < length; i++) {
+            path[i] = reversed[length - 1 - i];
+        }
+        return path;
+    }
+
+    /**
+     * Returns the number of stations taken off the queue by the last call,
+     * which for a repair is the work the disruption cost.
+     *
+     * @return the number of stations expanded.
+     */
+    public int getExpandedCount() { return expanded; }
+
+    /**
+     * Returns true if the last call repaired the previous search rather than starting a new one.
+     *
+     * @return true if the last route was repaired.
+     */
+    public boolean wasRepaired() { return repaired; }
+
+    /**
+     * Returns the network being searched.
+     *
+     * @return the live network.
+     */
+    public LiveNetwork getNetwork() { return network; }
+
+    private int indexOf(NodeADT node) {
+        int index = base.indexOf(node.getId());
+        if (index < 0) {
+            throw new IllegalArgumentException("Node " + node.getId() + " is not in the graph");
+        }
+        return index;
+    }
+}
@@ -0,0 +1,114 @@
+package traversal;
+
+import graph.*;
+import org.junit.Test;
+import parser.MetroMapParser;
+import java.io.File;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class LifelongPlanningSearchTest {
+
+    MetroMapParser mp = new MetroMapParser();
+    GraphADT graph = mp.parse(new File("testfile"));
+    CompactGraph compact = CompactGraph.from(graph);
+    List<NodeADT> nodes = graph.getNodes();
+    LiveNetwork network = new LiveNetwork(compact);
+    LifelongPlanningSearch search = new LifelongPlanningSearch(network, nodes);
+
+    private int[] route(String source, String goal) {
+        int[] indices = search.shortestPath(compact.indexOf(source), compact.indexOf(goal));
+        int[] ids = new int[indices.length];
+        for(int i = 0; i < indices.length; i++){
+            ids[i] = Integer.parseInt(compact.getId(indices[i]));
+        }
+        return ids;
+    }
+
+    private int[] dijkstra(String source, String goal) {
+        DijkstraSearch dijkstra = new DijkstraSearch(network.current().getGraph(), nodes);
+        int[] indices = dijkstra.shortestPath(compact.indexOf(source), compact.indexOf(goal));
+        int[] ids = new int[indices.length];
+        for(int i = 0; i < indices.length; i++){
+            ids[i] = Integer.parseInt(compact.getId(indices[i]));
+        }
+        return ids;
+    }
+
+    /**
+     * Closing the Blue edge should send the route round Orange, and reopening it should bring it back,
+     * both by repairing the first search.
+     * */
+    @Test
+    public void testRepairAfterClosingEdge(){
+        assertArrayEquals(new int[]{1, 2, 5}, route("1", "5"));
+        assertFalse(search.wasRepaired());
+
+        network.closeEdge("2", "5");
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5}, route("1", "5"));
+        assertTrue(search.wasRepaired());
+        assertArrayEquals(dijkstra("1", "5"), route("1", "5"));
+
+        network.reopenEdge("2", "5");
+        assertArrayEquals(new int[]{1, 2, 5}, route("1", "5"));
+        assertTrue(search.wasRepaired());
+    }
+
+    /**
+     * A closed station should cut off the stations only reached through it, and a raised weight
+     * should be avoided, matching a new Dijkstra search over the open graph.
+     * */
+    @Test
+    public void testClosedStationAndWeightChange(){
+        assertArrayEquals(new int[]{1, 2, 5, 6}, route("1", "6"));
+
+        network.closeStation("5");
+        assertEquals(0, route("1", "6").length);
+        assertEquals(0, dijkstra("1", "6").length);
+
+        network.reopenStation("5");
+        network.setEdgeWeight("2", "5", 50);
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5, 6}, route("1", "6"));
+        assertArrayEquals(dijkstra("1", "6"), route("1", "6"));
+        assertThrows(IllegalArgumentException.class, () -> network.setEdgeWeight("1", "6", 5));
+    }
+
+    /**
+     * A snapshot taken before a change should not see it.
+     * */
+    @Test
+    public void testSnapshotsAreUnchanged(){
+        LiveNetwork.Snapshot before = network.current();
+        network.closeStation("2");
+
+        assertEquals(compact.edgeCount(), before.getGraph().edgeCount());
+        assertTrue(network.current().getGraph().edgeCount() < compact.edgeCount());
+        assertEquals(1, network.current().getVersion());
+        assertEquals(0, network.current().changesSince(1).length);
+        assertNull(network.current().changesSince(-LiveNetwork.CHANGE_LOG_LENGTH));
+    }
+
+    /**
+     * Changes made in a batch should be published as one snapshot, and be repaired together.
+     * */
+    @Test
+    public void testBatchPublishesOnce(){
+        assertArrayEquals(new int[]{1, 2, 5, 6}, route("1", "6"));
+        LiveNetwork.Snapshot before = network.current();
+
+        network.batch(() -> {
+            network.closeEdge("2", "5");
+            network.setEdgeWeight("3", "4", 5);
+            assertSame(before, network.current());
+        });
+
+        assertEquals(1, network.current().getVersion());
+        assertEquals(2, network.current().changesSince(0).length);
+        assertEquals(5, network.current().weight(network.current().changesSince(0)[1]));
+        assertEquals(10, before.weight(network.current().changesSince(0)[1]));
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5, 6}, route("1", "6"));
+        assertTrue(search.wasRepaired());
+        assertArrayEquals(dijkstra("1", "6"), route("1", "6"));
+    }
+}
@@ -0,0 +1,360 @@
+package traversal;
+
+import graph.CompactGraph;
+
+import java.util.Arrays;
+
+/**
+ * OverlayPartition
+ *
+ * A nested partition of the stations into cells on several levels, for
+ * customizable route planning. Level 0 has the smallest cells, and every cell
+ * of a level lies wholly inside one cell of the level above.
+ *
+ * The partition depends only on which stations are linked, not on the weights
+ * of the links, so it is built once for a map and kept however often the line
+ * weights change; see CustomizedOverlay for the part that depends on them.
+ *
+ * Cells are made by recursive bisection: the stations of a part are ordered by
+ * a breadth first search from a station on its edge, and the part is cut in
+ * two halves of that order, until it is no bigger than the cells of a level.
+ * Halves of a breadth first order are compact regions with short borders.
+ *
+ * A station is a boundary station of a level if it has a link, in either
+ * direction, to a station in another cell of that level. Boundary stations of
+ * a level are also boundary stations of every level below it.
+ */
+public class OverlayPartition {
+    /** The most stations in a cell of each level, from the bottom, when none are given. */
+    private static final int[] DEFAULT_CELL_SIZES = {256, 4096, 65536};
+    /** The fewest cells a default level must have to be worth its matrices. */
+    private static final int MIN_DEFAULT_CELLS = 16;
+
+    private final int size;
+    private final int edgeCount;
+    private final int[][] cells;
+    private final int[] cellCounts;
+    private final int[][] boundaryStarts;
+    private final int[][] boundaryNodes;
+    private final int[][] boundaryIndex;
+    private long buildMillis;
+
+    private OverlayPartition(int size, int edgeCount, int[][] cells, int[] cellCounts) {
+        this.size = size;
+        this.edgeCount = edgeCount;
+        this.cells = cells;
+        this.cellCounts = cellCounts;
+        this.boundaryStarts = new int[cells.length][];
+        this.boundaryNodes = new int[cells.length][];
+        this.boundaryIndex = new int[cells.length][];
+    }
+
+    /**
+     * build
+     *
+     * Partitions the stations of the graph into cells of the default sizes,
+     * leaving out the levels that would have fewer than MIN_DEFAULT_CELLS
+     * cells. Crossing one of a handful of large cells saves little, while
+     * customizing it costs a search over most of the graph from each of its
+     * many boundary stations.
+     *
+     * @param graph the graph to be partitioned.
+     * @return the partition.
+     */
+    public static OverlayPartition build(CompactGraph graph) {
+        int levels = 0;
+        while (levels < DEFAULT_CELL_SIZES.length
+                && (long) DEFAULT_CELL_SIZES[levels] * MIN_DEFAULT_CELLS <= graph.nodeCount()) {
+            levels++;
+        }
+        return build(graph, Arrays.copyOf(DEFAULT_CELL_SIZES, levels));
+    }
+
+    /**
+     * build
+     *
+     * Partitions the stations of the graph into cells of at most the given
+     * sizes. Levels whose cells could hold the whole graph are left out.
+     *
+     * @param graph     the graph to be partitioned.
+     * @param cellSizes the most stations in a cell of each level, smallest first.
+     * @return the partition.
+     */
+    public static OverlayPartition build(CompactGraph graph, int... cellSizes) {
+        for (int l = 0; l < cellSizes.length; l++) {
+            if (cellSizes[l] < 1 || l > 0 && cellSizes[l] <= cellSizes[l - 1]) {
+                throw new IllegalArgumentException("Cell sizes must be positive and increasing: "
+                        + Arrays.toString(cellSizes));
+            }
+        }
+        long start = System.nanoTime();
+        int n = graph.nodeCount();
+        int levels = 0;
+        while (levels < cellSizes.length && cellSizes[levels] < n) {
+            levels++;
+        }
+        OverlayPartition partition = new Bisection(graph, Arrays.copyOf(cellSizes, levels)).run();
+        partition.findBoundaries(graph);
+        partition.buildMillis = (System.nanoTime() - start) / 1_000_000;
+        return partition;
+    }
+
+    /**
+     * Returns the number of levels of cells.
+     *
+     * @return the number of levels.
+     */
+    public int levelCount() { return cells.length; }
+
+    /**
+     * Returns the number of cells on a level.
+     *
+     * @param level the level, from 0 for the smallest cells.
+     * @return the number of cells.
+     */
+    public int cellCount(int level) { return cellCounts[level]; }
+
+    /**
+     * Returns the cell a station is in on a level.
+     *
+     * @param level the level, from 0 for the smallest cells.
+     * @param node  the node index.
+     * @return the cell of the node.
+     */
+    public int cellOf(int level, int node) { return cells[level][node]; }
+
+    /**
+     * Returns the number of boundary stations on a level.
+     *
+     * @param level the level, from 0 for the smallest cells.
+     * @return the number of boundary stations.
+     */
+    public int boundaryCount(int level) { return boundaryNodes[level].length; }
+
+    /**
+     * Returns the number of stations the partition was built for.
+     *
+     * @return the number of stations.
+     */
+    public int size() { return size; }
+
+    /**
+     * Returns how long the partition took to build.
+     *
+     * @return the build time in milliseconds.
+     */
+    public long getBuildMillis() { return buildMillis; }
+
+    /**
+     * Returns true if the graph has the stations and links this partition was
+     * built for, whatever their weights.
+     *
+     * @param graph the graph to check.
+     * @return true if the partition fits the graph.
+     */
+    public boolean fits(CompactGraph graph) {
+        return graph.nodeCount() == size && graph.edgeCount() == edgeCount;
+    }
+
+    // The boundary stations of each cell, for CustomizedOverlay and OverlaySearch.
+    int[] cells(int level) { return cells[level]; }
+
+    int boundaryStart(int level, int cell) { return boundaryStarts[level][cell]; }
+
+    int boundaryEnd(int level, int cell) { return boundaryStarts[level][cell + 1]; }
+
+    int boundaryNode(int level, int position) { return boundaryNodes[level][position]; }
+
+    /**
+     * Returns the position of a station among the boundary stations of its cell, or -1 if it is not one.
+     */
+    int boundaryIndex(int level, int node) { return boundaryIndex[level][node]; }
+
+    /**
+     * findBoundaries
+     *
+     * Finds the boundary stations of every level and groups them by cell.
+     *
+     * @param graph the graph that was partitioned.
+     */
+    private void findBoundaries(CompactGraph graph) {
+        for (int l = 0; l < cells.length; l++) {
+            int[] cell = cells[l];
+            boolean[] boundary = new boolean[size];
+            for (int v = 0; v < size; v++) {
+                for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                    int w = graph.target(e);
+                    if (cell[w] != cell[v]) {
+                        boundary[v] = true;
+                        boundary[w] = true;
+                    }
+                }
+            }
+            int[] starts = new int[cellCounts[l] + 1];
+            for (int v = 0; v < size; v++) {
+                if (boundary[v]) {
+                    starts[cell[v] + 1]++;
+                }
+            }
+            for (int c = 0; c < cellCounts[l]; c++) {
+                starts[c + 1] += starts[c];
+            }
+            int[] nodes = new int[starts[cellCounts[l]]];
+            int[] index = new int[size];
+            int[] filled = Arrays.copyOf(starts, cellCounts[l]);
+            for (int v = 0; v < size; v++) {
+                if (boundary[v]) {
+                    index[v] = filled[cell[v]] - starts[cell[v]];
+                    nodes[filled[cell[v]]++] = v;
+                } else {
+                    index[v] = -1;
+                }
+            }
+            boundaryStarts[l] = starts;
+            boundaryNodes[l] = nodes;
+            boundaryIndex[l] = index;
+        }
+    }
+
+    /**
+     * Bisection
+     *
+     * The state of one partitioning: the links of the graph in both directions,
+     * and an order of the stations in which every part being cut, and so every
+     * cell, is a contiguous range.
+     */
+    private static final class Bisection {
+        private final int[] cellSizes;
+        private final int n;
+        private final int edgeCount;
+        private final int[] adjacencyStarts;
+        private final int[] adjacency;
+        private final int[] order;
+        private final int[] part;
+        private final int[] visited;
+        private final int[] queue;
+        private final int[][] cells;
+        private final int[] cellCounts;
+        private int parts;
+        private int stamp;
+
+        Bisection(CompactGraph graph, int[] cellSizes) {
+            this.cellSizes = cellSizes;
+            this.n = graph.nodeCount();
+            this.edgeCount = graph.edgeCount();
+            this.adjacencyStarts = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                    adjacencyStarts[v + 1]++;
+                    adjacencyStarts[graph.target(e) + 1]++;
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                adjacencyStarts[v + 1] += adjacencyStarts[v];
+            }
+            this.adjacency = new int[adjacencyStarts[n]];
+            int[] filled = Arrays.copyOf(adjacencyStarts, n);
+            for (int v = 0; v < n; v++) {
+                for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                    adjacency[filled[v]++] = graph.target(e);
+                    adjacency[filled[graph.target(e)]++] = v;
+                }
+            }
+            this.order = new int[n];
+            for (int v = 0; v < n; v++) {
+                order[v] = v;
+            }
+            this.part = new int[n];
+            this.visited = new int[n];
+            this.queue = new int[n];
+            this.cells = new int[cellSizes.length][n];
+            this.cellCounts = new int[cellSizes.length];
+        }
+
+        OverlayPartition run() {
+            split(0, n, cellSizes.length);
+            return new OverlayPartition(n, edgeCount, cells, cellCounts);
+        }
+
+        /**
+         * split
+         *
+         * Makes the range of the order a cell of every level whose cells it
+         * fits, below the level of the part it was cut from, and cuts it in two
+         * while it is bigger than the smallest cells.
+         *
+         * @param from  the start of the range.
+         * @param to    the end of the range.
+         * @param above the lowest level the range is already a cell of, or the level count.
+         */
+        private void split(int from, int to, int above) {
+            int level = above;
+            while (level > 0 && to - from <= cellSizes[level - 1]) {
+                level--;
+                int cell = cellCounts[level]++;
+                for (int i = from; i < to; i++) {
+                    cells[level][order[i]] = cell;
+                }
+            }
+            if (level == 0 || to - from <= 1) {
+                return;
+            }
+            orderByDistance(from, to);
+            int middle = (from + to) >>> 1;
+            split(from, middle, level);
+            split(middle, to, level);
+        }
+
+        /**
+         * orderByDistance
+         *
+         * Reorders the range by a breadth first search, within the range, from a
+         * station found by searching once from its first station and taking the
+         * last station reached, which lies on the edge of the part. A part that
+         * is not connected is searched one piece after another.
+         */
+        private void orderByDistance(int from, int to) {
+            int label = ++parts;
+            for (int i = from; i < to; i++) {
+                part[order[i]] = label;
+            }
+            int edge = breadthFirst(order[from], from, to, label, false);
+            breadthFirst(edge, from, to, label, true);
+        }
+
+        /**
+         * Searches the part breadth first from a station, then from each station
+         * not yet reached, returning the last station reached, and writing the
+         * order reached in over the range if asked to.
+         */
+        private int breadthFirst(int start, int from, int to, int label, boolean reorder) {
+            int mark = ++stamp;
+            int head = 0;
+            int tail = 0;
+            int next = from;
+            queue[tail++] = start;
+            visited[start] = mark;
+            while (tail < to - from) {
+                if (head == tail) {
+                    while (visited[order[next]] == mark) {
+                        next++;
+                    }
+                    queue[tail++] = order[next];
+                    visited[order[next]] = mark;
+                }
+                int v = queue[head++];
+                for (int a = adjacencyStarts[v]; a < adjacencyStarts[v + 1]; a++) {
+                    int w = adjacency[a];
+                    if (part[w] == label && visited[w] != mark) {
+                        visited[w] = mark;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+            if (reorder) {
+                System.arraycopy(queue, 0, order, from, to - from);
+            }
+            return queue[tail - 1];
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package traversal;
+
+import graph.CompactGraph;
+import graph.GraphADT;
+import graph.NodeADT;
+import graph.WeightProfile;
+import metrics.SearchMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+
+/**
+ * This class implements customizable route planning: Dijkstra's algorithm on
+ * the overlay of a CustomizedOverlay instead of on every station.
+ *
+ * Near the source and the goal the search follows the links of the graph.
+ * Everywhere else it works on the highest level whose cell holds neither the
+ * source nor the goal: from a boundary station it crosses the whole cell at
+ * once through the cell's matrix, or leaves the cell by one of its links. The
+ * route found is then unpacked, each crossing of a cell by a search inside the
+ * cell, into every station along it.
+ *
+ * The partition is built once. When the line weights change, customize builds
+ * new matrices over the same partition in the background of running queries,
+ * which keep the overlay they started with and see the new one from their next
+ * query on.
+ *
+ * Like DijkstraSearch, the graph is only read and each query borrows its own
+ * state, so one OverlaySearch can be shared by several threads.
+ */
+
+public class OverlaySearch implements Search, Instrumented {
+    private final List<NodeADT> nodes;
+    private final ArrayBlockingQueue<OverlayState> states;
+    private volatile CustomizedOverlay overlay;
+    private volatile SearchMetrics metrics;
+
+    public OverlaySearch(GraphADT graph) {
+        this(CompactGraph.from(graph), graph.getNodes());
+    }
+
+    /**
+     * Partitions the graph with the default cell sizes and customizes it for its weights.
+     *
+     * @param graph the compact graph to be searched.
+     * @param nodes the nodes the compact graph was built from, where the i-th node has index i.
+     */
+    public OverlaySearch(CompactGraph graph, List<NodeADT> nodes) {
+        this(CustomizedOverlay.customize(OverlayPartition.build(graph), graph), nodes);
+    }
+
+    /**
+     * @param overlay the customized overlay to be searched.
+     * @param nodes   the nodes the overlay's graph was built from, where the i-th node has index i.
+     */
+    public OverlaySearch(CustomizedOverlay overlay, List<NodeADT> nodes) {
+        this.overlay = overlay;
+        this.nodes = nodes;
+        this.states = new ArrayBlockingQueue<>(Math.max(1, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * findPath
+     *
+     * Finds the cheapest path between two nodes. An empty list is returned if
+     * the goal cannot be reached from the source.
+     *
+     * @param source the source Node.
+     * @param goal   the Destination node.
+     * @return A path between the two nodes.
+     */
+    public ArrayList<NodeADT> findPath(NodeADT source, NodeADT goal) {
+        int[] indices = shortestPath(indexOf(source), indexOf(goal));
+        ArrayList<NodeADT> path = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            path.add(nodes.get(index));
+        }
+        return path;
+    }
+
+    /**
+     * shortestPath
+     *
+     * Finds the cheapest path between two node indices of the compact graph.
+     *
+     * @param source the index of the source node.
+     * @param goal   the index of the destination node.
+     * @return the node indices along the path, or an empty array if there is no path.
+     */
+    public int[] shortestPath(int source, int goal) {
+        SearchMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        CustomizedOverlay overlay = this.overlay;
+        OverlayState state = acquire(overlay.getGraph().nodeCount());
+        try {
+            int[] path = search(overlay, source, goal, state);
+            if (metrics != null) {
+                SearchContext context = state.search;
+                metrics.record(context.settledCount(), context.relaxedCount(), context.peakAgendaSize(),
+                        path.length, System.nanoTime() - start);
+            }
+            return path;
+        } finally {
+            states.offer(state);
+        }
+    }
+
+    /**
+     * customize
+     *
+     * Customizes the overlay again for new line weights, keeping the partition,
+     * and answers every later query with it.
+     *
+     * @param profile the profile giving the weight of each line.
+     * @return the new overlay.
+     */
+    public CustomizedOverlay customize(WeightProfile profile) {
+        CustomizedOverlay customized = overlay.customize(profile);
+        overlay = customized;
+        return customized;
+    }
+
+    /**
+     * Returns the overlay queries are answered with.
+     *
+     * @return the current overlay.
+     */
+    public CustomizedOverlay getOverlay() { return overlay; }
+
+    /**
+     * Sets where the queries of this search are recorded from now on.
+     *
+     * @param metrics the metrics to record into, or null to stop recording.
+     */
+    @Override
+    public void setMetrics(SearchMetrics metrics) { this.metrics = metrics; }
+
+    private int[] search(CustomizedOverlay overlay, int source, int goal, OverlayState state) {
+        CompactGraph graph = overlay.getGraph();
+        OverlayPartition partition = overlay.getPartition();
+        SearchContext context = state.search;
+        int[] via = state.via;
+        context.reset();
+        context.reach(source, 0, -1);
+        via[source] = -1;
+
+        while (!context.agendaIsEmpty()) {
+            int selected = context.settleNext();
+            if (selected == goal) {
+                return unpack(overlay, context.pathTo(goal), state);
+            }
+            int level = queryLevel(partition, selected, source, goal);
+            int selectedCost = context.cost(selected);
+            int[] cells = null;
+            if (level >= 0) {
+                overlay.relaxClique(level, selected, selectedCost, context, via);
+                cells = partition.cells(level);
+            }
+            context.countRelaxed(graph.edgeEnd(selected) - graph.edgeStart(selected));
+            for (int e = graph.edgeStart(selected); e < graph.edgeEnd(selected); e++) {
+                int next = graph.target(e);
+                // Inside a cell the matrix already holds the way across.
+                if (cells != null && cells[next] == cells[selected]) {
+                    continue;
+                }
+                int nextCost = selectedCost + graph.weight(e);
+                if (!context.isSettled(next) && nextCost < context.cost(next)) {
+                    context.reach(next, nextCost, selected);
+                    via[next] = -1;
+                }
+            }
+        }
+        return new int[0];
+    }
+
+    /**
+     * queryLevel
+     *
+     * Returns the highest level on which the node's cell holds neither the
+     * source nor the goal, or -1 if there is none and the node's own links
+     * must be followed. Cells are nested, so every level below it also keeps
+     * the node apart from both.
+     */
+    private static int queryLevel(OverlayPartition partition, int node, int source, int goal) {
+        for (int l = partition.levelCount() - 1; l >= 0; l--) {
+            int[] cells = partition.cells(l);
+            if (cells[node] != cells[source] && cells[node] != cells[goal]) {
+                return l;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * unpack
+     *
+     * Replaces each crossing of a cell on the overlay path by the stations
+     * along the cheapest route inside the cell, found by a search that stays
+     * inside it.
+     *
+     * @param overlay the overlay that was searched.
+     * @param path    the overlay path.
+     * @param state   the state of the query.
+     * @return every station along the path.
+     */
+    private int[] unpack(CustomizedOverlay overlay, int[] path, OverlayState state) {
+        CompactGraph graph = overlay.getGraph();
+        OverlayPartition partition = overlay.getPartition();
+        SearchContext context = state.unpack;
+        int[] full = new int[path.length];
+        int length = 0;
+        full[length++] = path[0];
+        for (int i = 1; i < path.length; i++) {
+            int level = state.via[path[i]];
+            if (level < 0) {
+                full = ensure(full, length + 1);
+                full[length++] = path[i];
+                continue;
+            }
+            int[] cells = partition.cells(level);
+            int cell = cells[path[i - 1]];
+            context.reset();
+            context.reach(path[i - 1], 0, -1);
+            while (!context.agendaIsEmpty()) {
+                int selected = context.settleNext();
+                if (selected == path[i]) {
+                    break;
+                }
+                int selectedCost = context.cost(selected);
+                for (int e = graph.edgeStart(selected); e < graph.edgeEnd(selected); e++) {
+                    int next = graph.target(e);
+                    int nextCost = selectedCost + graph.weight(e);
+                    if (cells[next] == cell && !context.isSettled(next) && nextCost < context.cost(next)) {
+                        context.reach(next, nextCost, selected);
+                    }
+                }
+            }
+            int[] inside = context.pathTo(path[i]);
+            full = ensure(full, length + inside.length - 1);
+            System.arraycopy(inside, 1, full, length, inside.length - 1);
+            length += inside.length - 1;
+        }
+        return Arrays.copyOf(full, length);
+    }
+
+    private static int[] ensure(int[] array, int length) {
+        return length <= array.length ? array : Arrays.copyOf(array, Math.max(length, array.length * 2));
+    }
+
+    private OverlayState acquire(int size) {
+        OverlayState state = states.poll();
+        if (state == null || state.via.length != size) {
+            state = new OverlayState(size);
+        }
+        return state;
+    }
+
+    private int indexOf(NodeADT node) {
+        int index = overlay.getGraph().indexOf(node.getId());
+        if (index < 0) {
+            throw new IllegalArgumentException("Node " + node.getId() + " is not in the graph");
+        }
+        return index;
+    }
+
+    /**
+     * OverlayState
+     *
+     * Everything one query writes to: the context of the overlay search, the
+     * level of the matrix each station was reached through, or -1 for a link,
+     * and the context of the searches that unpack the route.
+     */
+    private static final class OverlayState {
+        private final SearchContext search;
+        private final SearchContext unpack;
+        private final int[] via;
+
+        OverlayState(int size) {
+            this.search = new SearchContext(size);
+            this.unpack = new SearchContext(size);
+            this.via = new int[size];
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package traversal;
+
+import benchmark.MapGenerator;
+import graph.*;
+import org.junit.Test;
+import parser.MetroMapParser;
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class OverlaySearchTest {
+
+    MetroMapParser mp = new MetroMapParser();
+
+    private static void assertSameCosts(CompactGraph graph, OverlaySearch overlay, List<NodeADT> nodes){
+        DijkstraSearch dijkstra = new DijkstraSearch(graph, nodes);
+        Random random = new Random(308);
+        for(int query = 0; query < 200; query++){
+            int source = random.nextInt(graph.nodeCount());
+            int goal = random.nextInt(graph.nodeCount());
+            int[] expected = dijkstra.shortestPath(source, goal);
+            int[] found = overlay.shortestPath(source, goal);
+            assertEquals(expected.length == 0, found.length == 0);
+            if(found.length > 0){
+                assertEquals(source, found[0]);
+                assertEquals(goal, found[found.length - 1]);
+                assertEquals(PathCosts.pathCost(graph, expected), PathCosts.pathCost(graph, found));
+            }
+        }
+    }
+
+    /**
+     * On a generated map partitioned into three levels, every route should cost the same as Dijkstra's,
+     * before and after the line weights are customized again.
+     * */
+    @Test
+    public void testMatchesDijkstraAcrossCustomizations() throws Exception {
+        GraphADT generated = mp.parse(MapGenerator.temporaryMap(2000));
+        CompactGraph graph = CompactGraph.from(generated);
+        OverlayPartition partition = OverlayPartition.build(graph, 16, 128, 1024);
+        assertEquals(3, partition.levelCount());
+        assertTrue(partition.cellCount(0) > partition.cellCount(1));
+
+        OverlaySearch overlay = new OverlaySearch(CustomizedOverlay.customize(partition, graph), generated.getNodes());
+        assertSameCosts(graph, overlay, generated.getNodes());
+
+        Map<String, Integer> weights = new HashMap<>();
+        weights.put(graph.getLineName(0), 40);
+        weights.put(graph.getLineName(1), 3);
+        WeightProfile profile = WeightProfile.of(weights, WeightProfile.DEFAULT);
+        CustomizedOverlay customized = overlay.customize(profile);
+        assertSame(partition, customized.getPartition());
+        assertSameCosts(graph.withWeights(profile), overlay, generated.getNodes());
+    }
+
+    /**
+     * On the test file, which fits in one cell, the overlay search should still find Dijkstra's route.
+     * */
+    @Test
+    public void testSmallGraph(){
+        GraphADT graph = mp.parse(new File("testfile"));
+        OverlaySearch overlay = new OverlaySearch(graph);
+        assertEquals(new DijkstraSearch(graph).findPath(graph.getNodes().get(0), graph.getNodes().get(5)),
+                overlay.findPath(graph.getNodes().get(0), graph.getNodes().get(5)));
+    }
+}
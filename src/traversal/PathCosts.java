@@ -0,0 +1,64 @@
+package traversal;
+
+import graph.CompactGraph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PathCosts
+ *
+ * Checks shared by the tests of the searches that return paths as arrays of
+ * node indices.
+ */
+final class PathCosts {
+
+    /**
+     * A search answering the path between two nodes, such as shortestPath of DijkstraSearch.
+     */
+    interface PathFinder {
+        int[] shortestPath(int source, int goal);
+    }
+
+    private PathCosts() {
+    }
+
+    /**
+     * Returns the cost of a path, taking the cheapest edge between each pair of stations.
+     *
+     * @param graph the graph the path runs over.
+     * @param path  the node indices of the path, in order.
+     * @return the cost of the path.
+     */
+    static int pathCost(CompactGraph graph, int[] path) {
+        int total = 0;
+        for (int i = 1; i < path.length; i++) {
+            int cheapest = Integer.MAX_VALUE;
+            for (int e = graph.edgeStart(path[i - 1]); e < graph.edgeEnd(path[i - 1]); e++) {
+                if (graph.target(e) == path[i]) {
+                    cheapest = Math.min(cheapest, graph.weight(e));
+                }
+            }
+            total += cheapest;
+        }
+        return total;
+    }
+
+    /**
+     * Checks that the route between every pair of stations runs between the two
+     * and costs the same as the cheapest route in the table.
+     *
+     * @param graph  the graph the routes run over.
+     * @param table  the cheapest cost between every pair of stations.
+     * @param search the search under test.
+     */
+    static void assertCheapestRoutes(CompactGraph graph, RouteTable table, PathFinder search) {
+        for (int s = 0; s < graph.nodeCount(); s++) {
+            for (int g = 0; g < graph.nodeCount(); g++) {
+                int[] path = search.shortestPath(s, g);
+                assertEquals(s, path[0]);
+                assertEquals(g, path[path.length - 1]);
+                assertEquals(table.distance(s, g), pathCost(graph, path));
+            }
+        }
+    }
+}
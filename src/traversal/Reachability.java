@@ -0,0 +1,186 @@
+package traversal;
+
+import graph.CompactGraph;
+import graph.NodeADT;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reachability
+ *
+ * Finds every station that can be reached from a source within a budget, with
+ * one Dijkstra expansion that never puts a station over the budget on the
+ * agenda and so stops on its own at the edge of the budget, rather than one
+ * findPath for each station.
+ *
+ * Many sources are expanded in parallel on a fork-join pool, each borrowing a
+ * context from the search's pool, like BatchSearch.
+ */
+public class Reachability {
+    private static final int SOURCES_PER_TASK = 4;
+
+    private final DijkstraSearch search;
+    private final CompactGraph graph;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param search the search whose graph and contexts are used.
+     */
+    public Reachability(DijkstraSearch search) {
+        this(search, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param search the search whose graph and contexts are used.
+     * @param pool   the pool the sources are expanded on.
+     */
+    public Reachability(DijkstraSearch search, ForkJoinPool pool) {
+        this.search = search;
+        this.graph = search.getGraph();
+        this.pool = pool;
+    }
+
+    /**
+     * within
+     *
+     * Finds every station that can be reached from the source for at most the budget.
+     *
+     * @param source the source Node.
+     * @param budget the most a route may cost.
+     * @return the reachable stations and their costs.
+     */
+    public Isochrone within(NodeADT source, int budget) {
+        return within(indexOf(source), budget);
+    }
+
+    /**
+     * within
+     *
+     * Finds every node index that can be reached from the source for at most the budget.
+     *
+     * @param source the index of the source node.
+     * @param budget the most a route may cost.
+     * @return the reachable node indices and their costs.
+     */
+    public Isochrone within(int source, int budget) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("The budget must not be negative, not " + budget);
+        }
+        SearchContext context = search.getContexts().acquire();
+        try {
+            return expand(source, budget, context);
+        } finally {
+            search.getContexts().release(context);
+        }
+    }
+
+    /**
+     * within
+     *
+     * Finds the reachable node indices for each source in parallel, returning
+     * once every source has been expanded.
+     *
+     * @param sources the index of each source node.
+     * @param budget  the most a route may cost.
+     * @return the isochrone of the i-th source at position i.
+     */
+    public Isochrone[] within(int[] sources, int budget) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("The budget must not be negative, not " + budget);
+        }
+        Isochrone[] isochrones = new Isochrone[sources.length];
+        pool.invoke(new SourceTask(sources, budget, isochrones, 0, sources.length));
+        return isochrones;
+    }
+
+    /**
+     * expand
+     *
+     * Settles the nodes in order of cost from the source, offering a neighbour
+     * a path only if it is within the budget.
+     *
+     * @param source  the index of the source node.
+     * @param budget  the most a route may cost.
+     * @param context a context for the graph, reset here.
+     * @return the reachable node indices and their costs.
+     */
+    private Isochrone expand(int source, int budget, SearchContext context) {
+        context.reset();
+        context.reach(source, 0, -1);
+        while (!context.agendaIsEmpty()) {
+            int selected = context.settleNext();
+            int selectedCost = context.cost(selected);
+            context.countRelaxed(graph.edgeEnd(selected) - graph.edgeStart(selected));
+            for (int e = graph.edgeStart(selected); e < graph.edgeEnd(selected); e++) {
+                int next = graph.target(e);
+                int nextCost = selectedCost + graph.weight(e);
+                if (nextCost <= budget && !context.isSettled(next) && nextCost < context.cost(next)) {
+                    context.reach(next, nextCost, selected);
+                }
+            }
+        }
+
+        BitSet reachable = new BitSet(graph.nodeCount());
+        int[] costs = new int[graph.nodeCount()];
+        Arrays.fill(costs, RouteTable.UNREACHABLE);
+        for (int i = 0; i < context.settledCount(); i++) {
+            int node = context.settledNode(i);
+            reachable.set(node);
+            costs[node] = context.cost(node);
+        }
+        return new Isochrone(source, budget, reachable, costs);
+    }
+
+    /**
+     * SourceTask
+     *
+     * Expands a range of sources, splitting the range in half until it is small
+     * enough to expand directly.
+     */
+    private class SourceTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] sources;
+        private final int budget;
+        private final Isochrone[] isochrones;
+        private final int from;
+        private final int to;
+
+        SourceTask(int[] sources, int budget, Isochrone[] isochrones, int from, int to) {
+            this.sources = sources;
+            this.budget = budget;
+            this.isochrones = isochrones;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SOURCES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SourceTask(sources, budget, isochrones, from, middle),
+                        new SourceTask(sources, budget, isochrones, middle, to));
+                return;
+            }
+            SearchContext context = search.getContexts().acquire();
+            try {
+                for (int i = from; i < to; i++) {
+                    isochrones[i] = expand(sources[i], budget, context);
+                }
+            } finally {
+                search.getContexts().release(context);
+            }
+        }
+    }
+
+    private int indexOf(NodeADT node) {
+        int index = graph.indexOf(node.getId());
+        if (index < 0) {
+            throw new IllegalArgumentException("Node " + node.getId() + " is not in the graph");
+        }
+        return index;
+    }
+}
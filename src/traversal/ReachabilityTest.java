@@ -0,0 +1,63 @@
+package traversal;
+
+import benchmark.MapGenerator;
+import graph.*;
+import org.junit.Test;
+import parser.MetroMapParser;
+import java.io.File;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class ReachabilityTest {
+
+    MetroMapParser mp = new MetroMapParser();
+    GraphADT graph = mp.parse(new File("testfile"));
+    List<NodeADT> nodes = graph.getNodes();
+    DijkstraSearch dijkstra = new DijkstraSearch(graph);
+    CompactGraph compact = dijkstra.getGraph();
+    Reachability reachability = new Reachability(dijkstra);
+
+    /**
+     * From Node1 within 25, Node2, Node3 and Node5 (over Blue) can be reached, but not Node4 or Node6.
+     * */
+    @Test
+    public void testWithinBudget(){
+        Isochrone isochrone = reachability.within(nodes.get(compact.indexOf("1")), 25);
+        assertEquals(4, isochrone.size());
+        assertEquals(0, isochrone.cost(compact.indexOf("1")));
+        assertEquals(22, isochrone.cost(compact.indexOf("5")));
+        assertTrue(isochrone.isReachable(compact.indexOf("3")));
+        assertFalse(isochrone.isReachable(compact.indexOf("4")));
+        assertEquals(RouteTable.UNREACHABLE, isochrone.cost(compact.indexOf("6")));
+
+        assertEquals(6, reachability.within(compact.indexOf("1"), 34).size());
+        assertEquals(1, reachability.within(compact.indexOf("1"), 0).size());
+        assertThrows(IllegalArgumentException.class, () -> reachability.within(0, -1));
+    }
+
+    /**
+     * Many sources expanded in parallel should give the same costs as Dijkstra for every node within the budget.
+     * */
+    @Test
+    public void testParallelMatchesDijkstra() throws Exception {
+        GraphADT generated = mp.parse(MapGenerator.temporaryMap(400));
+        DijkstraSearch search = new DijkstraSearch(generated);
+        CompactGraph g = search.getGraph();
+        int[] sources = new int[40];
+        for(int i = 0; i < sources.length; i++){
+            sources[i] = (i * 37) % g.nodeCount();
+        }
+        Isochrone[] isochrones = new Reachability(search).within(sources, 100);
+        SearchContext context = new SearchContext(g.nodeCount());
+        for(int i = 0; i < sources.length; i++){
+            context.reset();
+            search.shortestPathTree(sources[i], context);
+            for(int node = 0; node < g.nodeCount(); node++){
+                boolean within = context.cost(node) <= 100;
+                assertEquals(within, isochrones[i].isReachable(node));
+                assertEquals(within ? context.cost(node) : RouteTable.UNREACHABLE, isochrones[i].cost(node));
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package traversal;
+
+import graph.CompactGraph;
+import graph.EdgeADT;
+import graph.NodeADT;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Route
+ *
+ * The answer to a query as the legs ridden on each line, in order, with the
+ * cost of each, so that it can be shown without looking up the line of any
+ * edge again. A route with no legs means there is no way to the goal, or that
+ * the source is the goal.
+ */
+public class Route {
+    private static final Route EMPTY = new Route(Collections.emptyList());
+
+    private final List<Leg> legs;
+    private final int cost;
+
+    /**
+     * @param legs the legs of the route, in order, each starting where the last one ended.
+     */
+    public Route(List<Leg> legs) {
+        this.legs = Collections.unmodifiableList(legs);
+        int total = 0;
+        for (Leg leg : legs) {
+            total += leg.getCost();
+        }
+        this.cost = total;
+    }
+
+    /**
+     * Returns a route with no legs.
+     *
+     * @return the empty route.
+     */
+    public static Route empty() { return EMPTY; }
+
+    /**
+     * fromPath
+     *
+     * Splits a path of nodes into legs. Each step is put on the line of an
+     * edge between its two stations, keeping the line of the step before when
+     * it has such an edge, so that no change of line is made that is not
+     * needed. Lines are compared by their IDs, and the edges of each station
+     * are scanned once.
+     *
+     * @param path the stations along the path.
+     * @return the route.
+     */
+    public static Route fromPath(List<NodeADT> path) {
+        if (path.size() < 2) {
+            return EMPTY;
+        }
+        String[] lines = new String[path.size() - 1];
+        int[] weights = new int[path.size() - 1];
+        int current = -1;
+        for (int i = 0; i + 1 < path.size(); i++) {
+            EdgeADT chosen = null;
+            for (EdgeADT edge : path.get(i).getEdges()) {
+                if (edge.getNode().equals(path.get(i + 1))
+                        && (chosen == null || edge.getLineId() == current && chosen.getLineId() != current)) {
+                    chosen = edge;
+                }
+            }
+            if (chosen == null) {
+                throw new IllegalArgumentException("No edge from " + path.get(i).getId() + " to " + path.get(i + 1).getId());
+            }
+            current = chosen.getLineId();
+            lines[i] = chosen.getLine();
+            weights[i] = chosen.getWeight();
+        }
+        return group(path, lines, weights);
+    }
+
+    /**
+     * fromPath
+     *
+     * Splits a path of node indices of a compact graph into legs, choosing the
+     * line of each step the same way as fromPath(List).
+     *
+     * @param graph the compact graph the path was found in.
+     * @param nodes the nodes the compact graph was built from, where the i-th node has index i.
+     * @param path  the node indices along the path.
+     * @return the route.
+     */
+    public static Route fromPath(CompactGraph graph, List<NodeADT> nodes, int[] path) {
+        if (path.length < 2) {
+            return EMPTY;
+        }
+        List<NodeADT> stations = new ArrayList<>(path.length);
+        String[] lines = new String[path.length - 1];
+        int[] weights = new int[path.length - 1];
+        int current = -1;
+        stations.add(nodes.get(path[0]));
+        for (int i = 0; i + 1 < path.length; i++) {
+            int chosen = -1;
+            for (int e = graph.edgeStart(path[i]); e < graph.edgeEnd(path[i]); e++) {
+                if (graph.target(e) == path[i + 1]
+                        && (chosen < 0 || graph.line(e) == current && graph.line(chosen) != current)) {
+                    chosen = e;
+                }
+            }
+            current = graph.line(chosen);
+            lines[i] = graph.getLineName(current);
+            weights[i] = graph.weight(chosen);
+            stations.add(nodes.get(path[i + 1]));
+        }
+        return group(stations, lines, weights);
+    }
+
+    /**
+     * Groups the steps of a path into legs wherever the line changes.
+     */
+    private static Route group(List<NodeADT> stations, String[] lines, int[] weights) {
+        List<Leg> legs = new ArrayList<>();
+        int start = 0;
+        int cost = 0;
+        for (int i = 0; i < lines.length; i++) {
+            cost += weights[i];
+            if (i + 1 == lines.length || !lines[i + 1].equals(lines[i])) {
+                legs.add(new Leg(lines[i], new ArrayList<>(stations.subList(start, i + 2)), cost));
+                start = i + 1;
+                cost = 0;
+            }
+        }
+        return new Route(legs);
+    }
+
+    /**
+     * Returns the legs of the route, in order.
+     *
+     * @return the legs.
+     */
+    public List<Leg> getLegs() { return legs; }
+
+    /**
+     * Returns the total weight of the edges ridden, not counting any change of line.
+     *
+     * @return the cost of the route.
+     */
+    public int getCost() { return cost; }
+
+    /**
+     * Returns true if the route has no legs.
+     *
+     * @return true if there is nothing to ride.
+     */
+    public boolean isEmpty() { return legs.isEmpty(); }
+
+    /**
+     * Returns the number of stations along the route, counting each station where the line is changed once.
+     *
+     * @return the number of stations.
+     */
+    public int stationCount() {
+        int count = legs.isEmpty() ? 0 : 1;
+        for (Leg leg : legs) {
+            count += leg.getStops().size() - 1;
+        }
+        return count;
+    }
+
+    /**
+     * Returns every station along the route, each station where the line is changed once.
+     *
+     * @return the stations of the route.
+     */
+    public List<NodeADT> getStations() {
+        List<NodeADT> stations = new ArrayList<>(stationCount());
+        for (Leg leg : legs) {
+            List<NodeADT> stops = leg.getStops();
+            stations.addAll(stations.isEmpty() ? stops : stops.subList(1, stops.size()));
+        }
+        return stations;
+    }
+}
@@ -0,0 +1,302 @@
+package traversal;
+
+import graph.CompactGraph;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * RouteTable
+ *
+ * The cheapest cost and the first station to travel to for every pair of
+ * stations, so a route can be answered by following next hops with no search.
+ *
+ * The table is built by running a full Dijkstra search from every station,
+ * split across a fork-join pool. Both matrices are flat int arrays of
+ * nodeCount * nodeCount entries, row by source station, which limits the table
+ * to graphs of at most 46340 stations.
+ */
+public class RouteTable {
+    /** Cost of a pair with no route between them. */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final int MAGIC = 0x52544231; // "RTB1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 8;
+    private static final int SOURCES_PER_TASK = 8;
+
+    private final int size;
+    private final long fingerprint;
+    private final int[] distances;
+    private final int[] nextHops;
+    private long buildMillis;
+
+    private RouteTable(int size, long fingerprint, int[] distances, int[] nextHops) {
+        this.size = size;
+        this.fingerprint = fingerprint;
+        this.distances = distances;
+        this.nextHops = nextHops;
+    }
+
+    /**
+     * build
+     *
+     * Builds the table for a graph using every core of the common fork-join pool.
+     *
+     * @param graph the graph to be tabled.
+     * @return the route table.
+     */
+    public static RouteTable build(CompactGraph graph) {
+        return build(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * build
+     *
+     * Builds the table for a graph, running the search from each station as part
+     * of a task in the given pool.
+     *
+     * @param graph the graph to be tabled.
+     * @param pool  the pool to run the searches in.
+     * @return the route table.
+     */
+    public static RouteTable build(CompactGraph graph, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        int n = graph.nodeCount();
+        if ((long) n * n > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("A route table cannot hold " + n + " stations");
+        }
+        RouteTable table = new RouteTable(n, graph.fingerprint(), new int[n * n], new int[n * n]);
+        DijkstraSearch search = new DijkstraSearch(graph, null);
+        SearchContextPool contexts = new SearchContextPool(n, pool.getParallelism());
+        pool.invoke(new BuildTask(table, search, contexts, 0, n));
+        table.buildMillis = (System.nanoTime() - start) / 1_000_000;
+        return table;
+    }
+
+    /**
+     * BuildTask
+     *
+     * Fills the rows of the table for a range of source stations, splitting the
+     * range in half until it is small enough to search directly.
+     */
+    private static class BuildTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RouteTable table;
+        private final DijkstraSearch search;
+        private final SearchContextPool contexts;
+        private final int from;
+        private final int to;
+
+        BuildTask(RouteTable table, DijkstraSearch search, SearchContextPool contexts, int from, int to) {
+            this.table = table;
+            this.search = search;
+            this.contexts = contexts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SOURCES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BuildTask(table, search, contexts, from, middle),
+                        new BuildTask(table, search, contexts, middle, to));
+                return;
+            }
+            SearchContext context = contexts.acquire();
+            try {
+                for (int source = from; source < to; source++) {
+                    context.reset();
+                    search.shortestPathTree(source, context);
+                    table.fillRow(source, context);
+                }
+            } finally {
+                contexts.release(context);
+            }
+        }
+    }
+
+    /**
+     * fillRow
+     *
+     * Copies the costs of a finished search into the table, and works out the
+     * first hop to each station. Stations are visited in the order they were
+     * settled, so the first hop of the station before each one is already known.
+     *
+     * @param source  the source station of the search.
+     * @param context the context holding the finished search.
+     */
+    private void fillRow(int source, SearchContext context) {
+        int row = source * size;
+        java.util.Arrays.fill(distances, row, row + size, UNREACHABLE);
+        java.util.Arrays.fill(nextHops, row, row + size, -1);
+        for (int i = 0; i < context.settledCount(); i++) {
+            int node = context.settledNode(i);
+            int previous = context.previous(node);
+            distances[row + node] = context.cost(node);
+            if (previous == -1 || previous == source) {
+                nextHops[row + node] = node;
+            } else {
+                nextHops[row + node] = nextHops[row + previous];
+            }
+        }
+    }
+
+    /**
+     * Returns the number of stations in the table.
+     *
+     * @return the number of stations in the table.
+     */
+    public int size() { return size; }
+
+    /**
+     * Returns the fingerprint of the graph the table was built for.
+     *
+     * @return the fingerprint of the graph.
+     */
+    public long getFingerprint() { return fingerprint; }
+
+    /**
+     * Returns how long the table took to build, or 0 if it was loaded from a file.
+     *
+     * @return the build time in milliseconds.
+     */
+    public long getBuildMillis() { return buildMillis; }
+
+    /**
+     * Returns the memory held by the two matrices, in bytes.
+     *
+     * @return the size of the table in bytes.
+     */
+    public long sizeInBytes() { return 8L * distances.length; }
+
+    /**
+     * Returns the cost of the cheapest route between two stations.
+     *
+     * @param source the index of the source station.
+     * @param goal   the index of the destination station.
+     * @return the cost of the route, or UNREACHABLE.
+     */
+    public int distance(int source, int goal) { return distances[source * size + goal]; }
+
+    /**
+     * Returns the first station to travel to from the source towards the goal.
+     *
+     * @param source the index of the source station.
+     * @param goal   the index of the destination station.
+     * @return the index of the next station, the goal itself if source equals goal, or -1 if there is no route.
+     */
+    public int nextHop(int source, int goal) { return nextHops[source * size + goal]; }
+
+    /**
+     * path
+     *
+     * Follows next hops from the source until the goal is reached. Every hop
+     * lowers the remaining cost, so the walk always ends.
+     *
+     * @param source the index of the source station.
+     * @param goal   the index of the destination station.
+     * @return the station indices along the route, or an empty array if there is none.
+     */
+    public int[] path(int source, int goal) {
+        if (distance(source, goal) == UNREACHABLE) {
+            return new int[0];
+        }
+        int length = 1;
+        for (int i = source; i != goal; i = nextHop(i, goal)) {
+            length++;
+        }
+        int[] path = new int[length];
+        int i = source;
+        for (int p = 0; p < length; p++) {
+            path[p] = i;
+            i = nextHop(i, goal);
+        }
+        return path;
+    }
+
+    /**
+     * save
+     *
+     * Writes the table to a file: a header holding a magic number, the format
+     * version, the graph fingerprint, the number of stations and the build time,
+     * followed by the distance matrix and the next-hop matrix.
+     *
+     * @param f the file to be written.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(File f) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(f, "rw"); FileChannel channel = file.getChannel()) {
+            file.setLength(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(fingerprint).putInt(size).putLong(buildMillis);
+            header.flip();
+            channel.write(header);
+            IntChannels.writeInts(channel, distances);
+            IntChannels.writeInts(channel, nextHops);
+        }
+    }
+
+    /**
+     * load
+     *
+     * Reads a table written by save().
+     *
+     * @param f the file to be read.
+     * @return the route table.
+     * @throws IOException if the file cannot be read or is not a route table.
+     */
+    public static RouteTable load(File f) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(f, "r"); FileChannel channel = file.getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            IntChannels.readFully(channel, header);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException(f + " is not a route table this version can read");
+            }
+            long fingerprint = header.getLong();
+            int size = header.getInt();
+            long buildMillis = header.getLong();
+            if (channel.size() != HEADER_BYTES + 8L * size * size) {
+                throw new IOException(f + " is not the length of a route table for " + size + " stations");
+            }
+            RouteTable table = new RouteTable(size, fingerprint, IntChannels.readInts(channel, size * size),
+                    IntChannels.readInts(channel, size * size));
+            table.buildMillis = buildMillis;
+            return table;
+        }
+    }
+
+    /**
+     * loadOrBuild
+     *
+     * Loads the table from a file if it was built for this graph, otherwise
+     * builds it and saves it to the file.
+     *
+     * @param graph the graph the table is for.
+     * @param f     the file the table is kept in.
+     * @return the route table.
+     * @throws IOException if the table cannot be saved.
+     */
+    public static RouteTable loadOrBuild(CompactGraph graph, File f) throws IOException {
+        if (f.exists()) {
+            try {
+                RouteTable table = load(f);
+                if (table.fingerprint == graph.fingerprint() && table.size == graph.nodeCount()) {
+                    return table;
+                }
+            } catch (IOException e) {
+                // An unreadable table is rebuilt below.
+            }
+        }
+        RouteTable table = build(graph);
+        table.save(f);
+        return table;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,83 @@
+package traversal;
+
+import graph.CompactGraph;
+import graph.GraphADT;
+import graph.NodeADT;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class answers routes from a precomputed RouteTable, following next hops
+ * from the source to the goal without searching the graph.
+ */
+public class RouteTableSearch implements Search {
+    private CompactGraph graph;
+    private List<NodeADT> nodes;
+    private RouteTable table;
+
+    /**
+     * Builds a route table for the graph and answers routes from it.
+     *
+     * @param graph the graph to be searched.
+     */
+    public RouteTableSearch(GraphADT graph) {
+        this(CompactGraph.from(graph), graph.getNodes());
+    }
+
+    /**
+     * @param graph the compact graph to be searched.
+     * @param nodes the nodes the compact graph was built from, where the i-th node has index i.
+     */
+    public RouteTableSearch(CompactGraph graph, List<NodeADT> nodes) {
+        this(graph, nodes, RouteTable.build(graph));
+    }
+
+    /**
+     * @param graph the compact graph to be searched.
+     * @param nodes the nodes the compact graph was built from, where the i-th node has index i.
+     * @param table a route table built for the graph, for example one loaded from a file.
+     */
+    public RouteTableSearch(CompactGraph graph, List<NodeADT> nodes, RouteTable table) {
+        if (table.getFingerprint() != graph.fingerprint()) {
+            throw new IllegalArgumentException("The route table was built for a different graph");
+        }
+        this.graph = graph;
+        this.nodes = nodes;
+        this.table = table;
+    }
+
+    /**
+     * findPath
+     *
+     * Looks up the cheapest path between two nodes. An empty list is returned if
+     * the goal cannot be reached from the source.
+     *
+     * @param source the source Node.
+     * @param goal   the Destination node.
+     * @return A path between the two nodes.
+     */
+    public ArrayList<NodeADT> findPath(NodeADT source, NodeADT goal) {
+        int[] indices = table.path(indexOf(source), indexOf(goal));
+        ArrayList<NodeADT> path = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            path.add(nodes.get(index));
+        }
+        return path;
+    }
+
+    /**
+     * Returns the table routes are answered from.
+     *
+     * @return the route table.
+     */
+    public RouteTable getTable() { return table; }
+
+    private int indexOf(NodeADT node) {
+        int index = graph.indexOf(node.getId());
+        if (index < 0) {
+            throw new IllegalArgumentException("Node " + node.getId() + " is not in the graph");
+        }
+        return index;
+    }
+}
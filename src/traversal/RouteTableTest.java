@@ -0,0 +1,64 @@
+package traversal;
+
+import graph.*;
+import org.junit.Test;
+import parser.MetroMapParser;
+import java.io.File;
+import java.io.IOException;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class RouteTableTest {
+
+    MetroMapParser mp = new MetroMapParser();
+    GraphADT graph = mp.parse(new File("testfile"));
+    CompactGraph compact = CompactGraph.from(graph);
+    DijkstraSearch dijkstra = new DijkstraSearch(compact, graph.getNodes());
+    RouteTable table = RouteTable.build(compact);
+
+    /**
+     * Every route read from the table should match the route found by searching.
+     * */
+    @Test
+    public void testMatchesDijkstra(){
+        for(int s = 0; s < compact.nodeCount(); s++){
+            for(int g = 0; g < compact.nodeCount(); g++){
+                assertArrayEquals(dijkstra.shortestPath(s, g), table.path(s, g));
+            }
+        }
+    }
+
+    /**
+     * The cost from Node1 to Node6 is Orange (10) then Blue twice (12 + 12).
+     * */
+    @Test
+    public void testDistance(){
+        int node1 = compact.indexOf("1");
+        int node6 = compact.indexOf("6");
+
+        assertEquals(34, table.distance(node1, node6));
+        assertEquals(0, table.distance(node6, node6));
+        assertEquals(compact.indexOf("2"), table.nextHop(node1, node6));
+    }
+
+    /**
+     * A table saved to a file should load with the same contents.
+     * */
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        File f = File.createTempFile("routes", ".tbl");
+        f.deleteOnExit();
+        table.save(f);
+        RouteTable loaded = RouteTable.load(f);
+
+        assertEquals(table.getFingerprint(), loaded.getFingerprint());
+        for(int s = 0; s < compact.nodeCount(); s++){
+            for(int g = 0; g < compact.nodeCount(); g++){
+                assertEquals(table.distance(s, g), loaded.distance(s, g));
+                assertEquals(table.nextHop(s, g), loaded.nextHop(s, g));
+            }
+        }
+        assertSame(graph.getNodes().get(0),
+                new RouteTableSearch(compact, graph.getNodes(), loaded).findPath(graph.getNodes().get(0), graph.getNodes().get(5)).get(0));
+    }
+}
@@ -7,5 +7,20 @@ import java.util.ArrayList;
 public interface Search {
 
     ArrayList<NodeADT> findPath(NodeADT source, NodeADT goal);
+
+    /**
+     * findRoute
+     *
+     * Finds the cheapest route between two nodes as the legs ridden on each
+     * line. Searches that know the line of each step override this; by default
+     * the lines are worked out from the edges of the path, once for each step.
+     *
+     * @param source the source Node.
+     * @param goal   the Destination node.
+     * @return the route, empty if the goal cannot be reached.
+     */
+    default Route findRoute(NodeADT source, NodeADT goal) {
+        return Route.fromPath(findPath(source, goal));
+    }
 }
 
@@ -0,0 +1,218 @@
+package traversal;
+
+/**
+ * SearchContext
+ *
+ * Holds everything a single query writes to while it searches a CompactGraph:
+ * the cost and previous node of each index, which indices have been settled,
+ * and the agenda. The graph itself is only read, so any number of contexts can
+ * search the same graph at once, one per thread.
+ *
+ * Costs and settled flags are stamped with the number of the query that wrote
+ * them, so starting a new query does not need to clear the arrays.
+ */
+public class SearchContext {
+    private final int[] cost;
+    private final int[] previous;
+    private final int[] reachedStamp;
+    private final int[] settledStamp;
+    private final int[] settledOrder;
+    private final IndexedMinHeap agenda;
+    private int stamp;
+    private int settled;
+    private long relaxed;
+    private int peakAgenda;
+
+    /**
+     * @param size the number of nodes in the graph to be searched.
+     */
+    public SearchContext(int size) {
+        this.cost = new int[size];
+        this.previous = new int[size];
+        this.reachedStamp = new int[size];
+        this.settledStamp = new int[size];
+        this.settledOrder = new int[size];
+        this.agenda = new IndexedMinHeap(size);
+    }
+
+    /**
+     * Returns the number of nodes this context can search.
+     *
+     * @return the number of nodes this context can search.
+     */
+    public int size() { return cost.length; }
+
+    /**
+     * reset
+     *
+     * Forgets the previous query so that the context can be used for a new one.
+     */
+    public void reset() {
+        stamp++;
+        if (stamp == 0) {
+            java.util.Arrays.fill(reachedStamp, 0);
+            java.util.Arrays.fill(settledStamp, 0);
+            stamp = 1;
+        }
+        agenda.clear();
+        settled = 0;
+        relaxed = 0;
+        peakAgenda = 0;
+    }
+
+    /**
+     * Returns the cost of the cheapest path found so far to a node, or
+     * Integer.MAX_VALUE if it has not been reached.
+     *
+     * @param node the node index.
+     * @return the cost of the node.
+     */
+    public int cost(int node) {
+        return reachedStamp[node] == stamp ? cost[node] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns the node before this one on the cheapest path found so far, or -1 for the source.
+     *
+     * @param node the node index.
+     * @return the previous node index.
+     */
+    public int previous(int node) { return previous[node]; }
+
+    /**
+     * Returns true if the node has been reached by this query.
+     *
+     * @param node the node index.
+     * @return true if the node has a cost.
+     */
+    public boolean isReached(int node) { return reachedStamp[node] == stamp; }
+
+    /**
+     * Returns true if the cheapest path to the node is known.
+     *
+     * @param node the node index.
+     * @return true if the node has been settled.
+     */
+    public boolean isSettled(int node) { return settledStamp[node] == stamp; }
+
+    /**
+     * Returns the number of nodes settled by this query.
+     *
+     * @return the number of nodes settled.
+     */
+    public int settledCount() { return settled; }
+
+    /**
+     * Returns the i-th node settled by this query. Nodes are settled in order of cost,
+     * so a node is always settled after the node before it on its path.
+     *
+     * @param i the position in the order, from 0 to settledCount() - 1.
+     * @return the index of the node.
+     */
+    public int settledNode(int i) { return settledOrder[i]; }
+
+    /**
+     * Returns the number of edges relaxed by this query, whether or not they led anywhere cheaper.
+     *
+     * @return the number of edges relaxed.
+     */
+    public long relaxedCount() { return relaxed; }
+
+    /**
+     * Returns the largest number of nodes that were on the agenda at once during this query.
+     *
+     * @return the peak size of the agenda.
+     */
+    public int peakAgendaSize() { return peakAgenda; }
+
+    /**
+     * Counts the edges of a settled node as relaxed. The searches call this
+     * once for each node rather than once for each edge.
+     *
+     * @param edges the number of edges relaxed.
+     */
+    void countRelaxed(int edges) { relaxed += edges; }
+
+    /**
+     * reach
+     *
+     * Records a cheaper path to a node and puts it on the agenda, or lowers its
+     * place on the agenda if it is already there.
+     *
+     * @param node     the node index.
+     * @param nodeCost the cost of the path to the node.
+     * @param from     the node before it on the path, or -1 for the source.
+     */
+    void reach(int node, int nodeCost, int from) {
+        reach(node, nodeCost, from, nodeCost);
+    }
+
+    /**
+     * reach
+     *
+     * Records a cheaper path to a node and places it on the agenda by a key other
+     * than its cost, such as its cost plus an estimate of the cost to the goal.
+     *
+     * @param node     the node index.
+     * @param nodeCost the cost of the path to the node.
+     * @param from     the node before it on the path, or -1 for the source.
+     * @param key      the key the node is ordered by on the agenda.
+     */
+    void reach(int node, int nodeCost, int from, int key) {
+        reachedStamp[node] = stamp;
+        cost[node] = nodeCost;
+        previous[node] = from;
+        agenda.push(node, key);
+        if (agenda.size() > peakAgenda) {
+            peakAgenda = agenda.size();
+        }
+    }
+
+    /**
+     * Returns true if there are no more nodes on the agenda.
+     *
+     * @return true if the agenda is empty.
+     */
+    boolean agendaIsEmpty() { return agenda.isEmpty(); }
+
+    /**
+     * Returns the lowest cost of any node on the agenda.
+     *
+     * @return the lowest cost on the agenda.
+     */
+    int agendaMinimum() { return agenda.peekKey(); }
+
+    /**
+     * settleNext
+     *
+     * Removes the cheapest node from the agenda and marks it settled.
+     *
+     * @return the index of the settled node.
+     */
+    int settleNext() {
+        int node = agenda.pop();
+        settledStamp[node] = stamp;
+        settledOrder[settled++] = node;
+        return node;
+    }
+
+    /**
+     * pathTo
+     *
+     * Follows the previous-node links back from a reached node.
+     *
+     * @param goal the index of the last node on the path.
+     * @return the node indices from the source to the goal.
+     */
+    public int[] pathTo(int goal) {
+        int length = 0;
+        for (int i = goal; i != -1; i = previous[i]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int i = goal; i != -1; i = previous[i]) {
+            path[--length] = i;
+        }
+        return path;
+    }
+}
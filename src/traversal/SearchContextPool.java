@@ -0,0 +1,61 @@
+package traversal;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * SearchContextPool
+ *
+ * A pool of SearchContexts for one graph, so that each query can borrow one
+ * instead of allocating arrays the size of the graph. Borrowing never blocks:
+ * if the pool is empty a new context is created, and contexts returned to a
+ * full pool are dropped.
+ */
+public class SearchContextPool {
+    private final ArrayBlockingQueue<SearchContext> contexts;
+    private final int graphSize;
+
+    /**
+     * @param graphSize the number of nodes in the graph the contexts will search.
+     * @param capacity  the most contexts kept for reuse.
+     */
+    public SearchContextPool(int graphSize, int capacity) {
+        this.graphSize = graphSize;
+        this.contexts = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Creates a pool that keeps one context for each available processor.
+     *
+     * @param graphSize the number of nodes in the graph the contexts will search.
+     */
+    public SearchContextPool(int graphSize) {
+        this(graphSize, Math.max(1, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * acquire
+     *
+     * Borrows a context, ready for a new query.
+     *
+     * @return a reset context.
+     */
+    public SearchContext acquire() {
+        SearchContext context = contexts.poll();
+        if (context == null) {
+            context = new SearchContext(graphSize);
+        }
+        context.reset();
+        return context;
+    }
+
+    /**
+     * release
+     *
+     * Returns a borrowed context so that it can be reused.
+     *
+     * @param context the context to be returned.
+     */
+    public void release(SearchContext context) {
+        contexts.offer(context);
+    }
+}
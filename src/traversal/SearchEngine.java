@@ -0,0 +1,77 @@
+package traversal;
+
+import graph.GraphADT;
+
+/**
+ * The search implementations that can be chosen when the program is started,
+ * so that they can be compared on the same graph.
+ */
+public enum SearchEngine {
+    UNIFORM_COST(5000) {
+        @Override
+        public Search create(GraphADT graph) { return new UniformCostSearch(graph); }
+    },
+    DIJKSTRA(Integer.MAX_VALUE) {
+        @Override
+        public Search create(GraphADT graph) { return new DijkstraSearch(graph); }
+    },
+    ROUTE_TABLE(4000) {
+        @Override
+        public Search create(GraphADT graph) { return new RouteTableSearch(graph); }
+    },
+    BIDIRECTIONAL_DIJKSTRA(Integer.MAX_VALUE) {
+        @Override
+        public Search create(GraphADT graph) { return new BidirectionalDijkstraSearch(graph); }
+    },
+    ALT(Integer.MAX_VALUE) {
+        @Override
+        public Search create(GraphADT graph) { return new AltSearch(graph); }
+    },
+    CONTRACTION_HIERARCHY(20000) {
+        @Override
+        public Search create(GraphADT graph) { return new ContractionHierarchySearch(graph); }
+    },
+    TRANSFER(Integer.MAX_VALUE) {
+        @Override
+        public Search create(GraphADT graph) { return new TransferSearch(graph); }
+    },
+    OVERLAY(200000) {
+        @Override
+        public Search create(GraphADT graph) { return new OverlaySearch(graph); }
+    };
+
+    private final int practicalLimit;
+
+    SearchEngine(int practicalLimit) {
+        this.practicalLimit = practicalLimit;
+    }
+
+    /**
+     * Creates a search of this type over the given graph.
+     *
+     * @param graph the graph to be searched.
+     * @return a new Search for the graph.
+     */
+    public abstract Search create(GraphADT graph);
+
+    /**
+     * Returns false if the engine would take too long to answer, or to be created,
+     * on a graph of this size, for example the quadratic uniform cost search,
+     * the all-pairs route table, the contraction hierarchy or the customized
+     * overlay on a very large map.
+     *
+     * @param nodeCount the number of nodes in the graph.
+     * @return true if the engine is practical for the graph.
+     */
+    public boolean isPractical(int nodeCount) { return nodeCount <= practicalLimit; }
+
+    /**
+     * Returns the engine with the given name, ignoring case and treating '-' as '_'.
+     *
+     * @param name the name of the engine, for example "dijkstra".
+     * @return the matching engine.
+     */
+    public static SearchEngine fromName(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+}
@@ -0,0 +1,212 @@
+package traversal;
+
+import graph.CompactGraph;
+import graph.GraphADT;
+import graph.LineGraph;
+import graph.NodeADT;
+import metrics.SearchMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class finds routes over the line-expanded LineGraph, where every
+ * change of line costs the transfer penalty. As the search knows which line
+ * each step is on, it can return the route as legs, one for each line ridden,
+ * without working out the lines from the edges afterwards.
+ *
+ * The search starts from every state of the source station at no cost, as no
+ * line has been boarded yet, and stops when it settles any state of the goal
+ * station.
+ */
+public class TransferSearch implements Search, Instrumented {
+    /** The transfer penalty used when none is given, about one or two stops. */
+    public static final int DEFAULT_TRANSFER_PENALTY = 20;
+
+    private CompactGraph graph;
+    private LineGraph lines;
+    private List<NodeADT> nodes;
+    private SearchContextPool contexts;
+    private volatile SearchMetrics metrics;
+
+    public TransferSearch(GraphADT graph) {
+        this(CompactGraph.from(graph), graph.getNodes(), DEFAULT_TRANSFER_PENALTY);
+    }
+
+    /**
+     * @param graph           the compact graph to be searched.
+     * @param nodes           the nodes the compact graph was built from, where the i-th node has index i.
+     * @param transferPenalty the cost of changing line at a station.
+     */
+    public TransferSearch(CompactGraph graph, List<NodeADT> nodes, int transferPenalty) {
+        this.graph = graph;
+        this.lines = LineGraph.from(graph, transferPenalty);
+        this.nodes = nodes;
+        this.contexts = new SearchContextPool(lines.stateCount());
+    }
+
+    /**
+     * findPath
+     *
+     * Finds the cheapest path between two nodes, counting the transfer penalty
+     * for each change of line. An empty list is returned if the goal cannot be
+     * reached from the source.
+     *
+     * @param source the source Node.
+     * @param goal   the Destination node.
+     * @return A path between the two nodes.
+     */
+    public ArrayList<NodeADT> findPath(NodeADT source, NodeADT goal) {
+        int[] states = shortestStates(indexOf(source), indexOf(goal));
+        ArrayList<NodeADT> path = new ArrayList<>(states.length);
+        for (int i = 0; i < states.length; i++) {
+            if (i == 0 || lines.station(states[i]) != lines.station(states[i - 1])) {
+                path.add(nodes.get(lines.station(states[i])));
+            }
+        }
+        return path;
+    }
+
+    /**
+     * findLegs
+     *
+     * Finds the cheapest route between two nodes as the legs ridden on each
+     * line. An empty list is returned if the goal cannot be reached, or if the
+     * source is the goal. The cost of each leg is read from the search, as the
+     * cost of its last state less the cost of its first.
+     *
+     * @param source the source Node.
+     * @param goal   the Destination node.
+     * @return the legs of the route, in order.
+     */
+    public List<Leg> findLegs(NodeADT source, NodeADT goal) {
+        SearchContext context = contexts.acquire();
+        try {
+            int[] states = measuredStates(indexOf(source), indexOf(goal), context);
+            List<Leg> legs = new ArrayList<>();
+            int i = 0;
+            while (i + 1 < states.length) {
+                int first = i;
+                int line = lines.line(states[i]);
+                List<NodeADT> stops = new ArrayList<>();
+                stops.add(nodes.get(lines.station(states[i])));
+                // Riding edges keep the line, a transfer edge ends the leg.
+                while (i + 1 < states.length && lines.line(states[i + 1]) == line) {
+                    i++;
+                    stops.add(nodes.get(lines.station(states[i])));
+                }
+                if (stops.size() > 1) {
+                    int cost = context.cost(states[i]) - context.cost(states[first]);
+                    legs.add(new Leg(graph.getLineName(line), stops, cost));
+                }
+                i++;
+            }
+            return legs;
+        } finally {
+            contexts.release(context);
+        }
+    }
+
+    /**
+     * findRoute
+     *
+     * Finds the cheapest route between two nodes, counting the transfer
+     * penalty for each change of line, as the legs found by findLegs.
+     *
+     * @param source the source Node.
+     * @param goal   the Destination node.
+     * @return the route, empty if the goal cannot be reached.
+     */
+    @Override
+    public Route findRoute(NodeADT source, NodeADT goal) {
+        return new Route(findLegs(source, goal));
+    }
+
+    /**
+     * shortestStates
+     *
+     * Finds the cheapest sequence of states between two stations.
+     *
+     * @param source the index of the source station.
+     * @param goal   the index of the destination station.
+     * @return the states along the route, or an empty array if there is no route.
+     */
+    public int[] shortestStates(int source, int goal) {
+        SearchContext context = contexts.acquire();
+        try {
+            return measuredStates(source, goal, context);
+        } finally {
+            contexts.release(context);
+        }
+    }
+
+    /**
+     * Finds the cheapest sequence of states with the given context, recording the query if metrics are set.
+     */
+    private int[] measuredStates(int source, int goal, SearchContext context) {
+        SearchMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        int[] path = shortestStates(source, goal, context);
+        if (metrics != null) {
+            metrics.record(context.settledCount(), context.relaxedCount(), context.peakAgendaSize(),
+                    path.length, System.nanoTime() - start);
+        }
+        return path;
+    }
+
+    /**
+     * shortestStates
+     *
+     * Finds the cheapest sequence of states between two stations using the
+     * given context, which is left holding the state of the search afterwards.
+     *
+     * @param source  the index of the source station.
+     * @param goal    the index of the destination station.
+     * @param context a reset context sized for the states of the line graph.
+     * @return the states along the route, or an empty array if there is no route.
+     */
+    public int[] shortestStates(int source, int goal, SearchContext context) {
+        for (int s = lines.stateStart(source); s < lines.stateEnd(source); s++) {
+            context.reach(s, 0, -1);
+        }
+        while (!context.agendaIsEmpty()) {
+            int selected = context.settleNext();
+            if (lines.station(selected) == goal) {
+                return context.pathTo(selected);
+            }
+            int selectedCost = context.cost(selected);
+            context.countRelaxed(lines.edgeEnd(selected) - lines.edgeStart(selected));
+            for (int e = lines.edgeStart(selected); e < lines.edgeEnd(selected); e++) {
+                int next = lines.target(e);
+                int nextCost = selectedCost + lines.weight(e);
+                if (!context.isSettled(next) && nextCost < context.cost(next)) {
+                    context.reach(next, nextCost, selected);
+                }
+            }
+        }
+        return new int[0];
+    }
+
+    /**
+     * Returns the line-expanded graph being searched.
+     *
+     * @return the line graph.
+     */
+    public LineGraph getLines() { return lines; }
+
+    /**
+     * Sets where the queries of this search are recorded from now on.
+     *
+     * @param metrics the metrics to record into, or null to stop recording.
+     */
+    @Override
+    public void setMetrics(SearchMetrics metrics) { this.metrics = metrics; }
+
+    private int indexOf(NodeADT node) {
+        int index = graph.indexOf(node.getId());
+        if (index < 0) {
+            throw new IllegalArgumentException("Node " + node.getId() + " is not in the graph");
+        }
+        return index;
+    }
+}
@@ -0,0 +1,74 @@
+package traversal;
+
+import graph.*;
+import org.junit.Test;
+import parser.MetroMapParser;
+import java.io.File;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class TransferSearchTest {
+
+    MetroMapParser mp = new MetroMapParser();
+    GraphADT graph = mp.parse(new File("testfile"));
+    CompactGraph compact = CompactGraph.from(graph);
+    List<NodeADT> nodes = graph.getNodes();
+
+    private NodeADT node(String id) {
+        return nodes.get(compact.indexOf(id));
+    }
+
+    /**
+     * Each station should have one state for each line serving it.
+     * */
+    @Test
+    public void testStatesPerLine(){
+        LineGraph lines = LineGraph.from(compact, 20);
+
+        assertEquals(8, lines.stateCount());
+        for(int v = 0; v < compact.nodeCount(); v++){
+            for(int s = lines.stateStart(v); s < lines.stateEnd(v); s++){
+                assertEquals(v, lines.station(s));
+                assertEquals(s, lines.stateOf(v, lines.line(s)));
+            }
+        }
+        assertEquals(2, lines.stateEnd(compact.indexOf("2")) - lines.stateStart(compact.indexOf("2")));
+        assertEquals(-1, lines.stateOf(compact.indexOf("1"), compact.lineIndexOf("Blue")));
+    }
+
+    /**
+     * The legs should come back with their lines, changing at the station where the line changes.
+     * */
+    @Test
+    public void testLegsRecordLines(){
+        List<Leg> legs = new TransferSearch(graph).findLegs(node("1"), node("6"));
+
+        assertEquals(2, legs.size());
+        assertEquals("Orange", legs.get(0).getLine());
+        assertEquals("Blue", legs.get(1).getLine());
+        assertSame(node("1"), legs.get(0).getFrom());
+        assertSame(node("2"), legs.get(0).getTo());
+        assertSame(node("2"), legs.get(1).getFrom());
+        assertEquals(3, legs.get(1).getStops().size());
+        assertEquals(10, legs.get(0).getCost());
+        assertEquals(24, legs.get(1).getCost());
+        assertSame(node("6"), legs.get(1).getTo());
+    }
+
+    /**
+     * Staying on the Orange line costs 40 against 22 plus a change for the Blue shortcut,
+     * so a penalty of 20 should keep the route on one line and no penalty should not.
+     * */
+    @Test
+    public void testPenaltyAvoidsTransfers(){
+        List<Leg> direct = new TransferSearch(compact, nodes, 20).findLegs(node("1"), node("5"));
+        List<Leg> shortcut = new TransferSearch(compact, nodes, 0).findLegs(node("1"), node("5"));
+
+        assertEquals(1, direct.size());
+        assertEquals(5, direct.get(0).getStops().size());
+        assertEquals(40, direct.get(0).getCost());
+        assertEquals(2, shortcut.size());
+        assertEquals(3, new TransferSearch(compact, nodes, 0).findPath(node("1"), node("5")).size());
+    }
+}
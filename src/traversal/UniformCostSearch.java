@@ -1,6 +1,7 @@
 package traversal;
 
 import graph.*;
+import metrics.SearchMetrics;
 
 import java.lang.reflect.Array;
 import java.util.*;
@@ -9,29 +10,41 @@ import java.util.*;
 /**
  * This class implements the Uniform Cost Search algorithm to find the distance between
  * two nodes in a graph.
+ *
+ * All the state of a search is kept in a Query object created for each call to
+ * findPath, and the edge weights are given by the graph's WeightProfile when
+ * the graph is built, so the graph is only read while searching and findPath
+ * can be called from several threads at once.
  */
 
-public class UniformCostSearch implements Search {
-    public HashMap<NodeADT, NodeADT> pathMap;
-    private ArrayList<NodeADT> visited;
-    private ArrayList<NodeADT> path;
-    private ArrayList<NodeADT> agenda;
+public class UniformCostSearch implements Search, Instrumented {
     private ArrayList<NodeADT> nodes;
+    private volatile SearchMetrics metrics;
 
     public UniformCostSearch(GraphADT graph) {
         this.nodes = new ArrayList<>();
         nodes.addAll(graph.getNodes());
+    }
 
-        this.pathMap = new HashMap<>();
-        this.visited = new ArrayList<>();
-        this.path = new ArrayList<>();
-        this.agenda = new ArrayList<>();
+    /**
+     * Query
+     *
+     * The structures used by a single run of the search.
+     */
+    private static class Query {
+        private HashMap<NodeADT, NodeADT> pathMap = new HashMap<>();
+        private HashMap<NodeADT, Integer> costs = new HashMap<>();
+        private ArrayList<NodeADT> visited = new ArrayList<>();
+        private ArrayList<NodeADT> path = new ArrayList<>();
+        private ArrayList<NodeADT> agenda = new ArrayList<>();
+        private long relaxed;
+        private int peakAgenda;
     }
 
     /**
      * findPath
      *
-     * A method for finding the optimal path between two nodes, resets the
+     * A method for finding the optimal path between two nodes, creates the
      * structures required for the algorithm to execute, then executes a
      * Uniform Cost Search.
      *
@@ -40,14 +53,16 @@ public class UniformCostSearch implements Search {
      * @return A path between the two nodes.
      */
     public ArrayList<NodeADT> findPath(NodeADT source, NodeADT goal) {
+        SearchMetrics metrics = this.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
         /* Initalisation of variables required for search */
-        pathMap = new HashMap<>();
-        visited = new ArrayList<>();
-        path = new ArrayList<>();
-        agenda = new ArrayList<>();
+        Query query = new Query();
+        HashMap<NodeADT, NodeADT> pathMap = query.pathMap;
+        ArrayList<NodeADT> visited = query.visited;
+        ArrayList<NodeADT> path = query.path;
+        ArrayList<NodeADT> agenda = query.agenda;
 
-        setLineWeights();
-        source.setCost(0);
+        query.costs.put(source, 0);
         boolean pathFound = false;
         ArrayList<NodeADT> nextStates;
         NodeADT selectedNode = null;
@@ -57,7 +72,7 @@ public class UniformCostSearch implements Search {
         // Search algorithm runs until a path is found
         while (!pathFound) {
             // Select minimum cost node from the current agenda
-            selectedNode = selectNode(agenda);
+            selectedNode = selectNode(query);
             visited.add(selectedNode);
             agenda.remove(selectedNode);
             // Check if the node that was selected is the correct node using ID's
@@ -66,14 +81,14 @@ public class UniformCostSearch implements Search {
                 pathFound = true;
             } else {
                 // Expands selected node and finds the next states
-                nextStates = expandNode(selectedNode);
+                nextStates = expandNode(selectedNode, query);
                 // Remove the selected node from the agenda as it's already been searched
                 agenda.remove(selectedNode);
                 // Add nonvisited children to the agenda
                 agenda.addAll(nextStates);
+                query.peakAgenda = Math.max(query.peakAgenda, agenda.size());
             }
         }
-        System.out.println("Creating Path...");
 
         // Unravel the pathmap to backtrack down the correct path
         while(path.get(path.size()-1).getName() != source.getName()) {
@@ -82,24 +97,35 @@ public class UniformCostSearch implements Search {
             path.add(temp);
         }
         Collections.reverse(path);
+        if (metrics != null) {
+            metrics.record(visited.size(), query.relaxed, query.peakAgenda, path.size(), System.nanoTime() - start);
+        }
         return path;
     }
 
+    /**
+     * Sets where the queries of this search are recorded from now on.
+     *
+     * @param metrics the metrics to record into, or null to stop recording.
+     */
+    @Override
+    public void setMetrics(SearchMetrics metrics) { this.metrics = metrics; }
+
     /**
      * selectNode
      *
      * Helper function that selects the best node to expand
      * from the current agenda.
      *
-     * @param agenda
+     * @param query the current search, containing the agenda.
      * @return The node selected for expansion.
      */
 
-    private NodeADT selectNode(ArrayList<NodeADT> agenda) {
-        NodeADT toExpand = agenda.get(0);
+    private NodeADT selectNode(Query query) {
+        NodeADT toExpand = query.agenda.get(0);
 
-        for (NodeADT node : agenda) {
-            if (node.getCost() != null) {
+        for (NodeADT node : query.agenda) {
+            if (query.costs.get(node) != null) {
                 toExpand = node;
             }
         }
@@ -111,11 +137,13 @@ public class UniformCostSearch implements Search {
      *
      * Expands the current node and returns it's children populated with their cost.
      * @param node the node to be expanded.
+     * @param query the current search.
      * @return A list of the child nodes belonging to selected parent.
      */
-    private ArrayList<NodeADT> expandNode(NodeADT node) {
+    private ArrayList<NodeADT> expandNode(NodeADT node, Query query) {
         ArrayList<NodeADT> nextStates = new ArrayList<>();
         List<EdgeADT> edges = node.getEdges();
+        query.relaxed += edges.size();
 
         // We want the resulting node for each edge.
         for (EdgeADT edge : edges) {
@@ -123,56 +151,24 @@ public class UniformCostSearch implements Search {
             NodeADT nextState = edge.getNode();
             boolean inAgenda = false;
             boolean isVisited = false;
-            for (NodeADT agendaNode : agenda) {
+            for (NodeADT agendaNode : query.agenda) {
                 if (agendaNode.getId().equals(nextState.getId())) {
                     inAgenda = true;
                 }
             }
-            for (NodeADT visitedNode : visited) {
+            for (NodeADT visitedNode : query.visited) {
                 if (visitedNode.getId().equals(nextState.getId())) {
                     isVisited = true;
                 }
             }
             if (!inAgenda && !isVisited) {
-                nextState.setCost(weight);
+                query.costs.put(nextState, weight);
                 nextStates.add(nextState);
-                this.pathMap.put(nextState, node);
+                query.pathMap.put(nextState, node);
             }
         }
         return nextStates;
     }
-
-    /**
-     * setLineWeights
-     *
-     * A helper method which populates each line with a weight based on the line that
-     * it lays on.
-     */
-
-    private void setLineWeights(){
-        //hashMap will contain all the different line names each with a unique weight
-        HashMap<String, Integer> lineTypes= new HashMap<>();
-        int newWeight = 10;
-
-        //Makes sure its decoupled i.e handles any amount of lines with any names
-        for(NodeADT node : nodes) {
-            List<String> lines = node.getLines();
-            for(String line: lines) {
-                if (lineTypes.get(line) == null) {
-                    lineTypes.put(line,newWeight);
-                    System.out.println("Line: " + line + " has an assigned weight of " + newWeight);
-                    newWeight += 2;
-                }
-            }
-        }
-        System.out.println();
-        //assigns the all the edges from each node their updated weight
-        for(NodeADT node : nodes) {
-            for(EdgeADT edge: node.getEdges()) {
-                edge.setWeight(lineTypes.get(edge.getLine()));
-            }
-        }
-    }
 }
 
 //method to return line weights
\ No newline at end of file